@@ -0,0 +1,447 @@
+package com.businesscare.config;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ConnectionPool implements DataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+    private final StatementCache.Stats statementCacheStats = new StatementCache.Stats();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition connectionReturned = lock.newCondition();
+    private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    private int openConnections;
+    private int activeConnections;
+    private int waiters;
+    private long borrowCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    private boolean closed;
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, int validationTimeoutSeconds,
+                          int statementCacheSize, boolean serverPreparedStatements) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Taille de pool invalide : min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.connectionProperties = new Properties();
+        this.connectionProperties.setProperty("user", user);
+        this.connectionProperties.setProperty("password", password);
+        if (serverPreparedStatements) {
+            this.connectionProperties.setProperty("useServerPrepStmts", "true");
+            this.connectionProperties.setProperty("cachePrepStmts", "false");
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionPeriod = Math.max(1000, idleTimeoutMillis / 2);
+        this.evictor.scheduleWithFixedDelay(this::evictIdleConnections, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+        logger.info("Pool de connexions initialisé (min={}, max={}, attente max={} ms, inactivité max={} ms, cache de requêtes={}, requêtes préparées serveur={}).",
+                minSize, maxSize, borrowTimeoutMillis, idleTimeoutMillis, statementCacheSize, serverPreparedStatements);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        PooledConnection pooled = borrow(start);
+        long waited = System.nanoTime() - start;
+        lock.lock();
+        try {
+            borrowCount++;
+            totalWaitNanos += waited;
+            maxWaitNanos = Math.max(maxWaitNanos, waited);
+        } finally {
+            lock.unlock();
+        }
+        return pooled.lease();
+    }
+
+    private PooledConnection borrow(long start) throws SQLException {
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        while (true) {
+            PooledConnection candidate = null;
+            boolean mayCreate = false;
+            lock.lock();
+            try {
+                if (closed) {
+                    throw new SQLException("Le pool de connexions est fermé.");
+                }
+                while (idleConnections.isEmpty() && openConnections >= maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLTimeoutException("Aucune connexion disponible après " + borrowTimeoutMillis + " ms (max=" + maxSize + ").");
+                    }
+                    waiters++;
+                    try {
+                        connectionReturned.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Attente d'une connexion interrompue.", e);
+                    } finally {
+                        waiters--;
+                    }
+                    if (closed) {
+                        throw new SQLException("Le pool de connexions est fermé.");
+                    }
+                }
+                if (!idleConnections.isEmpty()) {
+                    candidate = idleConnections.pollFirst();
+                } else {
+                    openConnections++;
+                    mayCreate = true;
+                }
+                activeConnections++;
+            } finally {
+                lock.unlock();
+            }
+
+            if (mayCreate) {
+                try {
+                    return new PooledConnection(DriverManager.getConnection(url, connectionProperties));
+                } catch (SQLException e) {
+                    discard(null);
+                    throw e;
+                }
+            }
+            if (isValid(candidate)) {
+                return candidate;
+            }
+            logger.warn("Connexion invalide détectée lors de l'emprunt, elle est retirée du pool.");
+            discard(candidate);
+        }
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        boolean reusable;
+        try {
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            reusable = !pooled.physical.isClosed();
+        } catch (SQLException e) {
+            logger.warn("Impossible de réinitialiser la connexion rendue au pool : {}", e.getMessage());
+            reusable = false;
+        }
+        if (!reusable) {
+            discard(pooled);
+            return;
+        }
+        lock.lock();
+        try {
+            activeConnections--;
+            if (closed) {
+                openConnections--;
+                closeQuietly(pooled);
+            } else {
+                pooled.lastReleased = System.currentTimeMillis();
+                idleConnections.addFirst(pooled);
+            }
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        lock.lock();
+        try {
+            activeConnections--;
+            openConnections--;
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (pooled != null) {
+            closeQuietly(pooled);
+        }
+    }
+
+    private void evictIdleConnections() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        int missing;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            Iterator<PooledConnection> oldestFirst = idleConnections.descendingIterator();
+            while (oldestFirst.hasNext() && openConnections > minSize) {
+                PooledConnection pooled = oldestFirst.next();
+                if (now - pooled.lastReleased >= idleTimeoutMillis) {
+                    oldestFirst.remove();
+                    openConnections--;
+                    evicted.add(pooled);
+                }
+            }
+            missing = minSize - openConnections;
+            openConnections += Math.max(0, missing);
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(this::closeQuietly);
+        if (!evicted.isEmpty()) {
+            logger.debug("{} connexion(s) inactive(s) fermée(s) par le pool.", evicted.size());
+        }
+        for (int i = 0; i < missing; i++) {
+            try {
+                PooledConnection pooled = new PooledConnection(DriverManager.getConnection(url, connectionProperties));
+                lock.lock();
+                try {
+                    pooled.lastReleased = System.currentTimeMillis();
+                    idleConnections.addLast(pooled);
+                    connectionReturned.signal();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                lock.lock();
+                try {
+                    openConnections--;
+                } finally {
+                    lock.unlock();
+                }
+                logger.warn("Impossible de compléter le pool jusqu'à la taille minimale : {}", e.getMessage());
+            }
+        }
+    }
+
+    private void closeQuietly(PooledConnection pooled) {
+        if (pooled.statementCache != null) {
+            pooled.statementCache.closeAll();
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            logger.debug("Erreur lors de la fermeture d'une connexion du pool : {}", e.getMessage());
+        }
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            return new PoolStats(activeConnections, idleConnections.size(), waiters, openConnections,
+                    borrowCount, TimeUnit.NANOSECONDS.toMillis(totalWaitNanos), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public StatementCache.Stats getStatementCacheStats() {
+        return statementCacheStats;
+    }
+
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayList<>(idleConnections);
+            openConnections -= idleConnections.size();
+            idleConnections.clear();
+            connectionReturned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+        toClose.forEach(this::closeQuietly);
+        logger.info("Pool de connexions fermé.");
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Le pool utilise les identifiants de database.properties.");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("ConnectionPool n'implémente pas " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private long lastReleased;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = statementCacheSize > 0 ? new StatementCache(physical, statementCacheSize, statementCacheStats) : null;
+        }
+
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new LeaseHandler(this));
+        }
+    }
+
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connexion déjà rendue au pool.");
+            }
+            if (pooled.statementCache != null && "prepareStatement".equals(method.getName())
+                    && args != null && args.length == 1 && args[0] instanceof String) {
+                return pooled.statementCache.prepare((String) args[0], (Connection) proxy);
+            }
+            Object result;
+            try {
+                result = method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return StatementCache.ownedBy((Statement) result, method.getReturnType(), (Connection) proxy);
+            }
+            return result;
+        }
+    }
+
+    public static final class PoolStats {
+        private final int active;
+        private final int idle;
+        private final int waiters;
+        private final int open;
+        private final long borrowCount;
+        private final long totalWaitMillis;
+        private final long maxWaitMillis;
+
+        private PoolStats(int active, int idle, int waiters, int open, long borrowCount, long totalWaitMillis, long maxWaitMillis) {
+            this.active = active;
+            this.idle = idle;
+            this.waiters = waiters;
+            this.open = open;
+            this.borrowCount = borrowCount;
+            this.totalWaitMillis = totalWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getWaiters() { return waiters; }
+        public int getOpen() { return open; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getTotalWaitMillis() { return totalWaitMillis; }
+        public long getMaxWaitMillis() { return maxWaitMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("actives=%d, inactives=%d, en attente=%d, ouvertes=%d, emprunts=%d, attente totale=%d ms, attente max=%d ms",
+                    active, idle, waiters, open, borrowCount, totalWaitMillis, maxWaitMillis);
+        }
+    }
+}
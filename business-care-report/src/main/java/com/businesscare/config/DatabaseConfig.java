@@ -2,10 +2,11 @@ package com.businesscare.config;
 
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 
+import javax.sql.DataSource;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,6 +17,17 @@ public class DatabaseConfig {
     private static String dbUrl;
     private static String dbUser;
     private static String dbPassword;
+    private static int poolMinSize = 1;
+    private static int poolMaxSize = 8;
+    private static long poolBorrowTimeoutMs = 10_000;
+    private static long poolIdleTimeoutMs = 300_000;
+    private static int poolValidationTimeoutSec = 2;
+    private static int statementCacheSize = 64;
+    private static boolean serverPreparedStatements = true;
+    private static int samplingSize = 2000;
+    private static int samplingStrata = 16;
+
+    private static ConnectionPool pool;
 
     static {
         try (InputStream input = DatabaseConfig.class.getClassLoader().getResourceAsStream(PROPERTIES_FILE)) {
@@ -28,6 +40,15 @@ public class DatabaseConfig {
                 dbUrl = props.getProperty("db.url");
                 dbUser = props.getProperty("db.user");
                 dbPassword = props.getProperty("db.password");
+                poolMinSize = Integer.parseInt(props.getProperty("db.pool.minSize", String.valueOf(poolMinSize)));
+                poolMaxSize = Integer.parseInt(props.getProperty("db.pool.maxSize", String.valueOf(poolMaxSize)));
+                poolBorrowTimeoutMs = Long.parseLong(props.getProperty("db.pool.borrowTimeoutMs", String.valueOf(poolBorrowTimeoutMs)));
+                poolIdleTimeoutMs = Long.parseLong(props.getProperty("db.pool.idleTimeoutMs", String.valueOf(poolIdleTimeoutMs)));
+                poolValidationTimeoutSec = Integer.parseInt(props.getProperty("db.pool.validationTimeoutSec", String.valueOf(poolValidationTimeoutSec)));
+                statementCacheSize = Integer.parseInt(props.getProperty("db.statementCache.size", String.valueOf(statementCacheSize)));
+                serverPreparedStatements = Boolean.parseBoolean(props.getProperty("db.statementCache.serverPrepared", String.valueOf(serverPreparedStatements)));
+                samplingSize = Integer.parseInt(props.getProperty("report.sampling.size", String.valueOf(samplingSize)));
+                samplingStrata = Integer.parseInt(props.getProperty("report.sampling.strata", String.valueOf(samplingStrata)));
                 logger.info("Configuration de la base de données chargée depuis {}", PROPERTIES_FILE);
             }
         } catch (Exception e) {
@@ -37,15 +58,49 @@ public class DatabaseConfig {
     }
 
     public static Connection getConnection() throws SQLException {
+        return getPool().getConnection();
+    }
+
+    public static DataSource getDataSource() throws SQLException {
+        return getPool();
+    }
+
+    public static synchronized ConnectionPool.PoolStats getPoolStats() {
+        return pool == null ? null : pool.getStats();
+    }
+
+    public static synchronized StatementCache.Stats getStatementCacheStats() {
+        return pool == null ? null : pool.getStatementCacheStats();
+    }
+
+    public static int getPoolMaxSize() {
+        return poolMaxSize;
+    }
+
+    public static int getSamplingSize() {
+        return samplingSize;
+    }
+
+    public static int getSamplingStrata() {
+        return samplingStrata;
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    private static synchronized ConnectionPool getPool() throws SQLException {
         if (dbUrl == null || dbUser == null || dbPassword == null) {
             throw new SQLException("La configuration de la base de données n'a pas été correctement chargée. Vérifiez le fichier " + PROPERTIES_FILE);
         }
-        
-        
-        
-        
-        
-        
-        return DriverManager.getConnection(dbUrl, dbUser, dbPassword);
-    }
-}
\ No newline at end of file
+        if (pool == null) {
+            pool = new ConnectionPool(dbUrl, dbUser, dbPassword, poolMinSize, poolMaxSize,
+                    poolBorrowTimeoutMs, poolIdleTimeoutMs, poolValidationTimeoutSec,
+                    statementCacheSize, serverPreparedStatements);
+        }
+        return pool;
+    }
+}
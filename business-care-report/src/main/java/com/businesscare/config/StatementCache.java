@@ -0,0 +1,240 @@
+package com.businesscare.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class StatementCache {
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+    private final Connection connection;
+    private final int maxSize;
+    private final Stats stats;
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    public StatementCache(Connection connection, int maxSize, Stats stats) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.stats = stats;
+    }
+
+    public synchronized PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && cached.statement.isClosed()) {
+            statements.remove(sql);
+            cached = null;
+        }
+        if (cached != null) {
+            if (cached.inUse) {
+                stats.bypasses.incrementAndGet();
+                return (PreparedStatement) ownedBy(connection.prepareStatement(sql), PreparedStatement.class, owner);
+            }
+            stats.hits.incrementAndGet();
+            cached.inUse = true;
+            return cached.lease(owner);
+        }
+        stats.misses.incrementAndGet();
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            cached = new CachedStatement(sql, statement);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        cached.inUse = true;
+        statements.put(sql, cached);
+        evictIfNeeded();
+        return cached.lease(owner);
+    }
+
+    static Statement ownedBy(Statement statement, Class<?> type, Connection owner) {
+        return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private void evictIfNeeded() {
+        Iterator<CachedStatement> leastRecentlyUsed = statements.values().iterator();
+        while (statements.size() > maxSize && leastRecentlyUsed.hasNext()) {
+            CachedStatement eldest = leastRecentlyUsed.next();
+            if (eldest.inUse) {
+                continue;
+            }
+            leastRecentlyUsed.remove();
+            stats.evictions.incrementAndGet();
+            closeQuietly(eldest);
+        }
+    }
+
+    private synchronized void release(CachedStatement cached) {
+        cached.inUse = false;
+        try {
+            cached.statement.clearParameters();
+            cached.restoreSettings();
+        } catch (SQLException e) {
+            logger.debug("Impossible de réinitialiser la requête préparée en cache : {}", e.getMessage());
+            statements.remove(cached.sql, cached);
+            closeQuietly(cached);
+            return;
+        }
+        if (statements.get(cached.sql) != cached) {
+            closeQuietly(cached);
+        } else {
+            evictIfNeeded();
+        }
+    }
+
+    public synchronized void closeAll() {
+        List<CachedStatement> toClose = new ArrayList<>(statements.values());
+        statements.clear();
+        toClose.forEach(this::closeQuietly);
+    }
+
+    private void closeQuietly(CachedStatement cached) {
+        try {
+            cached.statement.close();
+        } catch (SQLException e) {
+            logger.debug("Erreur lors de la fermeture d'une requête préparée en cache : {}", e.getMessage());
+        }
+    }
+
+    private final class CachedStatement {
+        private final String sql;
+        private final PreparedStatement statement;
+        private final int fetchSize;
+        private final int fetchDirection;
+        private final int maxRows;
+        private final int maxFieldSize;
+        private final int queryTimeout;
+        private boolean inUse;
+
+        private CachedStatement(String sql, PreparedStatement statement) throws SQLException {
+            this.sql = sql;
+            this.statement = statement;
+            this.fetchSize = statement.getFetchSize();
+            this.fetchDirection = statement.getFetchDirection();
+            this.maxRows = statement.getMaxRows();
+            this.maxFieldSize = statement.getMaxFieldSize();
+            this.queryTimeout = statement.getQueryTimeout();
+        }
+
+        private void restoreSettings() throws SQLException {
+            if (statement.getMaxRows() != maxRows) {
+                statement.setMaxRows(maxRows);
+            }
+            if (statement.getFetchSize() != fetchSize) {
+                statement.setFetchSize(fetchSize);
+            }
+            if (statement.getFetchDirection() != fetchDirection) {
+                statement.setFetchDirection(fetchDirection);
+            }
+            if (statement.getMaxFieldSize() != maxFieldSize) {
+                statement.setMaxFieldSize(maxFieldSize);
+            }
+            if (statement.getQueryTimeout() != queryTimeout) {
+                statement.setQueryTimeout(queryTimeout);
+            }
+        }
+
+        private PreparedStatement lease(Connection owner) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    new LeaseHandler(this, owner));
+        }
+    }
+
+    private final class LeaseHandler implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        private boolean returned;
+
+        private LeaseHandler(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || cached.statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.sql + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Requête préparée déjà rendue au cache.");
+            }
+            if ("getConnection".equals(method.getName())) {
+                return owner;
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    public static final class Stats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong bypasses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        public long getHits() { return hits.get(); }
+        public long getMisses() { return misses.get(); }
+        public long getBypasses() { return bypasses.get(); }
+        public long getEvictions() { return evictions.get(); }
+
+        public double getHitRate() {
+            long lookups = hits.get() + misses.get() + bypasses.get();
+            return lookups == 0 ? 0.0 : (double) hits.get() / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("succès=%d, échecs=%d, contournements=%d, évictions=%d, taux de succès=%.1f %%",
+                    hits.get(), misses.get(), bypasses.get(), evictions.get(), getHitRate() * 100);
+        }
+    }
+}
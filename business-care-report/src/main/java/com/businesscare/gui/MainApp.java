@@ -3,6 +3,8 @@ package com.businesscare.gui;
 import java.io.IOException;
 import java.net.URL;
 
+import com.businesscare.config.DatabaseConfig;
+
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -58,6 +60,11 @@ public class MainApp extends Application {
     }
     
     
+    @Override
+    public void stop() {
+        DatabaseConfig.shutdown();
+    }
+
     private void showAlert(String title, String content) {
         javafx.scene.control.Alert alert = new javafx.scene.control.Alert(javafx.scene.control.Alert.AlertType.ERROR);
         alert.setTitle(title);
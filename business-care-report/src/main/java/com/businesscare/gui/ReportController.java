@@ -3,13 +3,23 @@ package com.businesscare.gui;
 import java.awt.Desktop;
 import java.io.File;
 import java.io.IOException;
-import java.sql.Connection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,9 +32,22 @@ import com.businesscare.model.Evenement;
 import com.businesscare.model.Facture;
 import com.businesscare.model.Prestation;
 import com.businesscare.model.Reservation;
+import com.businesscare.service.CachingStatisticsService;
+import com.businesscare.service.CatalogSummary;
+import com.businesscare.service.ClientSegmentIndex;
+import com.businesscare.service.ColumnarSnapshot;
+import com.businesscare.service.ColumnarSnapshotWriter;
 import com.businesscare.service.DatabaseService;
+import com.businesscare.service.DistinctCountSketches;
+import com.businesscare.service.InMemoryStatisticsService;
+import com.businesscare.service.IncrementalRefresher;
+import com.businesscare.service.ParallelLoader;
 import com.businesscare.service.PdfReportService;
+import com.businesscare.service.QueryStats;
+import com.businesscare.service.ReportDataset;
+import com.businesscare.service.SamplingPlan;
 import com.businesscare.service.StatisticsService;
+import com.businesscare.service.StatisticsSnapshot;
 
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
@@ -37,6 +60,8 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressIndicator;
@@ -66,10 +91,22 @@ public class ReportController {
     private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
 
     @FXML private Button generateButton;
+    @FXML private CheckBox incrementalRefreshCheckBox;
+    @FXML private CheckBox inMemoryStatisticsCheckBox;
+    @FXML private CheckBox automaticTranchesCheckBox;
+    @FXML private CheckBox approximateCountsCheckBox;
+    @FXML private CheckBox sampledReportCheckBox;
     @FXML private TextArea statusTextArea;
     @FXML private ProgressIndicator progressIndicator;
     @FXML private Hyperlink openPdfLink;
 
+    @FXML private ComboBox<String> tierFilterCombo;
+    @FXML private ComboBox<String> sizeFilterCombo;
+    @FXML private ComboBox<String> industryFilterCombo;
+    @FXML private ComboBox<String> cityFilterCombo;
+    @FXML private ComboBox<String> invoiceStatusFilterCombo;
+    @FXML private Label segmentCountLabel;
+
     @FXML private TableView<ClientAccount> clientsTable;
     @FXML private TableColumn<ClientAccount, String> clientNameCol;
     @FXML private TableColumn<ClientAccount, String> clientTypeCol;
@@ -119,13 +156,26 @@ public class ReportController {
     @FXML private TextArea serviceDescriptionArea;
 
 
-    private final StatisticsService statisticsService;
+    private final CachingStatisticsService statisticsService;
+    private final ExecutorService loaderExecutor;
+    private final IncrementalRefresher incrementalRefresher = new IncrementalRefresher();
+    private final DistinctCountSketches distinctCountSketches = new DistinctCountSketches(DistinctCountSketches.DEFAULT_RELATIVE_ERROR, DISTINCT_COUNTS_PATH);
     private PdfReportService pdfReportService;
+    private ClientSegmentIndex segmentIndex;
+    private boolean updatingFilters;
+    private static final int MAX_LOADER_THREADS = 6;
+    private static final String ALL_VALUES = "Tous";
+    private static final ClientSegmentIndex.Attribute[] FILTER_ATTRIBUTES = {
+            ClientSegmentIndex.Attribute.TIER, ClientSegmentIndex.Attribute.SIZE, ClientSegmentIndex.Attribute.INDUSTRY,
+            ClientSegmentIndex.Attribute.CITY, ClientSegmentIndex.Attribute.INVOICE_STATUS };
 
     private File generatedPdfFile = null;
     private static final String REPORT_FILENAME_PREFIX = "Rapport_Activite_Business_Care_";
+    private static final Path SNAPSHOT_PATH = Paths.get("business-care-snapshot.bcs");
+    private static final Path DISTINCT_COUNTS_PATH = Paths.get("business-care-distinct.hll");
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
     private final SimpleDateFormat timestampFormat = new SimpleDateFormat("yyyyMMdd_HHmmss");
+    private final SimpleDateFormat snapshotDateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
 
     private static final DecimalFormat euroFormat = new DecimalFormat("#,##0.00 €");
     private static final DecimalFormat kEuroFormat = new DecimalFormat("#,##0 k€");
@@ -133,7 +183,14 @@ public class ReportController {
 
 
     public ReportController() {
-        statisticsService = new StatisticsService();
+        statisticsService = new CachingStatisticsService(new StatisticsService());
+        int loaderThreads = Math.max(1, Math.min(MAX_LOADER_THREADS, DatabaseConfig.getPoolMaxSize()));
+        AtomicInteger threadCounter = new AtomicInteger();
+        loaderExecutor = Executors.newFixedThreadPool(loaderThreads, r -> {
+            Thread thread = new Thread(r, "report-loader-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     private String formatCurrency(Double value) {
@@ -155,6 +212,7 @@ public class ReportController {
         statusTextArea.appendText("Prêt.\n");
         openPdfLink.setVisible(false);
         progressIndicator.setVisible(false);
+        loadLocalSnapshot();
 
         clientNameCol.setCellValueFactory(new PropertyValueFactory<>("nomSociete"));
         clientTypeCol.setCellValueFactory(new PropertyValueFactory<>("typeClient"));
@@ -202,6 +260,10 @@ public class ReportController {
         quoteStatusCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getStatut().toString()));
 
 
+        for (ComboBox<String> combo : filterCombos()) {
+            combo.setOnAction(e -> applySegmentFilter());
+        }
+
         clientsTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
                 clientInvoicesTable.setItems(FXCollections.observableArrayList(newSelection.getFactures()));
@@ -258,6 +320,7 @@ public class ReportController {
         generatedPdfFile = null;
 
         clientsTable.getItems().clear();
+        resetSegmentFilters();
         eventsTable.getItems().clear();
         servicesTable.getItems().clear();
         clientInvoicesTable.getItems().clear();
@@ -271,63 +334,133 @@ public class ReportController {
         serviceDescriptionArea.clear();
 
 
+        boolean incremental = incrementalRefreshCheckBox.isSelected();
+        boolean inMemoryStatistics = inMemoryStatisticsCheckBox.isSelected();
+        boolean automaticTranches = automaticTranchesCheckBox.isSelected();
+        statisticsService.setAutomaticTranches(automaticTranches);
+        statisticsService.setDistinctCountSketches(approximateCountsCheckBox.isSelected() ? distinctCountSketches : null);
+        statisticsService.setSampling(sampledReportCheckBox.isSelected() ? new SamplingPlan(DatabaseConfig.getSamplingSize(), DatabaseConfig.getSamplingStrata()) : null);
         Task<ReportData> reportTask = new Task<>() {
             @Override
             protected ReportData call() throws Exception {
-                Connection conn = null;
-                DatabaseService databaseService;
+                long start = System.nanoTime();
+                pdfReportService = new PdfReportService(statisticsService);
+                ParallelLoader loader = new ParallelLoader(loaderExecutor, DatabaseConfig::getConnection);
+                List<ClientAccount> clientAccounts;
+                List<Evenement> evenements;
+                List<Prestation> prestations;
+                CompletableFuture<StatisticsSnapshot> statisticsFuture;
+                CompletableFuture<List<ClientAccount>> inactiveClientsFuture = null;
+                CompletableFuture<List<Abonnement>> contractHistoryFuture = null;
+
+                StatisticsSnapshot statistics;
+                boolean offline = false;
                 try {
-                    updateMessage("Connexion à la base de données...");
-                    conn = DatabaseConfig.getConnection();
-                    databaseService = new DatabaseService(conn);
-
-                    statisticsService.setDatabaseService(databaseService);
-                    pdfReportService = new PdfReportService(statisticsService, databaseService);
+                    if (incremental) {
+                        updateMessage(incrementalRefresher.hasData()
+                                ? "Rafraîchissement incrémental des données et chargement des statistiques..."
+                                : "Chargement initial complet des données et des statistiques...");
+                        CompletableFuture<ReportDataset> datasetFuture = loader.submit("rafraîchissement incrémental", incrementalRefresher::refresh);
+                        if (inMemoryStatistics) {
+                            inactiveClientsFuture = loader.submit("comptes clients inactifs", DatabaseService::getInactiveClientAccounts);
+                            contractHistoryFuture = loader.submit("historique des contrats", DatabaseService::getContractHistory);
+                        }
 
+                        ReportDataset dataset = ParallelLoader.join(datasetFuture);
+                        clientAccounts = dataset.getClients();
+                        evenements = dataset.getEvents();
+                        prestations = dataset.getServices();
+                        updateMessage(String.format("%d comptes clients, %d événements et %d prestations disponibles (%d enregistrement(s) rechargé(s)).",
+                                clientAccounts.size(), evenements.size(), prestations.size(), dataset.getReloadedCount()));
+                        if (dataset.getReloadedCount() > 0) {
+                            statisticsService.invalidateAll();
+                        }
+                        statisticsFuture = inMemoryStatistics ? null : statisticsService.loadSnapshotAsync(loader);
+                    } else {
+                        incrementalRefresher.clear();
+                        AtomicReference<QueryStats> reservationStats = new AtomicReference<>();
+
+                        updateMessage("Chargement parallèle des données et des statistiques...");
+                        CompletableFuture<List<ClientAccount>> clientsFuture = loader.submit("comptes clients", DatabaseService::getAllClientAccounts);
+                        CompletableFuture<List<Evenement>> eventsFuture = loader.submit("événements", db -> {
+                            List<Evenement> loaded = db.getAllEvenements();
+                            reservationStats.set(db.getReservationLoadStats());
+                            return loaded;
+                        });
+                        CompletableFuture<List<Prestation>> servicesFuture = loader.submit("prestations", DatabaseService::getAllPrestations);
+                        if (inMemoryStatistics) {
+                            inactiveClientsFuture = loader.submit("comptes clients inactifs", DatabaseService::getInactiveClientAccounts);
+                            contractHistoryFuture = loader.submit("historique des contrats", DatabaseService::getContractHistory);
+                        }
+                        statisticsFuture = inMemoryStatistics ? null : statisticsService.loadSnapshotAsync(loader);
 
-                    updateMessage("Récupération des données des clients...");
-                    List<ClientAccount> clientAccounts = databaseService.getAllClientAccounts();
-                    updateMessage(String.format("%d comptes clients récupérés.", clientAccounts.size()));
+                        clientAccounts = ParallelLoader.join(clientsFuture);
+                        updateMessage(String.format("%d comptes clients récupérés.", clientAccounts.size()));
 
-                    updateMessage("Récupération des données des événements...");
-                    List<Evenement> evenements = databaseService.getAllEvenements();
-                    updateMessage(String.format("%d événements récupérés.", evenements.size()));
+                        evenements = ParallelLoader.join(eventsFuture);
+                        updateMessage(String.format("%d événements récupérés (réservations : %s).", evenements.size(), reservationStats.get()));
 
-                    updateMessage("Récupération des données des prestations...");
-                    List<Prestation> prestations = databaseService.getAllPrestations();
-                    updateMessage(String.format("%d prestations récupérées.", prestations.size()));
+                        prestations = ParallelLoader.join(servicesFuture);
+                        updateMessage(String.format("%d prestations récupérées.", prestations.size()));
+                    }
 
-                    if (clientAccounts.size() < 30 || evenements.size() < 30 || prestations.size() < 30) {
-                        String warningMsg = String.format(
-                            "Attention: Moins de 30 enregistrements pour certaines données (Clients: %d, Evénements: %d, Prestations: %d). Le rapport pourrait être moins représentatif.",
-                            clientAccounts.size(), evenements.size(), prestations.size()
-                        );
-                        updateMessage(warningMsg);
-                        logger.warn(warningMsg);
+                    if (statisticsFuture != null) {
+                        statistics = ParallelLoader.join(statisticsFuture);
+                    } else {
+                        ReportDataset dataset = new ReportDataset(clientAccounts, evenements, prestations, false, 0)
+                                .withHistory(ParallelLoader.join(inactiveClientsFuture), ParallelLoader.join(contractHistoryFuture));
+                        InMemoryStatisticsService inMemoryStatisticsService = new InMemoryStatisticsService(dataset);
+                        inMemoryStatisticsService.setAutomaticTranches(automaticTranches);
+                        statistics = inMemoryStatisticsService.loadSnapshot();
+                    }
+                    updateMessage(String.format("Données et statistiques chargées en %d ms.", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+                } catch (SQLException e) {
+                    if (!Files.exists(SNAPSHOT_PATH)) {
+                        throw e;
+                    }
+                    logger.warn("Base de données indisponible, utilisation de l'instantané local : {}", e.getMessage());
+                    updateMessage("Base de données indisponible (" + e.getMessage() + "). Utilisation de l'instantané local...");
+                    try (ColumnarSnapshot snapshot = ColumnarSnapshot.open(SNAPSHOT_PATH)) {
+                        ReportDataset dataset = snapshot.toDataset();
+                        clientAccounts = dataset.getClients();
+                        evenements = dataset.getEvents();
+                        prestations = dataset.getServices();
+                        statistics = snapshot.toStatistics();
+                        updateMessage(String.format("Instantané du %s chargé : %d comptes clients, %d événements, %d prestations.",
+                                snapshotDateFormat.format(new Date(snapshot.getCreatedAt())), clientAccounts.size(), evenements.size(), prestations.size()));
                     }
+                    offline = true;
+                }
 
-                    updateMessage("Génération du rapport PDF...");
-                    String reportFileNameWithTimestamp = REPORT_FILENAME_PREFIX + timestampFormat.format(new Date()) + ".pdf";
+                if (clientAccounts.size() < 30 || evenements.size() < 30 || prestations.size() < 30) {
+                    String warningMsg = String.format(
+                        "Attention: Moins de 30 enregistrements pour certaines données (Clients: %d, Evénements: %d, Prestations: %d). Le rapport pourrait être moins représentatif.",
+                        clientAccounts.size(), evenements.size(), prestations.size()
+                    );
+                    updateMessage(warningMsg);
+                    logger.warn(warningMsg);
+                }
 
-                    if (pdfReportService == null) {
-                        logger.error("PdfReportService n'a pas été initialisé !");
-                        throw new IllegalStateException("PdfReportService n'a pas été initialisé.");
-                    }
-                    pdfReportService.generateReport(clientAccounts, evenements, prestations, reportFileNameWithTimestamp);
-
-                    File pdfFile = new File(reportFileNameWithTimestamp);
-                    return new ReportData(clientAccounts, evenements, prestations, pdfFile);
-
-                } finally {
-                    if (conn != null) {
-                        try {
-                            conn.close();
-                            updateMessage("Connexion à la base de données fermée.");
-                        } catch (SQLException ex) {
-                            logger.error("Erreur lors de la fermeture de la connexion JDBC.", ex);
-                        }
+                updateMessage("Génération du rapport PDF...");
+                String reportFileNameWithTimestamp = REPORT_FILENAME_PREFIX + timestampFormat.format(new Date()) + ".pdf";
+                pdfReportService.generateReport(clientAccounts, evenements, prestations, statistics, reportFileNameWithTimestamp);
+
+                if (!offline) {
+                    try {
+                        ColumnarSnapshotWriter.write(SNAPSHOT_PATH, new ReportDataset(clientAccounts, evenements, prestations, false, 0), statistics);
+                        updateMessage("Instantané local mis à jour : " + SNAPSHOT_PATH.toAbsolutePath() + ".");
+                    } catch (IOException e) {
+                        logger.warn("Impossible d'écrire l'instantané local : {}", e.getMessage(), e);
+                        updateMessage("Impossible d'écrire l'instantané local : " + e.getMessage());
                     }
                 }
+
+                updateMessage("Pool de connexions : " + DatabaseConfig.getPoolStats() + ".");
+                updateMessage("Cache de requêtes préparées : " + DatabaseConfig.getStatementCacheStats() + ".");
+                updateMessage("Cache des statistiques : " + statisticsService.getStats() + ".");
+
+                File pdfFile = new File(reportFileNameWithTimestamp);
+                return new ReportData(clientAccounts, evenements, prestations, pdfFile);
             }
         };
 
@@ -342,7 +475,7 @@ public class ReportController {
             generatedPdfFile = result.pdfFile;
 
             Platform.runLater(() -> {
-                 clientsTable.setItems(FXCollections.observableArrayList(result.clients));
+                 showClients(result.clients);
                  eventsTable.setItems(FXCollections.observableArrayList(result.events));
                  servicesTable.setItems(FXCollections.observableArrayList(result.services));
 
@@ -376,6 +509,96 @@ public class ReportController {
         new Thread(reportTask).start();
     }
 
+    private void loadLocalSnapshot() {
+        if (!Files.exists(SNAPSHOT_PATH)) {
+            return;
+        }
+        Task<ReportData> snapshotTask = new Task<>() {
+            @Override
+            protected ReportData call() throws Exception {
+                CatalogSummary catalog;
+                StatisticsSnapshot statistics;
+                String createdAt;
+                try (ColumnarSnapshot snapshot = ColumnarSnapshot.open(SNAPSHOT_PATH)) {
+                    catalog = snapshot.toCatalogSummary();
+                    statistics = snapshot.toStatistics();
+                    createdAt = snapshotDateFormat.format(new Date(snapshot.getCreatedAt()));
+                }
+                Platform.runLater(ReportController.this::handleGenerateReport);
+                String fileName = REPORT_FILENAME_PREFIX + "Instantane_" + timestampFormat.format(new Date()) + ".pdf";
+                new PdfReportService(statisticsService).generateReport(catalog, statistics, fileName);
+                updateMessage("Rapport PDF généré depuis l'instantané local du " + createdAt + " en attendant le rechargement des données.");
+                return new ReportData(null, null, null, new File(fileName));
+            }
+        };
+        snapshotTask.setOnSucceeded(e -> {
+            ReportData snapshot = snapshotTask.getValue();
+            if (generatedPdfFile == null && snapshot.pdfFile.exists()) {
+                generatedPdfFile = snapshot.pdfFile;
+                openPdfLink.setVisible(true);
+                statusTextArea.appendText(snapshotTask.getMessage() + "\n");
+            }
+        });
+        snapshotTask.setOnFailed(e -> {
+            Throwable ex = snapshotTask.getException();
+            logger.warn("Instantané local illisible : {}", ex.getMessage(), ex);
+            statusTextArea.appendText("Instantané local ignoré : " + ex.getMessage() + "\n");
+        });
+        Thread thread = new Thread(snapshotTask, "snapshot-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private List<ComboBox<String>> filterCombos() {
+        return Arrays.asList(tierFilterCombo, sizeFilterCombo, industryFilterCombo, cityFilterCombo, invoiceStatusFilterCombo);
+    }
+
+    private void showClients(List<ClientAccount> clients) {
+        long start = System.nanoTime();
+        segmentIndex = ClientSegmentIndex.build(clients);
+        logger.info("Index de segmentation construit pour {} client(s) en {} ms ({} octets).", clients.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), segmentIndex.getSizeInBytes());
+        List<ComboBox<String>> combos = filterCombos();
+        updatingFilters = true;
+        for (int i = 0; i < FILTER_ATTRIBUTES.length; i++) {
+            List<String> values = new ArrayList<>();
+            values.add(ALL_VALUES);
+            values.addAll(segmentIndex.getValues(FILTER_ATTRIBUTES[i]));
+            combos.get(i).setItems(FXCollections.observableArrayList(values));
+            combos.get(i).setValue(ALL_VALUES);
+        }
+        updatingFilters = false;
+        applySegmentFilter();
+    }
+
+    private void resetSegmentFilters() {
+        segmentIndex = null;
+        updatingFilters = true;
+        for (ComboBox<String> combo : filterCombos()) {
+            combo.getItems().clear();
+            combo.setValue(null);
+        }
+        updatingFilters = false;
+        segmentCountLabel.setText("Segment : -");
+    }
+
+    private void applySegmentFilter() {
+        if (segmentIndex == null || updatingFilters) {
+            return;
+        }
+        List<ComboBox<String>> combos = filterCombos();
+        ClientSegmentIndex.Segment segment = segmentIndex.all();
+        int total = segment.count();
+        for (int i = 0; i < FILTER_ATTRIBUTES.length; i++) {
+            String value = combos.get(i).getValue();
+            if (value != null && !ALL_VALUES.equals(value)) {
+                segment = segment.and(segmentIndex.where(FILTER_ATTRIBUTES[i], value));
+            }
+        }
+        clientsTable.setItems(FXCollections.observableArrayList(segment.getAccounts()));
+        segmentCountLabel.setText(String.format("Segment : %d / %d client(s)", segment.count(), total));
+    }
+
     @FXML
     private void handleOpenPdf() {
         if (generatedPdfFile != null && generatedPdfFile.exists()) {
@@ -399,6 +622,12 @@ public class ReportController {
         }
     }
 
+    @FXML
+    private void handleClearStatisticsCache() {
+        statisticsService.invalidateAll();
+        statusTextArea.appendText("Cache des statistiques vidé (" + statisticsService.getStats() + ").\n");
+    }
+
     @FXML
     private void handleShowChangePasswordDialog() {
         try {
@@ -2,14 +2,18 @@ package com.businesscare.model;
 
 import java.util.Date;
 
+import com.businesscare.model.enums.ContractStatus;
 import com.businesscare.model.enums.SubscriptionTier;
 
 public class Abonnement {
     private String id;
     private SubscriptionTier typeAbonnement;
+    private String libelleFormule;
     private Date dateDebut;
     private Date dateFin;
     private double montant;
+    private String idClient;
+    private ContractStatus statut = ContractStatus.ACTIVE;
 
     public Abonnement(String id, SubscriptionTier typeAbonnement, Date dateDebut, Date dateFin, double montant) {
         this.id = id;
@@ -35,6 +39,14 @@ public class Abonnement {
         this.typeAbonnement = typeAbonnement;
     }
 
+    public String getLibelleFormule() {
+        return libelleFormule;
+    }
+
+    public void setLibelleFormule(String libelleFormule) {
+        this.libelleFormule = libelleFormule;
+    }
+
     public Date getDateDebut() {
         return dateDebut;
     }
@@ -58,4 +70,20 @@ public class Abonnement {
     public void setMontant(double montant) {
         this.montant = montant;
     }
-}
\ No newline at end of file
+
+    public String getIdClient() {
+        return idClient;
+    }
+
+    public void setIdClient(String idClient) {
+        this.idClient = idClient;
+    }
+
+    public ContractStatus getStatut() {
+        return statut;
+    }
+
+    public void setStatut(ContractStatus statut) {
+        this.statut = statut;
+    }
+}
@@ -9,6 +9,7 @@ public class ClientAccount {
     private String adresse;
     private String ville;
     private String typeClient;
+    private String taille;
     private double chiffreAffairesAnnuel;
     private List<Abonnement> abonnements;
     private List<Devis> devis;
@@ -66,6 +67,14 @@ public class ClientAccount {
         this.typeClient = typeClient;
     }
 
+    public String getTaille() {
+        return taille;
+    }
+
+    public void setTaille(String taille) {
+        this.taille = taille;
+    }
+
     public double getChiffreAffairesAnnuel() {
         return chiffreAffairesAnnuel;
     }
@@ -15,6 +15,7 @@ public class Evenement {
     private Date dateFin;
     private String lieu;
     private int capaciteMax;
+    private boolean actif;
     private List<Reservation> reservations;
     private List<Planification> planifications;
     private String planningSummary;
@@ -28,6 +29,7 @@ public class Evenement {
         this.dateFin = dateFin;
         this.lieu = lieu;
         this.capaciteMax = capaciteMax;
+        this.actif = true;
         this.reservations = new ArrayList<>();
         this.planifications = new ArrayList<>();
         this.planningSummary = ""; 
@@ -49,6 +51,8 @@ public class Evenement {
     public void setLieu(String lieu) { this.lieu = lieu; }
     public int getCapaciteMax() { return capaciteMax; }
     public void setCapaciteMax(int capaciteMax) { this.capaciteMax = capaciteMax; }
+    public boolean isActif() { return actif; }
+    public void setActif(boolean actif) { this.actif = actif; }
     public List<Reservation> getReservations() { return reservations; }
     public void setReservations(List<Reservation> reservations) { this.reservations = reservations; }
     public List<Planification> getPlanifications() { return planifications; }
@@ -10,6 +10,8 @@ public class Prestation {
     private String description;
     private double coutUnitaire;
     private boolean disponibilite;
+    private String idPrestataire;
+    private String nomPrestataire;
     private List<String> idEvenementsAssocies;
 
     public Prestation(String id, String nomPrestation, String typePrestation, String description, double coutUnitaire, boolean disponibilite) {
@@ -70,6 +72,22 @@ public class Prestation {
         this.disponibilite = disponibilite;
     }
 
+    public String getIdPrestataire() {
+        return idPrestataire;
+    }
+
+    public void setIdPrestataire(String idPrestataire) {
+        this.idPrestataire = idPrestataire;
+    }
+
+    public String getNomPrestataire() {
+        return nomPrestataire;
+    }
+
+    public void setNomPrestataire(String nomPrestataire) {
+        this.nomPrestataire = nomPrestataire;
+    }
+
     public List<String> getIdEvenementsAssocies() {
         return idEvenementsAssocies;
     }
@@ -6,6 +6,7 @@ public class Reservation {
     private String idReservation;
     private String idEvenement;
     private String idClient;
+    private String idEmploye;
     private Date dateReservation;
     private int nombreParticipants;
 
@@ -17,6 +18,11 @@ public class Reservation {
         this.nombreParticipants = nombreParticipants;
     }
 
+    public Reservation(String idReservation, String idEvenement, String idClient, String idEmploye, Date dateReservation, int nombreParticipants) {
+        this(idReservation, idEvenement, idClient, dateReservation, nombreParticipants);
+        this.idEmploye = idEmploye;
+    }
+
     public String getIdReservation() {
         return idReservation;
     }
@@ -41,6 +47,14 @@ public class Reservation {
         this.idClient = idClient;
     }
 
+    public String getIdEmploye() {
+        return idEmploye;
+    }
+
+    public void setIdEmploye(String idEmploye) {
+        this.idEmploye = idEmploye;
+    }
+
     public Date getDateReservation() {
         return dateReservation;
     }
@@ -0,0 +1,227 @@
+package com.businesscare.service;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.businesscare.util.Histogram;
+import com.businesscare.util.QuantileSketch;
+import com.businesscare.util.TopK;
+
+public final class BookingAnalytics {
+    static final String[] WEEKDAYS = { "Lun", "Mar", "Mer", "Jeu", "Ven", "Sam", "Dim" };
+    static final int HOURS = 24;
+    static final char SEPARATOR = '|';
+    static final double[] LEAD_TIME_TRANCHES = { 0, 1, 7, 30, 90 };
+    private static final Histogram LEAD_TIMES = Histogram.lowerInclusive(LEAD_TIME_TRANCHES,
+            new String[] { "Après le début", "< 1 j", "1 - 7 j", "7 - 30 j", "30 - 90 j", "> 90 j" });
+    static final double[] ATTENDANCE_TRANCHES = { 1, 2, 5, 10 };
+    private static final Histogram ATTENDANCE = Histogram.upperInclusive(ATTENDANCE_TRANCHES, 1,
+            new String[] { "1", "2", "3 - 5", "6 - 10", "> 10" });
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private final long bookingCount;
+    private final long employeeCount;
+    private final long repeatEmployeeCount;
+    private final long companyCount;
+    private final long[] weekdayHourCounts;
+    private final Histogram.Accumulator leadTimes;
+    private final QuantileSketch leadTimeQuantiles;
+    private final Histogram.Accumulator attendance;
+    private final TopK topCompanies;
+    private final Map<Long, String> companyNames;
+
+    private BookingAnalytics(Builder builder, Map<Long, String> companyNames) {
+        this.bookingCount = builder.bookingCount;
+        this.employeeCount = builder.employeeCount;
+        this.repeatEmployeeCount = builder.repeatEmployeeCount;
+        this.companyCount = builder.companyCount;
+        this.weekdayHourCounts = builder.weekdayHourCounts.clone();
+        this.leadTimes = builder.leadTimes;
+        this.leadTimeQuantiles = builder.leadTimeQuantiles;
+        this.attendance = builder.attendance;
+        this.topCompanies = builder.topCompanies;
+        this.companyNames = companyNames;
+    }
+
+    private BookingAnalytics(BookingAnalytics analytics, double factor) {
+        this.bookingCount = Math.round(analytics.bookingCount * factor);
+        this.employeeCount = 0;
+        this.repeatEmployeeCount = 0;
+        this.companyCount = 0;
+        this.weekdayHourCounts = new long[analytics.weekdayHourCounts.length];
+        for (int cell = 0; cell < weekdayHourCounts.length; cell++) {
+            weekdayHourCounts[cell] = Math.round(analytics.weekdayHourCounts[cell] * factor);
+        }
+        this.leadTimes = LEAD_TIMES.newAccumulator();
+        for (int bin = 0; bin < LEAD_TIMES.getBinCount(); bin++) {
+            leadTimes.addBin(bin, Math.round(analytics.leadTimes.getCount(bin) * factor), analytics.leadTimes.getSum(bin) * factor);
+        }
+        this.leadTimeQuantiles = analytics.leadTimeQuantiles;
+        this.attendance = ATTENDANCE.newAccumulator();
+        this.topCompanies = new TopK(analytics.topCompanies.getCapacity());
+        long[] ids = analytics.topCompanies.keys();
+        double[] bookings = analytics.topCompanies.scores();
+        for (int rank = 0; rank < ids.length; rank++) {
+            topCompanies.offer(ids[rank], bookings[rank] * factor);
+        }
+        this.companyNames = analytics.companyNames;
+    }
+
+    private BookingAnalytics(BookingAnalytics analytics, Map<Long, String> companyNames) {
+        this.bookingCount = analytics.bookingCount;
+        this.employeeCount = analytics.employeeCount;
+        this.repeatEmployeeCount = analytics.repeatEmployeeCount;
+        this.companyCount = analytics.companyCount;
+        this.weekdayHourCounts = analytics.weekdayHourCounts;
+        this.leadTimes = analytics.leadTimes;
+        this.leadTimeQuantiles = analytics.leadTimeQuantiles;
+        this.attendance = analytics.attendance;
+        this.topCompanies = analytics.topCompanies;
+        this.companyNames = companyNames;
+    }
+
+    public static BookingAnalytics empty() {
+        return new Builder(StatisticsService.TOP_N).build();
+    }
+
+    public static int weekdayOf(Calendar calendar) {
+        return (calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7;
+    }
+
+    public static double leadDays(Date bookingDate, Date eventStart) {
+        if (bookingDate == null || eventStart == null) {
+            return Double.NaN;
+        }
+        return Math.floorDiv(eventStart.getTime() - bookingDate.getTime(), MILLIS_PER_DAY);
+    }
+
+    public long getBookingCount() {
+        return bookingCount;
+    }
+
+    public long getEmployeeCount() {
+        return employeeCount;
+    }
+
+    public long getRepeatEmployeeCount() {
+        return repeatEmployeeCount;
+    }
+
+    public long getCompanyCount() {
+        return companyCount;
+    }
+
+    public long getCount(int weekday, int hour) {
+        return weekdayHourCounts[weekday * HOURS + hour];
+    }
+
+    public long[] getTopCompanyIds() {
+        return topCompanies.keys();
+    }
+
+    public BookingAnalytics scaled(double factor) {
+        return new BookingAnalytics(this, factor);
+    }
+
+    public BookingAnalytics withCompanyNames(Map<Long, String> names) {
+        return new BookingAnalytics(this, new LinkedHashMap<>(names));
+    }
+
+    public Map<String, Double> getSummary() {
+        Map<String, Double> summary = new LinkedHashMap<>();
+        if (bookingCount == 0) {
+            return summary;
+        }
+        summary.put("Réservations analysées", (double) bookingCount);
+        if (companyCount > 0) {
+            summary.put("Entreprises", (double) companyCount);
+            summary.put("Réservations par entreprise", (double) bookingCount / companyCount);
+        }
+        if (employeeCount > 0) {
+            summary.put("Collaborateurs participants", (double) employeeCount);
+            summary.put("Collaborateurs récurrents", (double) repeatEmployeeCount);
+            summary.put("Taux de collaborateurs récurrents", (double) repeatEmployeeCount / employeeCount);
+            summary.put("Réservations par collaborateur", (double) bookingCount / employeeCount);
+        }
+        if (!leadTimeQuantiles.isEmpty()) {
+            summary.put("Délai moyen (jours)", leadTimes.getTotalSum() / leadTimes.getTotal());
+            summary.put("Délai médian (jours)", leadTimeQuantiles.quantile(0.5));
+            summary.put("Délai P90 (jours)", leadTimeQuantiles.quantile(0.9));
+        }
+        return summary;
+    }
+
+    public Map<String, Long> getWeekdayHourCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int weekday = 0; weekday < WEEKDAYS.length; weekday++) {
+            for (int hour = 0; hour < HOURS; hour++) {
+                counts.put(WEEKDAYS[weekday] + SEPARATOR + hour, getCount(weekday, hour));
+            }
+        }
+        return counts;
+    }
+
+    public Map<String, Long> getLeadTimeDistribution() {
+        return leadTimes.toCountMap();
+    }
+
+    public Map<String, Long> getAttendanceDistribution() {
+        return attendance.toCountMap();
+    }
+
+    public Map<String, Long> getTopCompanies() {
+        long[] ids = topCompanies.keys();
+        double[] bookings = topCompanies.scores();
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int rank = 0; rank < ids.length; rank++) {
+            top.merge(companyNames.getOrDefault(ids[rank], "Entreprise " + ids[rank]), Math.round(bookings[rank]), Long::sum);
+        }
+        return top;
+    }
+
+    public static final class Builder {
+        private final long[] weekdayHourCounts = new long[WEEKDAYS.length * HOURS];
+        private final Histogram.Accumulator leadTimes = LEAD_TIMES.newAccumulator();
+        private final QuantileSketch leadTimeQuantiles = new QuantileSketch();
+        private final Histogram.Accumulator attendance = ATTENDANCE.newAccumulator();
+        private final TopK topCompanies;
+        private long bookingCount;
+        private long employeeCount;
+        private long repeatEmployeeCount;
+        private long companyCount;
+
+        public Builder(int topCompanyCount) {
+            this.topCompanies = new TopK(topCompanyCount);
+        }
+
+        public void addBooking(int weekday, int hour, double leadDays) {
+            bookingCount++;
+            if (weekday >= 0 && weekday < WEEKDAYS.length && hour >= 0 && hour < HOURS) {
+                weekdayHourCounts[weekday * HOURS + hour]++;
+            }
+            if (!Double.isNaN(leadDays)) {
+                leadTimes.accept(leadDays);
+                leadTimeQuantiles.accept(leadDays);
+            }
+        }
+
+        public void addEmployee(long bookings) {
+            employeeCount++;
+            if (bookings > 1) {
+                repeatEmployeeCount++;
+            }
+            attendance.accept((double) bookings);
+        }
+
+        public void addCompany(long companyId, long bookings) {
+            companyCount++;
+            topCompanies.offer(companyId, bookings);
+        }
+
+        public BookingAnalytics build() {
+            return new BookingAnalytics(this, new LinkedHashMap<Long, String>());
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.businesscare.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.businesscare.util.MonthlySeries;
+import com.businesscare.util.QuantileSketch;
+
+public class CachingStatisticsService extends StatisticsService {
+    private static final Logger logger = LoggerFactory.getLogger(CachingStatisticsService.class);
+    private static final int DEFAULT_MAX_ENTRIES = 64;
+
+    public enum Metric {
+        SNAPSHOT(60),
+        SUBSCRIPTION_TIERS(300),
+        REVENUE_DISTRIBUTION(300),
+        CLIENT_SIZES(600),
+        CLIENT_INDUSTRIES(600),
+        TOP_CLIENTS(120),
+        EVENTS_BY_MONTH(120),
+        PAID_INVOICES_BY_MONTH(300),
+        NEW_CONTRACTS_BY_MONTH(300),
+        EVENT_CAPACITIES(300),
+        EVENT_STATUS(120),
+        TOP_EVENTS(60),
+        EVENT_UTILIZATION(120),
+        CONTRACT_COHORTS(600),
+        BOOKING_ANALYTICS(300),
+        SERVICE_TYPES(600),
+        SERVICE_COSTS(600),
+        TOP_PROVIDERS(600),
+        SERVICE_AVAILABILITY(300);
+
+        private final long defaultTtlSeconds;
+
+        Metric(long defaultTtlSeconds) {
+            this.defaultTtlSeconds = defaultTtlSeconds;
+        }
+    }
+
+    private final StatisticsService delegate;
+    private final int maxEntries;
+    private final Map<Metric, Long> ttlNanos = new EnumMap<>(Metric.class);
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Stats stats = new Stats();
+    private long generation;
+
+    public CachingStatisticsService(StatisticsService delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES);
+    }
+
+    public CachingStatisticsService(StatisticsService delegate, int maxEntries) {
+        this.delegate = delegate;
+        this.maxEntries = Math.max(1, maxEntries);
+        for (Metric metric : Metric.values()) {
+            ttlNanos.put(metric, TimeUnit.SECONDS.toNanos(metric.defaultTtlSeconds));
+        }
+    }
+
+    public synchronized void setTtl(Metric metric, long ttl, TimeUnit unit) {
+        ttlNanos.put(metric, unit.toNanos(ttl));
+        invalidate(metric);
+    }
+
+    public void invalidate(Metric metric) {
+        String prefix = metric.name() + ":";
+        synchronized (entries) {
+            generation++;
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+        logger.debug("Cache des statistiques invalidé.");
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void setDatabaseService(DatabaseService databaseService) {
+        delegate.setDatabaseService(databaseService);
+        invalidateAll();
+    }
+
+    @Override
+    public void setSingleRoundTrip(boolean singleRoundTrip) {
+        delegate.setSingleRoundTrip(singleRoundTrip);
+    }
+
+    @Override
+    public void setHistogramPushDown(boolean histogramPushDown) {
+        delegate.setHistogramPushDown(histogramPushDown);
+    }
+
+    @Override
+    public void setAutomaticTranches(boolean automaticTranches) {
+        if (delegate.isAutomaticTranches() != automaticTranches) {
+            delegate.setAutomaticTranches(automaticTranches);
+            invalidate(Metric.SNAPSHOT);
+        }
+    }
+
+    @Override
+    public boolean isAutomaticTranches() {
+        return delegate.isAutomaticTranches();
+    }
+
+    @Override
+    public void setDistinctCountSketches(DistinctCountSketches distinctCounts) {
+        if (delegate.getDistinctCountSketches() != distinctCounts) {
+            delegate.setDistinctCountSketches(distinctCounts);
+            invalidate(Metric.SNAPSHOT);
+            invalidate(Metric.SUBSCRIPTION_TIERS);
+        }
+    }
+
+    @Override
+    public DistinctCountSketches getDistinctCountSketches() {
+        return delegate.getDistinctCountSketches();
+    }
+
+    @Override
+    public void setSampling(SamplingPlan sampling) {
+        if (!Objects.equals(delegate.getSampling(), sampling)) {
+            delegate.setSampling(sampling);
+            invalidate(Metric.SNAPSHOT);
+        }
+    }
+
+    @Override
+    public SamplingPlan getSampling() {
+        return delegate.getSampling();
+    }
+
+    @Override
+    public QuantileSketch getClientRevenueSketch() {
+        return delegate.getClientRevenueSketch();
+    }
+
+    @Override
+    public QuantileSketch getEventCapacitySketch() {
+        return delegate.getEventCapacitySketch();
+    }
+
+    @Override
+    public QuantileSketch getServicePriceSketch() {
+        return delegate.getServicePriceSketch();
+    }
+
+    @Override
+    public StatisticsSnapshot loadSnapshot() {
+        return get(Metric.SNAPSHOT, "", delegate::loadSnapshot);
+    }
+
+    @Override
+    public CompletableFuture<StatisticsSnapshot> loadSnapshotAsync(ParallelLoader loader) {
+        return lookup(Metric.SNAPSHOT, "", () -> delegate.loadSnapshotAsync(loader));
+    }
+
+    @Override
+    public Map<String, Long> getClientCountBySubscriptionTier() {
+        return get(Metric.SUBSCRIPTION_TIERS, "", delegate::getClientCountBySubscriptionTier);
+    }
+
+    @Override
+    public Map<String, Double> getClientRevenueDistribution(double[] tranches) {
+        return get(Metric.REVENUE_DISTRIBUTION, Arrays.toString(tranches), () -> delegate.getClientRevenueDistribution(tranches));
+    }
+
+    @Override
+    public Map<String, Long> getClientCountBySize() {
+        return get(Metric.CLIENT_SIZES, "", delegate::getClientCountBySize);
+    }
+
+    @Override
+    public Map<String, Long> getClientCountByIndustry(int limit) {
+        return get(Metric.CLIENT_INDUSTRIES, String.valueOf(limit), () -> delegate.getClientCountByIndustry(limit));
+    }
+
+    @Override
+    public Map<String, Double> getTop5ClientsByTotalPaid() {
+        return get(Metric.TOP_CLIENTS, "", delegate::getTop5ClientsByTotalPaid);
+    }
+
+    @Override
+    public MonthlySeries getEventCountByMonth() {
+        return get(Metric.EVENTS_BY_MONTH, "", delegate::getEventCountByMonth);
+    }
+
+    @Override
+    public MonthlySeries getPaidInvoicesByMonth() {
+        return get(Metric.PAID_INVOICES_BY_MONTH, "", delegate::getPaidInvoicesByMonth);
+    }
+
+    @Override
+    public MonthlySeries getNewContractsByMonth() {
+        return get(Metric.NEW_CONTRACTS_BY_MONTH, "", delegate::getNewContractsByMonth);
+    }
+
+    @Override
+    public Map<String, Long> getEventDistributionByCapacity(double[] tranches) {
+        return get(Metric.EVENT_CAPACITIES, Arrays.toString(tranches), () -> delegate.getEventDistributionByCapacity(tranches));
+    }
+
+    @Override
+    public Map<String, Long> getEventStatusCounts() {
+        return get(Metric.EVENT_STATUS, "", delegate::getEventStatusCounts);
+    }
+
+    @Override
+    public Map<String, Integer> getTop5EventsByBooking() {
+        return get(Metric.TOP_EVENTS, "", delegate::getTop5EventsByBooking);
+    }
+
+    @Override
+    public EventUtilization getEventUtilization() {
+        return get(Metric.EVENT_UTILIZATION, "", delegate::getEventUtilization);
+    }
+
+    @Override
+    public ContractCohorts getContractCohorts() {
+        return get(Metric.CONTRACT_COHORTS, "", delegate::getContractCohorts);
+    }
+
+    @Override
+    public BookingAnalytics getBookingAnalytics() {
+        return get(Metric.BOOKING_ANALYTICS, "", delegate::getBookingAnalytics);
+    }
+
+    @Override
+    public Map<String, Long> getServiceCountByType() {
+        return get(Metric.SERVICE_TYPES, "", delegate::getServiceCountByType);
+    }
+
+    @Override
+    public Map<String, Long> getServiceDistributionByCost(double[] tranches) {
+        return get(Metric.SERVICE_COSTS, Arrays.toString(tranches), () -> delegate.getServiceDistributionByCost(tranches));
+    }
+
+    @Override
+    public Map<String, Long> getTopProvidersByServiceCount(int limit) {
+        return get(Metric.TOP_PROVIDERS, String.valueOf(limit), () -> delegate.getTopProvidersByServiceCount(limit));
+    }
+
+    @Override
+    public Map<String, Long> getServiceAvailabilityDistribution() {
+        return get(Metric.SERVICE_AVAILABILITY, "", delegate::getServiceAvailabilityDistribution);
+    }
+
+    private <T> T get(Metric metric, String arguments, Supplier<T> loader) {
+        try {
+            return lookup(metric, arguments, () -> CompletableFuture.completedFuture(loader.get())).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> lookup(Metric metric, String arguments, Supplier<CompletableFuture<T>> loader) {
+        String key = metric.name() + ":" + arguments;
+        long loadGeneration;
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt - System.nanoTime() > 0) {
+                    stats.hits.incrementAndGet();
+                    return CompletableFuture.completedFuture((T) entry.value);
+                }
+                entries.remove(key);
+                stats.expirations.incrementAndGet();
+            }
+            loadGeneration = generation;
+        }
+
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            stats.sharedLoads.incrementAndGet();
+            return (CompletableFuture<T>) existing;
+        }
+        stats.misses.incrementAndGet();
+
+        long start = System.nanoTime();
+        CompletableFuture<T> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, error) -> {
+            stats.recordLoad(System.nanoTime() - start);
+            if (error == null) {
+                store(metric, key, value, loadGeneration);
+            }
+            inFlight.remove(key, pending);
+            if (error != null) {
+                pending.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                pending.complete(value);
+            }
+        });
+        return (CompletableFuture<T>) pending;
+    }
+
+    private void store(Metric metric, String key, Object value, long loadGeneration) {
+        if (value == null || (value instanceof Map && ((Map<?, ?>) value).isEmpty())) {
+            return;
+        }
+        Object cached = value instanceof Map ? Collections.unmodifiableMap((Map<?, ?>) value) : value;
+        long ttl;
+        synchronized (this) {
+            ttl = ttlNanos.get(metric);
+        }
+        if (ttl <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            if (generation != loadGeneration) {
+                return;
+            }
+            entries.put(key, new CacheEntry(cached, System.nanoTime() + ttl));
+            Iterator<CacheEntry> leastRecentlyUsed = entries.values().iterator();
+            while (entries.size() > maxEntries && leastRecentlyUsed.hasNext()) {
+                leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+                stats.evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class CacheEntry {
+        private final Object value;
+        private final long expiresAt;
+
+        private CacheEntry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public static final class Stats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong sharedLoads = new AtomicLong();
+        private final AtomicLong expirations = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+        private final AtomicLong loadCount = new AtomicLong();
+        private final AtomicLong loadNanos = new AtomicLong();
+        private final AtomicLong maxLoadNanos = new AtomicLong();
+
+        private void recordLoad(long nanos) {
+            loadCount.incrementAndGet();
+            loadNanos.addAndGet(nanos);
+            maxLoadNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getHits() { return hits.get(); }
+        public long getMisses() { return misses.get(); }
+        public long getSharedLoads() { return sharedLoads.get(); }
+        public long getExpirations() { return expirations.get(); }
+        public long getEvictions() { return evictions.get(); }
+        public long getLoadCount() { return loadCount.get(); }
+        public long getTotalLoadMillis() { return TimeUnit.NANOSECONDS.toMillis(loadNanos.get()); }
+        public long getMaxLoadMillis() { return TimeUnit.NANOSECONDS.toMillis(maxLoadNanos.get()); }
+
+        public double getHitRate() {
+            long lookups = hits.get() + misses.get() + sharedLoads.get();
+            return lookups == 0 ? 0.0 : (double) (hits.get() + sharedLoads.get()) / lookups;
+        }
+
+        @Override
+        public String toString() {
+            long loads = loadCount.get();
+            return String.format("succès=%d, échecs=%d, chargements partagés=%d, expirations=%d, évictions=%d, " +
+                            "chargements=%d (moyenne %d ms, max %d ms), taux de succès=%.1f %%",
+                    hits.get(), misses.get(), sharedLoads.get(), expirations.get(), evictions.get(),
+                    loads, loads == 0 ? 0 : getTotalLoadMillis() / loads, getMaxLoadMillis(), getHitRate() * 100);
+        }
+    }
+}
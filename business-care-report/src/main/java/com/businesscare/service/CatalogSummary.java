@@ -0,0 +1,31 @@
+package com.businesscare.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class CatalogSummary {
+    static final int TOP_SERVICES = 5;
+
+    private final Map<String, Long> eventCountByType;
+    private final Map<String, Integer> topServicesByEventCount;
+    private final Map<String, Integer> topServicePairs;
+
+    public CatalogSummary(Map<String, Long> eventCountByType, Map<String, Integer> topServicesByEventCount, Map<String, Integer> topServicePairs) {
+        this.eventCountByType = Collections.unmodifiableMap(new LinkedHashMap<>(eventCountByType));
+        this.topServicesByEventCount = Collections.unmodifiableMap(new LinkedHashMap<>(topServicesByEventCount));
+        this.topServicePairs = Collections.unmodifiableMap(new LinkedHashMap<>(topServicePairs));
+    }
+
+    public Map<String, Long> getEventCountByType() {
+        return eventCountByType;
+    }
+
+    public Map<String, Integer> getTopServicesByEventCount() {
+        return topServicesByEventCount;
+    }
+
+    public Map<String, Integer> getTopServicePairs() {
+        return topServicePairs;
+    }
+}
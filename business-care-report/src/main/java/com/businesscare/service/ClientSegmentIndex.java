@@ -0,0 +1,121 @@
+package com.businesscare.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.businesscare.model.Abonnement;
+import com.businesscare.model.ClientAccount;
+import com.businesscare.model.Facture;
+import com.businesscare.util.CompressedBitmap;
+
+public final class ClientSegmentIndex {
+    public enum Attribute {
+        TIER, SIZE, INDUSTRY, CITY, INVOICE_STATUS
+    }
+
+    private final List<ClientAccount> clients;
+    private final Map<Attribute, Map<String, CompressedBitmap>> bitmaps = new EnumMap<>(Attribute.class);
+    private final CompressedBitmap universe;
+
+    private ClientSegmentIndex(List<ClientAccount> clients) {
+        this.clients = clients;
+        this.universe = CompressedBitmap.range(clients.size());
+        for (Attribute attribute : Attribute.values()) {
+            bitmaps.put(attribute, new TreeMap<>());
+        }
+        for (int i = 0; i < clients.size(); i++) {
+            ClientAccount client = clients.get(i);
+            add(Attribute.SIZE, client.getTaille(), i);
+            add(Attribute.INDUSTRY, client.getTypeClient(), i);
+            add(Attribute.CITY, client.getVille(), i);
+            for (Abonnement abonnement : client.getAbonnements()) {
+                add(Attribute.TIER, abonnement.getLibelleFormule(), i);
+            }
+            for (Facture facture : client.getFactures()) {
+                add(Attribute.INVOICE_STATUS, facture.getStatutPaiement() == null ? null : facture.getStatutPaiement().name(), i);
+            }
+        }
+    }
+
+    public static ClientSegmentIndex build(List<ClientAccount> clients) {
+        return new ClientSegmentIndex(new ArrayList<>(clients));
+    }
+
+    public List<String> getValues(Attribute attribute) {
+        return Collections.unmodifiableList(new ArrayList<>(bitmaps.get(attribute).keySet()));
+    }
+
+    public long getSizeInBytes() {
+        long bytes = universe.getSizeInBytes();
+        for (Map<String, CompressedBitmap> values : bitmaps.values()) {
+            for (CompressedBitmap bitmap : values.values()) {
+                bytes += bitmap.getSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    public Segment all() {
+        return new Segment(universe);
+    }
+
+    public Segment where(Attribute attribute, String value) {
+        CompressedBitmap bitmap = bitmaps.get(attribute).get(label(value));
+        return new Segment(bitmap == null ? new CompressedBitmap() : bitmap);
+    }
+
+    public Segment whereAny(Attribute attribute, Collection<String> values) {
+        Segment segment = new Segment(new CompressedBitmap());
+        for (String value : values) {
+            segment = segment.or(where(attribute, value));
+        }
+        return segment;
+    }
+
+    private void add(Attribute attribute, String value, int ordinal) {
+        bitmaps.get(attribute).computeIfAbsent(label(value), k -> new CompressedBitmap()).add(ordinal);
+    }
+
+    private static String label(String value) {
+        return value == null || value.isEmpty() ? "Non défini" : value;
+    }
+
+    public final class Segment {
+        private final CompressedBitmap bitmap;
+
+        private Segment(CompressedBitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+
+        public Segment and(Segment other) {
+            return new Segment(bitmap.and(other.bitmap));
+        }
+
+        public Segment or(Segment other) {
+            return new Segment(bitmap.or(other.bitmap));
+        }
+
+        public Segment andNot(Segment other) {
+            return new Segment(bitmap.andNot(other.bitmap));
+        }
+
+        public Segment not() {
+            return new Segment(universe.andNot(bitmap));
+        }
+
+        public int count() {
+            return bitmap.cardinality();
+        }
+
+        public List<ClientAccount> getAccounts() {
+            List<ClientAccount> accounts = new ArrayList<>(bitmap.cardinality());
+            bitmap.forEach(ordinal -> accounts.add(clients.get(ordinal)));
+            return accounts;
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package com.businesscare.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.businesscare.model.Abonnement;
+import com.businesscare.model.ClientAccount;
+import com.businesscare.model.Devis;
+import com.businesscare.model.Evenement;
+import com.businesscare.model.Facture;
+import com.businesscare.model.Prestation;
+import com.businesscare.model.Reservation;
+import com.businesscare.model.enums.InvoiceStatus;
+import com.businesscare.model.enums.QuoteStatus;
+import com.businesscare.model.enums.SubscriptionTier;
+import com.businesscare.util.MonthlySeries;
+import com.businesscare.util.ParallelAggregator;
+import com.businesscare.util.TopK;
+
+public final class ColumnarSnapshot implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarSnapshot.class);
+
+    static final int MAGIC = 0x4243534E;
+    static final int VERSION = 5;
+    static final long NULL_DATE = Long.MIN_VALUE;
+    static final byte TYPE_INT = 1;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte TYPE_DATE = 3;
+    static final byte TYPE_BOOLEAN = 4;
+    static final byte TYPE_STRING = 5;
+
+    static final String COMPANY = "company";
+    static final String CONTRACT = "contract";
+    static final String QUOTE = "quote";
+    static final String INVOICE = "invoice";
+    static final String EVENT = "event";
+    static final String BOOKING = "booking";
+    static final String SERVICE = "service";
+    static final String SERVICE_EVENT = "service_event";
+    static final String STATISTICS = "statistics";
+
+    private static final int HEADER_SIZE = 16;
+    private static final int TRAILER_SIZE = 12;
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int BLOCK_COUNT = 4;
+    private static final int STRING_ENTRY_SIZE = 12;
+
+    private final FileChannel channel;
+    private final Block[] blocks = new Block[BLOCK_COUNT];
+    private long blockClock;
+    private final long size;
+    private final long createdAt;
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+
+    private ColumnarSnapshot(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE + 8) {
+                throw new IOException("Instantané tronqué : " + path);
+            }
+            for (int i = 0; i < BLOCK_COUNT; i++) {
+                blocks[i] = new Block();
+            }
+            if (getInt(0) != MAGIC || getInt(size - 4) != MAGIC) {
+                throw new IOException("Fichier d'instantané invalide : " + path);
+            }
+            int version = getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Version d'instantané non prise en charge : " + version);
+            }
+            createdAt = getLong(8);
+            long directoryOffset = getLong(size - TRAILER_SIZE - 8);
+            if (directoryOffset < HEADER_SIZE || directoryOffset > size - TRAILER_SIZE - 8) {
+                throw new IOException("Répertoire hors limites dans l'instantané : " + path);
+            }
+            if (checksum(directoryOffset, size - TRAILER_SIZE) != getLong(size - TRAILER_SIZE)) {
+                throw new IOException("Somme de contrôle invalide pour le répertoire de l'instantané : " + path);
+            }
+            readDirectory(directoryOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static ColumnarSnapshot open(Path path) throws IOException {
+        long start = System.nanoTime();
+        ColumnarSnapshot snapshot = new ColumnarSnapshot(path);
+        logger.info("Instantané {} ouvert ({} octets) en {} ms.", path, snapshot.size, (System.nanoTime() - start) / 1_000_000);
+        return snapshot;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public synchronized Table table(String name) throws IOException {
+        Table table = tables.get(name);
+        if (table == null) {
+            throw new IOException("Table absente de l'instantané : " + name);
+        }
+        if (!table.verified) {
+            for (Map.Entry<String, Column> column : table.columns.entrySet()) {
+                Column definition = column.getValue();
+                if (checksum(definition.offset, definition.offset + definition.length) != definition.checksum) {
+                    throw new IOException("Somme de contrôle invalide pour la colonne " + name + "." + column.getKey() + " de l'instantané.");
+                }
+            }
+            table.verified = true;
+        }
+        return table;
+    }
+
+    public ReportDataset toDataset() throws IOException {
+        Map<Integer, ClientAccount> clientsById = new LinkedHashMap<>();
+        Table company = table(COMPANY);
+        for (long row = 0; row < company.getRowCount(); row++) {
+            int id = company.getInt("id", row);
+            ClientAccount account = new ClientAccount(
+                    String.valueOf(id),
+                    company.getString("name", row),
+                    company.getString("address", row),
+                    company.getString("city", row),
+                    company.getString("industry", row),
+                    company.getDouble("revenue", row));
+            account.setTaille(company.getString("size", row));
+            clientsById.put(id, account);
+        }
+
+        Table contract = table(CONTRACT);
+        for (long row = 0; row < contract.getRowCount(); row++) {
+            ClientAccount account = clientsById.get(contract.getInt("company_id", row));
+            if (account != null) {
+                String tier = contract.getString("tier", row);
+                Abonnement abonnement = new Abonnement(
+                        String.valueOf(contract.getInt("id", row)),
+                        tier == null ? null : SubscriptionTier.valueOf(tier),
+                        contract.getDate("start_date", row),
+                        contract.getDate("end_date", row),
+                        contract.getDouble("price", row));
+                abonnement.setLibelleFormule(contract.getString("tier_label", row));
+                account.getAbonnements().add(abonnement);
+            }
+        }
+
+        Table quote = table(QUOTE);
+        for (long row = 0; row < quote.getRowCount(); row++) {
+            ClientAccount account = clientsById.get(quote.getInt("company_id", row));
+            if (account != null) {
+                String status = quote.getString("status", row);
+                account.getDevis().add(new Devis(
+                        String.valueOf(quote.getInt("id", row)),
+                        quote.getString("number", row),
+                        quote.getDate("created_at", row),
+                        quote.getDouble("amount", row),
+                        status == null ? null : QuoteStatus.valueOf(status)));
+            }
+        }
+
+        Table invoice = table(INVOICE);
+        for (long row = 0; row < invoice.getRowCount(); row++) {
+            ClientAccount account = clientsById.get(invoice.getInt("company_id", row));
+            if (account != null) {
+                String status = invoice.getString("status", row);
+                account.getFactures().add(new Facture(
+                        String.valueOf(invoice.getInt("id", row)),
+                        invoice.getString("number", row),
+                        invoice.getDate("invoice_date", row),
+                        invoice.getDouble("amount", row),
+                        status == null ? null : InvoiceStatus.valueOf(status)));
+            }
+        }
+
+        Map<Integer, Evenement> eventsById = new LinkedHashMap<>();
+        Table event = table(EVENT);
+        for (long row = 0; row < event.getRowCount(); row++) {
+            int id = event.getInt("id", row);
+            Evenement evenement = new Evenement(
+                    String.valueOf(id),
+                    event.getString("name", row),
+                    event.getString("type", row),
+                    event.getString("description", row),
+                    event.getDate("start_date", row),
+                    event.getDate("end_date", row),
+                    event.getString("location", row),
+                    event.getInt("capacity", row));
+            evenement.setActif(event.getBoolean("active", row));
+            eventsById.put(id, evenement);
+        }
+
+        Table booking = table(BOOKING);
+        for (long row = 0; row < booking.getRowCount(); row++) {
+            Evenement evenement = eventsById.get(booking.getInt("event_id", row));
+            if (evenement != null) {
+                evenement.getReservations().add(new Reservation(
+                        String.valueOf(booking.getInt("id", row)),
+                        evenement.getId(),
+                        String.valueOf(booking.getInt("company_id", row)),
+                        String.valueOf(booking.getInt("employee_id", row)),
+                        booking.getDate("booking_date", row),
+                        booking.getInt("participants", row)));
+            }
+        }
+
+        List<Prestation> services = new ArrayList<>();
+        Table service = table(SERVICE);
+        for (long row = 0; row < service.getRowCount(); row++) {
+            Prestation prestation = new Prestation(
+                    String.valueOf(service.getInt("id", row)),
+                    service.getString("name", row),
+                    service.getString("type", row),
+                    service.getString("description", row),
+                    service.getDouble("price", row),
+                    service.getBoolean("available", row));
+            prestation.setIdPrestataire(service.getString("provider_id", row));
+            prestation.setNomPrestataire(service.getString("provider_name", row));
+            services.add(prestation);
+        }
+        serviceEventGraph().attachTo(services);
+
+        return new ReportDataset(clientsById.values(), eventsById.values(), services, false, 0);
+    }
+
+    public CatalogSummary toCatalogSummary() throws IOException {
+        ParallelAggregator.KeyCounts<String> eventTypes = new ParallelAggregator.KeyCounts<>();
+        Table event = table(EVENT);
+        for (long row = 0; row < event.getRowCount(); row++) {
+            String type = event.getString("type", row);
+            eventTypes.add(type == null ? "Non défini" : type);
+        }
+
+        ServiceEventGraph graph = serviceEventGraph();
+        Table service = table(SERVICE);
+        Map<Integer, String> names = new HashMap<>();
+        TopK frequent = new TopK(CatalogSummary.TOP_SERVICES);
+        for (long row = 0; row < service.getRowCount(); row++) {
+            int id = service.getInt("id", row);
+            names.put(id, service.getString("name", row));
+            frequent.offer(row, graph.getEventCount(id));
+        }
+        Map<String, Integer> topServices = new LinkedHashMap<>();
+        long[] rows = frequent.keys();
+        double[] counts = frequent.scores();
+        for (int rank = 0; rank < rows.length; rank++) {
+            if (counts[rank] > 0) {
+                topServices.putIfAbsent(service.getString("name", rows[rank]), (int) counts[rank]);
+            }
+        }
+        Map<String, Integer> pairs = new LinkedHashMap<>();
+        for (ServiceEventGraph.Pair pair : graph.topPairs(CatalogSummary.TOP_SERVICES)) {
+            pairs.put(names.get(pair.getFirstServiceId()) + " + " + names.get(pair.getSecondServiceId()), pair.getSharedEvents());
+        }
+        return new CatalogSummary(eventTypes.toMap(), topServices, pairs);
+    }
+
+    private ServiceEventGraph serviceEventGraph() throws IOException {
+        ServiceEventGraph.Builder builder = new ServiceEventGraph.Builder();
+        Table links = table(SERVICE_EVENT);
+        for (long row = 0; row < links.getRowCount(); row++) {
+            builder.add(links.getInt("service_id", row), links.getInt("event_id", row));
+        }
+        return builder.build();
+    }
+
+    public StatisticsSnapshot toStatistics() throws IOException {
+        Map<String, Map<String, Double>> metrics = new HashMap<>();
+        Table statistics = table(STATISTICS);
+        for (long row = 0; row < statistics.getRowCount(); row++) {
+            metrics.computeIfAbsent(statistics.getString("metric", row), k -> new LinkedHashMap<>())
+                    .put(statistics.getString("label", row), statistics.getDouble("value", row));
+        }
+        return StatisticsSnapshot.builder()
+                .clientCountBySubscriptionTier(asLongs(metrics.get("clientCountBySubscriptionTier")))
+                .clientRevenueDistribution(asDoubles(metrics.get("clientRevenueDistribution")))
+                .clientCountBySize(asLongs(metrics.get("clientCountBySize")))
+                .clientCountByIndustry(asLongs(metrics.get("clientCountByIndustry")))
+                .topClientsByTotalPaid(asDoubles(metrics.get("topClientsByTotalPaid")))
+                .eventCountByMonth(MonthlySeries.fromMap(metrics.get("eventCountByMonth")))
+                .eventDistributionByCapacity(asLongs(metrics.get("eventDistributionByCapacity")))
+                .eventStatusCounts(asLongs(metrics.get("eventStatusCounts")))
+                .topEventsByBooking(asIntegers(metrics.get("topEventsByBooking")))
+                .serviceCountByType(asLongs(metrics.get("serviceCountByType")))
+                .serviceDistributionByCost(asLongs(metrics.get("serviceDistributionByCost")))
+                .topProvidersByServiceCount(asLongs(metrics.get("topProvidersByServiceCount")))
+                .serviceAvailabilityDistribution(asLongs(metrics.get("serviceAvailabilityDistribution")))
+                .clientRevenuePercentiles(asDoubles(metrics.get("clientRevenuePercentiles")))
+                .eventCapacityPercentiles(asDoubles(metrics.get("eventCapacityPercentiles")))
+                .servicePricePercentiles(asDoubles(metrics.get("servicePricePercentiles")))
+                .approximateErrorBounds(asDoubles(metrics.get("approximateErrorBounds")))
+                .eventFillRateDistribution(asLongs(metrics.get("eventFillRateDistribution")))
+                .eventUtilizationSummary(asDoubles(metrics.get("eventUtilizationSummary")))
+                .mostFilledEvents(asDoubles(metrics.get("mostFilledEvents")))
+                .leastFilledEvents(asDoubles(metrics.get("leastFilledEvents")))
+                .contractCohortCounts(asLongs(metrics.get("contractCohortCounts")))
+                .paidInvoicesByMonth(MonthlySeries.fromMap(metrics.get("paidInvoicesByMonth")))
+                .newContractsByMonth(MonthlySeries.fromMap(metrics.get("newContractsByMonth")))
+                .confidenceIntervals(asDoubles(metrics.get("confidenceIntervals")))
+                .samplingRates(asDoubles(metrics.get("samplingRates")))
+                .bookingSummary(asDoubles(metrics.get("bookingSummary")))
+                .bookingsByWeekdayHour(asLongs(metrics.get("bookingsByWeekdayHour")))
+                .bookingLeadTimeDistribution(asLongs(metrics.get("bookingLeadTimeDistribution")))
+                .bookingAttendanceDistribution(asLongs(metrics.get("bookingAttendanceDistribution")))
+                .topCompaniesByBooking(asLongs(metrics.get("topCompaniesByBooking")))
+                .build();
+    }
+
+    private static Map<String, Double> asDoubles(Map<String, Double> values) {
+        return values == null ? new LinkedHashMap<>() : values;
+    }
+
+    private static Map<String, Long> asLongs(Map<String, Double> values) {
+        Map<String, Long> converted = new LinkedHashMap<>();
+        if (values != null) {
+            values.forEach((label, value) -> converted.put(label, Math.round(value)));
+        }
+        return converted;
+    }
+
+    private static Map<String, Integer> asIntegers(Map<String, Double> values) {
+        Map<String, Integer> converted = new LinkedHashMap<>();
+        if (values != null) {
+            values.forEach((label, value) -> converted.put(label, (int) Math.round(value)));
+        }
+        return converted;
+    }
+
+    private synchronized long checksum(long start, long end) throws IOException {
+        CRC32 crc = new CRC32();
+        long position = start;
+        while (position < end) {
+            int chunk = (int) Math.min(BLOCK_SIZE, end - position);
+            Block block = block(position, chunk);
+            crc.update(block.bytes, (int) (position - block.start), chunk);
+            position += chunk;
+        }
+        return crc.getValue();
+    }
+
+    private void readDirectory(long offset) throws IOException {
+        long position = offset;
+        int tableCount = getInt(position);
+        position += 4;
+        for (int t = 0; t < tableCount; t++) {
+            int nameLength = getInt(position);
+            String tableName = new String(getBytes(position + 4, nameLength), StandardCharsets.UTF_8);
+            position += 4 + nameLength;
+            Table table = new Table(getLong(position));
+            int columnCount = getInt(position + 8);
+            position += 12;
+            for (int c = 0; c < columnCount; c++) {
+                int columnNameLength = getInt(position);
+                String columnName = new String(getBytes(position + 4, columnNameLength), StandardCharsets.UTF_8);
+                position += 4 + columnNameLength;
+                byte type = getByte(position);
+                long columnOffset = getLong(position + 1);
+                long columnLength = getLong(position + 9);
+                long columnChecksum = getLong(position + 17);
+                position += 25;
+                if (columnOffset < HEADER_SIZE || columnOffset + columnLength > offset) {
+                    throw new IOException("Colonne hors limites dans l'instantané : " + tableName + "." + columnName);
+                }
+                table.columns.put(columnName, new Column(type, columnOffset, columnLength, columnChecksum));
+            }
+            tables.put(tableName, table);
+        }
+    }
+
+    private synchronized byte getByte(long position) throws IOException {
+        Block block = block(position, 1);
+        return block.buffer.get((int) (position - block.start));
+    }
+
+    private synchronized int getInt(long position) throws IOException {
+        Block block = block(position, 4);
+        return block.buffer.getInt((int) (position - block.start));
+    }
+
+    private synchronized long getLong(long position) throws IOException {
+        Block block = block(position, 8);
+        return block.buffer.getLong((int) (position - block.start));
+    }
+
+    private synchronized byte[] getBytes(long position, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        if (length <= BLOCK_SIZE) {
+            Block block = block(position, length);
+            System.arraycopy(block.bytes, (int) (position - block.start), bytes, 0, length);
+        } else {
+            read(ByteBuffer.wrap(bytes), position);
+        }
+        return bytes;
+    }
+
+    private Block block(long position, int length) throws IOException {
+        Block victim = blocks[0];
+        for (Block block : blocks) {
+            if (position >= block.start && position + length <= block.start + block.length) {
+                block.lastUse = ++blockClock;
+                return block;
+            }
+            if (block.lastUse < victim.lastUse) {
+                victim = block;
+            }
+        }
+        if (position < 0 || position + length > size) {
+            throw new IOException("Lecture hors limites dans l'instantané : " + position + " (+" + length + ").");
+        }
+        victim.buffer.clear();
+        victim.buffer.limit((int) Math.min(BLOCK_SIZE, size - position));
+        read(victim.buffer, position);
+        victim.start = position;
+        victim.length = victim.buffer.limit();
+        victim.lastUse = ++blockClock;
+        return victim;
+    }
+
+    private void read(ByteBuffer target, long position) throws IOException {
+        long current = position;
+        while (target.hasRemaining()) {
+            int read = channel.read(target, current);
+            if (read < 0) {
+                throw new IOException("Fin de fichier inattendue dans l'instantané à la position " + current + ".");
+            }
+            current += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static final class Block {
+        private final byte[] bytes = new byte[BLOCK_SIZE];
+        private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        private long start = -1;
+        private int length;
+        private long lastUse;
+    }
+
+    private static final class Column {
+        private final byte type;
+        private final long offset;
+        private final long length;
+        private final long checksum;
+
+        private Column(byte type, long offset, long length, long checksum) {
+            this.type = type;
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+        }
+    }
+
+    public final class Table {
+        private final long rowCount;
+        private final Map<String, Column> columns = new HashMap<>();
+        private boolean verified;
+
+        private Table(long rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public int getInt(String column, long row) throws IOException {
+            return ColumnarSnapshot.this.getInt(column(column, TYPE_INT).offset + row * 4);
+        }
+
+        public double getDouble(String column, long row) throws IOException {
+            return Double.longBitsToDouble(ColumnarSnapshot.this.getLong(column(column, TYPE_DOUBLE).offset + row * 8));
+        }
+
+        public Date getDate(String column, long row) throws IOException {
+            long millis = ColumnarSnapshot.this.getLong(column(column, TYPE_DATE).offset + row * 8);
+            return millis == NULL_DATE ? null : new Date(millis);
+        }
+
+        public boolean getBoolean(String column, long row) throws IOException {
+            return getByte(column(column, TYPE_BOOLEAN).offset + row) != 0;
+        }
+
+        public String getString(String column, long row) throws IOException {
+            Column definition = column(column, TYPE_STRING);
+            long entry = definition.offset + row * STRING_ENTRY_SIZE;
+            int length = ColumnarSnapshot.this.getInt(entry + 8);
+            if (length < 0) {
+                return null;
+            }
+            long heap = definition.offset + rowCount * STRING_ENTRY_SIZE;
+            return new String(getBytes(heap + ColumnarSnapshot.this.getLong(entry), length), StandardCharsets.UTF_8);
+        }
+
+        private Column column(String name, byte expectedType) {
+            Column column = columns.get(name);
+            if (column == null || column.type != expectedType) {
+                throw new IllegalArgumentException("Colonne inconnue ou de type inattendu : " + name);
+            }
+            return column;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.businesscare.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.businesscare.model.Abonnement;
+import com.businesscare.model.ClientAccount;
+import com.businesscare.model.Devis;
+import com.businesscare.model.Evenement;
+import com.businesscare.model.Facture;
+import com.businesscare.model.Prestation;
+import com.businesscare.model.Reservation;
+
+public final class ColumnarSnapshotWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarSnapshotWriter.class);
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final List<TableEntry> tables = new ArrayList<>();
+    private long position;
+    private TableEntry currentTable;
+
+    private ColumnarSnapshotWriter(Path path, long createdAt) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        putInt(ColumnarSnapshot.MAGIC);
+        putInt(ColumnarSnapshot.VERSION);
+        putLong(createdAt);
+    }
+
+    public static void write(Path path, ReportDataset dataset, StatisticsSnapshot statistics) throws IOException {
+        long start = System.nanoTime();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (ColumnarSnapshotWriter writer = new ColumnarSnapshotWriter(temporary, System.currentTimeMillis())) {
+            writer.writeDataset(dataset);
+            writer.writeStatistics(statistics);
+            writer.finish();
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Instantané écrit dans {} ({} octets) en {} ms.", path, Files.size(path), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void writeDataset(ReportDataset dataset) throws IOException {
+        List<ClientAccount> clients = dataset.getClients();
+        beginTable(ColumnarSnapshot.COMPANY, clients.size());
+        intColumn("id", clients, c -> Integer.parseInt(c.getId()));
+        stringColumn("name", clients, ClientAccount::getNomSociete);
+        stringColumn("address", clients, ClientAccount::getAdresse);
+        stringColumn("city", clients, ClientAccount::getVille);
+        stringColumn("industry", clients, ClientAccount::getTypeClient);
+        stringColumn("size", clients, ClientAccount::getTaille);
+        doubleColumn("revenue", clients, ClientAccount::getChiffreAffairesAnnuel);
+
+        List<Child<Abonnement>> contracts = children(clients, ClientAccount::getId, ClientAccount::getAbonnements);
+        beginTable(ColumnarSnapshot.CONTRACT, contracts.size());
+        intColumn("id", contracts, c -> Integer.parseInt(c.value.getId()));
+        intColumn("company_id", contracts, c -> c.parentId);
+        stringColumn("tier", contracts, c -> c.value.getTypeAbonnement() == null ? null : c.value.getTypeAbonnement().name());
+        stringColumn("tier_label", contracts, c -> c.value.getLibelleFormule());
+        dateColumn("start_date", contracts, c -> c.value.getDateDebut());
+        dateColumn("end_date", contracts, c -> c.value.getDateFin());
+        doubleColumn("price", contracts, c -> c.value.getMontant());
+
+        List<Child<Devis>> quotes = children(clients, ClientAccount::getId, ClientAccount::getDevis);
+        beginTable(ColumnarSnapshot.QUOTE, quotes.size());
+        intColumn("id", quotes, c -> Integer.parseInt(c.value.getId()));
+        intColumn("company_id", quotes, c -> c.parentId);
+        stringColumn("number", quotes, c -> c.value.getNumeroDevis());
+        dateColumn("created_at", quotes, c -> c.value.getDateEmission());
+        doubleColumn("amount", quotes, c -> c.value.getMontantTotal());
+        stringColumn("status", quotes, c -> c.value.getStatut() == null ? null : c.value.getStatut().name());
+
+        List<Child<Facture>> invoices = children(clients, ClientAccount::getId, ClientAccount::getFactures);
+        beginTable(ColumnarSnapshot.INVOICE, invoices.size());
+        intColumn("id", invoices, c -> Integer.parseInt(c.value.getId()));
+        intColumn("company_id", invoices, c -> c.parentId);
+        stringColumn("number", invoices, c -> c.value.getNumeroFacture());
+        dateColumn("invoice_date", invoices, c -> c.value.getDateFacturation());
+        doubleColumn("amount", invoices, c -> c.value.getMontantTotal());
+        stringColumn("status", invoices, c -> c.value.getStatutPaiement() == null ? null : c.value.getStatutPaiement().name());
+
+        List<Evenement> events = dataset.getEvents();
+        beginTable(ColumnarSnapshot.EVENT, events.size());
+        intColumn("id", events, e -> Integer.parseInt(e.getId()));
+        stringColumn("name", events, Evenement::getNomEvenement);
+        stringColumn("type", events, Evenement::getTypeEvenement);
+        stringColumn("description", events, Evenement::getDescription);
+        dateColumn("start_date", events, Evenement::getDateDebut);
+        dateColumn("end_date", events, Evenement::getDateFin);
+        stringColumn("location", events, Evenement::getLieu);
+        intColumn("capacity", events, Evenement::getCapaciteMax);
+        booleanColumn("active", events, Evenement::isActif);
+
+        List<Child<Reservation>> bookings = children(events, Evenement::getId, Evenement::getReservations);
+        beginTable(ColumnarSnapshot.BOOKING, bookings.size());
+        intColumn("id", bookings, c -> Integer.parseInt(c.value.getIdReservation()));
+        intColumn("event_id", bookings, c -> c.parentId);
+        intColumn("company_id", bookings, c -> Integer.parseInt(c.value.getIdClient()));
+        intColumn("employee_id", bookings, c -> c.value.getIdEmploye() == null ? 0 : Integer.parseInt(c.value.getIdEmploye()));
+        dateColumn("booking_date", bookings, c -> c.value.getDateReservation());
+        intColumn("participants", bookings, c -> c.value.getNombreParticipants());
+
+        List<Prestation> services = dataset.getServices();
+        beginTable(ColumnarSnapshot.SERVICE, services.size());
+        intColumn("id", services, s -> Integer.parseInt(s.getId()));
+        stringColumn("name", services, Prestation::getNomPrestation);
+        stringColumn("type", services, Prestation::getTypePrestation);
+        stringColumn("description", services, Prestation::getDescription);
+        doubleColumn("price", services, Prestation::getCoutUnitaire);
+        booleanColumn("available", services, Prestation::isDisponibilite);
+        stringColumn("provider_id", services, Prestation::getIdPrestataire);
+        stringColumn("provider_name", services, Prestation::getNomPrestataire);
+
+        List<Child<String>> links = children(services, Prestation::getId, Prestation::getIdEvenementsAssocies);
+        beginTable(ColumnarSnapshot.SERVICE_EVENT, links.size());
+        intColumn("service_id", links, c -> c.parentId);
+        intColumn("event_id", links, c -> Integer.parseInt(c.value));
+    }
+
+    private void writeStatistics(StatisticsSnapshot statistics) throws IOException {
+        List<String[]> keys = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        addMetric(keys, values, "clientCountBySubscriptionTier", statistics.getClientCountBySubscriptionTier());
+        addMetric(keys, values, "clientRevenueDistribution", statistics.getClientRevenueDistribution());
+        addMetric(keys, values, "clientCountBySize", statistics.getClientCountBySize());
+        addMetric(keys, values, "clientCountByIndustry", statistics.getClientCountByIndustry());
+        addMetric(keys, values, "topClientsByTotalPaid", statistics.getTopClientsByTotalPaid());
+        addMetric(keys, values, "eventCountByMonth", statistics.getEventCountByMonth().toMap());
+        addMetric(keys, values, "eventDistributionByCapacity", statistics.getEventDistributionByCapacity());
+        addMetric(keys, values, "eventStatusCounts", statistics.getEventStatusCounts());
+        addMetric(keys, values, "topEventsByBooking", statistics.getTopEventsByBooking());
+        addMetric(keys, values, "serviceCountByType", statistics.getServiceCountByType());
+        addMetric(keys, values, "serviceDistributionByCost", statistics.getServiceDistributionByCost());
+        addMetric(keys, values, "topProvidersByServiceCount", statistics.getTopProvidersByServiceCount());
+        addMetric(keys, values, "serviceAvailabilityDistribution", statistics.getServiceAvailabilityDistribution());
+        addMetric(keys, values, "clientRevenuePercentiles", statistics.getClientRevenuePercentiles());
+        addMetric(keys, values, "eventCapacityPercentiles", statistics.getEventCapacityPercentiles());
+        addMetric(keys, values, "servicePricePercentiles", statistics.getServicePricePercentiles());
+        addMetric(keys, values, "approximateErrorBounds", statistics.getApproximateErrorBounds());
+        addMetric(keys, values, "eventFillRateDistribution", statistics.getEventFillRateDistribution());
+        addMetric(keys, values, "eventUtilizationSummary", statistics.getEventUtilizationSummary());
+        addMetric(keys, values, "mostFilledEvents", statistics.getMostFilledEvents());
+        addMetric(keys, values, "leastFilledEvents", statistics.getLeastFilledEvents());
+        addMetric(keys, values, "contractCohortCounts", statistics.getContractCohortCounts());
+        addMetric(keys, values, "paidInvoicesByMonth", statistics.getPaidInvoicesByMonth().toMap());
+        addMetric(keys, values, "newContractsByMonth", statistics.getNewContractsByMonth().toMap());
+        addMetric(keys, values, "confidenceIntervals", statistics.getConfidenceIntervals());
+        addMetric(keys, values, "samplingRates", statistics.getSamplingRates());
+        addMetric(keys, values, "bookingSummary", statistics.getBookingSummary());
+        addMetric(keys, values, "bookingsByWeekdayHour", statistics.getBookingsByWeekdayHour());
+        addMetric(keys, values, "bookingLeadTimeDistribution", statistics.getBookingLeadTimeDistribution());
+        addMetric(keys, values, "bookingAttendanceDistribution", statistics.getBookingAttendanceDistribution());
+        addMetric(keys, values, "topCompaniesByBooking", statistics.getTopCompaniesByBooking());
+
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            rows.add(i);
+        }
+        beginTable(ColumnarSnapshot.STATISTICS, rows.size());
+        stringColumn("metric", rows, i -> keys.get(i)[0]);
+        stringColumn("label", rows, i -> keys.get(i)[1]);
+        doubleColumn("value", rows, values::get);
+    }
+
+    private static void addMetric(List<String[]> keys, List<Double> values, String metric, Map<String, ? extends Number> entries) {
+        entries.forEach((label, value) -> {
+            keys.add(new String[] { metric, label });
+            values.add(value == null ? 0.0 : value.doubleValue());
+        });
+    }
+
+    private static <P, C> List<Child<C>> children(List<P> parents, Function<P, String> idGetter, Function<P, List<C>> getter) {
+        List<Child<C>> rows = new ArrayList<>();
+        for (P parent : parents) {
+            List<C> values = getter.apply(parent);
+            if (values == null) {
+                continue;
+            }
+            int parentId = Integer.parseInt(idGetter.apply(parent));
+            for (C value : values) {
+                rows.add(new Child<>(parentId, value));
+            }
+        }
+        return rows;
+    }
+
+    private void beginTable(String name, long rowCount) {
+        currentTable = new TableEntry(name, rowCount);
+        tables.add(currentTable);
+    }
+
+    private <T> void intColumn(String name, List<T> rows, ToIntFunction<T> getter) throws IOException {
+        long offset = beginColumn();
+        for (T row : rows) {
+            putInt(getter.applyAsInt(row));
+        }
+        endColumn(name, ColumnarSnapshot.TYPE_INT, offset);
+    }
+
+    private <T> void doubleColumn(String name, List<T> rows, ToDoubleFunction<T> getter) throws IOException {
+        long offset = beginColumn();
+        for (T row : rows) {
+            putDouble(getter.applyAsDouble(row));
+        }
+        endColumn(name, ColumnarSnapshot.TYPE_DOUBLE, offset);
+    }
+
+    private <T> void dateColumn(String name, List<T> rows, Function<T, Date> getter) throws IOException {
+        long offset = beginColumn();
+        for (T row : rows) {
+            Date date = getter.apply(row);
+            putLong(date == null ? ColumnarSnapshot.NULL_DATE : date.getTime());
+        }
+        endColumn(name, ColumnarSnapshot.TYPE_DATE, offset);
+    }
+
+    private <T> void booleanColumn(String name, List<T> rows, Predicate<T> getter) throws IOException {
+        long offset = beginColumn();
+        for (T row : rows) {
+            putByte(getter.test(row) ? (byte) 1 : (byte) 0);
+        }
+        endColumn(name, ColumnarSnapshot.TYPE_BOOLEAN, offset);
+    }
+
+    private <T> void stringColumn(String name, List<T> rows, Function<T, String> getter) throws IOException {
+        long offset = beginColumn();
+        long heapOffset = 0;
+        for (T row : rows) {
+            String value = getter.apply(row);
+            if (value == null) {
+                putLong(0);
+                putInt(-1);
+            } else {
+                int length = value.getBytes(StandardCharsets.UTF_8).length;
+                putLong(heapOffset);
+                putInt(length);
+                heapOffset += length;
+            }
+        }
+        for (T row : rows) {
+            String value = getter.apply(row);
+            if (value != null) {
+                putBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        endColumn(name, ColumnarSnapshot.TYPE_STRING, offset);
+    }
+
+    private long beginColumn() throws IOException {
+        flush();
+        crc.reset();
+        return position;
+    }
+
+    private void endColumn(String name, byte type, long offset) throws IOException {
+        flush();
+        currentTable.columns.add(new ColumnEntry(name, type, offset, position - offset, crc.getValue()));
+    }
+
+    private void finish() throws IOException {
+        long directoryOffset = beginColumn();
+        putInt(tables.size());
+        for (TableEntry table : tables) {
+            putString(table.name);
+            putLong(table.rowCount);
+            putInt(table.columns.size());
+            for (ColumnEntry column : table.columns) {
+                putString(column.name);
+                putByte(column.type);
+                putLong(column.offset);
+                putLong(column.length);
+                putLong(column.checksum);
+            }
+        }
+        putLong(directoryOffset);
+        flush();
+        long checksum = crc.getValue();
+        buffer.putLong(checksum);
+        buffer.putInt(ColumnarSnapshot.MAGIC);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        channel.force(true);
+    }
+
+    private void putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        putBytes(bytes);
+    }
+
+    private void putByte(byte value) throws IOException {
+        ensure(1);
+        buffer.put(value);
+        position += 1;
+    }
+
+    private void putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+        position += 4;
+    }
+
+    private void putLong(long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+        position += 8;
+    }
+
+    private void putDouble(double value) throws IOException {
+        ensure(8);
+        buffer.putDouble(value);
+        position += 8;
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        int written = 0;
+        while (written < bytes.length) {
+            ensure(1);
+            int chunk = Math.min(buffer.remaining(), bytes.length - written);
+            buffer.put(bytes, written, chunk);
+            written += chunk;
+        }
+        position += bytes.length;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static final class Child<T> {
+        private final int parentId;
+        private final T value;
+
+        private Child(int parentId, T value) {
+            this.parentId = parentId;
+            this.value = value;
+        }
+    }
+
+    private static final class TableEntry {
+        private final String name;
+        private final long rowCount;
+        private final List<ColumnEntry> columns = new ArrayList<>();
+
+        private TableEntry(String name, long rowCount) {
+            this.name = name;
+            this.rowCount = rowCount;
+        }
+    }
+
+    private static final class ColumnEntry {
+        private final String name;
+        private final byte type;
+        private final long offset;
+        private final long length;
+        private final long checksum;
+
+        private ColumnEntry(String name, byte type, long offset, long length, long checksum) {
+            this.name = name;
+            this.type = type;
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+        }
+    }
+}
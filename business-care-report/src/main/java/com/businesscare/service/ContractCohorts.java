@@ -0,0 +1,228 @@
+package com.businesscare.service;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.businesscare.util.MonthlySeries;
+
+public final class ContractCohorts {
+    private static final char SEPARATOR = '|';
+
+    private final int firstCohort;
+    private final int[][] activeCounts;
+
+    private ContractCohorts(int firstCohort, int[][] activeCounts) {
+        this.firstCohort = firstCohort;
+        this.activeCounts = activeCounts;
+    }
+
+    public static ContractCohorts empty() {
+        return new ContractCohorts(0, new int[0][]);
+    }
+
+    public static int currentMonth() {
+        return MonthlySeries.monthOf(new Date(), Calendar.getInstance());
+    }
+
+    public static ContractCohorts fromCounts(Map<String, Long> counts) {
+        Builder.Rows rows = new Builder.Rows();
+        counts.forEach((key, count) -> {
+            int separator = key.indexOf(SEPARATOR);
+            int cohort = MonthlySeries.parse(key.substring(0, separator));
+            int offset = Integer.parseInt(key.substring(separator + 1));
+            int[] row = rows.row(cohort, offset + 1);
+            row[offset] = count.intValue();
+        });
+        return rows.toCohorts();
+    }
+
+    public int getCohortCount() {
+        return activeCounts.length;
+    }
+
+    public String getCohortLabel(int cohort) {
+        return MonthlySeries.format(firstCohort + cohort);
+    }
+
+    public int getCohortSize(int cohort) {
+        return activeCounts[cohort].length == 0 ? 0 : activeCounts[cohort][0];
+    }
+
+    public int getMaxOffset(int cohort) {
+        return activeCounts[cohort].length - 1;
+    }
+
+    public int getActiveCount(int cohort, int offset) {
+        int[] row = activeCounts[cohort];
+        return offset < row.length ? row[offset] : 0;
+    }
+
+    public double getRetentionRate(int cohort, int offset) {
+        int size = getCohortSize(cohort);
+        if (size == 0 || offset >= activeCounts[cohort].length) {
+            return Double.NaN;
+        }
+        return (double) activeCounts[cohort][offset] / size;
+    }
+
+    public double getAverageRetention(int offset) {
+        long size = 0;
+        long active = 0;
+        for (int[] row : activeCounts) {
+            if (offset < row.length) {
+                size += row[0];
+                active += row[offset];
+            }
+        }
+        return size == 0 ? Double.NaN : (double) active / size;
+    }
+
+    public long getCompanyCount() {
+        long companies = 0;
+        for (int cohort = 0; cohort < activeCounts.length; cohort++) {
+            companies += getCohortSize(cohort);
+        }
+        return companies;
+    }
+
+    public ContractCohorts scaled(double factor) {
+        int[][] scaled = new int[activeCounts.length][];
+        for (int cohort = 0; cohort < activeCounts.length; cohort++) {
+            scaled[cohort] = new int[activeCounts[cohort].length];
+            for (int offset = 0; offset < scaled[cohort].length; offset++) {
+                scaled[cohort][offset] = (int) Math.round(activeCounts[cohort][offset] * factor);
+            }
+        }
+        return new ContractCohorts(firstCohort, scaled);
+    }
+
+    public Map<String, Long> toCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int cohort = 0; cohort < activeCounts.length; cohort++) {
+            String label = getCohortLabel(cohort);
+            for (int offset = 0; offset < activeCounts[cohort].length; offset++) {
+                counts.put(label + SEPARATOR + offset, (long) activeCounts[cohort][offset]);
+            }
+        }
+        return counts;
+    }
+
+    public static final class Builder {
+        private final int horizon;
+        private final Calendar calendar = Calendar.getInstance();
+        private final Rows rows = new Rows();
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private int contractCount;
+        private int[] coverage = new int[0];
+        private boolean hasCompany;
+        private int currentCompany;
+
+        public Builder(int horizon) {
+            this.horizon = horizon;
+        }
+
+        public void add(int companyId, Date startDate, Date endDate, boolean active) {
+            if (hasCompany && companyId != currentCompany) {
+                if (companyId < currentCompany) {
+                    throw new IllegalArgumentException("Contrats non triés par entreprise : " + companyId + " après " + currentCompany + ".");
+                }
+                flush();
+            }
+            hasCompany = true;
+            currentCompany = companyId;
+            if (startDate == null) {
+                return;
+            }
+            int start = MonthlySeries.monthOf(startDate, calendar);
+            int end;
+            if (endDate != null) {
+                end = Math.max(start, MonthlySeries.monthOf(endDate, calendar));
+            } else {
+                end = active ? horizon : start;
+            }
+            if (contractCount == starts.length) {
+                starts = Arrays.copyOf(starts, contractCount * 2);
+                ends = Arrays.copyOf(ends, contractCount * 2);
+            }
+            starts[contractCount] = start;
+            ends[contractCount] = end;
+            contractCount++;
+        }
+
+        public ContractCohorts build() {
+            flush();
+            hasCompany = false;
+            return rows.toCohorts();
+        }
+
+        private void flush() {
+            if (contractCount == 0) {
+                return;
+            }
+            int cohort = Integer.MAX_VALUE;
+            for (int i = 0; i < contractCount; i++) {
+                cohort = Math.min(cohort, starts[i]);
+            }
+            if (cohort <= horizon) {
+                int span = horizon - cohort + 1;
+                if (coverage.length < span + 1) {
+                    coverage = new int[Math.max(span + 1, coverage.length * 2)];
+                } else {
+                    Arrays.fill(coverage, 0, span + 1, 0);
+                }
+                for (int i = 0; i < contractCount; i++) {
+                    if (starts[i] <= horizon) {
+                        coverage[starts[i] - cohort]++;
+                        coverage[Math.min(ends[i], horizon) - cohort + 1]--;
+                    }
+                }
+                int[] row = rows.row(cohort, span);
+                int covering = 0;
+                for (int offset = 0; offset < span; offset++) {
+                    covering += coverage[offset];
+                    if (covering > 0) {
+                        row[offset]++;
+                    }
+                }
+            }
+            contractCount = 0;
+        }
+
+        private static final class Rows {
+            private int base;
+            private int[][] rows = new int[0][];
+
+            private int[] row(int cohort, int length) {
+                if (rows.length == 0) {
+                    base = cohort;
+                    rows = new int[1][];
+                } else if (cohort < base) {
+                    int[][] shifted = new int[rows.length + base - cohort][];
+                    System.arraycopy(rows, 0, shifted, base - cohort, rows.length);
+                    rows = shifted;
+                    base = cohort;
+                } else if (cohort - base >= rows.length) {
+                    rows = Arrays.copyOf(rows, cohort - base + 1);
+                }
+                int[] row = rows[cohort - base];
+                if (row == null || row.length < length) {
+                    row = row == null ? new int[length] : Arrays.copyOf(row, length);
+                    rows[cohort - base] = row;
+                }
+                return row;
+            }
+
+            private ContractCohorts toCohorts() {
+                int[][] counts = new int[rows.length][];
+                for (int i = 0; i < rows.length; i++) {
+                    counts[i] = rows[i] == null ? new int[0] : rows[i].clone();
+                }
+                return new ContractCohorts(base, counts);
+            }
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package com.businesscare.service;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,20 +33,59 @@ import com.businesscare.model.Evenement;
 import com.businesscare.model.Facture;
 import com.businesscare.model.Prestation;
 import com.businesscare.model.Reservation;
+import com.businesscare.model.enums.ContractStatus;
 import com.businesscare.model.enums.InvoiceStatus;
 import com.businesscare.model.enums.QuoteStatus;
 import com.businesscare.model.enums.SubscriptionTier;
+import com.businesscare.util.Histogram;
+import com.businesscare.util.MonthlySeries;
+import com.businesscare.util.TopK;
 
 public class DatabaseService {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseService.class);
+    static final String ACTIVE_COMPANY_IDS = "SELECT id FROM company WHERE status = 'ACTIVE'";
+    static final String INACTIVE_COMPANY_IDS = "SELECT id FROM company WHERE status IS NULL OR status <> 'ACTIVE'";
+    private static final int RESERVATION_CHUNK_SIZE = 1000;
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int STREAMING_FETCH_SIZE = 1000;
+    private static final String TIER_SQL = "SELECT subscriptionTier, COUNT(DISTINCT company_id) AS count FROM contract WHERE status = 'active' GROUP BY subscriptionTier";
+    private static final String CONTRACT_VALUE_SQL = "SELECT SUM(ct.price) AS metric_value FROM company c JOIN contract ct ON c.id = ct.company_id WHERE ct.status = 'active' GROUP BY c.id";
+    private static final String EVENT_MONTH_SQL = "SELECT YEAR(start_date) * 12 + MONTH(start_date) - 1 AS month, COUNT(*) AS value FROM event WHERE is_active = 1 AND start_date IS NOT NULL GROUP BY month";
+    private static final String PAID_INVOICE_MONTH_SQL = "SELECT YEAR(invoice_date) * 12 + MONTH(invoice_date) - 1 AS month, SUM(total_amount) AS value FROM invoice WHERE status = 'payed' AND invoice_date IS NOT NULL GROUP BY month";
+    private static final String NEW_CONTRACT_MONTH_SQL = "SELECT YEAR(startDate) * 12 + MONTH(startDate) - 1 AS month, COUNT(*) AS value FROM contract WHERE startDate IS NOT NULL GROUP BY month";
+    private static final String EVENT_CAPACITY_SQL = "SELECT capacity AS metric_value FROM event WHERE is_active = 1 AND capacity IS NOT NULL AND capacity > 0";
+    private static final String BOOKING_ANALYTICS_SQL = "SELECT WEEKDAY(b.booking_date) AS weekday, HOUR(b.booking_date) AS hour, " +
+            "FLOOR(TIMESTAMPDIFF(SECOND, b.booking_date, ev.start_date) / 86400.0) AS lead_days " +
+            "FROM booking b JOIN employee e ON b.employee_id = e.id LEFT JOIN event ev ON ev.id = b.event_id";
+    private static final String BOOKINGS_PER_EMPLOYEE_SQL = "SELECT COUNT(*) AS bookings FROM booking b JOIN employee e ON b.employee_id = e.id GROUP BY b.employee_id";
+    private static final String BOOKINGS_PER_COMPANY_SQL = "SELECT e.company_id, COUNT(*) AS bookings FROM booking b JOIN employee e ON b.employee_id = e.id GROUP BY e.company_id";
+    private static final String SERVICE_PRICE_SQL = "SELECT price AS metric_value FROM service WHERE price IS NOT NULL AND price >= 0";
+    private static final String[] CHANGE_COLUMN_CANDIDATES = { "updated_at", "updatedAt", "updated_on", "last_modified" };
+    private static final String[] SERVICE_LINK_CANDIDATES = { "service_id", "serviceId", "prestation_id" };
+    private static final String[] EVENT_LINK_CANDIDATES = { "event_id", "eventId", "evenement_id" };
+    private static volatile String[] serviceEventLink;
     private final Connection connection;
+    private final QueryStats reservationLoadStats = new QueryStats();
+    private boolean bulkLoading = true;
+    private int streamingFetchSize;
 
     public DatabaseService(Connection connection) {
         this.connection = connection;
     }
 
+    public void setBulkLoading(boolean bulkLoading) {
+        this.bulkLoading = bulkLoading;
+    }
+
+    public boolean isBulkLoading() {
+        return bulkLoading;
+    }
+
     public List<ClientAccount> getAllClientAccounts() throws SQLException {
+        if (bulkLoading) {
+            return getAllClientAccountsBulk();
+        }
         List<ClientAccount> accounts = new ArrayList<>();
         String sql = "SELECT id, name AS nom_societe, address AS adresse, city AS ville, industry AS type_client, size FROM company WHERE status = 'ACTIVE'";
 
@@ -50,6 +102,7 @@ public class DatabaseService {
                         rs.getString("type_client"),
                         chiffreAffaires
                 );
+                account.setTaille(rs.getString("size"));
                 account.setAbonnements(getAbonnementsForCompany(companyIdStr));
                 account.setDevis(getDevisForCompany(companyIdStr));
                 account.setFactures(getFacturesForCompany(companyIdStr));
@@ -63,6 +116,143 @@ public class DatabaseService {
         return accounts;
     }
 
+    private List<ClientAccount> getAllClientAccountsBulk() throws SQLException {
+        Map<Integer, ClientAccount> accountsById = new LinkedHashMap<>();
+        String sql = "SELECT id, name AS nom_societe, address AS adresse, city AS ville, industry AS type_client, size FROM company WHERE status = 'ACTIVE'";
+
+        try {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    accountsById.put(rs.getInt("id"), mapClientAccount(rs));
+                }
+            }
+            if (!accountsById.isEmpty()) {
+                loadChiffreAffairesBulk(accountsById, ACTIVE_COMPANY_IDS);
+                loadAbonnementsBulk(accountsById, ACTIVE_COMPANY_IDS);
+                loadDevisBulk(accountsById, ACTIVE_COMPANY_IDS);
+                loadFacturesBulk(accountsById, ACTIVE_COMPANY_IDS);
+            }
+        } catch (SQLException e) {
+            logger.error("Erreur lors du chargement groupé des comptes clients: {}", e.getMessage(), e);
+            throw e;
+        }
+        List<ClientAccount> accounts = new ArrayList<>(accountsById.values());
+        logger.info("{} comptes clients chargés (chargement groupé).", accounts.size());
+        return accounts;
+    }
+
+    public List<ClientAccount> getInactiveClientAccounts() throws SQLException {
+        Map<Integer, ClientAccount> accountsById = new LinkedHashMap<>();
+        String sql = "SELECT id, name AS nom_societe, address AS adresse, city AS ville, industry AS type_client, size FROM company WHERE status IS NULL OR status <> 'ACTIVE'";
+
+        try {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    accountsById.put(rs.getInt("id"), mapClientAccount(rs));
+                }
+            }
+            if (!accountsById.isEmpty()) {
+                loadAbonnementsBulk(accountsById, INACTIVE_COMPANY_IDS);
+                loadFacturesBulk(accountsById, INACTIVE_COMPANY_IDS);
+            }
+        } catch (SQLException e) {
+            logger.error("Erreur lors du chargement des comptes clients inactifs: {}", e.getMessage(), e);
+            throw e;
+        }
+        logger.info("{} comptes clients inactifs chargés.", accountsById.size());
+        return new ArrayList<>(accountsById.values());
+    }
+
+    public List<Abonnement> getContractHistory() throws SQLException {
+        List<Abonnement> contracts = new ArrayList<>();
+        String sql = "SELECT company_id, id, startDate, endDate, price, subscriptionTier, status FROM contract ORDER BY company_id, id";
+        try {
+            stream(sql, rs -> {
+                Abonnement abonnement = mapAbonnement(rs);
+                abonnement.setIdClient(String.valueOf(rs.getInt("company_id")));
+                abonnement.setStatut(mapContractStatus(rs.getString("status")));
+                contracts.add(abonnement);
+            });
+        } catch (SQLException e) {
+            logger.error("Erreur lors du chargement de l'historique des contrats: {}", e.getMessage(), e);
+            throw e;
+        }
+        logger.info("Historique des contrats chargé : {} contrat(s).", contracts.size());
+        return contracts;
+    }
+
+    ClientAccount mapClientAccount(ResultSet rs) throws SQLException {
+        ClientAccount account = new ClientAccount(
+                String.valueOf(rs.getInt("id")),
+                rs.getString("nom_societe"),
+                rs.getString("adresse"),
+                rs.getString("ville"),
+                rs.getString("type_client"),
+                0.0
+        );
+        account.setTaille(rs.getString("size"));
+        return account;
+    }
+
+    void loadChiffreAffairesBulk(Map<Integer, ClientAccount> accountsById, String companyScope) throws SQLException {
+        String sql = "SELECT company_id, SUM(total_amount) AS total_ca FROM invoice " +
+                     "WHERE status = 'payed' AND company_id IN (" + companyScope + ") " +
+                     "GROUP BY company_id";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ClientAccount account = accountsById.get(rs.getInt("company_id"));
+                if (account != null) {
+                    account.setChiffreAffairesAnnuel(rs.getDouble("total_ca"));
+                }
+            }
+        }
+    }
+
+    void loadAbonnementsBulk(Map<Integer, ClientAccount> accountsById, String companyScope) throws SQLException {
+        String sql = "SELECT company_id, id, startDate, endDate, price, subscriptionTier FROM contract " +
+                     "WHERE status = 'active' AND company_id IN (" + companyScope + ") ORDER BY id";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ClientAccount account = accountsById.get(rs.getInt("company_id"));
+                if (account != null) {
+                    account.getAbonnements().add(mapAbonnement(rs));
+                }
+            }
+        }
+    }
+
+    void loadDevisBulk(Map<Integer, ClientAccount> accountsById, String companyScope) throws SQLException {
+        String sql = "SELECT company_id, id, quote_number, created_at, estimated_annual_total, status FROM quote " +
+                     "WHERE company_id IN (" + companyScope + ") ORDER BY id";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ClientAccount account = accountsById.get(rs.getInt("company_id"));
+                if (account != null) {
+                    account.getDevis().add(mapDevis(rs));
+                }
+            }
+        }
+    }
+
+    void loadFacturesBulk(Map<Integer, ClientAccount> accountsById, String companyScope) throws SQLException {
+        String sql = "SELECT company_id, id, invoice_number, invoice_date, total_amount, status FROM invoice " +
+                     "WHERE company_id IN (" + companyScope + ") ORDER BY id";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ClientAccount account = accountsById.get(rs.getInt("company_id"));
+                if (account != null) {
+                    account.getFactures().add(mapFacture(rs));
+                }
+            }
+        }
+    }
+
     private double calculateChiffreAffairesAnnuelsReels(String companyId) throws SQLException {
         double totalCA = 0.0;
         String sql = "SELECT SUM(total_amount) AS total_ca FROM invoice WHERE company_id = ? AND status = 'payed'";
@@ -79,66 +269,294 @@ public class DatabaseService {
 
     public List<Evenement> getAllEvenements() throws SQLException {
         List<Evenement> evenements = new ArrayList<>();
+        Map<Integer, Evenement> evenementsById = new LinkedHashMap<>();
         String sql = "SELECT id, name AS nom_evenement, description, start_date AS date_debut, end_date AS date_fin, location AS lieu, capacity AS capacite_max, is_active FROM event";
         logger.debug("Exécution de la requête pour getAllEvenements: {}", sql);
+        reservationLoadStats.reset();
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                String eventIdStr = String.valueOf(rs.getInt("id"));
-                String typeEvenement = "Non spécifié";
-
-                Evenement evenement = new Evenement(
-                        eventIdStr,
-                        rs.getString("nom_evenement"),
-                        typeEvenement,
-                        rs.getString("description"),
-                        rs.getTimestamp("date_debut"),
-                        rs.getTimestamp("date_fin"),
-                        rs.getString("lieu"),
-                        rs.getInt("capacite_max")
-                );
-                evenement.setReservations(getReservationsForEvent(eventIdStr));
-                evenements.add(evenement);
+        try {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int eventId = rs.getInt("id");
+                    Evenement evenement = mapEvenement(rs);
+                    if (!bulkLoading) {
+                        evenement.setReservations(getReservationsForEvent(evenement.getId()));
+                    }
+                    evenementsById.put(eventId, evenement);
+                    evenements.add(evenement);
+                }
+            }
+            if (bulkLoading && !evenementsById.isEmpty()) {
+                loadReservationsBulk(evenementsById);
             }
         } catch (SQLException e) {
             logger.error("Erreur lors de la récupération des événements: {}", e.getMessage(), e);
             throw e;
         }
-        logger.info("{} événements chargés.", evenements.size());
+        logger.info("{} événements chargés. Réservations : {}.", evenements.size(), reservationLoadStats);
         return evenements;
     }
 
+    Evenement mapEvenement(ResultSet rs) throws SQLException {
+        String typeEvenement = "Non spécifié";
+        Evenement evenement = new Evenement(
+                String.valueOf(rs.getInt("id")),
+                rs.getString("nom_evenement"),
+                typeEvenement,
+                rs.getString("description"),
+                rs.getTimestamp("date_debut"),
+                rs.getTimestamp("date_fin"),
+                rs.getString("lieu"),
+                rs.getInt("capacite_max")
+        );
+        evenement.setActif(rs.getBoolean("is_active"));
+        return evenement;
+    }
+
+    public QueryStats getReservationLoadStats() {
+        return reservationLoadStats;
+    }
+
     public List<Prestation> getAllPrestations() throws SQLException {
         List<Prestation> prestations = new ArrayList<>();
-        String sql = "SELECT id, title AS nom_prestation, description, price AS cout_unitaire, is_available AS disponibilite, is_medical FROM service";
+        String sql = "SELECT s.id, s.title AS nom_prestation, s.description, s.price AS cout_unitaire, s.is_available AS disponibilite, s.is_medical, " +
+                     "p.id AS id_prestataire, p.full_name AS nom_prestataire FROM service s LEFT JOIN provider p ON s.providerId = p.id";
         logger.debug("Exécution de la requête pour getAllPrestations: {}", sql);
 
         try (PreparedStatement pstmt = connection.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                String prestationIdStr = String.valueOf(rs.getInt("id"));
-                String typePrestation = rs.getBoolean("is_medical") ? "Médical" : "Bien-être/Autre";
-                boolean disponibiliteFromDb = rs.getBoolean("disponibilite");
-
-                Prestation prestation = new Prestation(
-                        prestationIdStr,
-                        rs.getString("nom_prestation"),
-                        typePrestation,
-                        rs.getString("description"),
-                        rs.getDouble("cout_unitaire"),
-                        disponibiliteFromDb
-                );
-                prestations.add(prestation);
+                prestations.add(mapPrestation(rs));
             }
         } catch (SQLException e) {
             logger.error("Erreur lors de la récupération des prestations: {}", e.getMessage(), e);
             throw e;
         }
+        loadServiceEventGraph().attachTo(prestations);
         logger.info("{} prestations chargées au total (disponibles et non disponibles).", prestations.size());
         return prestations;
     }
 
+    public ServiceEventGraph loadServiceEventGraph() throws SQLException {
+        String[] link = findServiceEventLink();
+        ServiceEventGraph.Builder builder = new ServiceEventGraph.Builder();
+        if (link == null) {
+            return builder.build();
+        }
+        String sql = "SELECT " + link[1] + " AS service_id, " + link[2] + " AS event_id FROM " + link[0] +
+                     " WHERE " + link[1] + " IS NOT NULL AND " + link[2] + " IS NOT NULL";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                builder.add(rs.getInt(1), rs.getInt(2));
+            }
+        } catch (SQLException e) {
+            logger.error("Erreur lors de la récupération des associations prestations/événements: {}", e.getMessage(), e);
+            throw e;
+        }
+        ServiceEventGraph graph = builder.build();
+        logger.info("{} association(s) prestation/événement chargées depuis {} ({} prestations, {} événements).",
+                graph.getLinkCount(), link[0], graph.getServiceCount(), graph.getEventCount());
+        return graph;
+    }
+
+    String[] findServiceEventLink() throws SQLException {
+        String[] link = serviceEventLink;
+        if (link == null) {
+            link = discoverServiceEventLink();
+            serviceEventLink = link;
+        }
+        return link.length == 0 ? null : link;
+    }
+
+    private String[] discoverServiceEventLink() throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String catalog = connection.getCatalog();
+        try (ResultSet rs = metaData.getExportedKeys(catalog, null, "service")) {
+            while (rs.next()) {
+                String table = rs.getString("FKTABLE_NAME");
+                String serviceColumn = rs.getString("FKCOLUMN_NAME");
+                String eventColumn = "event".equalsIgnoreCase(table) ? "id" : findForeignKey(metaData, catalog, table, "event");
+                if (eventColumn != null) {
+                    return new String[] { table, serviceColumn, eventColumn };
+                }
+            }
+        }
+        String eventColumn = findForeignKey(metaData, catalog, "service", "event");
+        if (eventColumn != null) {
+            return new String[] { "service", "id", eventColumn };
+        }
+        try (ResultSet tables = metaData.getTables(catalog, null, "%", new String[] { "TABLE" })) {
+            while (tables.next()) {
+                String table = tables.getString("TABLE_NAME");
+                Set<String> columns = new HashSet<>();
+                try (ResultSet rs = metaData.getColumns(catalog, null, table, null)) {
+                    while (rs.next()) {
+                        columns.add(rs.getString("COLUMN_NAME"));
+                    }
+                }
+                String serviceColumn = "service".equalsIgnoreCase(table) ? "id" : findColumn(columns, SERVICE_LINK_CANDIDATES);
+                eventColumn = "event".equalsIgnoreCase(table) ? "id" : findColumn(columns, EVENT_LINK_CANDIDATES);
+                if (serviceColumn != null && eventColumn != null) {
+                    return new String[] { table, serviceColumn, eventColumn };
+                }
+            }
+        }
+        logger.warn("Aucune association entre prestations et événements trouvée dans le schéma. Les événements associés resteront vides.");
+        return new String[0];
+    }
+
+    private static String findForeignKey(DatabaseMetaData metaData, String catalog, String table, String referencedTable) throws SQLException {
+        try (ResultSet rs = metaData.getImportedKeys(catalog, null, table)) {
+            while (rs.next()) {
+                if (referencedTable.equalsIgnoreCase(rs.getString("PKTABLE_NAME"))) {
+                    return rs.getString("FKCOLUMN_NAME");
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String findColumn(Set<String> columns, String[] candidates) {
+        for (String column : columns) {
+            for (String candidate : candidates) {
+                if (column.equalsIgnoreCase(candidate)) {
+                    return column;
+                }
+            }
+        }
+        return null;
+    }
+
+    Prestation mapPrestation(ResultSet rs) throws SQLException {
+        String typePrestation = rs.getBoolean("is_medical") ? "Médical" : "Bien-être/Autre";
+        boolean disponibiliteFromDb = rs.getBoolean("disponibilite");
+        Prestation prestation = new Prestation(
+                String.valueOf(rs.getInt("id")),
+                rs.getString("nom_prestation"),
+                typePrestation,
+                rs.getString("description"),
+                rs.getDouble("cout_unitaire"),
+                disponibiliteFromDb
+        );
+        int providerId = rs.getInt("id_prestataire");
+        if (!rs.wasNull()) {
+            prestation.setIdPrestataire(String.valueOf(providerId));
+            prestation.setNomPrestataire(rs.getString("nom_prestataire"));
+        }
+        return prestation;
+    }
+
+    public long streamEvenements(RowHandler handler) throws SQLException {
+        String sql = "SELECT id, name AS nom_evenement, description, start_date AS date_debut, end_date AS date_fin, location AS lieu, capacity AS capacite_max, is_active FROM event";
+        try {
+            return stream(sql, handler);
+        } catch (SQLException e) {
+            logger.error("Erreur lors du parcours en flux des événements: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    public long streamPrestations(RowHandler handler) throws SQLException {
+        String sql = "SELECT s.id, s.title AS nom_prestation, s.description, s.price AS cout_unitaire, s.is_available AS disponibilite, s.is_medical, " +
+                     "p.id AS id_prestataire, p.full_name AS nom_prestataire FROM service s LEFT JOIN provider p ON s.providerId = p.id";
+        try {
+            return stream(sql, handler);
+        } catch (SQLException e) {
+            logger.error("Erreur lors du parcours en flux des prestations: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    public long streamClientTotalContractValues(DoubleConsumer consumer) throws SQLException {
+        try {
+            return stream(CONTRACT_VALUE_SQL, rs -> consumer.accept(rs.getDouble(1)));
+        } catch (SQLException e) {
+            logger.error("Erreur lors du parcours en flux du CA par client (contrats actifs): {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    public ContractCohorts getContractCohorts(int horizonMonth) throws SQLException {
+        ContractCohorts.Builder builder = new ContractCohorts.Builder(horizonMonth);
+        String sql = "SELECT company_id, startDate, endDate, status FROM contract ORDER BY company_id";
+        try {
+            long rows = stream(sql, rs -> builder.add(rs.getInt("company_id"), rs.getDate("startDate"), rs.getDate("endDate"), "active".equalsIgnoreCase(rs.getString("status"))));
+            logger.info("Historique des contrats parcouru en un passage : {} contrat(s).", rows);
+        } catch (SQLException e) {
+            logger.error("Erreur lors du parcours de l'historique des contrats: {}", e.getMessage(), e);
+            throw e;
+        }
+        return builder.build();
+    }
+
+    public BookingAnalytics getBookingAnalytics(int topCompanies) throws SQLException {
+        BookingAnalytics.Builder builder = new BookingAnalytics.Builder(topCompanies);
+        try {
+            long rows = stream(BOOKING_ANALYTICS_SQL, rs -> addBooking(builder, rs));
+            stream(BOOKINGS_PER_EMPLOYEE_SQL, rs -> builder.addEmployee(rs.getLong("bookings")));
+            stream(BOOKINGS_PER_COMPANY_SQL, rs -> builder.addCompany(rs.getLong("company_id"), rs.getLong("bookings")));
+            logger.info("Réservations parcourues en un passage : {} réservation(s).", rows);
+            BookingAnalytics analytics = builder.build();
+            return analytics.withCompanyNames(getCompanyNames(analytics.getTopCompanyIds()));
+        } catch (SQLException e) {
+            logger.error("Erreur lors du parcours des réservations: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    static void addBooking(BookingAnalytics.Builder builder, ResultSet rs) throws SQLException {
+        int weekday = rs.getInt("weekday");
+        if (rs.wasNull()) {
+            weekday = -1;
+        }
+        int hour = rs.getInt("hour");
+        double leadDays = rs.getDouble("lead_days");
+        if (rs.wasNull()) {
+            leadDays = Double.NaN;
+        }
+        builder.addBooking(weekday, hour, leadDays);
+    }
+
+    Map<Long, String> getCompanyNames(long[] ids) throws SQLException {
+        Map<Long, String> names = new HashMap<>();
+        if (ids.length > 0) {
+            Object[] params = new Object[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                params[i] = ids[i];
+            }
+            String sql = "SELECT id, name FROM company WHERE id IN (" + String.join(",", Collections.nCopies(ids.length, "?")) + ")";
+            stream(sql, rs -> names.put(rs.getLong("id"), rs.getString("name")), params);
+        }
+        return names;
+    }
+
+    long stream(String sql, RowHandler handler, Object... params) throws SQLException {
+        long rows = 0;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(streamingFetchSize());
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(rs);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private int streamingFetchSize() throws SQLException {
+        if (streamingFetchSize == 0) {
+            streamingFetchSize = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())
+                    ? MYSQL_STREAMING_FETCH_SIZE : STREAMING_FETCH_SIZE;
+        }
+        return streamingFetchSize;
+    }
+
     private List<Abonnement> getAbonnementsForCompany(String companyId) throws SQLException {
         List<Abonnement> abonnements = new ArrayList<>();
         String sql = "SELECT id, startDate, endDate, price, subscriptionTier FROM contract WHERE company_id = ? AND status = 'active'";
@@ -146,30 +564,7 @@ public class DatabaseService {
             pstmt.setInt(1, Integer.parseInt(companyId));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String tierStr = rs.getString("subscriptionTier");
-                    SubscriptionTier tier = SubscriptionTier.BASIC;
-                    if (tierStr != null) {
-                        try {
-                            switch (tierStr.toLowerCase()) {
-                                case "starter": tier = SubscriptionTier.BASIC; break;
-                                case "basic": tier = SubscriptionTier.STANDARD; break;
-                                case "premium": tier = SubscriptionTier.PREMIUM; break;
-                                case "custom": case "enterprise": tier = SubscriptionTier.ENTERPRISE; break;
-                                default:
-                                    logger.warn("Valeur de subscriptionTier non reconnue: '{}' pour contrat ID {}. Utilisation de BASIC par défaut.", tierStr, rs.getInt("id"));
-                                    break;
-                            }
-                        } catch (IllegalArgumentException e) {
-                            logger.warn("Erreur de parsing pour subscriptionTier: '{}' - {}. Utilisation de BASIC par défaut.", tierStr, e.getMessage());
-                        }
-                    }
-                    abonnements.add(new Abonnement(
-                        String.valueOf(rs.getInt("id")),
-                        tier,
-                        rs.getDate("startDate"),
-                        rs.getDate("endDate"),
-                        rs.getDouble("price")
-                    ));
+                    abonnements.add(mapAbonnement(rs));
                 }
             }
         }
@@ -183,31 +578,7 @@ public class DatabaseService {
             pstmt.setInt(1, Integer.parseInt(companyId));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                     String statusStr = rs.getString("status");
-                     QuoteStatus status = QuoteStatus.PENDING;
-                     if (statusStr != null) {
-                         try {
-                            switch(statusStr.toLowerCase()) {
-                                case "pending": status = QuoteStatus.PENDING; break;
-                                case "sent": status = QuoteStatus.SENT; break;
-                                case "accepted": case "contracted": status = QuoteStatus.ACCEPTED; break;
-                                case "rejected": case "expired": status = QuoteStatus.REJECTED; break;
-                                case "approved": status = QuoteStatus.APPROVED; break;
-                                default:
-                                    logger.warn("Valeur de status de devis non reconnue: '{}' pour devis ID {}. Utilisation de PENDING par défaut.", statusStr, rs.getInt("id"));
-                                    break;
-                            }
-                         } catch (IllegalArgumentException e) {
-                            logger.warn("Erreur de parsing pour status devis: '{}' - {}. Utilisation de PENDING par défaut.", statusStr, e.getMessage());
-                         }
-                     }
-                    devisList.add(new Devis(
-                        String.valueOf(rs.getInt("id")),
-                        rs.getString("quote_number"),
-                        rs.getTimestamp("created_at"),
-                        rs.getDouble("estimated_annual_total"),
-                        status
-                    ));
+                    devisList.add(mapDevis(rs));
                 }
             }
         }
@@ -221,64 +592,361 @@ public class DatabaseService {
             pstmt.setInt(1, Integer.parseInt(companyId));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    String statusStr = rs.getString("status");
-                    InvoiceStatus status = InvoiceStatus.PENDING;
-                     if (statusStr != null) {
-                         try {
-                            switch(statusStr.toLowerCase()) {
-                                case "pending": status = InvoiceStatus.PENDING; break;
-                                case "payed": case "paid": status = InvoiceStatus.PAID; break;
-                                case "overdue": status = InvoiceStatus.OVERDUE; break;
-                                case "cancelled": status = InvoiceStatus.CANCELLED; break;
-                                default:
-                                     logger.warn("Valeur de status de facture non reconnue: '{}' pour facture ID {}. Utilisation de PENDING par défaut.", statusStr, rs.getInt("id"));
-                                     break;
-                            }
-                         } catch (IllegalArgumentException e) {
-                            logger.warn("Erreur de parsing pour status facture: '{}' - {}. Utilisation de PENDING par défaut.", statusStr, e.getMessage());
-                         }
-                     }
-                    factures.add(new Facture(
-                        String.valueOf(rs.getInt("id")),
-                        rs.getString("invoice_number"),
-                        rs.getDate("invoice_date"),
-                        rs.getDouble("total_amount"),
-                        status
-                    ));
+                    factures.add(mapFacture(rs));
                 }
             }
         }
         return factures;
     }
 
+    Abonnement mapAbonnement(ResultSet rs) throws SQLException {
+        String tierStr = rs.getString("subscriptionTier");
+        SubscriptionTier tier = SubscriptionTier.BASIC;
+        if (tierStr != null) {
+            try {
+                switch (tierStr.toLowerCase()) {
+                    case "starter": tier = SubscriptionTier.BASIC; break;
+                    case "basic": tier = SubscriptionTier.STANDARD; break;
+                    case "premium": tier = SubscriptionTier.PREMIUM; break;
+                    case "custom": case "enterprise": tier = SubscriptionTier.ENTERPRISE; break;
+                    default:
+                        logger.warn("Valeur de subscriptionTier non reconnue: '{}' pour contrat ID {}. Utilisation de BASIC par défaut.", tierStr, rs.getInt("id"));
+                        break;
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Erreur de parsing pour subscriptionTier: '{}' - {}. Utilisation de BASIC par défaut.", tierStr, e.getMessage());
+            }
+        }
+        Abonnement abonnement = new Abonnement(
+            String.valueOf(rs.getInt("id")),
+            tier,
+            rs.getDate("startDate"),
+            rs.getDate("endDate"),
+            rs.getDouble("price")
+        );
+        abonnement.setLibelleFormule(tierStr);
+        return abonnement;
+    }
+
+    static ContractStatus mapContractStatus(String statusStr) {
+        if (statusStr == null) {
+            return ContractStatus.PENDING;
+        }
+        switch (statusStr.toLowerCase()) {
+            case "active": return ContractStatus.ACTIVE;
+            case "expired": return ContractStatus.EXPIRED;
+            case "terminated": return ContractStatus.TERMINATED;
+            case "cancelled": case "canceled": return ContractStatus.CANCELLED;
+            default: return ContractStatus.PENDING;
+        }
+    }
+
+    Devis mapDevis(ResultSet rs) throws SQLException {
+        String statusStr = rs.getString("status");
+        QuoteStatus status = QuoteStatus.PENDING;
+        if (statusStr != null) {
+            try {
+                switch(statusStr.toLowerCase()) {
+                    case "pending": status = QuoteStatus.PENDING; break;
+                    case "sent": status = QuoteStatus.SENT; break;
+                    case "accepted": case "contracted": status = QuoteStatus.ACCEPTED; break;
+                    case "rejected": case "expired": status = QuoteStatus.REJECTED; break;
+                    case "approved": status = QuoteStatus.APPROVED; break;
+                    default:
+                        logger.warn("Valeur de status de devis non reconnue: '{}' pour devis ID {}. Utilisation de PENDING par défaut.", statusStr, rs.getInt("id"));
+                        break;
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Erreur de parsing pour status devis: '{}' - {}. Utilisation de PENDING par défaut.", statusStr, e.getMessage());
+            }
+        }
+        return new Devis(
+            String.valueOf(rs.getInt("id")),
+            rs.getString("quote_number"),
+            rs.getTimestamp("created_at"),
+            rs.getDouble("estimated_annual_total"),
+            status
+        );
+    }
+
+    Facture mapFacture(ResultSet rs) throws SQLException {
+        String statusStr = rs.getString("status");
+        InvoiceStatus status = InvoiceStatus.PENDING;
+        if (statusStr != null) {
+            try {
+                switch(statusStr.toLowerCase()) {
+                    case "pending": status = InvoiceStatus.PENDING; break;
+                    case "payed": case "paid": status = InvoiceStatus.PAID; break;
+                    case "overdue": status = InvoiceStatus.OVERDUE; break;
+                    case "cancelled": status = InvoiceStatus.CANCELLED; break;
+                    default:
+                         logger.warn("Valeur de status de facture non reconnue: '{}' pour facture ID {}. Utilisation de PENDING par défaut.", statusStr, rs.getInt("id"));
+                         break;
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Erreur de parsing pour status facture: '{}' - {}. Utilisation de PENDING par défaut.", statusStr, e.getMessage());
+            }
+        }
+        return new Facture(
+            String.valueOf(rs.getInt("id")),
+            rs.getString("invoice_number"),
+            rs.getDate("invoice_date"),
+            rs.getDouble("total_amount"),
+            status
+        );
+    }
+
     private List<Reservation> getReservationsForEvent(String eventId) throws SQLException {
         List<Reservation> reservations = new ArrayList<>();
         String sql = "SELECT b.id, b.employee_id, b.booking_date, e.company_id " +
                      "FROM booking b " +
                      "JOIN employee e ON b.employee_id = e.id " +
                      "WHERE b.event_id = ?";
+        long start = System.nanoTime();
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, Integer.parseInt(eventId));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    int nombreParticipants = 1;
-                    reservations.add(new Reservation(
-                        String.valueOf(rs.getInt("id")),
-                        eventId,
-                        String.valueOf(rs.getInt("company_id")),
-                        rs.getTimestamp("booking_date"),
-                        nombreParticipants
-                    ));
+                    reservations.add(mapReservation(rs, eventId));
                 }
             }
         }
+        reservationLoadStats.record(System.nanoTime() - start, reservations.size());
         return reservations;
     }
 
+    void loadReservationsBulk(Map<Integer, Evenement> evenementsById) throws SQLException {
+        List<Integer> eventIds = new ArrayList<>(evenementsById.keySet());
+        for (int from = 0; from < eventIds.size(); from += RESERVATION_CHUNK_SIZE) {
+            List<Integer> chunk = eventIds.subList(from, Math.min(from + RESERVATION_CHUNK_SIZE, eventIds.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT b.id, b.event_id, b.employee_id, b.booking_date, e.company_id " +
+                         "FROM booking b " +
+                         "JOIN employee e ON b.employee_id = e.id " +
+                         "WHERE b.event_id IN (" + placeholders + ") ORDER BY b.id";
+            long start = System.nanoTime();
+            long rows = stream(sql, rs -> {
+                Evenement evenement = evenementsById.get(rs.getInt("event_id"));
+                if (evenement != null) {
+                    evenement.getReservations().add(mapReservation(rs, evenement.getId()));
+                }
+            }, chunk.toArray());
+            reservationLoadStats.record(System.nanoTime() - start, rows);
+        }
+    }
+
+    Reservation mapReservation(ResultSet rs, String eventId) throws SQLException {
+        int nombreParticipants = 1;
+        return new Reservation(
+            String.valueOf(rs.getInt("id")),
+            eventId,
+            String.valueOf(rs.getInt("company_id")),
+            String.valueOf(rs.getInt("employee_id")),
+            rs.getTimestamp("booking_date"),
+            nombreParticipants
+        );
+    }
+
+    Map<Integer, ClientAccount> loadClientAccounts(Collection<Integer> companyIds) throws SQLException {
+        Map<Integer, ClientAccount> accountsById = new LinkedHashMap<>();
+        for (List<Integer> chunk : chunks(companyIds)) {
+            String scope = joinIds(chunk);
+            Map<Integer, ClientAccount> chunkById = new LinkedHashMap<>();
+            String sql = "SELECT id, name AS nom_societe, address AS adresse, city AS ville, industry AS type_client, size FROM company " +
+                         "WHERE status = 'ACTIVE' AND id IN (" + scope + ") ORDER BY id";
+            try (PreparedStatement pstmt = connection.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    chunkById.put(rs.getInt("id"), mapClientAccount(rs));
+                }
+            }
+            if (!chunkById.isEmpty()) {
+                loadChiffreAffairesBulk(chunkById, scope);
+                loadAbonnementsBulk(chunkById, scope);
+                loadDevisBulk(chunkById, scope);
+                loadFacturesBulk(chunkById, scope);
+            }
+            accountsById.putAll(chunkById);
+        }
+        return accountsById;
+    }
+
+    Map<Integer, Evenement> loadEvenements(Collection<Integer> eventIds) throws SQLException {
+        Map<Integer, Evenement> evenementsById = new LinkedHashMap<>();
+        for (List<Integer> chunk : chunks(eventIds)) {
+            String sql = "SELECT id, name AS nom_evenement, description, start_date AS date_debut, end_date AS date_fin, location AS lieu, capacity AS capacite_max, is_active FROM event " +
+                         "WHERE id IN (" + joinIds(chunk) + ") ORDER BY id";
+            try (PreparedStatement pstmt = connection.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    evenementsById.put(rs.getInt("id"), mapEvenement(rs));
+                }
+            }
+        }
+        if (!evenementsById.isEmpty()) {
+            loadReservationsBulk(evenementsById);
+        }
+        return evenementsById;
+    }
+
+    Map<Integer, Prestation> loadPrestations(Collection<Integer> serviceIds) throws SQLException {
+        Map<Integer, Prestation> prestationsById = new LinkedHashMap<>();
+        for (List<Integer> chunk : chunks(serviceIds)) {
+            String sql = "SELECT s.id, s.title AS nom_prestation, s.description, s.price AS cout_unitaire, s.is_available AS disponibilite, s.is_medical, " +
+                     "p.id AS id_prestataire, p.full_name AS nom_prestataire FROM service s LEFT JOIN provider p ON s.providerId = p.id " +
+                         "WHERE s.id IN (" + joinIds(chunk) + ") ORDER BY s.id";
+            try (PreparedStatement pstmt = connection.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    prestationsById.put(rs.getInt("id"), mapPrestation(rs));
+                }
+            }
+        }
+        return prestationsById;
+    }
+
+    String findChangeColumn(String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, table, null)) {
+            while (rs.next()) {
+                columns.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+            }
+        }
+        for (String candidate : CHANGE_COLUMN_CANDIDATES) {
+            if (columns.contains(candidate.toLowerCase(Locale.ROOT))) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    Object getMaxValue(String table, String column) throws SQLException {
+        String sql = "SELECT MAX(" + column + ") FROM " + table;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getObject(1) : null;
+        }
+    }
+
+    Set<Integer> getChangedIds(String table, String idColumn, String changeColumn, Object watermark) throws SQLException {
+        String sql = "SELECT DISTINCT " + idColumn + " FROM " + table + " WHERE " + changeColumn +
+                     (watermark == null ? " IS NOT NULL" : " >= ?");
+        Set<Integer> ids = new HashSet<>();
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            if (watermark != null) {
+                pstmt.setObject(1, watermark);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    Map<Integer, Integer> getChangedParents(String table, String parentColumn, String changeColumn, Object watermark) throws SQLException {
+        String sql = "SELECT id, " + parentColumn + " FROM " + table + " WHERE " + changeColumn +
+                     (watermark == null ? " IS NOT NULL" : " >= ?");
+        Map<Integer, Integer> parentById = new HashMap<>();
+        Object[] params = watermark == null ? new Object[0] : new Object[] { watermark };
+        stream(sql, rs -> parentById.put(rs.getInt(1), rs.getInt(2)), params);
+        return parentById;
+    }
+
+    Map<Integer, Integer> getParentIndex(String table, String parentColumn) throws SQLException {
+        Map<Integer, Integer> parentById = new HashMap<>();
+        String sql = "SELECT id, " + parentColumn + " FROM " + table;
+        stream(sql, rs -> parentById.put(rs.getInt(1), rs.getInt(2)));
+        return parentById;
+    }
+
+    long[] getRowCountAndMaxId(String table, String condition) throws SQLException {
+        String sql = "SELECT COUNT(*), COALESCE(MAX(id), 0) FROM " + table + " WHERE " + condition;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? new long[] { rs.getLong(1), rs.getLong(2) } : new long[] { 0, 0 };
+        }
+    }
+
+    long countChangedRows(String table, String changeColumn, Object after, long upToId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM " + table + " WHERE " + changeColumn + " > ? AND id <= ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, after);
+            pstmt.setLong(2, upToId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    long streamIdRange(String table, String columns, String condition, long afterId, long upToId, RowHandler handler) throws SQLException {
+        String sql = "SELECT id, " + columns + " FROM " + table + " WHERE " + condition + " AND id > ? AND id <= ?";
+        return stream(sql, handler, afterId, upToId);
+    }
+
+    long[] getIdBounds(String table) throws SQLException {
+        String sql = "SELECT MIN(id), MAX(id) FROM " + table;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            if (!rs.next() || rs.getObject(1) == null) {
+                return null;
+            }
+            return new long[] { rs.getLong(1), rs.getLong(2) };
+        }
+    }
+
+    long streamIdSample(String sqlTemplate, long[] ids, RowHandler handler) throws SQLException {
+        long rows = 0;
+        for (int from = 0; from < ids.length; from += RESERVATION_CHUNK_SIZE) {
+            StringBuilder scope = new StringBuilder();
+            for (int i = from; i < Math.min(from + RESERVATION_CHUNK_SIZE, ids.length); i++) {
+                if (scope.length() > 0) {
+                    scope.append(',');
+                }
+                scope.append(ids[i]);
+            }
+            rows += stream(String.format(sqlTemplate, scope), handler);
+        }
+        return rows;
+    }
+
+    Set<Integer> getIds(String sql) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private static List<List<Integer>> chunks(Collection<Integer> ids) {
+        List<Integer> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < sorted.size(); from += RESERVATION_CHUNK_SIZE) {
+            chunks.add(sorted.subList(from, Math.min(from + RESERVATION_CHUNK_SIZE, sorted.size())));
+        }
+        return chunks;
+    }
+
+    private static String joinIds(Collection<Integer> ids) {
+        StringBuilder joined = new StringBuilder();
+        for (Integer id : ids) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(id.intValue());
+        }
+        return joined.toString();
+    }
+
     public Map<String, Long> getClientCountBySubscriptionTier() throws SQLException {
         Map<String, Long> counts = new HashMap<>();
-        String sql = "SELECT subscriptionTier, COUNT(DISTINCT company_id) as count FROM contract WHERE status = 'active' GROUP BY subscriptionTier";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+        try (PreparedStatement pstmt = connection.prepareStatement(TIER_SQL);
              ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 String tier = rs.getString("subscriptionTier");
@@ -312,6 +980,12 @@ public class DatabaseService {
         return clientValues;
     }
 
+    public double[] getClientTotalContractValueColumn() throws SQLException {
+        DoubleStream.Builder values = DoubleStream.builder();
+        streamClientTotalContractValues(values);
+        return values.build().toArray();
+    }
+
     public Map<String, Long> getClientCountBySize() throws SQLException {
         Map<String, Long> counts = new HashMap<>();
         String sql = "SELECT size, COUNT(*) as count FROM company WHERE status = 'ACTIVE' GROUP BY size";
@@ -332,48 +1006,22 @@ public class DatabaseService {
     }
 
     public Map<String, Long> getClientCountByIndustry(int limit) throws SQLException {
-        Map<String, Long> counts = new LinkedHashMap<>();
-        String sql = "SELECT industry, COUNT(*) as count FROM company WHERE status = 'ACTIVE' GROUP BY industry ORDER BY count DESC" + (limit > 0 ? " LIMIT " + limit : "");
-        long autresCount = 0;
-        int currentCount = 0;
-
-        try (PreparedStatement pstmtTotal = connection.prepareStatement("SELECT COUNT(DISTINCT industry) FROM company WHERE status = 'ACTIVE'");
-             ResultSet rsTotal = pstmtTotal.executeQuery()) {
-            if (rsTotal.next() && rsTotal.getInt(1) > limit && limit > 0) {
-                 String sqlAll = "SELECT industry, COUNT(*) as count FROM company WHERE status = 'ACTIVE' GROUP BY industry ORDER BY count DESC";
-                 try (PreparedStatement pstmtAll = connection.prepareStatement(sqlAll); ResultSet rsAll = pstmtAll.executeQuery()){
-                    while(rsAll.next()){
-                        if(currentCount < limit) {
-                            String industry = rsAll.getString("industry");
-                            if (industry == null || industry.isEmpty()) {
-                                industry = "Non défini";
-                            }
-                            counts.put(industry, rsAll.getLong("count"));
-                        } else {
-                            autresCount += rsAll.getLong("count");
-                        }
-                        currentCount++;
-                    }
-                    if (autresCount > 0) {
-                        counts.put("Autres", autresCount);
-                    }
-                 }
-            } else {
-                 try (PreparedStatement pstmt = connection.prepareStatement(sql); ResultSet rs = pstmt.executeQuery()) {
-                     while(rs.next()){
-                        String industry = rs.getString("industry");
-                        if (industry == null || industry.isEmpty()) {
-                            industry = "Non défini";
-                        }
-                        counts.put(industry, rs.getLong("count"));
-                     }
-                 }
+        List<String> industries = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        String sql = "SELECT industry, COUNT(*) as count FROM company WHERE status = 'ACTIVE' GROUP BY industry";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                industries.add(rs.getString("industry"));
+                counts.add(rs.getLong("count"));
             }
         } catch (SQLException e) {
             logger.error("Erreur lors de la récupération de la répartition des clients par secteur d'activité: {}", e.getMessage(), e);
             throw e;
         }
-        return counts;
+        Map<String, Long> result = new LinkedHashMap<>();
+        collapseIndustries(industries, counts, limit, result);
+        return result;
     }
 
 
@@ -382,7 +1030,7 @@ public class DatabaseService {
         String sql = "SELECT c.name, SUM(i.total_amount) as total_paid " +
                      "FROM company c JOIN invoice i ON c.id = i.company_id " +
                      "WHERE i.status = 'payed' " +
-                     "GROUP BY c.id, c.name ORDER BY total_paid DESC LIMIT ?";
+                     "GROUP BY c.id, c.name ORDER BY total_paid DESC, c.id LIMIT ?";
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, n);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -397,36 +1045,63 @@ public class DatabaseService {
         return topClients;
     }
 
-    public Map<String, Long> getEventCountByMonth() throws SQLException {
-        Map<String, Long> counts = new LinkedHashMap<>();
-        String sql = "SELECT DATE_FORMAT(start_date, '%Y-%m') as month, COUNT(*) as count " +
-                     "FROM event WHERE is_active = 1 " +
-                     "GROUP BY month ORDER BY month ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                counts.put(rs.getString("month"), rs.getLong("count"));
-            }
+    public MonthlySeries getEventCountByMonth() throws SQLException {
+        try {
+            return monthlySeries(EVENT_MONTH_SQL);
         } catch (SQLException e) {
             logger.error("Erreur lors de la récupération de la fréquence des événements par mois: {}", e.getMessage(), e);
             throw e;
         }
-        return counts;
     }
 
-    public List<Integer> getEventCapacities() throws SQLException {
-        List<Integer> capacities = new ArrayList<>();
-        String sql = "SELECT capacity FROM event WHERE is_active = 1 AND capacity IS NOT NULL AND capacity > 0";
+    public MonthlySeries getPaidInvoicesByMonth() throws SQLException {
+        try {
+            return monthlySeries(PAID_INVOICE_MONTH_SQL);
+        } catch (SQLException e) {
+            logger.error("Erreur lors de la récupération des factures payées par mois: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    public MonthlySeries getNewContractsByMonth() throws SQLException {
+        try {
+            return monthlySeries(NEW_CONTRACT_MONTH_SQL);
+        } catch (SQLException e) {
+            logger.error("Erreur lors de la récupération des nouveaux contrats par mois: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private MonthlySeries monthlySeries(String sql) throws SQLException {
+        MonthlySeries.Builder builder = new MonthlySeries.Builder();
         try (PreparedStatement pstmt = connection.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                capacities.add(rs.getInt("capacity"));
+                builder.add(rs.getInt("month"), rs.getDouble("value"));
             }
+        }
+        return builder.build();
+    }
+
+    public List<Integer> getEventCapacities() throws SQLException {
+        List<Integer> capacities = new ArrayList<>();
+        streamEventCapacities(capacities::add);
+        return capacities;
+    }
+
+    public int[] getEventCapacityColumn() throws SQLException {
+        IntStream.Builder capacities = IntStream.builder();
+        streamEventCapacities(capacities);
+        return capacities.build().toArray();
+    }
+
+    public long streamEventCapacities(IntConsumer consumer) throws SQLException {
+        try {
+            return stream(EVENT_CAPACITY_SQL, rs -> consumer.accept(rs.getInt(1)));
         } catch (SQLException e) {
             logger.error("Erreur lors de la récupération des capacités des événements: {}", e.getMessage(), e);
             throw e;
         }
-        return capacities;
     }
 
     public Map<String, Long> getEventStatusCounts() throws SQLException {
@@ -450,7 +1125,7 @@ public class DatabaseService {
         String sql = "SELECT e.name, COUNT(b.id) as num_reservations " +
                      "FROM event e JOIN booking b ON e.id = b.event_id " +
                      "WHERE e.is_active = 1 " +
-                     "GROUP BY e.id, e.name ORDER BY num_reservations DESC LIMIT ?";
+                     "GROUP BY e.id, e.name ORDER BY num_reservations DESC, e.id LIMIT ?";
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, n);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -465,6 +1140,24 @@ public class DatabaseService {
         return topEvents;
     }
 
+    public EventUtilization getEventUtilization() throws SQLException {
+        EventUtilization utilization = new EventUtilization();
+        String sql = "SELECT e.id, e.name, e.capacity, COUNT(b.id) AS booked " +
+                     "FROM event e LEFT JOIN booking b ON b.event_id = e.id " +
+                     "WHERE e.is_active = 1 AND e.capacity > 0 " +
+                     "GROUP BY e.id, e.name, e.capacity ORDER BY e.id";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                utilization.add(rs.getLong("id"), rs.getString("name"), rs.getInt("capacity"), rs.getLong("booked"));
+            }
+        } catch (SQLException e) {
+            logger.error("Erreur lors du calcul du taux de remplissage des événements: {}", e.getMessage(), e);
+            throw e;
+        }
+        return utilization;
+    }
+
     public Map<String, Long> getServiceCountByType() throws SQLException {
         Map<String, Long> counts = new HashMap<>();
         String sql = "SELECT is_medical, COUNT(*) as count FROM service GROUP BY is_medical";
@@ -483,17 +1176,81 @@ public class DatabaseService {
 
     public List<Double> getServicePrices() throws SQLException {
         List<Double> prices = new ArrayList<>();
-        String sql = "SELECT price FROM service WHERE price IS NOT NULL AND price >= 0";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                prices.add(rs.getDouble("price"));
-            }
+        streamServicePrices(prices::add);
+        return prices;
+    }
+
+    public double[] getServicePriceColumn() throws SQLException {
+        DoubleStream.Builder prices = DoubleStream.builder();
+        streamServicePrices(prices);
+        return prices.build().toArray();
+    }
+
+    public long streamServicePrices(DoubleConsumer consumer) throws SQLException {
+        try {
+            return stream(SERVICE_PRICE_SQL, rs -> consumer.accept(rs.getDouble(1)));
         } catch (SQLException e) {
             logger.error("Erreur lors de la récupération des prix des prestations: {}", e.getMessage(), e);
             throw e;
         }
-        return prices;
+    }
+
+    public void histogramClientTotalContractValues(Histogram.Accumulator accumulator) throws SQLException {
+        try {
+            loadHistogram(CONTRACT_VALUE_SQL, accumulator);
+        } catch (SQLException e) {
+            logger.error("Erreur lors du calcul en base des tranches de CA par client: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    public void histogramEventCapacities(Histogram.Accumulator accumulator) throws SQLException {
+        try {
+            loadHistogram(EVENT_CAPACITY_SQL, accumulator);
+        } catch (SQLException e) {
+            logger.error("Erreur lors du calcul en base des tranches de capacité des événements: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    public void histogramServicePrices(Histogram.Accumulator accumulator) throws SQLException {
+        try {
+            loadHistogram(SERVICE_PRICE_SQL, accumulator);
+        } catch (SQLException e) {
+            logger.error("Erreur lors du calcul en base des tranches de prix des prestations: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void loadHistogram(String valueSql, Histogram.Accumulator accumulator) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(histogramSql(valueSql, accumulator.getHistogram()));
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                readHistogramRow(rs, accumulator, true);
+            }
+        }
+    }
+
+    static String histogramSql(String valueSql, Histogram histogram) {
+        StringBuilder bin = new StringBuilder("CASE");
+        if (histogram.getFloor() > Double.NEGATIVE_INFINITY) {
+            bin.append(" WHEN metric_value < ").append(histogram.getFloor()).append(" THEN -1");
+        }
+        String comparison = histogram.isUpperInclusive() ? " <= " : " < ";
+        for (int i = 0; i < histogram.getBoundCount(); i++) {
+            bin.append(" WHEN metric_value").append(comparison).append(histogram.getBound(i)).append(" THEN ").append(i);
+        }
+        bin.append(" ELSE ").append(histogram.getBoundCount()).append(" END");
+        return "SELECT " + bin + " AS bin, COUNT(*) AS count, SUM(metric_value) AS total " +
+               "FROM (" + valueSql + ") v WHERE metric_value IS NOT NULL GROUP BY bin";
+    }
+
+    private static void readHistogramRow(ResultSet rs, Histogram.Accumulator accumulator, boolean aggregated) throws SQLException {
+        if (aggregated) {
+            accumulator.addBin(rs.getInt("bin"), rs.getLong("count"), rs.getDouble("total"));
+        } else {
+            accumulator.accept(rs.getDouble(1));
+        }
     }
 
     public Map<String, Long> getServiceCountByProvider(int limit) throws SQLException {
@@ -501,7 +1258,7 @@ public class DatabaseService {
         String sql = "SELECT p.full_name AS provider_name, COUNT(s.id) AS service_count " +
                      "FROM service s JOIN provider p ON s.providerId = p.id " +
                      "GROUP BY p.id, p.full_name " +
-                     "ORDER BY service_count DESC " +
+                     "ORDER BY service_count DESC, p.id " +
                      (limit > 0 ? "LIMIT " + limit : "");
         try (PreparedStatement pstmt = connection.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
@@ -530,4 +1287,131 @@ public class DatabaseService {
         }
         return counts;
     }
-}
\ No newline at end of file
+
+    RawStatistics getStatisticsBatch(int topN, boolean histogramPushDown, boolean exactTierCounts) throws SQLException {
+        RawStatistics raw = new RawStatistics();
+        String[] queries = {
+            TIER_SQL,
+            histogramPushDown ? histogramSql(CONTRACT_VALUE_SQL, raw.clientRevenues.getHistogram()) : CONTRACT_VALUE_SQL,
+            "SELECT size, COUNT(*) AS count FROM company WHERE status = 'ACTIVE' GROUP BY size",
+            "SELECT industry, COUNT(*) AS count FROM company WHERE status = 'ACTIVE' GROUP BY industry",
+            "SELECT c.name, SUM(i.total_amount) AS total_paid FROM company c JOIN invoice i ON c.id = i.company_id WHERE i.status = 'payed' GROUP BY c.id, c.name ORDER BY total_paid DESC, c.id LIMIT " + topN,
+            EVENT_MONTH_SQL,
+            histogramPushDown ? histogramSql(EVENT_CAPACITY_SQL, raw.eventCapacities.getHistogram()) : EVENT_CAPACITY_SQL,
+            "SELECT is_active, COUNT(*) AS count FROM event GROUP BY is_active",
+            "SELECT e.name, COUNT(b.id) AS num_reservations FROM event e JOIN booking b ON e.id = b.event_id WHERE e.is_active = 1 GROUP BY e.id, e.name ORDER BY num_reservations DESC, e.id LIMIT " + topN,
+            "SELECT is_medical, COUNT(*) AS count FROM service GROUP BY is_medical",
+            histogramPushDown ? histogramSql(SERVICE_PRICE_SQL, raw.servicePrices.getHistogram()) : SERVICE_PRICE_SQL,
+            "SELECT p.full_name AS provider_name, COUNT(s.id) AS service_count FROM service s JOIN provider p ON s.providerId = p.id GROUP BY p.id, p.full_name ORDER BY service_count DESC, p.id LIMIT " + topN,
+            "SELECT is_available, COUNT(*) AS count FROM service GROUP BY is_available",
+            PAID_INVOICE_MONTH_SQL,
+            NEW_CONTRACT_MONTH_SQL
+        };
+        List<String> industries = new ArrayList<>();
+        List<Long> industryCounts = new ArrayList<>();
+        long start = System.nanoTime();
+
+        try (Statement stmt = connection.createStatement()) {
+            int index = exactTierCounts ? 0 : 1;
+            boolean hasResult = stmt.execute(String.join(";\n", Arrays.asList(queries).subList(index, queries.length)));
+            while (hasResult || stmt.getUpdateCount() != -1) {
+                if (hasResult) {
+                    try (ResultSet rs = stmt.getResultSet()) {
+                        readStatisticsResult(index, rs, raw, industries, industryCounts, histogramPushDown);
+                    }
+                    index++;
+                }
+                hasResult = stmt.getMoreResults();
+            }
+            if (index != queries.length) {
+                throw new SQLException("Instantané statistique incomplet : " + index + " résultat(s) reçu(s) sur " + queries.length + ".");
+            }
+        } catch (SQLException e) {
+            logger.error("Erreur lors de la récupération de l'instantané statistique: {}", e.getMessage(), e);
+            throw e;
+        }
+        collapseIndustries(industries, industryCounts, topN, raw.clientCountByIndustry);
+        logger.info("Instantané statistique chargé en un aller-retour ({} requêtes, {} ms).", exactTierCounts ? queries.length : queries.length - 1, (System.nanoTime() - start) / 1_000_000);
+        return raw;
+    }
+
+    private void readStatisticsResult(int index, ResultSet rs, RawStatistics raw, List<String> industries, List<Long> industryCounts, boolean histogramPushDown) throws SQLException {
+        while (rs.next()) {
+            switch (index) {
+                case 0: {
+                    String tier = rs.getString("subscriptionTier");
+                    raw.clientCountBySubscriptionTier.put(tier == null || tier.isEmpty() ? "Non défini" : tier, rs.getLong("count"));
+                    break;
+                }
+                case 1:
+                    readHistogramRow(rs, raw.clientRevenues, histogramPushDown);
+                    break;
+                case 2: {
+                    String size = rs.getString("size");
+                    raw.clientCountBySize.put(size == null || size.isEmpty() ? "Non défini" : size, rs.getLong("count"));
+                    break;
+                }
+                case 3:
+                    industries.add(rs.getString("industry"));
+                    industryCounts.add(rs.getLong("count"));
+                    break;
+                case 4:
+                    raw.topClientsByTotalPaid.put(rs.getString("name"), rs.getDouble("total_paid"));
+                    break;
+                case 5:
+                    raw.eventCountByMonth.add(rs.getInt("month"), rs.getDouble("value"));
+                    break;
+                case 6:
+                    readHistogramRow(rs, raw.eventCapacities, histogramPushDown);
+                    break;
+                case 7:
+                    raw.eventStatusCounts.put(rs.getBoolean("is_active") ? "Actifs" : "Inactifs", rs.getLong("count"));
+                    break;
+                case 8:
+                    raw.topEventsByBooking.put(rs.getString("name"), rs.getInt("num_reservations"));
+                    break;
+                case 9:
+                    raw.serviceCountByType.put(rs.getBoolean("is_medical") ? "Médical" : "Non-Médical", rs.getLong("count"));
+                    break;
+                case 10:
+                    readHistogramRow(rs, raw.servicePrices, histogramPushDown);
+                    break;
+                case 11:
+                    raw.serviceCountByProvider.put(rs.getString("provider_name"), rs.getLong("service_count"));
+                    break;
+                case 12:
+                    raw.serviceCountByAvailability.put(rs.getBoolean("is_available") ? "Disponibles" : "Non Disponibles", rs.getLong("count"));
+                    break;
+                case 13:
+                    raw.paidInvoicesByMonth.add(rs.getInt("month"), rs.getDouble("value"));
+                    break;
+                case 14:
+                    raw.newContractsByMonth.add(rs.getInt("month"), rs.getDouble("value"));
+                    break;
+                default:
+                    throw new SQLException("Résultat inattendu n°" + index + " dans l'instantané statistique.");
+            }
+        }
+    }
+
+    static void collapseIndustries(List<String> industries, List<Long> counts, int limit, Map<String, Long> target) {
+        Integer[] byName = new Integer[industries.size()];
+        for (int i = 0; i < byName.length; i++) {
+            byName[i] = i;
+        }
+        Arrays.sort(byName, Comparator.comparing(industries::get, Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+        TopK top = new TopK(limit > 0 ? Math.min(limit, industries.size()) : industries.size(), true);
+        for (int i = 0; i < byName.length; i++) {
+            top.offer(i, counts.get(byName[i]));
+        }
+        long[] ranked = top.keys();
+        double[] rankedCounts = top.scores();
+        for (int rank = 0; rank < ranked.length; rank++) {
+            String industry = industries.get(byName[(int) ranked[rank]]);
+            target.merge(industry == null || industry.isEmpty() ? "Non défini" : industry, (long) rankedCounts[rank], Long::sum);
+        }
+        if (top.hasOthers()) {
+            target.put("Autres", (long) top.getOthersScore());
+        }
+    }
+}
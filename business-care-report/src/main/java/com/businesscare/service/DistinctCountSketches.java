@@ -0,0 +1,198 @@
+package com.businesscare.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.businesscare.util.HyperLogLog;
+
+public class DistinctCountSketches {
+    private static final Logger logger = LoggerFactory.getLogger(DistinctCountSketches.class);
+    public static final double DEFAULT_RELATIVE_ERROR = 0.01;
+    static final String TIER_METRIC = "clientCountBySubscriptionTier";
+    private static final int MAGIC = 0x4243484C;
+    private static final int VERSION = 3;
+
+    private final int precision;
+    private final Path storage;
+    private boolean loaded;
+    private final Map<String, String> changeColumns = new HashMap<>();
+    private Dimension tiers = new Dimension();
+
+    public DistinctCountSketches(double relativeError, Path storage) {
+        this.precision = HyperLogLog.precisionFor(relativeError);
+        this.storage = storage;
+    }
+
+    public double getRelativeError() {
+        return new HyperLogLog(precision).getRelativeError();
+    }
+
+    public synchronized Map<String, Long> getClientCountBySubscriptionTier(DatabaseService databaseService) throws SQLException {
+        load();
+        refresh(databaseService, tiers, "contract", "subscriptionTier, company_id", "status = 'active'", rs -> {
+            String tier = rs.getString(2);
+            tiers.sketch(tier == null || tier.isEmpty() ? "Non défini" : tier).addLong(rs.getInt(3));
+        });
+        Map<String, Long> counts = new HashMap<>();
+        tiers.sketches.forEach((tier, sketch) -> counts.put(tier, sketch.estimate()));
+        return counts;
+    }
+
+    public synchronized void clear() {
+        tiers = new Dimension();
+        loaded = true;
+        save();
+    }
+
+    private void refresh(DatabaseService databaseService, Dimension dimension, String table, String columns, String condition, RowHandler handler) throws SQLException {
+        long start = System.nanoTime();
+        long[] extent = databaseService.getRowCountAndMaxId(table, condition);
+        long rowCount = extent[0];
+        long maxId = extent[1];
+        String changeColumn = changeColumn(databaseService, table);
+        Object latestChange = changeColumn == null ? null : databaseService.getMaxValue(table, changeColumn);
+        String changeMark = latestChange == null ? null : latestChange.toString();
+        long added = 0;
+        boolean rebuilt = false;
+        if (changeMark != null && dimension.changeMark != null && !changeMark.equals(dimension.changeMark)
+                && databaseService.countChangedRows(table, changeColumn, dimension.changeMark, dimension.watermark) > 0) {
+            dimension.reset();
+            rebuilt = true;
+        }
+        if (maxId > dimension.watermark) {
+            added = databaseService.streamIdRange(table, columns, condition, dimension.watermark, maxId, handler);
+        }
+        if (maxId < dimension.watermark || dimension.rowCount + added != rowCount) {
+            dimension.reset();
+            added = databaseService.streamIdRange(table, columns, condition, 0, maxId, handler);
+            rebuilt = true;
+        }
+        boolean marked = !Objects.equals(changeMark, dimension.changeMark);
+        dimension.changeMark = changeMark;
+        if (added == 0 && !rebuilt) {
+            if (marked) {
+                save();
+            }
+            return;
+        }
+        dimension.watermark = maxId;
+        dimension.rowCount += added;
+        logger.info("Esquisses de comptage distinct sur {} {} ({} ligne(s) lue(s), {} ms).", table,
+                rebuilt ? "reconstruites" : "mises à jour", added, (System.nanoTime() - start) / 1_000_000);
+        save();
+    }
+
+    private String changeColumn(DatabaseService databaseService, String table) throws SQLException {
+        if (!changeColumns.containsKey(table)) {
+            changeColumns.put(table, databaseService.findChangeColumn(table));
+        }
+        return changeColumns.get(table);
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (storage == null || !Files.exists(storage)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(storage)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Fichier d'esquisses invalide : " + storage);
+            }
+            int storedPrecision = in.readUnsignedByte();
+            if (storedPrecision != precision) {
+                logger.info("Esquisses de comptage distinct stockées avec une autre précision ({} au lieu de {}). Reconstruction.", storedPrecision, precision);
+                return;
+            }
+            tiers = readDimension(in);
+            logger.info("Esquisses de comptage distinct chargées depuis {}.", storage);
+        } catch (IOException e) {
+            logger.warn("Esquisses de comptage distinct illisibles ({}). Reconstruction.", e.getMessage());
+        }
+    }
+
+    private void save() {
+        if (storage == null) {
+            return;
+        }
+        Path temporary = storage.resolveSibling(storage.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeByte(precision);
+                tiers.writeTo(out);
+            }
+            Files.move(temporary, storage, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Impossible d'enregistrer les esquisses de comptage distinct dans {} : {}", storage, e.getMessage());
+        }
+    }
+
+    private final class Dimension {
+        private final Map<String, HyperLogLog> sketches = new LinkedHashMap<>();
+        private long watermark;
+        private long rowCount;
+        private String changeMark;
+
+        private HyperLogLog sketch(String key) {
+            return sketches.computeIfAbsent(key, k -> new HyperLogLog(precision));
+        }
+
+        private void reset() {
+            sketches.clear();
+            watermark = 0;
+            rowCount = 0;
+            changeMark = null;
+        }
+
+        private void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(watermark);
+            out.writeLong(rowCount);
+            out.writeBoolean(changeMark != null);
+            if (changeMark != null) {
+                out.writeUTF(changeMark);
+            }
+            out.writeInt(sketches.size());
+            for (Map.Entry<String, HyperLogLog> entry : sketches.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+        }
+    }
+
+    private Dimension readDimension(DataInputStream in) throws IOException {
+        Dimension dimension = new Dimension();
+        dimension.watermark = in.readLong();
+        dimension.rowCount = in.readLong();
+        if (in.readBoolean()) {
+            dimension.changeMark = in.readUTF();
+        }
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            String key = in.readUTF();
+            HyperLogLog sketch = HyperLogLog.readFrom(in);
+            if (sketch.getPrecision() != precision) {
+                throw new IOException("Précision incohérente pour l'esquisse " + key + ".");
+            }
+            dimension.sketches.put(key, sketch);
+        }
+        return dimension;
+    }
+}
@@ -0,0 +1,144 @@
+package com.businesscare.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.businesscare.util.Histogram;
+import com.businesscare.util.TopK;
+
+public final class EventUtilization {
+    static final double[] FILL_RATE_TRANCHES = { 0.25, 0.5, 0.75, 1.0 };
+    private static final Histogram FILL_RATES = Histogram.upperInclusive(FILL_RATE_TRANCHES, 0,
+            new String[] { "0 - 25 %", "25 - 50 %", "50 - 75 %", "75 - 100 %", "> 100 %" });
+
+    private long[] ids = new long[16];
+    private String[] names = new String[16];
+    private int[] capacities = new int[16];
+    private long[] bookings = new long[16];
+    private int size;
+
+    public void add(long id, String name, int capacity, long booked) {
+        if (capacity <= 0) {
+            return;
+        }
+        if (size == names.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+            capacities = Arrays.copyOf(capacities, size * 2);
+            bookings = Arrays.copyOf(bookings, size * 2);
+        }
+        ids[size] = id;
+        names[size] = name;
+        capacities[size] = capacity;
+        bookings[size] = booked;
+        size++;
+    }
+
+    public EventUtilization merge(EventUtilization other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.ids[i], other.names[i], other.capacities[i], other.bookings[i]);
+        }
+        return this;
+    }
+
+    public int getEventCount() {
+        return size;
+    }
+
+    public double getFillRate(int index) {
+        return (double) bookings[index] / capacities[index];
+    }
+
+    public long getTotalCapacity() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += capacities[i];
+        }
+        return total;
+    }
+
+    public long getTotalBookings() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += bookings[i];
+        }
+        return total;
+    }
+
+    public Map<String, Long> getFillRateDistribution() {
+        Histogram.Accumulator accumulator = FILL_RATES.newAccumulator();
+        for (int i = 0; i < size; i++) {
+            accumulator.accept(getFillRate(i));
+        }
+        return accumulator.toCountMap();
+    }
+
+    public Map<String, Double> getSummary() {
+        Map<String, Double> summary = new LinkedHashMap<>();
+        if (size == 0) {
+            return summary;
+        }
+        long totalCapacity = getTotalCapacity();
+        long totalBookings = getTotalBookings();
+        double rateSum = 0;
+        long full = 0;
+        long overbooked = 0;
+        for (int i = 0; i < size; i++) {
+            double rate = getFillRate(i);
+            rateSum += rate;
+            if (rate >= 1.0) {
+                full++;
+            }
+            if (rate > 1.0) {
+                overbooked++;
+            }
+        }
+        summary.put("Événements analysés", (double) size);
+        summary.put("Places offertes", (double) totalCapacity);
+        summary.put("Réservations", (double) totalBookings);
+        summary.put("Taux de remplissage global", (double) totalBookings / totalCapacity);
+        summary.put("Taux de remplissage moyen", rateSum / size);
+        summary.put("Événements complets", (double) full);
+        summary.put("Événements en surréservation", (double) overbooked);
+        return summary;
+    }
+
+    public Map<String, Double> getMostFilled(int limit) {
+        return ranked(limit, true);
+    }
+
+    public Map<String, Double> getLeastFilled(int limit) {
+        return ranked(limit, false);
+    }
+
+    private Map<String, Double> ranked(int limit, boolean descending) {
+        Map<String, Integer> bestByName = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Integer best = bestByName.get(names[i]);
+            if (best == null || score(i, descending) > score(best, descending)
+                    || (score(i, descending) == score(best, descending) && ids[i] < ids[best])) {
+                bestByName.put(names[i], i);
+            }
+        }
+        Integer[] byId = bestByName.values().toArray(new Integer[0]);
+        Arrays.sort(byId, Comparator.comparingLong(index -> ids[index]));
+        TopK top = new TopK(Math.max(0, Math.min(limit, byId.length)));
+        for (int position = 0; position < byId.length; position++) {
+            top.offer(position, score(byId[position], descending));
+        }
+        Map<String, Double> ranked = new LinkedHashMap<>();
+        for (long position : top.keys()) {
+            int index = byId[(int) position];
+            ranked.put(names[index], getFillRate(index));
+        }
+        return ranked;
+    }
+
+    private double score(int index, boolean descending) {
+        double rate = getFillRate(index);
+        return descending ? rate : -rate;
+    }
+}
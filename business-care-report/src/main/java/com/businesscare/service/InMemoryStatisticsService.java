@@ -0,0 +1,454 @@
+package com.businesscare.service;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.businesscare.model.Abonnement;
+import com.businesscare.model.ClientAccount;
+import com.businesscare.model.Evenement;
+import com.businesscare.model.Facture;
+import com.businesscare.model.Prestation;
+import com.businesscare.model.Reservation;
+import com.businesscare.model.enums.ContractStatus;
+import com.businesscare.model.enums.InvoiceStatus;
+import com.businesscare.util.MonthlySeries;
+import com.businesscare.util.ParallelAggregator;
+import com.businesscare.util.QuantileSketch;
+import com.businesscare.util.TopK;
+
+public class InMemoryStatisticsService extends StatisticsService {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryStatisticsService.class);
+
+    private final ReportDataset dataset;
+    private Aggregates aggregates;
+
+    public InMemoryStatisticsService(ReportDataset dataset) {
+        this.dataset = dataset;
+    }
+
+    private synchronized Aggregates aggregates() {
+        if (aggregates == null) {
+            long start = System.nanoTime();
+            aggregates = new Aggregates(dataset);
+            logger.info("Statistiques calculées en mémoire en un passage ({} ms).", (System.nanoTime() - start) / 1_000_000);
+        }
+        return aggregates;
+    }
+
+    @Override
+    public StatisticsSnapshot loadSnapshot() {
+        StatisticsSnapshot snapshot = StatisticsSnapshot.builder()
+                .clientCountBySubscriptionTier(getClientCountBySubscriptionTier())
+                .clientRevenueDistribution(getClientRevenueDistribution(REVENUE_TRANCHES))
+                .clientCountBySize(getClientCountBySize())
+                .clientCountByIndustry(getClientCountByIndustry(TOP_N))
+                .topClientsByTotalPaid(getTop5ClientsByTotalPaid())
+                .eventCountByMonth(getEventCountByMonth())
+                .eventDistributionByCapacity(getEventDistributionByCapacity(CAPACITY_TRANCHES))
+                .eventStatusCounts(getEventStatusCounts())
+                .topEventsByBooking(getTop5EventsByBooking())
+                .serviceCountByType(getServiceCountByType())
+                .serviceDistributionByCost(getServiceDistributionByCost(COST_TRANCHES))
+                .topProvidersByServiceCount(getTopProvidersByServiceCount(TOP_N))
+                .serviceAvailabilityDistribution(getServiceAvailabilityDistribution())
+                .paidInvoicesByMonth(getPaidInvoicesByMonth())
+                .newContractsByMonth(getNewContractsByMonth())
+                .build();
+        snapshot = withBookings(withCohorts(withUtilization(snapshot, getEventUtilization()), getContractCohorts()), getBookingAnalytics());
+        return isAutomaticTranches() ? withQuantiles(snapshot) : snapshot;
+    }
+
+    @Override
+    public CompletableFuture<StatisticsSnapshot> loadSnapshotAsync(ParallelLoader loader) {
+        return CompletableFuture.completedFuture(loadSnapshot());
+    }
+
+    @Override
+    public Map<String, Long> getClientCountBySubscriptionTier() {
+        if (dataset.hasContractHistory()) {
+            return new HashMap<>(aggregates().historyTierCounts);
+        }
+        Map<String, Long> counts = new HashMap<>();
+        aggregates().cube.rollUp(ReportCube.Dimension.TIER).forEach((tier, measures) ->
+                counts.put(tier == null || tier.isEmpty() ? "Non défini" : tier, measures.getCompanyCount()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getClientRevenueDistribution(double[] tranches) {
+        return computeRevenueDistribution(aggregates().contractValues, tranches);
+    }
+
+    @Override
+    public Map<String, Long> getClientCountBySize() {
+        Map<String, Long> counts = new HashMap<>();
+        aggregates().cube.rollUp(ReportCube.Dimension.SIZE).forEach((size, measures) ->
+                counts.put(size == null || size.isEmpty() ? "Non défini" : size, measures.getCompanyCount()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getClientCountByIndustry(int limit) {
+        Map<String, Long> industryCounts = new LinkedHashMap<>();
+        aggregates().cube.rollUp(ReportCube.Dimension.INDUSTRY).forEach((industry, measures) -> industryCounts.put(industry, measures.getCompanyCount()));
+        List<String> industries = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : industryCounts.entrySet()) {
+            industries.add(entry.getKey());
+            counts.add(entry.getValue());
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        DatabaseService.collapseIndustries(industries, counts, limit, result);
+        return result;
+    }
+
+    public ReportCube getCube() {
+        return aggregates().cube;
+    }
+
+    @Override
+    public Map<String, Double> getTop5ClientsByTotalPaid() {
+        TopK paid = aggregates().topPaidClients;
+        long[] ranked = paid.keys();
+        double[] totals = paid.scores();
+        Map<String, Double> topClients = new LinkedHashMap<>();
+        for (int rank = 0; rank < ranked.length; rank++) {
+            topClients.put(aggregates().clientNames.get(ranked[rank]), totals[rank]);
+        }
+        return topClients;
+    }
+
+    @Override
+    public MonthlySeries getEventCountByMonth() {
+        return aggregates().eventMonths;
+    }
+
+    @Override
+    public MonthlySeries getPaidInvoicesByMonth() {
+        return aggregates().paidInvoiceMonths;
+    }
+
+    @Override
+    public MonthlySeries getNewContractsByMonth() {
+        return aggregates().newContractMonths;
+    }
+
+    @Override
+    public Map<String, Long> getEventDistributionByCapacity(double[] tranches) {
+        return computeCapacityDistribution(aggregates().capacities, tranches);
+    }
+
+    @Override
+    public Map<String, Long> getEventStatusCounts() {
+        return new HashMap<>(aggregates().statusCounts);
+    }
+
+    @Override
+    public Map<String, Integer> getTop5EventsByBooking() {
+        TopK booked = aggregates().topBookedEvents;
+        long[] ranked = booked.keys();
+        double[] reservations = booked.scores();
+        Map<String, Integer> topEvents = new LinkedHashMap<>();
+        for (int rank = 0; rank < ranked.length; rank++) {
+            topEvents.put(dataset.getEvents().get((int) ranked[rank]).getNomEvenement(), (int) reservations[rank]);
+        }
+        return topEvents;
+    }
+
+    @Override
+    public EventUtilization getEventUtilization() {
+        return aggregates().utilization;
+    }
+
+    @Override
+    public ContractCohorts getContractCohorts() {
+        ContractCohorts.Builder builder = new ContractCohorts.Builder(ContractCohorts.currentMonth());
+        if (dataset.hasContractHistory()) {
+            for (Abonnement abonnement : dataset.getContractHistory()) {
+                builder.add(Integer.parseInt(abonnement.getIdClient()), abonnement.getDateDebut(), abonnement.getDateFin(), abonnement.getStatut() == ContractStatus.ACTIVE);
+            }
+            return builder.build();
+        }
+        List<ClientAccount> clients = allClients(dataset);
+        for (int company = 0; company < clients.size(); company++) {
+            for (Abonnement abonnement : clients.get(company).getAbonnements()) {
+                builder.add(company, abonnement.getDateDebut(), abonnement.getDateFin(), true);
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public BookingAnalytics getBookingAnalytics() {
+        BookingAnalytics.Builder builder = new BookingAnalytics.Builder(TOP_N);
+        Map<Long, Long> bookingsByEmployee = new HashMap<>();
+        Map<Long, Long> bookingsByCompany = new HashMap<>();
+        Calendar calendar = Calendar.getInstance();
+        for (Evenement evenement : dataset.getEvents()) {
+            for (Reservation reservation : evenement.getReservations()) {
+                Date bookingDate = reservation.getDateReservation();
+                int weekday = -1;
+                int hour = -1;
+                if (bookingDate != null) {
+                    calendar.setTime(bookingDate);
+                    weekday = BookingAnalytics.weekdayOf(calendar);
+                    hour = calendar.get(Calendar.HOUR_OF_DAY);
+                }
+                builder.addBooking(weekday, hour, BookingAnalytics.leadDays(bookingDate, evenement.getDateDebut()));
+                bookingsByEmployee.merge(parseId(reservation.getIdEmploye()), 1L, Long::sum);
+                bookingsByCompany.merge(parseId(reservation.getIdClient()), 1L, Long::sum);
+            }
+        }
+        bookingsByEmployee.values().forEach(builder::addEmployee);
+        bookingsByCompany.forEach(builder::addCompany);
+        return builder.build().withCompanyNames(aggregates().clientNames);
+    }
+
+    private static long parseId(String id) {
+        return id == null ? 0 : Long.parseLong(id);
+    }
+
+    private static List<ClientAccount> allClients(ReportDataset dataset) {
+        if (dataset.getInactiveClients().isEmpty()) {
+            return dataset.getClients();
+        }
+        List<ClientAccount> clients = new ArrayList<>(dataset.getClients().size() + dataset.getInactiveClients().size());
+        clients.addAll(dataset.getClients());
+        clients.addAll(dataset.getInactiveClients());
+        return clients;
+    }
+
+    @Override
+    public Map<String, Long> getServiceCountByType() {
+        return new HashMap<>(aggregates().serviceTypeCounts);
+    }
+
+    @Override
+    public Map<String, Long> getServiceDistributionByCost(double[] tranches) {
+        return computeCostDistribution(aggregates().servicePrices, tranches);
+    }
+
+    @Override
+    public Map<String, Long> getTopProvidersByServiceCount(int limit) {
+        Map<String, Long> providerCounts = aggregates().providerCounts;
+        TopK top = new TopK(limit > 0 ? Math.min(limit, providerCounts.size()) : providerCounts.size());
+        for (Map.Entry<String, Long> provider : providerCounts.entrySet()) {
+            top.offer(Long.parseLong(provider.getKey()), provider.getValue());
+        }
+        long[] ranked = top.keys();
+        double[] serviceCounts = top.scores();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int rank = 0; rank < ranked.length; rank++) {
+            counts.put(aggregates().providerNames.get(String.valueOf(ranked[rank])), (long) serviceCounts[rank]);
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getServiceAvailabilityDistribution() {
+        return new HashMap<>(aggregates().availabilityCounts);
+    }
+
+    @Override
+    public QuantileSketch getClientRevenueSketch() {
+        return sketch(aggregates().contractValues);
+    }
+
+    @Override
+    public QuantileSketch getEventCapacitySketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int capacity : aggregates().capacities) {
+            sketch.accept(capacity);
+        }
+        return sketch;
+    }
+
+    @Override
+    public QuantileSketch getServicePriceSketch() {
+        return sketch(aggregates().servicePrices);
+    }
+
+    private static QuantileSketch sketch(double[] values) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.accept(value);
+        }
+        return sketch;
+    }
+
+    private static final class Aggregates {
+        private final ReportCube cube;
+        private final Map<Long, String> clientNames;
+        private final Map<String, Long> historyTierCounts;
+        private final double[] contractValues;
+        private final TopK topPaidClients;
+        private final MonthlySeries paidInvoiceMonths;
+        private final MonthlySeries newContractMonths;
+        private final MonthlySeries eventMonths;
+        private final int[] capacities;
+        private final Map<String, Long> statusCounts;
+        private final TopK topBookedEvents;
+        private final EventUtilization utilization;
+        private final Map<String, Long> serviceTypeCounts;
+        private final double[] servicePrices;
+        private final Map<String, Long> providerCounts;
+        private final Map<String, String> providerNames;
+        private final Map<String, Long> availabilityCounts;
+
+        private Aggregates(ReportDataset dataset) {
+            List<ClientAccount> accounts = allClients(dataset);
+            ClientPartial clients = ParallelAggregator.aggregate(accounts, ClientPartial::new, ClientPartial::accept, ClientPartial::merge);
+            cube = ReportCube.build(dataset.getClients());
+            clientNames = new HashMap<>();
+            for (ClientAccount client : accounts) {
+                clientNames.put(parseId(client.getId()), client.getNomSociete());
+            }
+            contractValues = clients.contractValues.toArray();
+            topPaidClients = clients.topPaid;
+            paidInvoiceMonths = clients.paidInvoiceMonths.build();
+
+            historyTierCounts = new HashMap<>();
+            if (dataset.hasContractHistory()) {
+                Map<String, Set<String>> tierCompanies = new HashMap<>();
+                MonthlySeries.Builder months = new MonthlySeries.Builder();
+                for (Abonnement abonnement : dataset.getContractHistory()) {
+                    months.add(abonnement.getDateDebut(), 1);
+                    if (abonnement.getStatut() == ContractStatus.ACTIVE) {
+                        String tier = abonnement.getLibelleFormule();
+                        tierCompanies.computeIfAbsent(tier == null || tier.isEmpty() ? "Non défini" : tier, key -> new HashSet<>()).add(abonnement.getIdClient());
+                    }
+                }
+                tierCompanies.forEach((tier, companies) -> historyTierCounts.put(tier, (long) companies.size()));
+                newContractMonths = months.build();
+            } else {
+                newContractMonths = clients.newContractMonths.build();
+            }
+
+            EventPartial events = ParallelAggregator.aggregateIndexed(dataset.getEvents(), ParallelAggregator.DEFAULT_THRESHOLD, EventPartial::new, EventPartial::accept, EventPartial::merge);
+            eventMonths = events.months.build();
+            capacities = events.capacities.toArray();
+            statusCounts = events.statusCounts.toMap();
+            topBookedEvents = events.topBooked;
+            utilization = events.utilization;
+
+            ServicePartial services = ParallelAggregator.aggregate(dataset.getServices(), ServicePartial::new, ServicePartial::accept, ServicePartial::merge);
+            serviceTypeCounts = services.serviceTypeCounts.toMap();
+            servicePrices = services.servicePrices.toArray();
+            providerCounts = services.providerCounts.toMap();
+            providerNames = services.providerNames;
+            availabilityCounts = services.availabilityCounts.toMap();
+        }
+    }
+
+    private static final class ClientPartial {
+        private final ParallelAggregator.DoubleColumn contractValues = new ParallelAggregator.DoubleColumn();
+        private final TopK topPaid = new TopK(TOP_N);
+        private final MonthlySeries.Builder paidInvoiceMonths = new MonthlySeries.Builder();
+        private final MonthlySeries.Builder newContractMonths = new MonthlySeries.Builder();
+
+        private void accept(ClientAccount client) {
+            double contractTotal = 0.0;
+            for (Abonnement abonnement : client.getAbonnements()) {
+                contractTotal += abonnement.getMontant();
+                newContractMonths.add(abonnement.getDateDebut(), 1);
+            }
+            if (!client.getAbonnements().isEmpty()) {
+                contractValues.add(contractTotal);
+            }
+
+            double paidTotal = 0.0;
+            boolean hasPaidInvoice = false;
+            for (Facture facture : client.getFactures()) {
+                if (facture.getStatutPaiement() == InvoiceStatus.PAID) {
+                    paidTotal += facture.getMontantTotal();
+                    paidInvoiceMonths.add(facture.getDateFacturation(), facture.getMontantTotal());
+                    hasPaidInvoice = true;
+                }
+            }
+            if (hasPaidInvoice) {
+                topPaid.offer(parseId(client.getId()), paidTotal);
+            }
+        }
+
+        private ClientPartial merge(ClientPartial other) {
+            contractValues.merge(other.contractValues);
+            topPaid.merge(other.topPaid);
+            paidInvoiceMonths.merge(other.paidInvoiceMonths);
+            newContractMonths.merge(other.newContractMonths);
+            return this;
+        }
+    }
+
+    private static final class EventPartial {
+        private final MonthlySeries.Builder months = new MonthlySeries.Builder();
+        private final ParallelAggregator.IntColumn capacities = new ParallelAggregator.IntColumn();
+        private final ParallelAggregator.KeyCounts<String> statusCounts = new ParallelAggregator.KeyCounts<>();
+        private final TopK topBooked = new TopK(TOP_N);
+        private final EventUtilization utilization = new EventUtilization();
+
+        private void accept(Evenement evenement, int index) {
+            statusCounts.add(evenement.isActif() ? "Actifs" : "Inactifs");
+            if (!evenement.isActif()) {
+                return;
+            }
+            months.add(evenement.getDateDebut(), 1);
+            int reservations = evenement.getReservations().size();
+            if (evenement.getCapaciteMax() > 0) {
+                capacities.add(evenement.getCapaciteMax());
+                utilization.add(parseId(evenement.getId()), evenement.getNomEvenement(), evenement.getCapaciteMax(), reservations);
+            }
+            if (reservations > 0) {
+                topBooked.offer(index, reservations);
+            }
+        }
+
+        private EventPartial merge(EventPartial other) {
+            months.merge(other.months);
+            capacities.merge(other.capacities);
+            statusCounts.merge(other.statusCounts);
+            topBooked.merge(other.topBooked);
+            utilization.merge(other.utilization);
+            return this;
+        }
+    }
+
+    private static final class ServicePartial {
+        private final ParallelAggregator.KeyCounts<String> serviceTypeCounts = new ParallelAggregator.KeyCounts<>();
+        private final ParallelAggregator.KeyCounts<String> availabilityCounts = new ParallelAggregator.KeyCounts<>();
+        private final ParallelAggregator.DoubleColumn servicePrices = new ParallelAggregator.DoubleColumn();
+        private final ParallelAggregator.KeyCounts<String> providerCounts = new ParallelAggregator.KeyCounts<>();
+        private final Map<String, String> providerNames = new HashMap<>();
+
+        private void accept(Prestation prestation) {
+            serviceTypeCounts.add("Médical".equals(prestation.getTypePrestation()) ? "Médical" : "Non-Médical");
+            availabilityCounts.add(prestation.isDisponibilite() ? "Disponibles" : "Non Disponibles");
+            if (prestation.getCoutUnitaire() >= 0) {
+                servicePrices.add(prestation.getCoutUnitaire());
+            }
+            if (prestation.getIdPrestataire() != null) {
+                providerCounts.add(prestation.getIdPrestataire());
+                providerNames.put(prestation.getIdPrestataire(), prestation.getNomPrestataire());
+            }
+        }
+
+        private ServicePartial merge(ServicePartial other) {
+            serviceTypeCounts.merge(other.serviceTypeCounts);
+            availabilityCounts.merge(other.availabilityCounts);
+            servicePrices.merge(other.servicePrices);
+            providerCounts.merge(other.providerCounts);
+            providerNames.putAll(other.providerNames);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.businesscare.service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.businesscare.model.ClientAccount;
+import com.businesscare.model.Evenement;
+import com.businesscare.model.Prestation;
+
+public class IncrementalRefresher {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalRefresher.class);
+
+    private static final String[] CLIENT_CHILD_TABLES = { "contract", "quote", "invoice" };
+
+    private final Map<String, String> changeColumns = new HashMap<>();
+    private final Map<String, Object> watermarks = new HashMap<>();
+    private final Map<String, Map<Integer, Integer>> parentIndexes = new HashMap<>();
+    private Map<Integer, ClientAccount> clientsById;
+    private Map<Integer, Evenement> eventsById;
+    private Map<Integer, Prestation> servicesById;
+    private boolean schemaInspected;
+
+    public synchronized boolean hasData() {
+        return clientsById != null && eventsById != null && servicesById != null;
+    }
+
+    public synchronized void clear() {
+        watermarks.clear();
+        parentIndexes.clear();
+        clientsById = null;
+        eventsById = null;
+        servicesById = null;
+    }
+
+    public synchronized ReportDataset refresh(DatabaseService db) throws SQLException {
+        if (!schemaInspected) {
+            inspectSchema(db);
+        }
+        boolean incremental = hasData();
+        int reloaded = refreshClients(db) + refreshEvents(db) + refreshServices(db);
+        logger.info("Rafraîchissement {} : {} enregistrement(s) rechargé(s).", incremental ? "incrémental" : "complet", reloaded);
+        return new ReportDataset(clientsById.values(), eventsById.values(), servicesById.values(), incremental, reloaded);
+    }
+
+    private void inspectSchema(DatabaseService db) throws SQLException {
+        for (String table : new String[] { "company", "contract", "quote", "invoice", "event", "booking", "service" }) {
+            String column = db.findChangeColumn(table);
+            if (column != null) {
+                changeColumns.put(table, column);
+            } else {
+                logger.info("Aucune colonne de modification sur la table {}.", table);
+            }
+        }
+        schemaInspected = true;
+    }
+
+    private boolean tracksChanges(String... tables) {
+        for (String table : tables) {
+            if (!changeColumns.containsKey(table)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, Object> captureWatermarks(DatabaseService db, String... tables) throws SQLException {
+        Map<String, Object> captured = new HashMap<>();
+        for (String table : tables) {
+            String column = changeColumns.get(table);
+            if (column != null) {
+                captured.put(table, db.getMaxValue(table, column));
+            }
+        }
+        return captured;
+    }
+
+    private Set<Integer> changedIds(DatabaseService db, String table, String idColumn) throws SQLException {
+        return db.getChangedIds(table, idColumn, changeColumns.get(table), watermarks.get(table));
+    }
+
+    private void diffParentIndex(DatabaseService db, String table, String parentColumn, Set<Integer> dirtyParents) throws SQLException {
+        Map<Integer, Integer> current = db.getParentIndex(table, parentColumn);
+        Map<Integer, Integer> previous = parentIndexes.getOrDefault(table, new HashMap<>());
+        for (Map.Entry<Integer, Integer> entry : current.entrySet()) {
+            Integer previousParent = previous.get(entry.getKey());
+            if (!entry.getValue().equals(previousParent)) {
+                dirtyParents.add(entry.getValue());
+                if (previousParent != null) {
+                    dirtyParents.add(previousParent);
+                }
+            }
+        }
+        for (Map.Entry<Integer, Integer> entry : previous.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                dirtyParents.add(entry.getValue());
+            }
+        }
+        parentIndexes.put(table, current);
+    }
+
+    private void collectChangedParents(DatabaseService db, String table, String parentColumn, Set<Integer> dirtyParents) throws SQLException {
+        Map<Integer, Integer> index = parentIndexes.get(table);
+        if (index == null) {
+            diffParentIndex(db, table, parentColumn, dirtyParents);
+            return;
+        }
+        Map<Integer, Integer> changed = db.getChangedParents(table, parentColumn, changeColumns.get(table), watermarks.get(table));
+        for (Map.Entry<Integer, Integer> entry : changed.entrySet()) {
+            Integer previousParent = index.put(entry.getKey(), entry.getValue());
+            dirtyParents.add(entry.getValue());
+            if (previousParent != null && !previousParent.equals(entry.getValue())) {
+                dirtyParents.add(previousParent);
+            }
+        }
+        long[] extent = db.getRowCountAndMaxId(table, "1 = 1");
+        long maxId = index.isEmpty() ? 0 : Collections.max(index.keySet());
+        if (extent[0] != index.size() || extent[1] != maxId) {
+            logger.info("Table {} : {} ligne(s) en base pour {} connue(s), comparaison complète des rattachements.", table, extent[0], index.size());
+            diffParentIndex(db, table, parentColumn, dirtyParents);
+        }
+    }
+
+    private int refreshClients(DatabaseService db) throws SQLException {
+        Map<String, Object> captured = captureWatermarks(db, "company", "contract", "quote", "invoice");
+        if (clientsById == null) {
+            for (String table : CLIENT_CHILD_TABLES) {
+                if (tracksChanges(table)) {
+                    parentIndexes.put(table, db.getParentIndex(table, "company_id"));
+                }
+            }
+            clientsById = indexById(db.getAllClientAccounts(), ClientAccount::getId);
+            watermarks.putAll(captured);
+            return clientsById.size();
+        }
+
+        Set<Integer> active = db.getIds(DatabaseService.ACTIVE_COMPANY_IDS);
+        Set<Integer> dirty = tracksChanges("company") ? changedIds(db, "company", "id") : new HashSet<>(active);
+        List<String> untracked = new ArrayList<>();
+        for (String table : CLIENT_CHILD_TABLES) {
+            if (tracksChanges(table)) {
+                collectChangedParents(db, table, "company_id", dirty);
+            } else {
+                untracked.add(table);
+            }
+        }
+        clientsById.keySet().retainAll(active);
+        for (Integer id : active) {
+            if (!clientsById.containsKey(id)) {
+                dirty.add(id);
+            }
+        }
+        dirty.retainAll(active);
+        Map<Integer, ClientAccount> reloaded = db.loadClientAccounts(dirty);
+        clientsById.putAll(reloaded);
+        Map<Integer, ClientAccount> unchanged = new HashMap<>(clientsById);
+        unchanged.keySet().removeAll(reloaded.keySet());
+        if (!unchanged.isEmpty()) {
+            for (String table : untracked) {
+                reloadClientTable(db, table, unchanged);
+            }
+        }
+        watermarks.putAll(captured);
+        return reloaded.size();
+    }
+
+    private void reloadClientTable(DatabaseService db, String table, Map<Integer, ClientAccount> accounts) throws SQLException {
+        switch (table) {
+            case "contract":
+                accounts.values().forEach(account -> account.getAbonnements().clear());
+                db.loadAbonnementsBulk(accounts, DatabaseService.ACTIVE_COMPANY_IDS);
+                break;
+            case "quote":
+                accounts.values().forEach(account -> account.getDevis().clear());
+                db.loadDevisBulk(accounts, DatabaseService.ACTIVE_COMPANY_IDS);
+                break;
+            default:
+                accounts.values().forEach(account -> {
+                    account.getFactures().clear();
+                    account.setChiffreAffairesAnnuel(0);
+                });
+                db.loadChiffreAffairesBulk(accounts, DatabaseService.ACTIVE_COMPANY_IDS);
+                db.loadFacturesBulk(accounts, DatabaseService.ACTIVE_COMPANY_IDS);
+                break;
+        }
+        logger.info("Table {} sans colonne de modification : rechargée pour {} client(s).", table, accounts.size());
+    }
+
+    private int refreshEvents(DatabaseService db) throws SQLException {
+        Map<String, Object> captured = captureWatermarks(db, "event", "booking");
+        boolean bookingsTracked = tracksChanges("booking");
+        if (eventsById == null) {
+            if (bookingsTracked) {
+                parentIndexes.put("booking", db.getParentIndex("booking", "event_id"));
+            }
+            eventsById = indexById(db.getAllEvenements(), Evenement::getId);
+            watermarks.putAll(captured);
+            return eventsById.size();
+        }
+
+        Set<Integer> existing = db.getIds("SELECT id FROM event");
+        Set<Integer> dirty = tracksChanges("event") ? changedIds(db, "event", "id") : new HashSet<>(existing);
+        if (bookingsTracked) {
+            collectChangedParents(db, "booking", "event_id", dirty);
+        }
+        eventsById.keySet().retainAll(existing);
+        for (Integer id : existing) {
+            if (!eventsById.containsKey(id)) {
+                dirty.add(id);
+            }
+        }
+        dirty.retainAll(existing);
+        Map<Integer, Evenement> reloaded = db.loadEvenements(dirty);
+        eventsById.putAll(reloaded);
+        if (!bookingsTracked) {
+            Map<Integer, Evenement> unchanged = new HashMap<>(eventsById);
+            unchanged.keySet().removeAll(reloaded.keySet());
+            if (!unchanged.isEmpty()) {
+                unchanged.values().forEach(evenement -> evenement.getReservations().clear());
+                db.loadReservationsBulk(unchanged);
+                logger.info("Table booking sans colonne de modification : rechargée pour {} événement(s).", unchanged.size());
+            }
+        }
+        watermarks.putAll(captured);
+        return reloaded.size();
+    }
+
+    private int refreshServices(DatabaseService db) throws SQLException {
+        Map<String, Object> captured = captureWatermarks(db, "service");
+        if (servicesById == null || !tracksChanges("service")) {
+            servicesById = indexById(db.getAllPrestations(), Prestation::getId);
+            watermarks.putAll(captured);
+            return servicesById.size();
+        }
+
+        Set<Integer> dirty = changedIds(db, "service", "id");
+        Set<Integer> existing = db.getIds("SELECT id FROM service");
+        servicesById.keySet().retainAll(existing);
+        for (Integer id : existing) {
+            if (!servicesById.containsKey(id)) {
+                dirty.add(id);
+            }
+        }
+        dirty.retainAll(existing);
+        Map<Integer, Prestation> reloaded = db.loadPrestations(dirty);
+        servicesById.putAll(reloaded);
+        db.loadServiceEventGraph().attachTo(servicesById.values());
+        watermarks.putAll(captured);
+        return reloaded.size();
+    }
+
+    private static <T> Map<Integer, T> indexById(List<T> items, Function<T, String> idGetter) {
+        Map<Integer, T> byId = new LinkedHashMap<>();
+        for (T item : items) {
+            byId.put(Integer.valueOf(idGetter.apply(item)), item);
+        }
+        return byId;
+    }
+}
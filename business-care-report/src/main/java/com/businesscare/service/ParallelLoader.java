@@ -0,0 +1,62 @@
+package com.businesscare.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ParallelLoader {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelLoader.class);
+
+    @FunctionalInterface
+    public interface ConnectionProvider {
+        Connection getConnection() throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface DatabaseCall<T> {
+        T call(DatabaseService databaseService) throws SQLException;
+    }
+
+    private final ExecutorService executor;
+    private final ConnectionProvider connectionProvider;
+
+    public ParallelLoader(ExecutorService executor, ConnectionProvider connectionProvider) {
+        this.executor = executor;
+        this.connectionProvider = connectionProvider;
+    }
+
+    public <T> CompletableFuture<T> submit(String label, DatabaseCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try (Connection connection = connectionProvider.getConnection()) {
+                T result = call.call(new DatabaseService(connection));
+                logger.debug("{} chargé en {} ms sur {}.", label, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Thread.currentThread().getName());
+                return result;
+            } catch (SQLException e) {
+                logger.error("Erreur lors du chargement parallèle de {} : {}", label, e.getMessage());
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    public static <T> T join(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+}
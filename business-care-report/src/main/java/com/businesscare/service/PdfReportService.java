@@ -6,9 +6,12 @@ import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.DoubleFunction;
 import java.util.stream.Collectors;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -24,6 +27,7 @@ import com.businesscare.model.ClientAccount;
 import com.businesscare.model.Evenement;
 import com.businesscare.model.Prestation;
 import com.businesscare.util.ChartUtil;
+import com.businesscare.util.MonthlySeries;
 
 public class PdfReportService {
     private static final Logger logger = LoggerFactory.getLogger(PdfReportService.class);
@@ -51,6 +55,12 @@ public class PdfReportService {
     private static final int DEFAULT_CHART_HEIGHT_HALF_PAGE = 200;
     private static final int BAR_CHART_HEIGHT_HALF_PAGE = 280;
     private static final int LINE_CHART_HEIGHT_FULL_PAGE = 300;
+    private static final int HEATMAP_HEIGHT_FULL_PAGE = 380;
+    private static final int COHORT_MONTHS_SHOWN = 12;
+    private static final int WEEKDAY_HOUR_HEATMAP_HEIGHT = 240;
+    private static final int TREND_CHART_HEIGHT = 200;
+    private static final int ROLLING_AVERAGE_MONTHS = 3;
+    private static final int[] COHORT_RETENTION_MILESTONES = {1, 3, 6, 12};
 
 
     private static final Color COLOR_PRIMARY_HEADER_BG = new Color(41, 128, 185);
@@ -68,6 +78,11 @@ public class PdfReportService {
     private static final DecimalFormat kEuroFormatPdf = new DecimalFormat("#,##0 k€");
     private static final DecimalFormat mEuroFormatPdf = new DecimalFormat("#,##0.00 M€");
 
+    public PdfReportService(StatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
+        this.databaseService = null;
+    }
+
     public PdfReportService(StatisticsService statisticsService, DatabaseService databaseService) {
         this.statisticsService = statisticsService;
         this.databaseService = databaseService;
@@ -85,14 +100,26 @@ public class PdfReportService {
     }
 
     public void generateReport(List<ClientAccount> clients, List<Evenement> evenements, List<Prestation> prestations, String filePath) throws IOException {
-        this.document = new PDDocument();
         this.statisticsService_setDb(this.databaseService);
+        generateReport(clients, evenements, prestations, statisticsService.loadSnapshot(), filePath);
+    }
 
-        addCoverPage("Rapport d'Activité Stratégique", "BusinessCare");
+    public void generateReport(List<ClientAccount> clients, List<Evenement> evenements, List<Prestation> prestations, StatisticsSnapshot statistics, String filePath) throws IOException {
+        generateReport(statisticsService.getCatalogSummary(evenements, prestations), statistics, filePath);
+    }
 
-        generateClientStatisticsPage();
-        generateEventStatisticsPage(evenements);
-        generatePrestationStatisticsPage(prestations);
+    public void generateReport(CatalogSummary catalog, StatisticsSnapshot statistics, String filePath) throws IOException {
+        this.document = new PDDocument();
+
+        addCoverPage("Rapport d'Activité Stratégique", statistics.isSampled() ? "BusinessCare - Rapport approximatif (échantillon)" : "BusinessCare");
+
+        generateClientStatisticsPage(statistics);
+        generateContractCohortPage(statistics);
+        generateMonthlyTrendPage(statistics);
+        generateEventStatisticsPage(catalog, statistics);
+        generateEventUtilizationPage(statistics);
+        generateBookingAnalyticsPage(statistics);
+        generatePrestationStatisticsPage(catalog, statistics);
 
 
         if (this.contentStream != null) {
@@ -365,50 +392,137 @@ public class PdfReportService {
         return text.length();
     }
 
-    private void generateClientStatisticsPage() throws IOException {
+    private void generateClientStatisticsPage(StatisticsSnapshot statistics) throws IOException {
         String sectionTitle = "Statistiques des Comptes Clients";
         prepareNewPage(sectionTitle);
         int chartWidth = (int) ELEMENT_WIDTH_HALF;
         int chartHeight = DEFAULT_CHART_HEIGHT_HALF_PAGE;
         int barChartHeight = BAR_CHART_HEIGHT_HALF_PAGE;
 
-        Map<String, Long> repartitionAbonnement = statisticsService.getClientCountBySubscriptionTier();
+        if (statistics.isSampled()) {
+            drawChartOrTextBlock("Rapport Approximatif", null, samplingLines(statistics), sectionTitle, true, 0);
+        }
+
+        Map<String, Long> repartitionAbonnement = statistics.getClientCountBySubscriptionTier();
         List<String> abonnementCategories = new ArrayList<>(repartitionAbonnement.keySet());
         List<Number> abonnementValues = new ArrayList<>(repartitionAbonnement.values());
         Map<String, List<Number>> abonnementMap = Collections.singletonMap("Clients", abonnementValues);
-        drawChartOrTextBlock("Répartition par Formule d'Abonnement", ChartUtil.createBarChartImage("Répartition par Formule d'Abonnement", "Formule", "Nombre de Clients", abonnementMap, abonnementCategories, chartWidth, barChartHeight, true), null, sectionTitle, false, 0);
+        Double abonnementError = statistics.getApproximateErrorBounds().get("clientCountBySubscriptionTier");
+        String abonnementTitle = "Répartition par Formule d'Abonnement" + (abonnementError == null ? "" : String.format(" (approx. ±%.1f %%)", abonnementError * 100));
+        Map<String, List<Number>> abonnementErrors = errorBars(statistics, "clientCountBySubscriptionTier", "Clients", abonnementCategories);
+        drawChartOrTextBlock(abonnementTitle, ChartUtil.createBarChartImage(abonnementTitle, "Formule", "Nombre de Clients", abonnementMap, abonnementCategories, chartWidth, barChartHeight, true, abonnementErrors), null, sectionTitle, false, 0);
 
-        double[] caTranches = {5000, 15000, 50000};
-        Map<String, Double> repartitionCA = statisticsService.getClientRevenueDistribution(caTranches);
+        Map<String, Double> repartitionCA = withIntervals(statistics, "clientRevenueDistribution", statistics.getClientRevenueDistribution(), this::formatCurrency);
         Map<String, Number> repartitionCAPie = repartitionCA.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e-> (Number)e.getValue()));
         drawChartOrTextBlock("Répartition du CA Actif par Client (Tranches)", ChartUtil.createPieChartImage("Répartition du CA Actif par Client (Tranches)", repartitionCAPie, chartWidth, chartHeight), null, sectionTitle, false, 0);
 
-        Map<String, Long> repartitionTaille = statisticsService.getClientCountBySize();
+        Map<String, Long> repartitionTaille = withIntervals(statistics, "clientCountBySize", statistics.getClientCountBySize(), PdfReportService::formatCount);
         Map<String, Number> repartitionTaillePie = repartitionTaille.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e-> (Number)e.getValue()));
         drawChartOrTextBlock("Répartition par Taille d'Entreprise", ChartUtil.createPieChartImage("Répartition par Taille d'Entreprise", repartitionTaillePie, chartWidth, chartHeight), null, sectionTitle, false, 0);
 
-        Map<String, Long> repartitionSecteur = statisticsService.getClientCountByIndustry(5);
+        Map<String, Long> repartitionSecteur = statistics.getClientCountByIndustry();
         List<String> secteurCategories = new ArrayList<>(repartitionSecteur.keySet());
         List<Number> secteurValues = new ArrayList<>(repartitionSecteur.values());
         Map<String, List<Number>> secteurMap = Collections.singletonMap("Clients", secteurValues);
-        drawChartOrTextBlock("Répartition par Secteur d'Activité (Top 5)", ChartUtil.createBarChartImage("Répartition par Secteur d'Activité (Top 5)", "Secteur", "Nombre de Clients", secteurMap, secteurCategories, chartWidth, barChartHeight, false), null, sectionTitle, false, 0);
+        Map<String, List<Number>> secteurErrors = errorBars(statistics, "clientCountByIndustry", "Clients", secteurCategories);
+        drawChartOrTextBlock("Répartition par Secteur d'Activité (Top 5)", ChartUtil.createBarChartImage("Répartition par Secteur d'Activité (Top 5)", "Secteur", "Nombre de Clients", secteurMap, secteurCategories, chartWidth, barChartHeight, false, secteurErrors), null, sectionTitle, false, 0);
 
-        Map<String, Double> top5Clients = statisticsService.getTop5ClientsByTotalPaid();
+        Map<String, Double> top5Clients = statistics.getTopClientsByTotalPaid();
         List<String> topClientsText = new ArrayList<>();
         topClientsText.add("Basé sur le Montant Total Facturé et Payé:");
         if (top5Clients.isEmpty()) {
             topClientsText.add("(Aucune donnée disponible)");
         } else {
-            top5Clients.forEach((name, amount) -> topClientsText.add(String.format("• %s - %s", name, formatCurrency(amount))));
+            top5Clients.forEach((name, amount) -> topClientsText.add(String.format("• %s - %s%s", name, formatCurrency(amount), intervalSuffix(statistics, "topClientsByTotalPaid", name, this::formatCurrency))));
         }
         if (elementsOnCurrentRow % 2 != 0) {
             currentY -= Math.max(lastElementHeightOnRow, 0) + ELEMENT_VERTICAL_SPACING;
             elementsOnCurrentRow = 0; lastElementHeightOnRow = 0;
         }
         drawChartOrTextBlock("Top 5 Clients les Plus Fidèles", null, topClientsText, sectionTitle, true, 0);
+        drawPercentiles("Percentiles du CA Actif par Client", statistics.getClientRevenuePercentiles(), true, sectionTitle);
+    }
+
+    private void generateContractCohortPage(StatisticsSnapshot statistics) throws IOException {
+        String sectionTitle = "Rétention des Cohortes de Contrats";
+        prepareNewPage(sectionTitle);
+
+        ContractCohorts cohorts = ContractCohorts.fromCounts(statistics.getContractCohortCounts());
+        int firstShown = Math.max(0, cohorts.getCohortCount() - COHORT_MONTHS_SHOWN);
+        List<String> offsetLabels = new ArrayList<>();
+        for (int offset = 0; offset < COHORT_MONTHS_SHOWN; offset++) {
+            offsetLabels.add("M+" + offset);
+        }
+        List<String> cohortLabels = new ArrayList<>();
+        double[][] retention = new double[cohorts.getCohortCount() - firstShown][COHORT_MONTHS_SHOWN];
+        for (int cohort = firstShown; cohort < cohorts.getCohortCount(); cohort++) {
+            cohortLabels.add(String.format("%s (%d)", cohorts.getCohortLabel(cohort), cohorts.getCohortSize(cohort)));
+            for (int offset = 0; offset < COHORT_MONTHS_SHOWN; offset++) {
+                retention[cohort - firstShown][offset] = cohorts.getRetentionRate(cohort, offset) * 100;
+            }
+        }
+        drawChartOrTextBlock("Entreprises Encore Sous Contrat par Mois d'Ancienneté (%)", ChartUtil.createHeatMapImage("Rétention des Cohortes", "Mois depuis le premier contrat", "Cohorte (entreprises)", offsetLabels, cohortLabels, retention, (int) USABLE_PAGE_WIDTH, HEATMAP_HEIGHT_FULL_PAGE), null, sectionTitle, true, HEATMAP_HEIGHT_FULL_PAGE);
+
+        List<String> summaryText = new ArrayList<>();
+        summaryText.add("Cohortes regroupées par mois du premier contrat:");
+        if (cohorts.getCompanyCount() == 0) {
+            summaryText.add("(Aucune donnée disponible)");
+        } else {
+            summaryText.add(String.format("• Cohortes : %d - Entreprises : %d", cohorts.getCohortCount(), cohorts.getCompanyCount()));
+            if (statistics.isSampled()) {
+                summaryText.add("• Effectifs extrapolés à partir de l'échantillon d'entreprises");
+            }
+            for (int milestone : COHORT_RETENTION_MILESTONES) {
+                double average = cohorts.getAverageRetention(milestone);
+                summaryText.add(String.format("• Rétention moyenne à M+%d : %s", milestone, Double.isNaN(average) ? "n/d" : formatRate(average)));
+            }
+        }
+        drawChartOrTextBlock("Synthèse de la Rétention", null, summaryText, sectionTitle, true, 0);
     }
 
-    private void generateEventStatisticsPage(List<Evenement> evenements) throws IOException {
+    private void generateMonthlyTrendPage(StatisticsSnapshot statistics) throws IOException {
+        String sectionTitle = "Tendances Mensuelles";
+        prepareNewPage(sectionTitle);
+
+        MonthlySeries paidInvoices = statistics.getPaidInvoicesByMonth();
+        drawChartOrTextBlock("Montant des Factures Payées par Mois", ChartUtil.createMonthlyLineChartImage("Factures Payées", "Mois", "Montant (€)", withRollingAverage("Factures payées", paidInvoices), (int) USABLE_PAGE_WIDTH, TREND_CHART_HEIGHT), null, sectionTitle, true, TREND_CHART_HEIGHT);
+
+        MonthlySeries newContracts = statistics.getNewContractsByMonth();
+        drawChartOrTextBlock("Nouveaux Contrats par Mois", ChartUtil.createMonthlyLineChartImage("Nouveaux Contrats", "Mois", "Nombre de Contrats", withRollingAverage("Nouveaux contrats", newContracts), (int) USABLE_PAGE_WIDTH, TREND_CHART_HEIGHT), null, sectionTitle, true, TREND_CHART_HEIGHT);
+
+        List<String> deltaText = new ArrayList<>();
+        deltaText.add("Dernier mois renseigné et écart avec le mois précédent:");
+        deltaText.add(describeLastMonth(statistics, "eventCountByMonth", "Événements", statistics.getEventCountByMonth(), false));
+        deltaText.add(describeLastMonth(statistics, "paidInvoicesByMonth", "Factures payées", paidInvoices, true));
+        deltaText.add(describeLastMonth(statistics, "newContractsByMonth", "Nouveaux contrats", newContracts, false));
+        drawChartOrTextBlock("Variations Mensuelles", null, deltaText, sectionTitle, true, 0);
+    }
+
+    private static Map<String, MonthlySeries> withRollingAverage(String name, MonthlySeries series) {
+        Map<String, MonthlySeries> lines = new LinkedHashMap<>();
+        lines.put(name, series);
+        if (series.size() >= ROLLING_AVERAGE_MONTHS) {
+            lines.put("Moyenne mobile " + ROLLING_AVERAGE_MONTHS + " mois", series.withValues(series.rollingAverage(ROLLING_AVERAGE_MONTHS)));
+        }
+        return lines;
+    }
+
+    private String describeLastMonth(StatisticsSnapshot statistics, String metric, String name, MonthlySeries series, boolean currency) {
+        if (series.isEmpty()) {
+            return String.format("• %s : (Aucune donnée disponible)", name);
+        }
+        int last = series.size() - 1;
+        DoubleFunction<String> format = currency ? this::formatCurrency : PdfReportService::formatCount;
+        String value = format.apply(series.get(last)) + intervalSuffix(statistics, metric, MonthlySeries.format(series.getMonth(last)), format);
+        double delta = series.monthOverMonthDeltas()[last];
+        if (Double.isNaN(delta)) {
+            return String.format("• %s : %s en %s", name, value, MonthlySeries.format(series.getMonth(last)));
+        }
+        String deltaText = currency ? formatCurrency(Math.abs(delta)) : String.format("%.0f", Math.abs(delta));
+        return String.format("• %s : %s en %s (%s%s par rapport au mois précédent)", name, value, MonthlySeries.format(series.getMonth(last)), delta < 0 ? "-" : "+", deltaText);
+    }
+
+    private void generateEventStatisticsPage(CatalogSummary catalog, StatisticsSnapshot statistics) throws IOException {
         String sectionTitle = "Statistiques des Événements";
         prepareNewPage(sectionTitle);
         int chartWidth = (int) ELEMENT_WIDTH_HALF;
@@ -416,57 +530,219 @@ public class PdfReportService {
         int barChartHeight = BAR_CHART_HEIGHT_HALF_PAGE;
         int lineChartHeight = LINE_CHART_HEIGHT_FULL_PAGE;
 
-        Map<String, Long> repartitionType = statisticsService.getEventCountByType(evenements);
+        Map<String, Long> repartitionType = catalog.getEventCountByType();
         Map<String, Number> repartitionTypePie = repartitionType.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e-> (Number)e.getValue()));
         drawChartOrTextBlock("Répartition par Type/Catégorie", ChartUtil.createPieChartImage("Répartition par Type/Catégorie", repartitionTypePie, chartWidth, chartHeight), null, sectionTitle, false, 0);
 
-        Map<String, Long> freqMois = statisticsService.getEventCountByMonth();
-        Map<String, Map<String, Number>> freqMoisLine = Collections.singletonMap("Événements", freqMois.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> (Number)e.getValue())));
+        Map<String, MonthlySeries> freqMoisLine = withRollingAverage("Événements", statistics.getEventCountByMonth());
         if (elementsOnCurrentRow % 2 != 0) {
             currentY -= Math.max(lastElementHeightOnRow, 0) + ELEMENT_VERTICAL_SPACING;
             elementsOnCurrentRow = 0; lastElementHeightOnRow = 0;
         }
-        drawChartOrTextBlock("Fréquence par Mois", ChartUtil.createLineChartImage("Fréquence par Mois", "Mois", "Nombre d'Événements", freqMoisLine, (int)USABLE_PAGE_WIDTH, lineChartHeight), null, sectionTitle, true, lineChartHeight);
+        drawChartOrTextBlock("Fréquence par Mois", ChartUtil.createMonthlyLineChartImage("Fréquence par Mois", "Mois", "Nombre d'Événements", freqMoisLine, (int)USABLE_PAGE_WIDTH, lineChartHeight), null, sectionTitle, true, lineChartHeight);
 
-        double[] capaciteTranches = {50, 100, 200};
-        Map<String, Long> repartitionCapacite = statisticsService.getEventDistributionByCapacity(capaciteTranches);
+        Map<String, Long> repartitionCapacite = statistics.getEventDistributionByCapacity();
         List<String> capaciteCategories = new ArrayList<>(repartitionCapacite.keySet());
         List<Number> capaciteValues = new ArrayList<>(repartitionCapacite.values());
         Map<String, List<Number>> capaciteMap = Collections.singletonMap("Événements", capaciteValues);
         drawChartOrTextBlock("Répartition par Capacité d'Accueil", ChartUtil.createBarChartImage("Répartition par Capacité d'Accueil", "Capacité", "Nombre d'Événements", capaciteMap, capaciteCategories, chartWidth, barChartHeight, false), null, sectionTitle, false, 0);
 
-        Map<String, Long> statutEvenements = statisticsService.getEventStatusCounts();
+        Map<String, Long> statutEvenements = statistics.getEventStatusCounts();
         Map<String, Number> statutEvenementsPie = statutEvenements.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e-> (Number)e.getValue()));
         drawChartOrTextBlock("Statut des Événements (Actifs/Inactifs)", ChartUtil.createPieChartImage("Statut des Événements", statutEvenementsPie, chartWidth, chartHeight), null, sectionTitle, false, 0);
 
-        Map<String, Integer> top5Events = statisticsService.getTop5EventsByBooking();
+        Map<String, Integer> top5Events = statistics.getTopEventsByBooking();
         List<String> topEventsText = new ArrayList<>();
         topEventsText.add("Basé sur le Nombre de Réservations:");
          if (top5Events.isEmpty()) {
             topEventsText.add("(Aucune donnée disponible)");
         } else {
-            top5Events.forEach((name, count) -> topEventsText.add(String.format("• %s - %d réservations", name, count)));
+            top5Events.forEach((name, count) -> topEventsText.add(String.format("• %s - %d réservations%s", name, count, intervalSuffix(statistics, "topEventsByBooking", name, PdfReportService::formatCount))));
         }
         if (elementsOnCurrentRow % 2 != 0) {
             currentY -= Math.max(lastElementHeightOnRow, 0) + ELEMENT_VERTICAL_SPACING;
             elementsOnCurrentRow = 0; lastElementHeightOnRow = 0;
         }
         drawChartOrTextBlock("Top 5 Événements les Plus Demandés", null, topEventsText, sectionTitle, true, 0);
+        drawPercentiles("Percentiles de Capacité d'Accueil", statistics.getEventCapacityPercentiles(), false, sectionTitle);
+    }
+
+    private void generateEventUtilizationPage(StatisticsSnapshot statistics) throws IOException {
+        String sectionTitle = "Taux de Remplissage des Événements";
+        prepareNewPage(sectionTitle);
+        int chartWidth = (int) ELEMENT_WIDTH_HALF;
+        int barChartHeight = BAR_CHART_HEIGHT_HALF_PAGE;
+
+        Map<String, Long> distributionRemplissage = statistics.getEventFillRateDistribution();
+        if (distributionRemplissage.values().stream().anyMatch(count -> count > 0)) {
+            List<String> remplissageCategories = new ArrayList<>(distributionRemplissage.keySet());
+            List<Number> remplissageValues = new ArrayList<>(distributionRemplissage.values());
+            Map<String, List<Number>> remplissageMap = Collections.singletonMap("Événements", remplissageValues);
+            drawChartOrTextBlock("Distribution des Taux de Remplissage", ChartUtil.createBarChartImage("Distribution des Taux de Remplissage", "Réservations / Capacité", "Nombre d'Événements", remplissageMap, remplissageCategories, chartWidth, barChartHeight, false), null, sectionTitle, false, 0);
+        } else {
+            drawChartOrTextBlock("Distribution des Taux de Remplissage", null, List.of("(Aucune donnée disponible)"), sectionTitle, false, 0);
+        }
+
+        List<String> summaryText = new ArrayList<>();
+        summaryText.add("Événements actifs avec une capacité renseignée:");
+        Map<String, Double> summary = statistics.getEventUtilizationSummary();
+        if (summary.isEmpty()) {
+            summaryText.add("(Aucune donnée disponible)");
+        } else {
+            summary.forEach((label, value) -> {
+                DoubleFunction<String> format = label.startsWith("Taux") ? PdfReportService::formatRate : PdfReportService::formatCount;
+                summaryText.add(String.format("• %s : %s%s", label, format.apply(value), intervalSuffix(statistics, "eventUtilizationSummary", label, format)));
+            });
+        }
+        drawChartOrTextBlock("Synthèse du Remplissage", null, summaryText, sectionTitle, false, 0);
+
+        drawChartOrTextBlock("Événements les Plus Remplis", null, fillRateLines(statistics.getMostFilledEvents()), sectionTitle, false, 0);
+        drawChartOrTextBlock("Événements les Moins Remplis", null, fillRateLines(statistics.getLeastFilledEvents()), sectionTitle, false, 0);
+    }
+
+    private void generateBookingAnalyticsPage(StatisticsSnapshot statistics) throws IOException {
+        String sectionTitle = "Analyse des Réservations";
+        prepareNewPage(sectionTitle);
+
+        Map<String, Long> weekdayHourCounts = statistics.getBookingsByWeekdayHour();
+        List<String> hourLabels = new ArrayList<>();
+        for (int hour = 0; hour < BookingAnalytics.HOURS; hour++) {
+            hourLabels.add(String.valueOf(hour));
+        }
+        List<String> weekdayLabels = Arrays.asList(BookingAnalytics.WEEKDAYS);
+        long totalBookings = weekdayHourCounts.values().stream().mapToLong(Long::longValue).sum();
+        double[][] grid = new double[weekdayLabels.size()][hourLabels.size()];
+        for (int weekday = 0; weekday < weekdayLabels.size(); weekday++) {
+            for (int hour = 0; hour < hourLabels.size(); hour++) {
+                Long count = weekdayHourCounts.get(weekdayLabels.get(weekday) + BookingAnalytics.SEPARATOR + hour);
+                grid[weekday][hour] = count == null || count == 0 ? Double.NaN : count * 1000.0 / totalBookings;
+            }
+        }
+        if (totalBookings > 0) {
+            drawChartOrTextBlock("Réservations par Jour et Heure (‰ du total)", ChartUtil.createHeatMapImage("Réservations par Jour et Heure", "Heure de réservation", "Jour", hourLabels, weekdayLabels, grid, (int) USABLE_PAGE_WIDTH, WEEKDAY_HOUR_HEATMAP_HEIGHT), null, sectionTitle, true, WEEKDAY_HOUR_HEATMAP_HEIGHT);
+        } else {
+            drawChartOrTextBlock("Réservations par Jour et Heure (‰ du total)", null, List.of("(Aucune donnée disponible)"), sectionTitle, true, 0);
+        }
+
+        drawDistribution("Délai entre Réservation et Événement", "Délai avant le début", "Nombre de Réservations", "Réservations", statistics.getBookingLeadTimeDistribution(), sectionTitle);
+        if (statistics.isSampled()) {
+            drawChartOrTextBlock("Réservations par Collaborateur", null, List.of("(Non estimé à partir de l'échantillon de réservations)"), sectionTitle, false, 0);
+        } else {
+            drawDistribution("Réservations par Collaborateur", "Réservations", "Nombre de Collaborateurs", "Collaborateurs", statistics.getBookingAttendanceDistribution(), sectionTitle);
+        }
+
+        List<String> summaryText = new ArrayList<>();
+        summaryText.add("Réservations des collaborateurs clients:");
+        Map<String, Double> summary = statistics.getBookingSummary();
+        if (summary.isEmpty()) {
+            summaryText.add("(Aucune donnée disponible)");
+        } else {
+            if (statistics.isSampled()) {
+                summaryText.add("• Effectifs extrapolés à partir de l'échantillon de réservations ; collaborateurs et entreprises non dénombrés");
+            }
+            summary.forEach((label, value) -> {
+                String formatted;
+                if (label.startsWith("Taux")) {
+                    formatted = formatRate(value);
+                } else if (label.startsWith("Délai") || label.contains(" par ")) {
+                    formatted = String.format("%.1f", value);
+                } else {
+                    formatted = formatCount(value);
+                }
+                summaryText.add(String.format("• %s : %s", label, formatted));
+            });
+        }
+        drawChartOrTextBlock("Synthèse des Réservations", null, summaryText, sectionTitle, false, 0);
+
+        List<String> companyText = new ArrayList<>();
+        companyText.add("Entreprises dont les collaborateurs réservent le plus:");
+        Map<String, Long> topCompanies = statistics.getTopCompaniesByBooking();
+        if (topCompanies.isEmpty()) {
+            companyText.add("(Aucune donnée disponible)");
+        } else {
+            topCompanies.forEach((name, count) -> companyText.add(String.format("• %s - %d réservation(s)", name, count)));
+        }
+        drawChartOrTextBlock("Top Entreprises par Réservations", null, companyText, sectionTitle, false, 0);
     }
 
-    private void generatePrestationStatisticsPage(List<Prestation> prestations) throws IOException {
+    private void drawDistribution(String title, String xAxisTitle, String yAxisTitle, String series, Map<String, Long> distribution, String sectionTitle) throws IOException {
+        if (distribution.values().stream().anyMatch(count -> count > 0)) {
+            List<String> categories = new ArrayList<>(distribution.keySet());
+            Map<String, List<Number>> values = Collections.singletonMap(series, new ArrayList<Number>(distribution.values()));
+            drawChartOrTextBlock(title, ChartUtil.createBarChartImage(title, xAxisTitle, yAxisTitle, values, categories, (int) ELEMENT_WIDTH_HALF, BAR_CHART_HEIGHT_HALF_PAGE, false), null, sectionTitle, false, 0);
+        } else {
+            drawChartOrTextBlock(title, null, List.of("(Aucune donnée disponible)"), sectionTitle, false, 0);
+        }
+    }
+
+    private static List<String> fillRateLines(Map<String, Double> rates) {
+        List<String> lines = new ArrayList<>();
+        lines.add("Réservations rapportées à la capacité d'accueil:");
+        if (rates.isEmpty()) {
+            lines.add("(Aucune donnée disponible)");
+        } else {
+            rates.forEach((name, rate) -> lines.add(String.format("• %s - %s", name, formatRate(rate))));
+        }
+        return lines;
+    }
+
+    private static String formatRate(double rate) {
+        return String.format("%.1f %%", rate * 100);
+    }
+
+    private static String formatCount(double count) {
+        return String.format("%.0f", count);
+    }
+
+    private static String intervalSuffix(StatisticsSnapshot statistics, String metric, String label, DoubleFunction<String> format) {
+        Double halfWidth = statistics.getConfidenceInterval(metric, label);
+        return halfWidth == null ? "" : " (±" + format.apply(halfWidth) + ")";
+    }
+
+    private static <V> Map<String, V> withIntervals(StatisticsSnapshot statistics, String metric, Map<String, V> values, DoubleFunction<String> format) {
+        if (!statistics.isSampled()) {
+            return values;
+        }
+        Map<String, V> labelled = new LinkedHashMap<>();
+        values.forEach((label, value) -> labelled.put(label + intervalSuffix(statistics, metric, label, format), value));
+        return labelled;
+    }
+
+    private static Map<String, List<Number>> errorBars(StatisticsSnapshot statistics, String metric, String series, List<String> categories) {
+        if (!statistics.isSampled()) {
+            return Collections.emptyMap();
+        }
+        List<Number> halfWidths = new ArrayList<>();
+        for (String category : categories) {
+            Double halfWidth = statistics.getConfidenceInterval(metric, category);
+            halfWidths.add(halfWidth == null ? 0.0 : halfWidth);
+        }
+        return Collections.singletonMap(series, halfWidths);
+    }
+
+    private List<String> samplingLines(StatisticsSnapshot statistics) {
+        Map<String, Double> rates = statistics.getSamplingRates();
+        List<String> lines = new ArrayList<>();
+        lines.add("Chiffres extrapolés à partir d'un échantillon aléatoire stratifié :");
+        lines.add(String.format("• Entreprises : %s - Factures : %s - Réservations : %s",
+                formatRate(rates.getOrDefault("company", 1.0)), formatRate(rates.getOrDefault("invoice", 1.0)), formatRate(rates.getOrDefault("booking", 1.0))));
+        lines.add("• Intervalles de confiance à 95 % : valeurs entre parenthèses (±) et barres d'erreur.");
+        lines.add("• Événements et prestations : valeurs exactes.");
+        return lines;
+    }
+
+    private void generatePrestationStatisticsPage(CatalogSummary catalog, StatisticsSnapshot statistics) throws IOException {
         String sectionTitle = "Statistiques des Prestations";
         prepareNewPage(sectionTitle);
         int chartWidth = (int) ELEMENT_WIDTH_HALF;
         int chartHeight = DEFAULT_CHART_HEIGHT_HALF_PAGE;
         int barChartHeight = BAR_CHART_HEIGHT_HALF_PAGE;
 
-        Map<String, Long> repartitionType = statisticsService.getServiceCountByType();
+        Map<String, Long> repartitionType = statistics.getServiceCountByType();
         Map<String, Number> repartitionTypePie = repartitionType.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e-> (Number)e.getValue()));
         drawChartOrTextBlock("Répartition par Type (Médical/Non-Médical)", ChartUtil.createPieChartImage("Répartition par Type", repartitionTypePie, chartWidth, chartHeight), null, sectionTitle, false, 0);
 
-        double[] coutTranches = {50, 100, 250};
-        Map<String, Long> distributionCout = statisticsService.getServiceDistributionByCost(coutTranches);
+        Map<String, Long> distributionCout = statistics.getServiceDistributionByCost();
         List<String> coutCategories = new ArrayList<>(distributionCout.keySet());
         List<Number> coutValues = new ArrayList<>(distributionCout.values());
         Map<String, List<Number>> coutMap = Collections.singletonMap("Prestations", coutValues);
@@ -475,7 +751,7 @@ public class PdfReportService {
         String suiteSectionTitle = "Statistiques des Prestations - Suite";
         prepareNewPage(suiteSectionTitle);
         
-        Map<String, Long> topProvidersByService = statisticsService.getTopProvidersByServiceCount(5);
+        Map<String, Long> topProvidersByService = statistics.getTopProvidersByServiceCount();
         if (!topProvidersByService.isEmpty()) {
             List<String> providerNames = new ArrayList<>(topProvidersByService.keySet());
             List<Number> serviceCounts = new ArrayList<>(topProvidersByService.values());
@@ -494,7 +770,7 @@ public class PdfReportService {
             drawChartOrTextBlock("Top 5 Prestataires par Nb. de Prestations", null, List.of("(Aucune donnée disponible)"), suiteSectionTitle, false, 0);
         }
 
-        Map<String, Long> serviceAvailability = statisticsService.getServiceAvailabilityDistribution();
+        Map<String, Long> serviceAvailability = statistics.getServiceAvailabilityDistribution();
         Map<String, Number> serviceAvailabilityPie = serviceAvailability.entrySet().stream()
                                                         .collect(Collectors.toMap(Map.Entry::getKey, e-> (Number)e.getValue()));
         logger.info("Data for Disponibilité des Prestations pie chart: " + serviceAvailabilityPie);
@@ -518,5 +794,35 @@ public class PdfReportService {
              elementsOnCurrentRow = 0;
              lastElementHeightOnRow = 0;
         }
+        drawPercentiles("Percentiles du Coût des Prestations", statistics.getServicePricePercentiles(), true, suiteSectionTitle);
+
+        List<String> frequentText = new ArrayList<>();
+        frequentText.add("Basé sur le Nombre d'Événements Associés:");
+        catalog.getTopServicesByEventCount().forEach((name, count) -> frequentText.add(String.format("• %s - %d événement(s)", name, count)));
+        if (frequentText.size() == 1) {
+            frequentText.add("(Aucune donnée disponible)");
+        }
+        Map<String, Integer> topPairs = catalog.getTopServicePairs();
+        frequentText.add("Prestations les plus souvent proposées ensemble:");
+        if (topPairs.isEmpty()) {
+            frequentText.add("(Aucune donnée disponible)");
+        } else {
+            topPairs.forEach((pair, count) -> frequentText.add(String.format("• %s - %d événement(s) commun(s)", pair, count)));
+        }
+        drawChartOrTextBlock("Prestations Associées aux Événements", null, frequentText, suiteSectionTitle, true, 0);
+    }
+
+    private void drawPercentiles(String title, Map<String, Double> percentiles, boolean currency, String sectionTitle) throws IOException {
+        if (percentiles.isEmpty()) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("Estimés par esquisse de quantiles (tranches à effectifs égaux):");
+        percentiles.forEach((label, value) -> lines.add(String.format("• %s : %s", label.toUpperCase(), currency ? formatCurrency(value) : String.format("%.0f", value))));
+        if (elementsOnCurrentRow % 2 != 0) {
+            currentY -= Math.max(lastElementHeightOnRow, 0) + ELEMENT_VERTICAL_SPACING;
+            elementsOnCurrentRow = 0; lastElementHeightOnRow = 0;
+        }
+        drawChartOrTextBlock(title, null, lines, sectionTitle, true, 0);
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.businesscare.service;
+
+public class QueryStats {
+    private int queryCount;
+    private long rowCount;
+    private long elapsedNanos;
+
+    public synchronized void record(long nanos, long rows) {
+        queryCount++;
+        rowCount += rows;
+        elapsedNanos += nanos;
+    }
+
+    public synchronized void reset() {
+        queryCount = 0;
+        rowCount = 0;
+        elapsedNanos = 0;
+    }
+
+    public synchronized int getQueryCount() {
+        return queryCount;
+    }
+
+    public synchronized long getRowCount() {
+        return rowCount;
+    }
+
+    public synchronized long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d requête(s), %d ligne(s), %d ms", queryCount, rowCount, elapsedNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,26 @@
+package com.businesscare.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.businesscare.util.Histogram;
+import com.businesscare.util.MonthlySeries;
+
+final class RawStatistics {
+    final Map<String, Long> clientCountBySubscriptionTier = new HashMap<>();
+    final Histogram.Accumulator clientRevenues = StatisticsService.revenueHistogram(StatisticsService.REVENUE_TRANCHES).newAccumulator();
+    final Map<String, Long> clientCountBySize = new HashMap<>();
+    final Map<String, Long> clientCountByIndustry = new LinkedHashMap<>();
+    final Map<String, Double> topClientsByTotalPaid = new LinkedHashMap<>();
+    final MonthlySeries.Builder eventCountByMonth = new MonthlySeries.Builder();
+    final Histogram.Accumulator eventCapacities = StatisticsService.capacityHistogram(StatisticsService.CAPACITY_TRANCHES).newAccumulator();
+    final Map<String, Long> eventStatusCounts = new HashMap<>();
+    final Map<String, Integer> topEventsByBooking = new LinkedHashMap<>();
+    final Map<String, Long> serviceCountByType = new HashMap<>();
+    final Histogram.Accumulator servicePrices = StatisticsService.costHistogram(StatisticsService.COST_TRANCHES).newAccumulator();
+    final Map<String, Long> serviceCountByProvider = new LinkedHashMap<>();
+    final Map<String, Long> serviceCountByAvailability = new HashMap<>();
+    final MonthlySeries.Builder paidInvoicesByMonth = new MonthlySeries.Builder();
+    final MonthlySeries.Builder newContractsByMonth = new MonthlySeries.Builder();
+}
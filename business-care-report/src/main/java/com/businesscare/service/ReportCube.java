@@ -0,0 +1,341 @@
+package com.businesscare.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.businesscare.model.Abonnement;
+import com.businesscare.model.ClientAccount;
+import com.businesscare.model.Facture;
+import com.businesscare.model.enums.InvoiceStatus;
+
+public final class ReportCube {
+    private static final int NOT_APPLICABLE = -1;
+
+    public enum Dimension {
+        TIER, SIZE, INDUSTRY, MONTH
+    }
+
+    private static final Dimension[] DIMENSIONS = Dimension.values();
+
+    private final List<List<String>> members;
+    private final List<Map<String, Integer>> codes;
+    private final int[][] coordinates;
+    private final int[][] companies;
+    private final long[] contractCounts;
+    private final double[] contractValues;
+    private final long[] paidInvoiceCounts;
+    private final double[] paidAmounts;
+    private final int companyCount;
+    private final Map<List<Object>, Map<List<String>, Measures>> queryCache = new ConcurrentHashMap<>();
+
+    private ReportCube(Builder builder) {
+        this.members = builder.members;
+        this.codes = builder.codes;
+        this.companyCount = builder.companyCount;
+        int cellCount = builder.cellCount;
+        this.coordinates = new int[DIMENSIONS.length][];
+        for (int d = 0; d < DIMENSIONS.length; d++) {
+            coordinates[d] = Arrays.copyOf(builder.cellCoordinates[d], cellCount);
+        }
+        this.companies = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            companies[cell] = Arrays.copyOf(builder.cellCompanies[cell], builder.cellCompanySizes[cell]);
+        }
+        this.contractCounts = Arrays.copyOf(builder.contractCounts, cellCount);
+        this.contractValues = Arrays.copyOf(builder.contractValues, cellCount);
+        this.paidInvoiceCounts = Arrays.copyOf(builder.paidInvoiceCounts, cellCount);
+        this.paidAmounts = Arrays.copyOf(builder.paidAmounts, cellCount);
+    }
+
+    public static ReportCube build(List<ClientAccount> clients) {
+        Builder builder = new Builder(clients.size());
+        for (int company = 0; company < clients.size(); company++) {
+            ClientAccount client = clients.get(company);
+            builder.add(company, client, null, null);
+            for (Abonnement abonnement : client.getAbonnements()) {
+                builder.add(company, client, abonnement, null);
+            }
+            for (Facture facture : client.getFactures()) {
+                if (facture.getStatutPaiement() == InvoiceStatus.PAID) {
+                    builder.add(company, client, null, facture);
+                }
+            }
+        }
+        return new ReportCube(builder);
+    }
+
+    public int getCellCount() {
+        return contractCounts.length;
+    }
+
+    public int getCompanyCount() {
+        return companyCount;
+    }
+
+    public List<String> getMembers(Dimension dimension) {
+        return Collections.unmodifiableList(members.get(dimension.ordinal()));
+    }
+
+    public Measures total(Map<Dimension, String> slice) {
+        Map<List<String>, Measures> result = query(slice);
+        return result.isEmpty() ? Measures.EMPTY : result.values().iterator().next();
+    }
+
+    public Map<String, Measures> rollUp(Dimension dimension) {
+        return rollUp(dimension, Collections.emptyMap());
+    }
+
+    public Map<String, Measures> rollUp(Dimension dimension, Map<Dimension, String> slice) {
+        Map<String, Measures> result = new LinkedHashMap<>();
+        query(slice, dimension).forEach((key, measures) -> result.put(key.get(0), measures));
+        return Collections.unmodifiableMap(result);
+    }
+
+    public Map<List<String>, Measures> query(Map<Dimension, String> slice, Dimension... groupBy) {
+        List<Object> cacheKey = Arrays.asList(new HashMap<>(slice), Arrays.asList(groupBy));
+        Map<List<String>, Measures> cached = queryCache.get(cacheKey);
+        if (cached == null) {
+            cached = Collections.unmodifiableMap(compute(slice, groupBy));
+            queryCache.put(cacheKey, cached);
+        }
+        return cached;
+    }
+
+    private Map<List<String>, Measures> compute(Map<Dimension, String> slice, Dimension[] groupBy) {
+        int[] sliceCodes = new int[DIMENSIONS.length];
+        Arrays.fill(sliceCodes, NOT_APPLICABLE);
+        for (Map.Entry<Dimension, String> entry : slice.entrySet()) {
+            Integer code = codes.get(entry.getKey().ordinal()).get(entry.getValue());
+            if (code == null) {
+                return Collections.emptyMap();
+            }
+            sliceCodes[entry.getKey().ordinal()] = code;
+        }
+
+        Map<Long, Group> groups = new HashMap<>();
+        for (int cell = 0; cell < contractCounts.length; cell++) {
+            if (!matches(cell, sliceCodes) || !applicable(cell, groupBy)) {
+                continue;
+            }
+            long key = 0;
+            for (Dimension dimension : groupBy) {
+                key = key * (members.get(dimension.ordinal()).size() + 1) + coordinates[dimension.ordinal()][cell];
+            }
+            Group group = groups.get(key);
+            if (group == null) {
+                group = new Group(cell);
+                groups.put(key, group);
+            }
+            group.add(cell);
+        }
+
+        List<Map.Entry<Long, Group>> ordered = new ArrayList<>(groups.entrySet());
+        ordered.sort(Map.Entry.comparingByKey());
+        Map<List<String>, Measures> result = new LinkedHashMap<>();
+        for (Map.Entry<Long, Group> entry : ordered) {
+            List<String> key = new ArrayList<>(groupBy.length);
+            for (Dimension dimension : groupBy) {
+                key.add(members.get(dimension.ordinal()).get(coordinates[dimension.ordinal()][entry.getValue().firstCell]));
+            }
+            result.put(Collections.unmodifiableList(key), entry.getValue().toMeasures());
+        }
+        return result;
+    }
+
+    private boolean matches(int cell, int[] sliceCodes) {
+        for (int d = 0; d < sliceCodes.length; d++) {
+            if (sliceCodes[d] != NOT_APPLICABLE && coordinates[d][cell] != sliceCodes[d]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean applicable(int cell, Dimension[] groupBy) {
+        for (Dimension dimension : groupBy) {
+            if (coordinates[dimension.ordinal()][cell] == NOT_APPLICABLE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String member(Dimension dimension, ClientAccount client, Abonnement abonnement, Facture facture, Calendar calendar) {
+        switch (dimension) {
+            case TIER:
+                return abonnement == null ? null : abonnement.getLibelleFormule();
+            case SIZE:
+                return client.getTaille();
+            case INDUSTRY:
+                return client.getTypeClient();
+            case MONTH:
+                Date date = abonnement != null ? abonnement.getDateDebut() : facture != null ? facture.getDateFacturation() : null;
+                if (date == null) {
+                    return null;
+                }
+                calendar.setTime(date);
+                int month = calendar.get(Calendar.MONTH) + 1;
+                return calendar.get(Calendar.YEAR) + (month < 10 ? "-0" : "-") + month;
+            default:
+                throw new IllegalArgumentException("Dimension inconnue : " + dimension);
+        }
+    }
+
+    private static boolean isApplicable(Dimension dimension, Abonnement abonnement, Facture facture) {
+        switch (dimension) {
+            case TIER:
+                return abonnement != null;
+            case MONTH:
+                return abonnement != null || facture != null;
+            default:
+                return true;
+        }
+    }
+
+    private final class Group {
+        private final int firstCell;
+        private final BitSet companySet = new BitSet(companyCount);
+        private long contractCount;
+        private double contractValue;
+        private long paidInvoiceCount;
+        private double paidAmount;
+
+        private Group(int firstCell) {
+            this.firstCell = firstCell;
+        }
+
+        private void add(int cell) {
+            for (int company : companies[cell]) {
+                companySet.set(company);
+            }
+            contractCount += contractCounts[cell];
+            contractValue += contractValues[cell];
+            paidInvoiceCount += paidInvoiceCounts[cell];
+            paidAmount += paidAmounts[cell];
+        }
+
+        private Measures toMeasures() {
+            return new Measures(companySet.cardinality(), contractCount, contractValue, paidInvoiceCount, paidAmount);
+        }
+    }
+
+    public static final class Measures {
+        static final Measures EMPTY = new Measures(0, 0, 0.0, 0, 0.0);
+
+        private final long companyCount;
+        private final long contractCount;
+        private final double contractValue;
+        private final long paidInvoiceCount;
+        private final double paidAmount;
+
+        private Measures(long companyCount, long contractCount, double contractValue, long paidInvoiceCount, double paidAmount) {
+            this.companyCount = companyCount;
+            this.contractCount = contractCount;
+            this.contractValue = contractValue;
+            this.paidInvoiceCount = paidInvoiceCount;
+            this.paidAmount = paidAmount;
+        }
+
+        public long getCompanyCount() { return companyCount; }
+        public long getContractCount() { return contractCount; }
+        public double getContractValue() { return contractValue; }
+        public long getPaidInvoiceCount() { return paidInvoiceCount; }
+        public double getPaidAmount() { return paidAmount; }
+    }
+
+    private static final class Builder {
+        private final List<List<String>> members = new ArrayList<>();
+        private final List<Map<String, Integer>> codes = new ArrayList<>();
+        private final Map<List<Integer>, Integer> cellIndex = new HashMap<>();
+        private final int companyCount;
+        private final Calendar calendar = Calendar.getInstance();
+        private int cellCount;
+        private int[][] cellCoordinates = new int[DIMENSIONS.length][16];
+        private int[][] cellCompanies = new int[16][];
+        private int[] cellCompanySizes = new int[16];
+        private long[] contractCounts = new long[16];
+        private double[] contractValues = new double[16];
+        private long[] paidInvoiceCounts = new long[16];
+        private double[] paidAmounts = new double[16];
+
+        private Builder(int companyCount) {
+            this.companyCount = companyCount;
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                members.add(new ArrayList<>());
+                codes.add(new HashMap<>());
+            }
+        }
+
+        private void add(int company, ClientAccount client, Abonnement abonnement, Facture facture) {
+            Integer[] coordinate = new Integer[DIMENSIONS.length];
+            for (Dimension dimension : DIMENSIONS) {
+                coordinate[dimension.ordinal()] = isApplicable(dimension, abonnement, facture)
+                        ? code(dimension, member(dimension, client, abonnement, facture, calendar))
+                        : NOT_APPLICABLE;
+            }
+            List<Integer> key = Arrays.asList(coordinate);
+            Integer cell = cellIndex.get(key);
+            if (cell == null) {
+                cell = newCell(coordinate);
+                cellIndex.put(key, cell);
+            }
+            int size = cellCompanySizes[cell];
+            if (size == 0 || cellCompanies[cell][size - 1] != company) {
+                if (size == cellCompanies[cell].length) {
+                    cellCompanies[cell] = Arrays.copyOf(cellCompanies[cell], size * 2);
+                }
+                cellCompanies[cell][size] = company;
+                cellCompanySizes[cell] = size + 1;
+            }
+            if (abonnement != null) {
+                contractCounts[cell]++;
+                contractValues[cell] += abonnement.getMontant();
+            }
+            if (facture != null) {
+                paidInvoiceCounts[cell]++;
+                paidAmounts[cell] += facture.getMontantTotal();
+            }
+        }
+
+        private int code(Dimension dimension, String member) {
+            Map<String, Integer> dimensionCodes = codes.get(dimension.ordinal());
+            Integer code = dimensionCodes.get(member);
+            if (code == null) {
+                List<String> dimensionMembers = members.get(dimension.ordinal());
+                code = dimensionMembers.size();
+                dimensionMembers.add(member);
+                dimensionCodes.put(member, code);
+            }
+            return code;
+        }
+
+        private int newCell(Integer[] coordinate) {
+            if (cellCount == contractCounts.length) {
+                int capacity = cellCount * 2;
+                for (int d = 0; d < DIMENSIONS.length; d++) {
+                    cellCoordinates[d] = Arrays.copyOf(cellCoordinates[d], capacity);
+                }
+                cellCompanies = Arrays.copyOf(cellCompanies, capacity);
+                cellCompanySizes = Arrays.copyOf(cellCompanySizes, capacity);
+                contractCounts = Arrays.copyOf(contractCounts, capacity);
+                contractValues = Arrays.copyOf(contractValues, capacity);
+                paidInvoiceCounts = Arrays.copyOf(paidInvoiceCounts, capacity);
+                paidAmounts = Arrays.copyOf(paidAmounts, capacity);
+            }
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                cellCoordinates[d][cellCount] = coordinate[d];
+            }
+            cellCompanies[cellCount] = new int[4];
+            return cellCount++;
+        }
+    }
+}
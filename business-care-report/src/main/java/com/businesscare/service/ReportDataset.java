@@ -0,0 +1,73 @@
+package com.businesscare.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.businesscare.model.Abonnement;
+import com.businesscare.model.ClientAccount;
+import com.businesscare.model.Evenement;
+import com.businesscare.model.Prestation;
+
+public final class ReportDataset {
+    private final List<ClientAccount> clients;
+    private final List<Evenement> events;
+    private final List<Prestation> services;
+    private final boolean incremental;
+    private final int reloadedCount;
+    private final List<ClientAccount> inactiveClients;
+    private final List<Abonnement> contractHistory;
+
+    public ReportDataset(Collection<ClientAccount> clients, Collection<Evenement> events, Collection<Prestation> services,
+                         boolean incremental, int reloadedCount) {
+        this(clients, events, services, incremental, reloadedCount, Collections.<ClientAccount>emptyList(), null);
+    }
+
+    private ReportDataset(Collection<ClientAccount> clients, Collection<Evenement> events, Collection<Prestation> services,
+                          boolean incremental, int reloadedCount, Collection<ClientAccount> inactiveClients, Collection<Abonnement> contractHistory) {
+        this.clients = Collections.unmodifiableList(new ArrayList<>(clients));
+        this.events = Collections.unmodifiableList(new ArrayList<>(events));
+        this.services = Collections.unmodifiableList(new ArrayList<>(services));
+        this.incremental = incremental;
+        this.reloadedCount = reloadedCount;
+        this.inactiveClients = Collections.unmodifiableList(new ArrayList<>(inactiveClients));
+        this.contractHistory = contractHistory == null ? null : Collections.unmodifiableList(new ArrayList<>(contractHistory));
+    }
+
+    public ReportDataset withHistory(Collection<ClientAccount> inactiveClients, Collection<Abonnement> contractHistory) {
+        return new ReportDataset(clients, events, services, incremental, reloadedCount, inactiveClients, contractHistory);
+    }
+
+    public List<ClientAccount> getClients() {
+        return clients;
+    }
+
+    public List<Evenement> getEvents() {
+        return events;
+    }
+
+    public List<Prestation> getServices() {
+        return services;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public int getReloadedCount() {
+        return reloadedCount;
+    }
+
+    public List<ClientAccount> getInactiveClients() {
+        return inactiveClients;
+    }
+
+    public boolean hasContractHistory() {
+        return contractHistory != null;
+    }
+
+    public List<Abonnement> getContractHistory() {
+        return contractHistory == null ? Collections.<Abonnement>emptyList() : contractHistory;
+    }
+}
@@ -0,0 +1,9 @@
+package com.businesscare.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface RowHandler {
+    void handle(ResultSet row) throws SQLException;
+}
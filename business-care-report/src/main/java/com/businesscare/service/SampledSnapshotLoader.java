@@ -0,0 +1,312 @@
+package com.businesscare.service;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.businesscare.util.Histogram;
+import com.businesscare.util.MonthlySeries;
+import com.businesscare.util.QuantileSketch;
+import com.businesscare.util.RangeSample;
+import com.businesscare.util.TopK;
+
+final class SampledSnapshotLoader {
+    private static final Logger logger = LoggerFactory.getLogger(SampledSnapshotLoader.class);
+    private static final String COMPANY_SAMPLE_SQL = "SELECT id, size, industry, status FROM company WHERE id IN (%s)";
+    private static final String CONTRACT_SAMPLE_SQL = "SELECT company_id, subscriptionTier, price, startDate, endDate, status FROM contract WHERE company_id IN (%s) ORDER BY company_id";
+    private static final String INVOICE_SAMPLE_SQL = "SELECT i.id, i.company_id, c.name, i.invoice_date, i.total_amount FROM invoice i LEFT JOIN company c ON c.id = i.company_id " +
+                                                     "WHERE i.status = 'payed' AND i.id IN (%s)";
+    private static final String BOOKING_SAMPLE_SQL = "SELECT b.id, b.event_id, e.company_id, WEEKDAY(b.booking_date) AS weekday, HOUR(b.booking_date) AS hour, " +
+                                                     "FLOOR(TIMESTAMPDIFF(SECOND, b.booking_date, ev.start_date) / 86400.0) AS lead_days " +
+                                                     "FROM booking b LEFT JOIN employee e ON b.employee_id = e.id LEFT JOIN event ev ON ev.id = b.event_id WHERE b.id IN (%s)";
+    private static final String SERVICE_PRICE_SAMPLE_SQL = "SELECT price FROM service WHERE price IS NOT NULL AND price >= 0 AND id IN (%s)";
+    private static final String ACTIVE_EVENTS_SQL = "SELECT id, name, capacity FROM event WHERE is_active = 1 ORDER BY id";
+    private static final String TOTAL_KEY = "";
+
+    private final DatabaseService databaseService;
+    private final SamplingPlan plan;
+    private final boolean automaticTranches;
+    private final Random random;
+    private final Calendar calendar = Calendar.getInstance();
+    private final Map<String, Double> intervals = new LinkedHashMap<>();
+    private final QuantileSketch eventCapacities = new QuantileSketch();
+    private final QuantileSketch servicePrices = new QuantileSketch();
+
+    SampledSnapshotLoader(DatabaseService databaseService, SamplingPlan plan, boolean automaticTranches, Random random) {
+        this.databaseService = databaseService;
+        this.plan = plan;
+        this.automaticTranches = automaticTranches;
+        this.random = random;
+    }
+
+    QuantileSketch getEventCapacitySketch() {
+        return eventCapacities;
+    }
+
+    QuantileSketch getServicePriceSketch() {
+        return servicePrices;
+    }
+
+    StatisticsSnapshot load(StatisticsSnapshot exact) throws SQLException {
+        long start = System.nanoTime();
+        RangeSample companies = draw("company");
+        RangeSample invoices = draw("invoice");
+        RangeSample bookings = draw("booking");
+        StatisticsSnapshot.Builder snapshot = exact.toBuilder();
+        loadCompanies(companies, snapshot);
+        loadInvoices(invoices, snapshot);
+        BookingAnalytics bookingAnalytics = loadBookings(bookings, snapshot);
+        if (automaticTranches) {
+            RangeSample services = draw("service");
+            databaseService.streamIdSample(SERVICE_PRICE_SAMPLE_SQL, services.getIds(), rs -> servicePrices.accept(rs.getDouble("price")));
+        }
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("company", companies.getSamplingRate());
+        rates.put("invoice", invoices.getSamplingRate());
+        rates.put("booking", bookings.getSamplingRate());
+        logger.info("Instantané approximatif calculé sur {} entreprise(s), {} facture(s) et {} réservation(s) tirées ({} ms).",
+                companies.size(), invoices.size(), bookings.size(), (System.nanoTime() - start) / 1_000_000);
+        return StatisticsService.withBookings(snapshot.confidenceIntervals(intervals).samplingRates(rates).build(), bookingAnalytics);
+    }
+
+    private RangeSample draw(String table) throws SQLException {
+        long[] bounds = databaseService.getIdBounds(table);
+        if (bounds == null) {
+            return RangeSample.empty();
+        }
+        return RangeSample.draw(bounds[0], bounds[1], plan.getSampleSize(), plan.getStrata(), random);
+    }
+
+    private void loadCompanies(RangeSample sample, StatisticsSnapshot.Builder snapshot) throws SQLException {
+        RangeSample.Totals sizes = sample.newTotals();
+        Map<Long, String> industryById = new HashMap<>();
+        databaseService.streamIdSample(COMPANY_SAMPLE_SQL, sample.getIds(), rs -> {
+            if (!"ACTIVE".equalsIgnoreCase(rs.getString("status"))) {
+                return;
+            }
+            long id = rs.getLong("id");
+            sizes.add(label(rs.getString("size")), id, 1);
+            industryById.put(id, label(rs.getString("industry")));
+        });
+        snapshot.clientCountBySize(counts("clientCountBySize", sizes, new ArrayList<>(sizes.keys())));
+        snapshot.clientCountByIndustry(industryCounts(sample, industryById));
+
+        Map<Long, Set<String>> tiersById = new HashMap<>();
+        Map<Long, Double> activeValueById = new HashMap<>();
+        Map<Long, Map<Integer, Integer>> newContractsById = new HashMap<>();
+        ContractCohorts.Builder cohorts = new ContractCohorts.Builder(ContractCohorts.currentMonth());
+        databaseService.streamIdSample(CONTRACT_SAMPLE_SQL, sample.getIds(), rs -> {
+            long companyId = rs.getLong("company_id");
+            boolean active = "active".equalsIgnoreCase(rs.getString("status"));
+            if (active) {
+                tiersById.computeIfAbsent(companyId, k -> new LinkedHashSet<>()).add(label(rs.getString("subscriptionTier")));
+                activeValueById.merge(companyId, rs.getDouble("price"), Double::sum);
+            }
+            Date startDate = rs.getDate("startDate");
+            if (startDate != null) {
+                newContractsById.computeIfAbsent(companyId, k -> new HashMap<>()).merge(MonthlySeries.monthOf(startDate, calendar), 1, Integer::sum);
+            }
+            cohorts.add((int) companyId, startDate, rs.getDate("endDate"), active);
+        });
+
+        RangeSample.Totals tiers = sample.newTotals();
+        tiersById.forEach((id, labels) -> labels.forEach(tier -> tiers.add(tier, id, 1)));
+        snapshot.clientCountBySubscriptionTier(counts(DistinctCountSketches.TIER_METRIC, tiers, new ArrayList<>(tiers.keys())));
+
+        QuantileSketch revenueSketch = new QuantileSketch();
+        activeValueById.values().forEach(revenueSketch::accept);
+        Histogram revenueHistogram = StatisticsService.revenueHistogram(automaticTranches
+                ? StatisticsService.automaticTranches(revenueSketch, StatisticsService.REVENUE_TRANCHES) : StatisticsService.REVENUE_TRANCHES);
+        RangeSample.Totals revenues = sample.newTotals();
+        activeValueById.forEach((id, value) -> {
+            int bin = revenueHistogram.binOf(value);
+            if (bin >= 0) {
+                revenues.add(revenueHistogram.getLabel(bin), id, value);
+            }
+        });
+        Map<String, Double> revenueDistribution = new LinkedHashMap<>();
+        for (int bin = 0; bin < revenueHistogram.getBinCount(); bin++) {
+            String label = revenueHistogram.getLabel(bin);
+            revenueDistribution.put(label, revenues.estimate(label));
+            interval("clientRevenueDistribution", label, revenues.halfWidth(label));
+        }
+        snapshot.clientRevenueDistribution(revenueDistribution);
+        if (automaticTranches) {
+            snapshot.clientRevenuePercentiles(StatisticsService.percentiles(revenueSketch));
+        }
+
+        RangeSample.Totals newContracts = sample.newTotals();
+        newContractsById.forEach((id, months) -> months.forEach((month, count) -> newContracts.add(MonthlySeries.format(month), id, count)));
+        snapshot.newContractsByMonth(series("newContractsByMonth", newContracts));
+
+        double rate = sample.getSamplingRate();
+        snapshot.contractCohortCounts(cohorts.build().scaled(rate == 0 ? 0 : 1 / rate).toCounts());
+    }
+
+    private Map<String, Long> industryCounts(RangeSample sample, Map<Long, String> industryById) {
+        RangeSample.Totals industries = sample.newTotals();
+        industryById.forEach((id, industry) -> industries.add(industry, id, 1));
+        List<String> ranked = ranked(industries, StatisticsService.TOP_N, industry -> industry);
+        if (ranked.size() == industries.keys().size()) {
+            return counts("clientCountByIndustry", industries, ranked);
+        }
+        Set<String> kept = new LinkedHashSet<>(ranked);
+        RangeSample.Totals collapsed = sample.newTotals();
+        industryById.forEach((id, industry) -> collapsed.add(kept.contains(industry) ? industry : "Autres", id, 1));
+        List<String> labels = new ArrayList<>(kept);
+        labels.add("Autres");
+        return counts("clientCountByIndustry", collapsed, labels);
+    }
+
+    private void loadInvoices(RangeSample sample, StatisticsSnapshot.Builder snapshot) throws SQLException {
+        RangeSample.Totals months = sample.newTotals();
+        RangeSample.Totals clients = sample.newTotals();
+        Map<String, String> names = new HashMap<>();
+        databaseService.streamIdSample(INVOICE_SAMPLE_SQL, sample.getIds(), rs -> {
+            long id = rs.getLong("id");
+            double amount = rs.getDouble("total_amount");
+            Date invoiceDate = rs.getDate("invoice_date");
+            if (invoiceDate != null) {
+                months.add(MonthlySeries.format(MonthlySeries.monthOf(invoiceDate, calendar)), id, amount);
+            }
+            String name = rs.getString("name");
+            if (name != null) {
+                String companyId = rs.getString("company_id");
+                names.put(companyId, name);
+                clients.add(companyId, id, amount);
+            }
+        });
+        snapshot.paidInvoicesByMonth(series("paidInvoicesByMonth", months));
+
+        Map<String, Double> topClients = new LinkedHashMap<>();
+        for (String companyId : ranked(clients, StatisticsService.TOP_N, names::get)) {
+            String name = names.get(companyId);
+            topClients.put(name, clients.estimate(companyId));
+            interval("topClientsByTotalPaid", name, clients.halfWidth(companyId));
+        }
+        snapshot.topClientsByTotalPaid(topClients);
+    }
+
+    private BookingAnalytics loadBookings(RangeSample sample, StatisticsSnapshot.Builder snapshot) throws SQLException {
+        Map<Long, String> names = new LinkedHashMap<>();
+        Map<Long, Integer> capacities = new HashMap<>();
+        databaseService.stream(ACTIVE_EVENTS_SQL, rs -> {
+            long id = rs.getLong("id");
+            int capacity = rs.getInt("capacity");
+            names.put(id, rs.getString("name"));
+            capacities.put(id, capacity);
+            if (capacity > 0) {
+                eventCapacities.accept(capacity);
+            }
+        });
+        RangeSample.Totals bookings = sample.newTotals();
+        BookingAnalytics.Builder analytics = new BookingAnalytics.Builder(StatisticsService.TOP_N);
+        Map<Long, Long> bookingsByCompany = new HashMap<>();
+        databaseService.streamIdSample(BOOKING_SAMPLE_SQL, sample.getIds(), rs -> {
+            long companyId = rs.getLong("company_id");
+            if (!rs.wasNull()) {
+                DatabaseService.addBooking(analytics, rs);
+                bookingsByCompany.merge(companyId, 1L, Long::sum);
+            }
+            long eventId = rs.getLong("event_id");
+            if (names.containsKey(eventId)) {
+                long id = rs.getLong("id");
+                bookings.add(String.valueOf(eventId), id, 1);
+                if (capacities.get(eventId) > 0) {
+                    bookings.add(TOTAL_KEY, id, 1);
+                }
+            }
+        });
+
+        Map<String, Integer> topEvents = new LinkedHashMap<>();
+        Function<String, String> eventName = eventId -> TOTAL_KEY.equals(eventId) ? null : names.get(Long.valueOf(eventId));
+        for (String eventId : ranked(bookings, StatisticsService.TOP_N, eventName)) {
+            String name = eventName.apply(eventId);
+            topEvents.put(name, (int) Math.round(bookings.estimate(eventId)));
+            interval("topEventsByBooking", name, bookings.halfWidth(eventId));
+        }
+        snapshot.topEventsByBooking(topEvents);
+
+        EventUtilization utilization = new EventUtilization();
+        names.forEach((id, name) -> utilization.add(id, name, capacities.get(id), Math.round(bookings.estimate(String.valueOf(id)))));
+        StatisticsSnapshot withUtilization = StatisticsService.withUtilization(snapshot.build(), utilization);
+        snapshot.eventFillRateDistribution(withUtilization.getEventFillRateDistribution())
+                .eventUtilizationSummary(withUtilization.getEventUtilizationSummary())
+                .mostFilledEvents(withUtilization.getMostFilledEvents())
+                .leastFilledEvents(withUtilization.getLeastFilledEvents());
+        double bookingInterval = bookings.halfWidth(TOTAL_KEY);
+        interval("eventUtilizationSummary", "Réservations", bookingInterval);
+        long totalCapacity = utilization.getTotalCapacity();
+        if (totalCapacity > 0) {
+            interval("eventUtilizationSummary", "Taux de remplissage global", bookingInterval / totalCapacity);
+        }
+
+        bookingsByCompany.forEach(analytics::addCompany);
+        double rate = sample.getSamplingRate();
+        BookingAnalytics scaled = analytics.build().scaled(rate == 0 ? 0 : 1 / rate);
+        return scaled.withCompanyNames(databaseService.getCompanyNames(scaled.getTopCompanyIds()));
+    }
+
+    private Map<String, Long> counts(String metric, RangeSample.Totals totals, List<String> labels) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String label : labels) {
+            counts.put(label, Math.round(totals.estimate(label)));
+            interval(metric, label, totals.halfWidth(label));
+        }
+        return counts;
+    }
+
+    private MonthlySeries series(String metric, RangeSample.Totals totals) {
+        MonthlySeries.Builder builder = new MonthlySeries.Builder();
+        for (String month : totals.keys()) {
+            builder.add(MonthlySeries.parse(month), totals.estimate(month));
+            interval(metric, month, totals.halfWidth(month));
+        }
+        return builder.build();
+    }
+
+    private static List<String> ranked(RangeSample.Totals totals, int limit, Function<String, String> labelOf) {
+        List<String> keys = new ArrayList<>(totals.keys());
+        double[] estimates = new double[keys.size()];
+        Map<String, Integer> bestByLabel = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            estimates[i] = totals.estimate(keys.get(i));
+            String label = labelOf.apply(keys.get(i));
+            if (label != null) {
+                Integer best = bestByLabel.get(label);
+                if (best == null || estimates[i] > estimates[best]) {
+                    bestByLabel.put(label, i);
+                }
+            }
+        }
+        TopK top = new TopK(Math.min(limit, bestByLabel.size()));
+        for (int index : bestByLabel.values()) {
+            top.offer(index, estimates[index]);
+        }
+        List<String> ranked = new ArrayList<>(top.size());
+        for (long index : top.keys()) {
+            ranked.add(keys.get((int) index));
+        }
+        return ranked;
+    }
+
+    private void interval(String metric, String label, double halfWidth) {
+        intervals.put(StatisticsSnapshot.intervalKey(metric, label), halfWidth);
+    }
+
+    private static String label(String value) {
+        return value == null || value.isEmpty() ? "Non défini" : value;
+    }
+}
@@ -0,0 +1,40 @@
+package com.businesscare.service;
+
+public final class SamplingPlan {
+    private final int sampleSize;
+    private final int strata;
+
+    public SamplingPlan(int sampleSize, int strata) {
+        if (sampleSize <= 0 || strata <= 0) {
+            throw new IllegalArgumentException("Plan d'échantillonnage invalide : taille " + sampleSize + ", strates " + strata + ".");
+        }
+        this.sampleSize = sampleSize;
+        this.strata = strata;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    public int getStrata() {
+        return strata;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SamplingPlan)) return false;
+        SamplingPlan other = (SamplingPlan) o;
+        return sampleSize == other.sampleSize && strata == other.strata;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * sampleSize + strata;
+    }
+
+    @Override
+    public String toString() {
+        return sampleSize + " lignes, " + strata + " strate(s)";
+    }
+}
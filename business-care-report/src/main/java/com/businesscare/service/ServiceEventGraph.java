@@ -0,0 +1,206 @@
+package com.businesscare.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.businesscare.model.Prestation;
+import com.businesscare.util.TopK;
+
+public final class ServiceEventGraph {
+    private final int[] serviceIds;
+    private final int[] serviceOffsets;
+    private final int[] serviceEvents;
+    private final int[] eventIds;
+    private final int[] eventOffsets;
+    private final int[] eventServices;
+
+    private ServiceEventGraph(long[] links, int linkCount) {
+        Arrays.sort(links, 0, linkCount);
+        int unique = 0;
+        for (int i = 0; i < linkCount; i++) {
+            if (unique == 0 || links[i] != links[unique - 1]) {
+                links[unique++] = links[i];
+            }
+        }
+
+        int[] events = new int[unique];
+        int serviceCount = 0;
+        for (int i = 0; i < unique; i++) {
+            events[i] = eventId(links[i]);
+            if (i == 0 || serviceId(links[i]) != serviceId(links[i - 1])) {
+                serviceCount++;
+            }
+        }
+        Arrays.sort(events);
+        int eventCount = 0;
+        for (int i = 0; i < unique; i++) {
+            if (eventCount == 0 || events[i] != events[eventCount - 1]) {
+                events[eventCount++] = events[i];
+            }
+        }
+        eventIds = Arrays.copyOf(events, eventCount);
+
+        serviceIds = new int[serviceCount];
+        serviceOffsets = new int[serviceCount + 1];
+        serviceEvents = new int[unique];
+        int[] eventDegrees = new int[eventCount + 1];
+        int row = -1;
+        for (int i = 0; i < unique; i++) {
+            if (i == 0 || serviceId(links[i]) != serviceId(links[i - 1])) {
+                row++;
+                serviceIds[row] = serviceId(links[i]);
+                serviceOffsets[row] = i;
+            }
+            int event = Arrays.binarySearch(eventIds, eventId(links[i]));
+            serviceEvents[i] = event;
+            eventDegrees[event + 1]++;
+        }
+        serviceOffsets[serviceCount] = unique;
+
+        eventOffsets = new int[eventCount + 1];
+        for (int e = 0; e < eventCount; e++) {
+            eventOffsets[e + 1] = eventOffsets[e] + eventDegrees[e + 1];
+        }
+        eventServices = new int[unique];
+        int[] fill = Arrays.copyOf(eventOffsets, eventCount);
+        for (int service = 0; service < serviceCount; service++) {
+            for (int i = serviceOffsets[service]; i < serviceOffsets[service + 1]; i++) {
+                eventServices[fill[serviceEvents[i]]++] = service;
+            }
+        }
+    }
+
+    public static ServiceEventGraph fromPrestations(Collection<Prestation> prestations) {
+        Builder builder = new Builder();
+        for (Prestation prestation : prestations) {
+            int serviceId = Integer.parseInt(prestation.getId());
+            for (String eventId : prestation.getIdEvenementsAssocies()) {
+                builder.add(serviceId, Integer.parseInt(eventId));
+            }
+        }
+        return builder.build();
+    }
+
+    public int getServiceCount() {
+        return serviceIds.length;
+    }
+
+    public int getEventCount() {
+        return eventIds.length;
+    }
+
+    public int getLinkCount() {
+        return serviceEvents.length;
+    }
+
+    public int[] getEventIds(int serviceId) {
+        int service = Arrays.binarySearch(serviceIds, serviceId);
+        if (service < 0) {
+            return new int[0];
+        }
+        int[] ids = new int[serviceOffsets[service + 1] - serviceOffsets[service]];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = eventIds[serviceEvents[serviceOffsets[service] + i]];
+        }
+        return ids;
+    }
+
+    public int getEventCount(int serviceId) {
+        int service = Arrays.binarySearch(serviceIds, serviceId);
+        return service < 0 ? 0 : serviceOffsets[service + 1] - serviceOffsets[service];
+    }
+
+    public void attachTo(Collection<Prestation> prestations) {
+        for (Prestation prestation : prestations) {
+            int[] ids = getEventIds(Integer.parseInt(prestation.getId()));
+            List<String> associated = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                associated.add(String.valueOf(id));
+            }
+            prestation.setIdEvenementsAssocies(associated);
+        }
+    }
+
+    public List<Pair> topPairs(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        int serviceCount = serviceIds.length;
+        int[] counts = new int[serviceCount];
+        int[] touched = new int[serviceCount];
+        TopK best = new TopK(limit);
+        for (int first = 0; first < serviceCount; first++) {
+            int touchedCount = 0;
+            for (int i = serviceOffsets[first]; i < serviceOffsets[first + 1]; i++) {
+                int event = serviceEvents[i];
+                for (int j = eventOffsets[event + 1] - 1; j >= eventOffsets[event] && eventServices[j] > first; j--) {
+                    int second = eventServices[j];
+                    if (counts[second]++ == 0) {
+                        touched[touchedCount++] = second;
+                    }
+                }
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                int second = touched[t];
+                best.offer(pairKey(first, second), counts[second]);
+                counts[second] = 0;
+            }
+        }
+        long[] ranked = best.keys();
+        double[] shared = best.scores();
+        List<Pair> pairs = new ArrayList<>(ranked.length);
+        for (int rank = 0; rank < ranked.length; rank++) {
+            pairs.add(new Pair(serviceIds[(int) (ranked[rank] >>> 32)], serviceIds[(int) ranked[rank]], (int) shared[rank]));
+        }
+        return pairs;
+    }
+
+    private static long pairKey(int first, int second) {
+        return ((long) first << 32) | second;
+    }
+
+    private static int serviceId(long link) {
+        return (int) (link >>> 32);
+    }
+
+    private static int eventId(long link) {
+        return (int) link;
+    }
+
+    public static final class Pair {
+        private final int firstServiceId;
+        private final int secondServiceId;
+        private final int sharedEvents;
+
+        private Pair(int firstServiceId, int secondServiceId, int sharedEvents) {
+            this.firstServiceId = firstServiceId;
+            this.secondServiceId = secondServiceId;
+            this.sharedEvents = sharedEvents;
+        }
+
+        public int getFirstServiceId() { return firstServiceId; }
+        public int getSecondServiceId() { return secondServiceId; }
+        public int getSharedEvents() { return sharedEvents; }
+    }
+
+    public static final class Builder {
+        private long[] links = new long[64];
+        private int size;
+
+        public void add(int serviceId, int eventId) {
+            if (serviceId < 0 || eventId < 0) {
+                throw new IllegalArgumentException("Identifiants négatifs non supportés : prestation " + serviceId + ", événement " + eventId + ".");
+            }
+            if (size == links.length) {
+                links = Arrays.copyOf(links, size * 2);
+            }
+            links[size++] = ((long) serviceId << 32) | eventId;
+        }
+
+        public ServiceEventGraph build() {
+            return new ServiceEventGraph(links, size);
+        }
+    }
+}
@@ -1,23 +1,42 @@
 package com.businesscare.service;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.businesscare.model.Evenement;
 import com.businesscare.model.Prestation;
+import com.businesscare.util.Histogram;
+import com.businesscare.util.MonthlySeries;
+import com.businesscare.util.ParallelAggregator;
+import com.businesscare.util.QuantileSketch;
+import com.businesscare.util.TopK;
 
 
 public class StatisticsService {
     private static final Logger logger = LoggerFactory.getLogger(StatisticsService.class);
+    public static final double[] REVENUE_TRANCHES = {5000, 15000, 50000};
+    public static final double[] CAPACITY_TRANCHES = {50, 100, 200};
+    public static final double[] COST_TRANCHES = {50, 100, 250};
+    public static final int TOP_N = 5;
+    public static final double[] PERCENTILES = {0.50, 0.90, 0.99};
+    public static final int AUTOMATIC_TRANCHE_COUNT = 4;
     private DatabaseService databaseService;
+    private boolean singleRoundTrip = true;
+    private boolean histogramPushDown = true;
+    private boolean automaticTranches;
+    private DistinctCountSketches distinctCounts;
+    private SamplingPlan sampling;
 
     public StatisticsService() {
     }
@@ -30,12 +49,330 @@ public class StatisticsService {
         this.databaseService = databaseService;
     }
 
+    public void setSingleRoundTrip(boolean singleRoundTrip) {
+        this.singleRoundTrip = singleRoundTrip;
+    }
+
+    public void setHistogramPushDown(boolean histogramPushDown) {
+        this.histogramPushDown = histogramPushDown;
+    }
+
+    public void setAutomaticTranches(boolean automaticTranches) {
+        this.automaticTranches = automaticTranches;
+    }
+
+    public boolean isAutomaticTranches() {
+        return automaticTranches;
+    }
+
+    public void setDistinctCountSketches(DistinctCountSketches distinctCounts) {
+        this.distinctCounts = distinctCounts;
+    }
+
+    public DistinctCountSketches getDistinctCountSketches() {
+        return distinctCounts;
+    }
+
+    public void setSampling(SamplingPlan sampling) {
+        this.sampling = sampling;
+    }
+
+    public SamplingPlan getSampling() {
+        return sampling;
+    }
+
+    public StatisticsSnapshot loadSnapshot() {
+        if (sampling != null && databaseService != null) {
+            try {
+                return loadSampledSnapshot();
+            } catch (SQLException e) {
+                logger.warn("Instantané approximatif indisponible ({}). Repli sur le calcul exact.", e.getMessage());
+            }
+        }
+        StatisticsSnapshot snapshot = withBookings(withCohorts(withUtilization(loadFixedTrancheSnapshot(), getEventUtilization()), getContractCohorts()), getBookingAnalytics());
+        return withErrorBounds(automaticTranches ? withQuantiles(snapshot) : snapshot);
+    }
+
+    private StatisticsSnapshot loadSampledSnapshot() throws SQLException {
+        StatisticsSnapshot catalog = StatisticsSnapshot.builder()
+                .eventCountByMonth(getEventCountByMonth())
+                .eventStatusCounts(getEventStatusCounts())
+                .serviceCountByType(getServiceCountByType())
+                .topProvidersByServiceCount(getTopProvidersByServiceCount(TOP_N))
+                .serviceAvailabilityDistribution(getServiceAvailabilityDistribution())
+                .build();
+        SampledSnapshotLoader loader = new SampledSnapshotLoader(databaseService, sampling, automaticTranches, new Random());
+        StatisticsSnapshot sampled = loader.load(catalog);
+        if (!automaticTranches) {
+            return sampled.toBuilder()
+                    .eventDistributionByCapacity(getEventDistributionByCapacity(CAPACITY_TRANCHES))
+                    .serviceDistributionByCost(getServiceDistributionByCost(COST_TRANCHES))
+                    .build();
+        }
+        QuantileSketch capacities = loader.getEventCapacitySketch();
+        QuantileSketch prices = loader.getServicePriceSketch();
+        return sampled.toBuilder()
+                .eventDistributionByCapacity(getEventDistributionByCapacity(automaticTranches(capacities, CAPACITY_TRANCHES)))
+                .serviceDistributionByCost(getServiceDistributionByCost(automaticTranches(prices, COST_TRANCHES)))
+                .eventCapacityPercentiles(percentiles(capacities))
+                .servicePricePercentiles(percentiles(prices))
+                .build();
+    }
+
+    private StatisticsSnapshot loadFixedTrancheSnapshot() {
+        if (singleRoundTrip && databaseService != null) {
+            try {
+                return loadBatchSnapshot();
+            } catch (SQLException e) {
+                logger.warn("Instantané statistique en un aller-retour indisponible ({}). Repli sur les requêtes individuelles.", e.getMessage());
+            }
+        }
+        return StatisticsSnapshot.builder()
+                .clientCountBySubscriptionTier(getClientCountBySubscriptionTier())
+                .clientRevenueDistribution(getClientRevenueDistribution(REVENUE_TRANCHES))
+                .clientCountBySize(getClientCountBySize())
+                .clientCountByIndustry(getClientCountByIndustry(TOP_N))
+                .topClientsByTotalPaid(getTop5ClientsByTotalPaid())
+                .eventCountByMonth(getEventCountByMonth())
+                .eventDistributionByCapacity(getEventDistributionByCapacity(CAPACITY_TRANCHES))
+                .eventStatusCounts(getEventStatusCounts())
+                .topEventsByBooking(getTop5EventsByBooking())
+                .serviceCountByType(getServiceCountByType())
+                .serviceDistributionByCost(getServiceDistributionByCost(COST_TRANCHES))
+                .topProvidersByServiceCount(getTopProvidersByServiceCount(TOP_N))
+                .serviceAvailabilityDistribution(getServiceAvailabilityDistribution())
+                .paidInvoicesByMonth(getPaidInvoicesByMonth())
+                .newContractsByMonth(getNewContractsByMonth())
+                .build();
+    }
+
+    public CompletableFuture<StatisticsSnapshot> loadSnapshotAsync(ParallelLoader loader) {
+        if (sampling != null) {
+            return loader.submit("instantané approximatif", db -> forConnection(db).loadSnapshot());
+        }
+        CompletableFuture<EventUtilization> utilization = loader.submit("taux de remplissage", db -> forConnection(db).getEventUtilization());
+        CompletableFuture<ContractCohorts> cohorts = loader.submit("cohortes de contrats", db -> forConnection(db).getContractCohorts());
+        CompletableFuture<BookingAnalytics> bookings = loader.submit("analyse des réservations", db -> forConnection(db).getBookingAnalytics());
+        CompletableFuture<StatisticsSnapshot> snapshot = loadFixedTrancheSnapshotAsync(loader)
+                .thenCombine(utilization, StatisticsService::withUtilization)
+                .thenCombine(cohorts, StatisticsService::withCohorts)
+                .thenCombine(bookings, StatisticsService::withBookings);
+        if (automaticTranches) {
+            snapshot = snapshot.thenCompose(fixed -> loader.submit("tranches automatiques", db -> forConnection(db).withQuantiles(fixed)));
+        }
+        return snapshot.thenApply(this::withErrorBounds);
+    }
+
+    private CompletableFuture<StatisticsSnapshot> loadFixedTrancheSnapshotAsync(ParallelLoader loader) {
+        if (!singleRoundTrip) {
+            return loadSnapshotPerMetricAsync(loader);
+        }
+        return loader.submit("instantané statistique", db -> forConnection(db).loadBatchSnapshot())
+                .handle((snapshot, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(snapshot);
+                    }
+                    logger.warn("Instantané statistique en un aller-retour indisponible. Repli sur les requêtes individuelles en parallèle.");
+                    return loadSnapshotPerMetricAsync(loader);
+                })
+                .thenCompose(future -> future);
+    }
+
+    private StatisticsSnapshot loadBatchSnapshot() throws SQLException {
+        StatisticsSnapshot snapshot = toSnapshot(databaseService.getStatisticsBatch(TOP_N, histogramPushDown, distinctCounts == null));
+        if (distinctCounts == null) {
+            return snapshot;
+        }
+        return snapshot.toBuilder()
+                .clientCountBySubscriptionTier(distinctCounts.getClientCountBySubscriptionTier(databaseService))
+                .build();
+    }
+
+    static StatisticsSnapshot withUtilization(StatisticsSnapshot snapshot, EventUtilization utilization) {
+        return snapshot.toBuilder()
+                .eventFillRateDistribution(utilization.getFillRateDistribution())
+                .eventUtilizationSummary(utilization.getSummary())
+                .mostFilledEvents(utilization.getMostFilled(TOP_N))
+                .leastFilledEvents(utilization.getLeastFilled(TOP_N))
+                .build();
+    }
+
+    static StatisticsSnapshot withCohorts(StatisticsSnapshot snapshot, ContractCohorts cohorts) {
+        return snapshot.toBuilder()
+                .contractCohortCounts(cohorts.toCounts())
+                .build();
+    }
+
+    static StatisticsSnapshot withBookings(StatisticsSnapshot snapshot, BookingAnalytics bookings) {
+        return snapshot.toBuilder()
+                .bookingSummary(bookings.getSummary())
+                .bookingsByWeekdayHour(bookings.getWeekdayHourCounts())
+                .bookingLeadTimeDistribution(bookings.getLeadTimeDistribution())
+                .bookingAttendanceDistribution(bookings.getAttendanceDistribution())
+                .topCompaniesByBooking(bookings.getTopCompanies())
+                .build();
+    }
+
+    private StatisticsSnapshot withErrorBounds(StatisticsSnapshot snapshot) {
+        if (distinctCounts == null) {
+            return snapshot;
+        }
+        return snapshot.toBuilder()
+                .approximateErrorBounds(Collections.singletonMap(DistinctCountSketches.TIER_METRIC, distinctCounts.getRelativeError()))
+                .build();
+    }
+
+    private StatisticsSnapshot toSnapshot(RawStatistics raw) {
+        return StatisticsSnapshot.builder()
+                .clientCountBySubscriptionTier(raw.clientCountBySubscriptionTier)
+                .clientRevenueDistribution(toRevenueDistribution(raw.clientRevenues, REVENUE_TRANCHES))
+                .clientCountBySize(raw.clientCountBySize)
+                .clientCountByIndustry(raw.clientCountByIndustry)
+                .topClientsByTotalPaid(raw.topClientsByTotalPaid)
+                .eventCountByMonth(raw.eventCountByMonth.build())
+                .eventDistributionByCapacity(toCapacityDistribution(raw.eventCapacities, CAPACITY_TRANCHES))
+                .eventStatusCounts(raw.eventStatusCounts)
+                .topEventsByBooking(raw.topEventsByBooking)
+                .serviceCountByType(raw.serviceCountByType)
+                .serviceDistributionByCost(toCostDistribution(raw.servicePrices, COST_TRANCHES))
+                .topProvidersByServiceCount(raw.serviceCountByProvider)
+                .serviceAvailabilityDistribution(raw.serviceCountByAvailability)
+                .paidInvoicesByMonth(raw.paidInvoicesByMonth.build())
+                .newContractsByMonth(raw.newContractsByMonth.build())
+                .build();
+    }
+
+    private CompletableFuture<StatisticsSnapshot> loadSnapshotPerMetricAsync(ParallelLoader loader) {
+        CompletableFuture<Map<String, Long>> tiers = loader.submit("formules d'abonnement", db -> forConnection(db).getClientCountBySubscriptionTier());
+        CompletableFuture<Map<String, Double>> revenue = loader.submit("CA par tranche", db -> forConnection(db).getClientRevenueDistribution(REVENUE_TRANCHES));
+        CompletableFuture<Map<String, Long>> sizes = loader.submit("tailles d'entreprise", db -> forConnection(db).getClientCountBySize());
+        CompletableFuture<Map<String, Long>> industries = loader.submit("secteurs d'activité", db -> forConnection(db).getClientCountByIndustry(TOP_N));
+        CompletableFuture<Map<String, Double>> topClients = loader.submit("top clients", db -> forConnection(db).getTop5ClientsByTotalPaid());
+        CompletableFuture<MonthlySeries> months = loader.submit("événements par mois", db -> forConnection(db).getEventCountByMonth());
+        CompletableFuture<Map<String, Long>> capacities = loader.submit("capacités", db -> forConnection(db).getEventDistributionByCapacity(CAPACITY_TRANCHES));
+        CompletableFuture<Map<String, Long>> eventStatus = loader.submit("statut des événements", db -> forConnection(db).getEventStatusCounts());
+        CompletableFuture<Map<String, Integer>> topEvents = loader.submit("top événements", db -> forConnection(db).getTop5EventsByBooking());
+        CompletableFuture<Map<String, Long>> serviceTypes = loader.submit("types de prestations", db -> forConnection(db).getServiceCountByType());
+        CompletableFuture<Map<String, Long>> costs = loader.submit("coûts des prestations", db -> forConnection(db).getServiceDistributionByCost(COST_TRANCHES));
+        CompletableFuture<Map<String, Long>> providers = loader.submit("top prestataires", db -> forConnection(db).getTopProvidersByServiceCount(TOP_N));
+        CompletableFuture<Map<String, Long>> availability = loader.submit("disponibilité des prestations", db -> forConnection(db).getServiceAvailabilityDistribution());
+        CompletableFuture<MonthlySeries> paidInvoices = loader.submit("factures payées par mois", db -> forConnection(db).getPaidInvoicesByMonth());
+        CompletableFuture<MonthlySeries> newContracts = loader.submit("nouveaux contrats par mois", db -> forConnection(db).getNewContractsByMonth());
+
+        return CompletableFuture.allOf(tiers, revenue, sizes, industries, topClients, months, capacities,
+                        eventStatus, topEvents, serviceTypes, costs, providers, availability, paidInvoices, newContracts)
+                .thenApply(ignored -> StatisticsSnapshot.builder()
+                        .clientCountBySubscriptionTier(tiers.join())
+                        .clientRevenueDistribution(revenue.join())
+                        .clientCountBySize(sizes.join())
+                        .clientCountByIndustry(industries.join())
+                        .topClientsByTotalPaid(topClients.join())
+                        .eventCountByMonth(months.join())
+                        .eventDistributionByCapacity(capacities.join())
+                        .eventStatusCounts(eventStatus.join())
+                        .topEventsByBooking(topEvents.join())
+                        .serviceCountByType(serviceTypes.join())
+                        .serviceDistributionByCost(costs.join())
+                        .topProvidersByServiceCount(providers.join())
+                        .serviceAvailabilityDistribution(availability.join())
+                        .paidInvoicesByMonth(paidInvoices.join())
+                        .newContractsByMonth(newContracts.join())
+                        .build());
+    }
+
+    StatisticsSnapshot withQuantiles(StatisticsSnapshot snapshot) {
+        QuantileSketch revenues = getClientRevenueSketch();
+        QuantileSketch capacities = getEventCapacitySketch();
+        QuantileSketch prices = getServicePriceSketch();
+        logger.info("Esquisses de quantiles construites : {} clients, {} événements, {} prestations ({} valeurs conservées).",
+                revenues.getCount(), capacities.getCount(), prices.getCount(),
+                revenues.getRetainedItems() + capacities.getRetainedItems() + prices.getRetainedItems());
+        return snapshot.toBuilder()
+                .clientRevenueDistribution(getClientRevenueDistribution(automaticTranches(revenues, REVENUE_TRANCHES)))
+                .eventDistributionByCapacity(getEventDistributionByCapacity(automaticTranches(capacities, CAPACITY_TRANCHES)))
+                .serviceDistributionByCost(getServiceDistributionByCost(automaticTranches(prices, COST_TRANCHES)))
+                .clientRevenuePercentiles(percentiles(revenues))
+                .eventCapacityPercentiles(percentiles(capacities))
+                .servicePricePercentiles(percentiles(prices))
+                .build();
+    }
+
+    static double[] automaticTranches(QuantileSketch sketch, double[] fallback) {
+        double[] bounds = sketch.equalFrequencyBounds(AUTOMATIC_TRANCHE_COUNT);
+        double[] rounded = new double[bounds.length];
+        int size = 0;
+        for (double bound : bounds) {
+            double value = Math.rint(bound);
+            if (size == 0 || value > rounded[size - 1]) {
+                rounded[size++] = value;
+            }
+        }
+        return size == 0 ? fallback : Arrays.copyOf(rounded, size);
+    }
+
+    static Map<String, Double> percentiles(QuantileSketch sketch) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        if (sketch.isEmpty()) {
+            return percentiles;
+        }
+        for (double fraction : PERCENTILES) {
+            percentiles.put("p" + Math.round(fraction * 100), sketch.quantile(fraction));
+        }
+        return percentiles;
+    }
+
+    public QuantileSketch getClientRevenueSketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        if (databaseService == null) return sketch;
+        try {
+            databaseService.streamClientTotalContractValues(sketch);
+        } catch (SQLException e) {
+            logger.error("Erreur SQL lors de la construction de l'esquisse du CA par client.", e);
+        }
+        return sketch;
+    }
+
+    public QuantileSketch getEventCapacitySketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        if (databaseService == null) return sketch;
+        try {
+            databaseService.streamEventCapacities(sketch);
+        } catch (SQLException e) {
+            logger.error("Erreur SQL lors de la construction de l'esquisse des capacités des événements.", e);
+        }
+        return sketch;
+    }
+
+    public QuantileSketch getServicePriceSketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        if (databaseService == null) return sketch;
+        try {
+            databaseService.streamServicePrices(sketch);
+        } catch (SQLException e) {
+            logger.error("Erreur SQL lors de la construction de l'esquisse des prix des prestations.", e);
+        }
+        return sketch;
+    }
+
+    private StatisticsService forConnection(DatabaseService db) {
+        StatisticsService service = new StatisticsService(db);
+        service.setSingleRoundTrip(singleRoundTrip);
+        service.setHistogramPushDown(histogramPushDown);
+        service.setAutomaticTranches(automaticTranches);
+        service.setDistinctCountSketches(distinctCounts);
+        service.setSampling(sampling);
+        return service;
+    }
+
     public Map<String, Long> getClientCountBySubscriptionTier() {
         if (databaseService == null) {
             logger.error("DatabaseService non initialisé dans StatisticsService pour getClientCountBySubscriptionTier.");
             return Collections.emptyMap();
         }
         try {
+            if (distinctCounts != null) {
+                return distinctCounts.getClientCountBySubscriptionTier(databaseService);
+            }
             return databaseService.getClientCountBySubscriptionTier();
         } catch (SQLException e) {
             logger.error("Erreur SQL lors de la récupération de la répartition des clients par formule d'abonnement.", e);
@@ -48,82 +385,38 @@ public class StatisticsService {
             logger.error("DatabaseService non initialisé dans StatisticsService pour getClientRevenueDistribution.");
             return Collections.emptyMap();
         }
-        Map<String, Double> distribution = new LinkedHashMap<>();
-        Map<String, Double> clientRevenues;
+        Histogram.Accumulator revenues = revenueHistogram(tranches).newAccumulator();
         try {
-            clientRevenues = databaseService.getClientTotalContractValue();
+            if (histogramPushDown) {
+                databaseService.histogramClientTotalContractValues(revenues);
+            } else {
+                databaseService.streamClientTotalContractValues(revenues);
+            }
         } catch (SQLException e) {
             logger.error("Erreur SQL lors de la récupération du CA par client pour la distribution.", e);
             return Collections.emptyMap();
         }
+        return toRevenueDistribution(revenues, tranches);
+    }
 
-        for (int i = 0; i < tranches.length; i++) {
-            final double lowerBound = (i == 0) ? 0 : tranches[i-1];
-            final double upperBound = tranches[i];
-            String trancheLabel;
-            if (i == 0) {
-                trancheLabel = "< " + upperBound + "€";
-            } else if (i == tranches.length -1 && tranches.length > 1 && upperBound < lowerBound) {
-                 trancheLabel = "> " + lowerBound + "€";
-            } else {
-                 trancheLabel = lowerBound + "€ - " + upperBound + "€";
-            }
-            distribution.put(trancheLabel, 0.0);
-        }
-
-        if (tranches.length > 0) {
-             boolean lastTrancheIsGreaterThan = true;
-             if (tranches.length > 1) {
-                 for(int k=1; k < tranches.length; k++) { if(tranches[k] < tranches[k-1]) {lastTrancheIsGreaterThan = false; break;} }
-             }
-
-             if(lastTrancheIsGreaterThan && !distribution.containsKey("> " + tranches[tranches.length-1] + "€")){
-                 distribution.put("> " + tranches[tranches.length - 1] + "€", 0.0);
-             }
-        }
+    Map<String, Double> computeRevenueDistribution(double[] revenues, double[] tranches) {
+        return toRevenueDistribution(revenueHistogram(tranches).count(revenues), tranches);
+    }
 
+    static Histogram revenueHistogram(double[] tranches) {
+        return Histogram.lowerInclusive(tranches, Histogram.euroLabels(tranches));
+    }
 
-         if (tranches.length == 0) {
-            double totalRevenue = clientRevenues.values().stream().mapToDouble(Double::doubleValue).sum();
-            if (totalRevenue > 0) distribution.put("Total", totalRevenue);
+    private static Map<String, Double> toRevenueDistribution(Histogram.Accumulator revenues, double[] tranches) {
+        Map<String, Double> distribution = new LinkedHashMap<>();
+        if (tranches.length == 0) {
+            if (revenues.getTotalSum() > 0) distribution.put("Total", revenues.getTotalSum());
             return distribution;
         }
-
-
-        for (Double revenue : clientRevenues.values()) {
-            boolean assigned = false;
-            for (int i = 0; i < tranches.length; i++) {
-                double lowerBound = (i == 0) ? 0 : tranches[i-1];
-                double upperBound = tranches[i];
-                String trancheLabel;
-                 if (i == 0) {
-                    trancheLabel = "< " + upperBound + "€";
-                     if (revenue < upperBound) {
-                        distribution.merge(trancheLabel, revenue, Double::sum);
-                        assigned = true;
-                        break;
-                    }
-                } else {
-                    trancheLabel = lowerBound + "€ - " + upperBound + "€";
-                     if (revenue >= lowerBound && revenue < upperBound) {
-                        distribution.merge(trancheLabel, revenue, Double::sum);
-                        assigned = true;
-                        break;
-                    }
-                }
-            }
-            if (!assigned && revenue >= tranches[tranches.length - 1]) {
-                String trancheLabel = "> " + tranches[tranches.length - 1] + "€";
-
-                if (distribution.containsKey(trancheLabel)) {
-                    distribution.merge(trancheLabel, revenue, Double::sum);
-                } else if (tranches.length == 1 && revenue >= 0 && !distribution.containsKey("< " + tranches[0] + "€" ) ) {
-                }
-            }
-        }
-        return distribution.entrySet().stream()
-            .filter(entry -> entry.getValue() >= 0)
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+        revenues.toSumMap().forEach((label, total) -> {
+            if (total >= 0) distribution.put(label, total);
+        });
+        return distribution;
     }
 
 
@@ -159,84 +452,74 @@ public class StatisticsService {
 
     public Map<String, Long> getEventCountByType(List<Evenement> evenements) {
         if (evenements == null) return Collections.emptyMap();
-        return evenements.stream()
-                         .collect(Collectors.groupingBy(Evenement::getTypeEvenement, Collectors.counting()));
+        ParallelAggregator.KeyCounts<String> counts = ParallelAggregator.aggregate(evenements, ParallelAggregator.KeyCounts<String>::new,
+                (partial, evenement) -> partial.add(evenement.getTypeEvenement() == null ? "Non défini" : evenement.getTypeEvenement()),
+                ParallelAggregator.KeyCounts::merge);
+        return counts.toMap();
     }
 
 
-    public Map<String, Long> getEventCountByMonth() {
-        if (databaseService == null) return Collections.emptyMap();
+    public MonthlySeries getEventCountByMonth() {
+        if (databaseService == null) return MonthlySeries.empty();
         try {
             return databaseService.getEventCountByMonth();
         } catch (SQLException e) {
             logger.error("Erreur SQL lors de la récupération de la fréquence des événements par mois.", e);
-            return Collections.emptyMap();
+            return MonthlySeries.empty();
+        }
+    }
+
+    public MonthlySeries getPaidInvoicesByMonth() {
+        if (databaseService == null) return MonthlySeries.empty();
+        try {
+            return databaseService.getPaidInvoicesByMonth();
+        } catch (SQLException e) {
+            logger.error("Erreur SQL lors de la récupération des factures payées par mois.", e);
+            return MonthlySeries.empty();
+        }
+    }
+
+    public MonthlySeries getNewContractsByMonth() {
+        if (databaseService == null) return MonthlySeries.empty();
+        try {
+            return databaseService.getNewContractsByMonth();
+        } catch (SQLException e) {
+            logger.error("Erreur SQL lors de la récupération des nouveaux contrats par mois.", e);
+            return MonthlySeries.empty();
         }
     }
 
     public Map<String, Long> getEventDistributionByCapacity(double[] tranches) {
         if (databaseService == null) return Collections.emptyMap();
-        Map<String, Long> distribution = new LinkedHashMap<>();
-        List<Integer> capacities;
+        Histogram.Accumulator capacities = capacityHistogram(tranches).newAccumulator();
         try {
-            capacities = databaseService.getEventCapacities();
+            if (histogramPushDown) {
+                databaseService.histogramEventCapacities(capacities);
+            } else {
+                databaseService.streamEventCapacities(capacities);
+            }
         } catch (SQLException e) {
             logger.error("Erreur SQL lors de la récupération des capacités des événements.", e);
             return Collections.emptyMap();
         }
+        return toCapacityDistribution(capacities, tranches);
+    }
 
-        for (int i = 0; i < tranches.length; i++) {
-            final double lowerBound = (i == 0) ? 0 : tranches[i-1];
-            final double upperBound = tranches[i];
-            String trancheLabel;
-            if (i == 0) {
-                 trancheLabel = "0 - " + (int)upperBound;
-            } else {
-                 trancheLabel = (int)lowerBound + " - " + (int)upperBound;
-            }
-            distribution.put(trancheLabel, 0L);
-        }
-        if (tranches.length > 0) {
-            distribution.put("> " + (int)tranches[tranches.length - 1], 0L);
-        }
+    Map<String, Long> computeCapacityDistribution(int[] capacities, double[] tranches) {
+        return toCapacityDistribution(capacityHistogram(tranches).count(capacities), tranches);
+    }
 
+    static Histogram capacityHistogram(double[] tranches) {
+        return Histogram.upperInclusive(tranches, 0, Histogram.integerRangeLabels(tranches, 0));
+    }
 
-         if (tranches.length == 0 && !capacities.isEmpty()) {
-            distribution.put("Toutes capacités", (long)capacities.size());
+    private static Map<String, Long> toCapacityDistribution(Histogram.Accumulator capacities, double[] tranches) {
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        if (tranches.length == 0) {
+            if (capacities.getTotal() > 0) distribution.put("Toutes capacités", capacities.getTotal());
             return distribution;
         }
-
-
-        for (Integer capacity : capacities) {
-            boolean assigned = false;
-            for (int i = 0; i < tranches.length; i++) {
-                double lowerBound = (i == 0) ? 0 : tranches[i-1];
-                double upperBound = tranches[i];
-                String trancheLabel;
-                 if (i == 0) {
-                    trancheLabel = "0 - " + (int)upperBound;
-                     if (capacity >= lowerBound && capacity <= upperBound) {
-                        distribution.merge(trancheLabel, 1L, Long::sum);
-                        assigned = true;
-                        break;
-                    }
-                } else {
-                    trancheLabel = (int)lowerBound + " - " + (int)upperBound;
-                     if (capacity > lowerBound && capacity <= upperBound) {
-                        distribution.merge(trancheLabel, 1L, Long::sum);
-                        assigned = true;
-                        break;
-                    }
-                }
-            }
-             if (!assigned && tranches.length > 0 && capacity > tranches[tranches.length - 1]) {
-                String trancheLabel = "> " + (int)tranches[tranches.length - 1];
-                distribution.merge(trancheLabel, 1L, Long::sum);
-            }
-        }
-        return distribution.entrySet().stream()
-            .filter(entry -> entry.getValue() >= 0)
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+        return capacities.toCountMap();
     }
 
     public Map<String, Long> getEventStatusCounts() {
@@ -259,6 +542,36 @@ public class StatisticsService {
         }
     }
 
+    public EventUtilization getEventUtilization() {
+        if (databaseService == null) return new EventUtilization();
+        try {
+            return databaseService.getEventUtilization();
+        } catch (SQLException e) {
+            logger.error("Erreur SQL lors du calcul du taux de remplissage des événements.", e);
+            return new EventUtilization();
+        }
+    }
+
+    public ContractCohorts getContractCohorts() {
+        if (databaseService == null) return ContractCohorts.empty();
+        try {
+            return databaseService.getContractCohorts(ContractCohorts.currentMonth());
+        } catch (SQLException e) {
+            logger.error("Erreur SQL lors du calcul des cohortes de contrats.", e);
+            return ContractCohorts.empty();
+        }
+    }
+
+    public BookingAnalytics getBookingAnalytics() {
+        if (databaseService == null) return BookingAnalytics.empty();
+        try {
+            return databaseService.getBookingAnalytics(TOP_N);
+        } catch (SQLException e) {
+            logger.error("Erreur SQL lors de l'analyse des réservations.", e);
+            return BookingAnalytics.empty();
+        }
+    }
+
     public Map<String, Long> getServiceCountByType() {
         if (databaseService == null) return Collections.emptyMap();
         try {
@@ -271,76 +584,69 @@ public class StatisticsService {
 
     public Map<String, Long> getServiceDistributionByCost(double[] tranches) {
         if (databaseService == null) return Collections.emptyMap();
-        Map<String, Long> distribution = new LinkedHashMap<>();
-        List<Double> prices;
+        Histogram.Accumulator prices = costHistogram(tranches).newAccumulator();
         try {
-            prices = databaseService.getServicePrices();
+            if (histogramPushDown) {
+                databaseService.histogramServicePrices(prices);
+            } else {
+                databaseService.streamServicePrices(prices);
+            }
         } catch (SQLException e) {
             logger.error("Erreur SQL lors de la récupération des prix des prestations.", e);
             return Collections.emptyMap();
         }
+        return toCostDistribution(prices, tranches);
+    }
 
-         for (int i = 0; i < tranches.length; i++) {
-            final double lowerBound = (i == 0) ? 0 : tranches[i-1];
-            final double upperBound = tranches[i];
-            String trancheLabel;
-            if (i == 0) {
-                trancheLabel = "< " + upperBound + "€";
-            } else {
-                trancheLabel = lowerBound + "€ - " + upperBound + "€";
-            }
-            distribution.put(trancheLabel, 0L);
-        }
-        if (tranches.length > 0) {
-             distribution.put("> " + tranches[tranches.length - 1] + "€", 0L);
-        }
+    Map<String, Long> computeCostDistribution(double[] prices, double[] tranches) {
+        return toCostDistribution(costHistogram(tranches).count(prices), tranches);
+    }
 
+    static Histogram costHistogram(double[] tranches) {
+        return Histogram.lowerInclusive(tranches, Histogram.euroLabels(tranches));
+    }
 
-        if (tranches.length == 0 && !prices.isEmpty()) {
-            distribution.put("Tous prix", (long)prices.size());
+    private static Map<String, Long> toCostDistribution(Histogram.Accumulator prices, double[] tranches) {
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        if (tranches.length == 0) {
+            if (prices.getTotal() > 0) distribution.put("Tous prix", prices.getTotal());
             return distribution;
         }
+        return prices.toCountMap();
+    }
 
+    public List<Prestation> getTop5PrestationsFrequentes(List<Prestation> prestations) {
+         if (prestations == null) return Collections.emptyList();
+         TopK top = ParallelAggregator.aggregateIndexed(prestations, ParallelAggregator.DEFAULT_THRESHOLD, () -> new TopK(5),
+                 (partial, prestation, index) -> partial.offer(index, prestation.getIdEvenementsAssocies().size()), TopK::merge);
+         List<Prestation> result = new ArrayList<>(top.size());
+         for (long index : top.keys()) {
+             result.add(prestations.get((int) index));
+         }
+         return result;
+    }
 
-        for (Double price : prices) {
-            boolean assigned = false;
-            for (int i = 0; i < tranches.length; i++) {
-                double lowerBound = (i == 0) ? 0 : tranches[i-1];
-                double upperBound = tranches[i];
-                String trancheLabel;
-
-                if (i == 0) {
-                    trancheLabel = "< " + upperBound + "€";
-                     if (price < upperBound) {
-                        distribution.merge(trancheLabel, 1L, Long::sum);
-                        assigned = true;
-                        break;
-                    }
-                } else {
-                    trancheLabel = lowerBound + "€ - " + upperBound + "€";
-                     if (price >= lowerBound && price < upperBound) {
-                        distribution.merge(trancheLabel, 1L, Long::sum);
-                        assigned = true;
-                        break;
-                    }
-                }
-            }
-             if (!assigned && tranches.length > 0 && price >= tranches[tranches.length - 1]) {
-                String trancheLabel = "> " + tranches[tranches.length - 1] + "€";
-                distribution.merge(trancheLabel, 1L, Long::sum);
+    public CatalogSummary getCatalogSummary(List<Evenement> evenements, List<Prestation> prestations) {
+        Map<String, Integer> topServices = new LinkedHashMap<>();
+        for (Prestation prestation : getTop5PrestationsFrequentes(prestations)) {
+            if (!prestation.getIdEvenementsAssocies().isEmpty()) {
+                topServices.putIfAbsent(prestation.getNomPrestation(), prestation.getIdEvenementsAssocies().size());
             }
         }
-         return distribution.entrySet().stream()
-            .filter(entry -> entry.getValue() >= 0)
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+        return new CatalogSummary(getEventCountByType(evenements), topServices, getTopServicePairs(prestations, CatalogSummary.TOP_SERVICES));
     }
 
-    public List<Prestation> getTop5PrestationsFrequentes(List<Prestation> prestations) {
-         if (prestations == null) return Collections.emptyList();
-         return prestations.stream()
-                          .sorted(Comparator.comparingInt((Prestation p) -> p.getIdEvenementsAssocies().size()).reversed())
-                          .limit(5)
-                          .collect(Collectors.toList());
+    public Map<String, Integer> getTopServicePairs(List<Prestation> prestations, int limit) {
+        if (prestations == null) return Collections.emptyMap();
+        Map<String, String> names = new HashMap<>();
+        for (Prestation prestation : prestations) {
+            names.put(prestation.getId(), prestation.getNomPrestation());
+        }
+        Map<String, Integer> pairs = new LinkedHashMap<>();
+        for (ServiceEventGraph.Pair pair : ServiceEventGraph.fromPrestations(prestations).topPairs(limit)) {
+            pairs.put(names.get(String.valueOf(pair.getFirstServiceId())) + " + " + names.get(String.valueOf(pair.getSecondServiceId())), pair.getSharedEvents());
+        }
+        return pairs;
     }
 
     public Map<String, Long> getTopProvidersByServiceCount(int limit) {
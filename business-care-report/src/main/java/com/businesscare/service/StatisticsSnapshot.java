@@ -0,0 +1,286 @@
+package com.businesscare.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.businesscare.util.MonthlySeries;
+
+public final class StatisticsSnapshot {
+    private final Map<String, Long> clientCountBySubscriptionTier;
+    private final Map<String, Double> clientRevenueDistribution;
+    private final Map<String, Long> clientCountBySize;
+    private final Map<String, Long> clientCountByIndustry;
+    private final Map<String, Double> topClientsByTotalPaid;
+    private final MonthlySeries eventCountByMonth;
+    private final Map<String, Long> eventDistributionByCapacity;
+    private final Map<String, Long> eventStatusCounts;
+    private final Map<String, Integer> topEventsByBooking;
+    private final Map<String, Long> serviceCountByType;
+    private final Map<String, Long> serviceDistributionByCost;
+    private final Map<String, Long> topProvidersByServiceCount;
+    private final Map<String, Long> serviceAvailabilityDistribution;
+    private final Map<String, Double> clientRevenuePercentiles;
+    private final Map<String, Double> eventCapacityPercentiles;
+    private final Map<String, Double> servicePricePercentiles;
+    private final Map<String, Double> approximateErrorBounds;
+    private final Map<String, Long> eventFillRateDistribution;
+    private final Map<String, Double> eventUtilizationSummary;
+    private final Map<String, Double> mostFilledEvents;
+    private final Map<String, Double> leastFilledEvents;
+    private final Map<String, Long> contractCohortCounts;
+    private final MonthlySeries paidInvoicesByMonth;
+    private final MonthlySeries newContractsByMonth;
+    private final Map<String, Double> confidenceIntervals;
+    private final Map<String, Double> samplingRates;
+    private final Map<String, Double> bookingSummary;
+    private final Map<String, Long> bookingsByWeekdayHour;
+    private final Map<String, Long> bookingLeadTimeDistribution;
+    private final Map<String, Long> bookingAttendanceDistribution;
+    private final Map<String, Long> topCompaniesByBooking;
+
+    private StatisticsSnapshot(Builder builder) {
+        this.clientCountBySubscriptionTier = freeze(builder.clientCountBySubscriptionTier);
+        this.clientRevenueDistribution = freeze(builder.clientRevenueDistribution);
+        this.clientCountBySize = freeze(builder.clientCountBySize);
+        this.clientCountByIndustry = freeze(builder.clientCountByIndustry);
+        this.topClientsByTotalPaid = freeze(builder.topClientsByTotalPaid);
+        this.eventCountByMonth = series(builder.eventCountByMonth);
+        this.eventDistributionByCapacity = freeze(builder.eventDistributionByCapacity);
+        this.eventStatusCounts = freeze(builder.eventStatusCounts);
+        this.topEventsByBooking = freeze(builder.topEventsByBooking);
+        this.serviceCountByType = freeze(builder.serviceCountByType);
+        this.serviceDistributionByCost = freeze(builder.serviceDistributionByCost);
+        this.topProvidersByServiceCount = freeze(builder.topProvidersByServiceCount);
+        this.serviceAvailabilityDistribution = freeze(builder.serviceAvailabilityDistribution);
+        this.clientRevenuePercentiles = freeze(builder.clientRevenuePercentiles);
+        this.eventCapacityPercentiles = freeze(builder.eventCapacityPercentiles);
+        this.servicePricePercentiles = freeze(builder.servicePricePercentiles);
+        this.approximateErrorBounds = freeze(builder.approximateErrorBounds);
+        this.eventFillRateDistribution = freeze(builder.eventFillRateDistribution);
+        this.eventUtilizationSummary = freeze(builder.eventUtilizationSummary);
+        this.mostFilledEvents = freeze(builder.mostFilledEvents);
+        this.leastFilledEvents = freeze(builder.leastFilledEvents);
+        this.contractCohortCounts = freeze(builder.contractCohortCounts);
+        this.paidInvoicesByMonth = series(builder.paidInvoicesByMonth);
+        this.newContractsByMonth = series(builder.newContractsByMonth);
+        this.confidenceIntervals = freeze(builder.confidenceIntervals);
+        this.samplingRates = freeze(builder.samplingRates);
+        this.bookingSummary = freeze(builder.bookingSummary);
+        this.bookingsByWeekdayHour = freeze(builder.bookingsByWeekdayHour);
+        this.bookingLeadTimeDistribution = freeze(builder.bookingLeadTimeDistribution);
+        this.bookingAttendanceDistribution = freeze(builder.bookingAttendanceDistribution);
+        this.topCompaniesByBooking = freeze(builder.topCompaniesByBooking);
+    }
+
+    private static <V> Map<String, V> freeze(Map<String, V> map) {
+        return map == null ? Collections.emptyMap() : Collections.unmodifiableMap(new LinkedHashMap<>(map));
+    }
+
+    private static MonthlySeries series(MonthlySeries series) {
+        return series == null ? MonthlySeries.empty() : series;
+    }
+
+    public static String intervalKey(String metric, String label) {
+        return metric + '|' + label;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public Map<String, Long> getClientCountBySubscriptionTier() { return clientCountBySubscriptionTier; }
+    public Map<String, Double> getClientRevenueDistribution() { return clientRevenueDistribution; }
+    public Map<String, Long> getClientCountBySize() { return clientCountBySize; }
+    public Map<String, Long> getClientCountByIndustry() { return clientCountByIndustry; }
+    public Map<String, Double> getTopClientsByTotalPaid() { return topClientsByTotalPaid; }
+    public MonthlySeries getEventCountByMonth() { return eventCountByMonth; }
+    public Map<String, Long> getEventDistributionByCapacity() { return eventDistributionByCapacity; }
+    public Map<String, Long> getEventStatusCounts() { return eventStatusCounts; }
+    public Map<String, Integer> getTopEventsByBooking() { return topEventsByBooking; }
+    public Map<String, Long> getServiceCountByType() { return serviceCountByType; }
+    public Map<String, Long> getServiceDistributionByCost() { return serviceDistributionByCost; }
+    public Map<String, Long> getTopProvidersByServiceCount() { return topProvidersByServiceCount; }
+    public Map<String, Long> getServiceAvailabilityDistribution() { return serviceAvailabilityDistribution; }
+    public Map<String, Double> getClientRevenuePercentiles() { return clientRevenuePercentiles; }
+    public Map<String, Double> getEventCapacityPercentiles() { return eventCapacityPercentiles; }
+    public Map<String, Double> getServicePricePercentiles() { return servicePricePercentiles; }
+    public Map<String, Double> getApproximateErrorBounds() { return approximateErrorBounds; }
+    public Map<String, Long> getEventFillRateDistribution() { return eventFillRateDistribution; }
+    public Map<String, Double> getEventUtilizationSummary() { return eventUtilizationSummary; }
+    public Map<String, Double> getMostFilledEvents() { return mostFilledEvents; }
+    public Map<String, Double> getLeastFilledEvents() { return leastFilledEvents; }
+    public Map<String, Long> getContractCohortCounts() { return contractCohortCounts; }
+    public MonthlySeries getPaidInvoicesByMonth() { return paidInvoicesByMonth; }
+    public MonthlySeries getNewContractsByMonth() { return newContractsByMonth; }
+    public Map<String, Double> getConfidenceIntervals() { return confidenceIntervals; }
+    public Map<String, Double> getSamplingRates() { return samplingRates; }
+    public Map<String, Double> getBookingSummary() { return bookingSummary; }
+    public Map<String, Long> getBookingsByWeekdayHour() { return bookingsByWeekdayHour; }
+    public Map<String, Long> getBookingLeadTimeDistribution() { return bookingLeadTimeDistribution; }
+    public Map<String, Long> getBookingAttendanceDistribution() { return bookingAttendanceDistribution; }
+    public Map<String, Long> getTopCompaniesByBooking() { return topCompaniesByBooking; }
+    public boolean isSampled() { return !samplingRates.isEmpty(); }
+    public Double getConfidenceInterval(String metric, String label) { return confidenceIntervals.get(intervalKey(metric, label)); }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StatisticsSnapshot)) return false;
+        StatisticsSnapshot other = (StatisticsSnapshot) o;
+        return clientCountBySubscriptionTier.equals(other.clientCountBySubscriptionTier)
+                && clientRevenueDistribution.equals(other.clientRevenueDistribution)
+                && clientCountBySize.equals(other.clientCountBySize)
+                && clientCountByIndustry.equals(other.clientCountByIndustry)
+                && topClientsByTotalPaid.equals(other.topClientsByTotalPaid)
+                && eventCountByMonth.equals(other.eventCountByMonth)
+                && eventDistributionByCapacity.equals(other.eventDistributionByCapacity)
+                && eventStatusCounts.equals(other.eventStatusCounts)
+                && topEventsByBooking.equals(other.topEventsByBooking)
+                && serviceCountByType.equals(other.serviceCountByType)
+                && serviceDistributionByCost.equals(other.serviceDistributionByCost)
+                && topProvidersByServiceCount.equals(other.topProvidersByServiceCount)
+                && serviceAvailabilityDistribution.equals(other.serviceAvailabilityDistribution)
+                && clientRevenuePercentiles.equals(other.clientRevenuePercentiles)
+                && eventCapacityPercentiles.equals(other.eventCapacityPercentiles)
+                && servicePricePercentiles.equals(other.servicePricePercentiles)
+                && approximateErrorBounds.equals(other.approximateErrorBounds)
+                && eventFillRateDistribution.equals(other.eventFillRateDistribution)
+                && eventUtilizationSummary.equals(other.eventUtilizationSummary)
+                && mostFilledEvents.equals(other.mostFilledEvents)
+                && leastFilledEvents.equals(other.leastFilledEvents)
+                && contractCohortCounts.equals(other.contractCohortCounts)
+                && paidInvoicesByMonth.equals(other.paidInvoicesByMonth)
+                && newContractsByMonth.equals(other.newContractsByMonth)
+                && confidenceIntervals.equals(other.confidenceIntervals)
+                && samplingRates.equals(other.samplingRates)
+                && bookingSummary.equals(other.bookingSummary)
+                && bookingsByWeekdayHour.equals(other.bookingsByWeekdayHour)
+                && bookingLeadTimeDistribution.equals(other.bookingLeadTimeDistribution)
+                && bookingAttendanceDistribution.equals(other.bookingAttendanceDistribution)
+                && topCompaniesByBooking.equals(other.topCompaniesByBooking);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(clientCountBySubscriptionTier, clientRevenueDistribution, clientCountBySize, clientCountByIndustry,
+                topClientsByTotalPaid, eventCountByMonth, eventDistributionByCapacity, eventStatusCounts, topEventsByBooking,
+                serviceCountByType, serviceDistributionByCost, topProvidersByServiceCount, serviceAvailabilityDistribution,
+                clientRevenuePercentiles, eventCapacityPercentiles, servicePricePercentiles, approximateErrorBounds,
+                eventFillRateDistribution, eventUtilizationSummary, mostFilledEvents, leastFilledEvents,
+                contractCohortCounts, paidInvoicesByMonth, newContractsByMonth, confidenceIntervals, samplingRates,
+                bookingSummary, bookingsByWeekdayHour, bookingLeadTimeDistribution, bookingAttendanceDistribution, topCompaniesByBooking);
+    }
+
+    public static final class Builder {
+        private Map<String, Long> clientCountBySubscriptionTier;
+        private Map<String, Double> clientRevenueDistribution;
+        private Map<String, Long> clientCountBySize;
+        private Map<String, Long> clientCountByIndustry;
+        private Map<String, Double> topClientsByTotalPaid;
+        private MonthlySeries eventCountByMonth;
+        private Map<String, Long> eventDistributionByCapacity;
+        private Map<String, Long> eventStatusCounts;
+        private Map<String, Integer> topEventsByBooking;
+        private Map<String, Long> serviceCountByType;
+        private Map<String, Long> serviceDistributionByCost;
+        private Map<String, Long> topProvidersByServiceCount;
+        private Map<String, Long> serviceAvailabilityDistribution;
+        private Map<String, Double> clientRevenuePercentiles;
+        private Map<String, Double> eventCapacityPercentiles;
+        private Map<String, Double> servicePricePercentiles;
+        private Map<String, Double> approximateErrorBounds;
+        private Map<String, Long> eventFillRateDistribution;
+        private Map<String, Double> eventUtilizationSummary;
+        private Map<String, Double> mostFilledEvents;
+        private Map<String, Double> leastFilledEvents;
+        private Map<String, Long> contractCohortCounts;
+        private MonthlySeries paidInvoicesByMonth;
+        private MonthlySeries newContractsByMonth;
+        private Map<String, Double> confidenceIntervals;
+        private Map<String, Double> samplingRates;
+        private Map<String, Double> bookingSummary;
+        private Map<String, Long> bookingsByWeekdayHour;
+        private Map<String, Long> bookingLeadTimeDistribution;
+        private Map<String, Long> bookingAttendanceDistribution;
+        private Map<String, Long> topCompaniesByBooking;
+
+        private Builder() {
+        }
+
+        private Builder(StatisticsSnapshot snapshot) {
+            this.clientCountBySubscriptionTier = snapshot.clientCountBySubscriptionTier;
+            this.clientRevenueDistribution = snapshot.clientRevenueDistribution;
+            this.clientCountBySize = snapshot.clientCountBySize;
+            this.clientCountByIndustry = snapshot.clientCountByIndustry;
+            this.topClientsByTotalPaid = snapshot.topClientsByTotalPaid;
+            this.eventCountByMonth = snapshot.eventCountByMonth;
+            this.eventDistributionByCapacity = snapshot.eventDistributionByCapacity;
+            this.eventStatusCounts = snapshot.eventStatusCounts;
+            this.topEventsByBooking = snapshot.topEventsByBooking;
+            this.serviceCountByType = snapshot.serviceCountByType;
+            this.serviceDistributionByCost = snapshot.serviceDistributionByCost;
+            this.topProvidersByServiceCount = snapshot.topProvidersByServiceCount;
+            this.serviceAvailabilityDistribution = snapshot.serviceAvailabilityDistribution;
+            this.clientRevenuePercentiles = snapshot.clientRevenuePercentiles;
+            this.eventCapacityPercentiles = snapshot.eventCapacityPercentiles;
+            this.servicePricePercentiles = snapshot.servicePricePercentiles;
+            this.approximateErrorBounds = snapshot.approximateErrorBounds;
+            this.eventFillRateDistribution = snapshot.eventFillRateDistribution;
+            this.eventUtilizationSummary = snapshot.eventUtilizationSummary;
+            this.mostFilledEvents = snapshot.mostFilledEvents;
+            this.leastFilledEvents = snapshot.leastFilledEvents;
+            this.contractCohortCounts = snapshot.contractCohortCounts;
+            this.paidInvoicesByMonth = snapshot.paidInvoicesByMonth;
+            this.newContractsByMonth = snapshot.newContractsByMonth;
+            this.confidenceIntervals = snapshot.confidenceIntervals;
+            this.samplingRates = snapshot.samplingRates;
+            this.bookingSummary = snapshot.bookingSummary;
+            this.bookingsByWeekdayHour = snapshot.bookingsByWeekdayHour;
+            this.bookingLeadTimeDistribution = snapshot.bookingLeadTimeDistribution;
+            this.bookingAttendanceDistribution = snapshot.bookingAttendanceDistribution;
+            this.topCompaniesByBooking = snapshot.topCompaniesByBooking;
+        }
+
+        public Builder clientCountBySubscriptionTier(Map<String, Long> value) { this.clientCountBySubscriptionTier = value; return this; }
+        public Builder clientRevenueDistribution(Map<String, Double> value) { this.clientRevenueDistribution = value; return this; }
+        public Builder clientCountBySize(Map<String, Long> value) { this.clientCountBySize = value; return this; }
+        public Builder clientCountByIndustry(Map<String, Long> value) { this.clientCountByIndustry = value; return this; }
+        public Builder topClientsByTotalPaid(Map<String, Double> value) { this.topClientsByTotalPaid = value; return this; }
+        public Builder eventCountByMonth(MonthlySeries value) { this.eventCountByMonth = value; return this; }
+        public Builder eventDistributionByCapacity(Map<String, Long> value) { this.eventDistributionByCapacity = value; return this; }
+        public Builder eventStatusCounts(Map<String, Long> value) { this.eventStatusCounts = value; return this; }
+        public Builder topEventsByBooking(Map<String, Integer> value) { this.topEventsByBooking = value; return this; }
+        public Builder serviceCountByType(Map<String, Long> value) { this.serviceCountByType = value; return this; }
+        public Builder serviceDistributionByCost(Map<String, Long> value) { this.serviceDistributionByCost = value; return this; }
+        public Builder topProvidersByServiceCount(Map<String, Long> value) { this.topProvidersByServiceCount = value; return this; }
+        public Builder serviceAvailabilityDistribution(Map<String, Long> value) { this.serviceAvailabilityDistribution = value; return this; }
+        public Builder clientRevenuePercentiles(Map<String, Double> value) { this.clientRevenuePercentiles = value; return this; }
+        public Builder eventCapacityPercentiles(Map<String, Double> value) { this.eventCapacityPercentiles = value; return this; }
+        public Builder servicePricePercentiles(Map<String, Double> value) { this.servicePricePercentiles = value; return this; }
+        public Builder approximateErrorBounds(Map<String, Double> value) { this.approximateErrorBounds = value; return this; }
+        public Builder eventFillRateDistribution(Map<String, Long> value) { this.eventFillRateDistribution = value; return this; }
+        public Builder eventUtilizationSummary(Map<String, Double> value) { this.eventUtilizationSummary = value; return this; }
+        public Builder mostFilledEvents(Map<String, Double> value) { this.mostFilledEvents = value; return this; }
+        public Builder leastFilledEvents(Map<String, Double> value) { this.leastFilledEvents = value; return this; }
+        public Builder contractCohortCounts(Map<String, Long> value) { this.contractCohortCounts = value; return this; }
+        public Builder paidInvoicesByMonth(MonthlySeries value) { this.paidInvoicesByMonth = value; return this; }
+        public Builder newContractsByMonth(MonthlySeries value) { this.newContractsByMonth = value; return this; }
+        public Builder confidenceIntervals(Map<String, Double> value) { this.confidenceIntervals = value; return this; }
+        public Builder samplingRates(Map<String, Double> value) { this.samplingRates = value; return this; }
+        public Builder bookingSummary(Map<String, Double> value) { this.bookingSummary = value; return this; }
+        public Builder bookingsByWeekdayHour(Map<String, Long> value) { this.bookingsByWeekdayHour = value; return this; }
+        public Builder bookingLeadTimeDistribution(Map<String, Long> value) { this.bookingLeadTimeDistribution = value; return this; }
+        public Builder bookingAttendanceDistribution(Map<String, Long> value) { this.bookingAttendanceDistribution = value; return this; }
+        public Builder topCompaniesByBooking(Map<String, Long> value) { this.topCompaniesByBooking = value; return this; }
+
+        public StatisticsSnapshot build() {
+            return new StatisticsSnapshot(this);
+        }
+    }
+}
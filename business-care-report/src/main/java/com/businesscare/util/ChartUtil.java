@@ -6,10 +6,11 @@ import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -19,12 +20,15 @@ import javax.imageio.ImageIO;
 import org.knowm.xchart.BitmapEncoder;
 import org.knowm.xchart.CategoryChart;
 import org.knowm.xchart.CategoryChartBuilder;
+import org.knowm.xchart.HeatMapChart;
+import org.knowm.xchart.HeatMapChartBuilder;
 import org.knowm.xchart.PieChart;
 import org.knowm.xchart.PieChartBuilder;
 import org.knowm.xchart.XYChart;
 import org.knowm.xchart.XYChartBuilder;
 import org.knowm.xchart.XYSeries;
 import org.knowm.xchart.style.CategoryStyler;
+import org.knowm.xchart.style.HeatMapStyler;
 import org.knowm.xchart.style.PieStyler;
 import org.knowm.xchart.style.Styler;
 import org.knowm.xchart.style.XYStyler;
@@ -113,6 +117,13 @@ public class ChartUtil {
     public static byte[] createBarChartImage(String title, String xAxisTitle, String yAxisTitle, 
                                              Map<String, List<Number>> seriesMap, List<String> categories, 
                                              int width, int height, boolean isHorizontal) throws IOException {
+        return createBarChartImage(title, xAxisTitle, yAxisTitle, seriesMap, categories, width, height, isHorizontal, Collections.emptyMap());
+    }
+
+    public static byte[] createBarChartImage(String title, String xAxisTitle, String yAxisTitle,
+                                             Map<String, List<Number>> seriesMap, List<String> categories,
+                                             int width, int height, boolean isHorizontal,
+                                             Map<String, List<Number>> errorBars) throws IOException {
          if (seriesMap == null || seriesMap.isEmpty() || categories == null || categories.isEmpty() || seriesMap.values().stream().allMatch(list -> list == null || list.isEmpty())) {
             logger.warn("Données vides ou non valides pour le graphique à barres: '{}'. Un graphique de remplacement sera généré.", title);
             return createPlaceholderImage("Pas de données pour : " + title, width, height);
@@ -149,12 +160,18 @@ public class ChartUtil {
         categoryStyler.setPlotBorderVisible(false);
         categoryStyler.setPlotBackgroundColor(PLOT_BACKGROUND_COLOR);
         categoryStyler.setChartBackgroundColor(CHART_BACKGROUND_COLOR);
+        categoryStyler.setErrorBarsColor(AXIS_TICK_MARKS_COLOR);
 
         boolean dataAdded = false;
         for (Map.Entry<String, List<Number>> entry : seriesMap.entrySet()) {
             if (entry.getValue() != null && !entry.getValue().isEmpty() && categories.size() == entry.getValue().size()) {
                 try {
-                    chart.addSeries(entry.getKey(), new ArrayList<>(categories), entry.getValue());
+                    List<Number> errors = errorBars.get(entry.getKey());
+                    if (errors != null && errors.size() == categories.size()) {
+                        chart.addSeries(entry.getKey(), new ArrayList<>(categories), entry.getValue(), errors);
+                    } else {
+                        chart.addSeries(entry.getKey(), new ArrayList<>(categories), entry.getValue());
+                    }
                     dataAdded = true;
                 } catch (IllegalArgumentException e) {
                      logger.error("Erreur lors de l'ajout de la série '{}' au graphique '{}': {}. Catégories: {}, Valeurs: {}",
@@ -183,8 +200,18 @@ public class ChartUtil {
     public static byte[] createLineChartImage(String title, String xAxisTitle, String yAxisTitle,
                                             Map<String, Map<String, Number>> seriesDataMap, 
                                             int width, int height) throws IOException {
+        Map<String, MonthlySeries> series = new LinkedHashMap<>();
+        if (seriesDataMap != null) {
+            seriesDataMap.forEach((name, points) -> series.put(name, MonthlySeries.fromMap(points)));
+        }
+        return createMonthlyLineChartImage(title, xAxisTitle, yAxisTitle, series, width, height);
+    }
+
+    public static byte[] createMonthlyLineChartImage(String title, String xAxisTitle, String yAxisTitle,
+                                                     Map<String, MonthlySeries> seriesMap,
+                                                     int width, int height) throws IOException {
 
-        if (seriesDataMap == null || seriesDataMap.isEmpty() || seriesDataMap.values().stream().allMatch(map -> map == null || map.isEmpty())) {
+        if (seriesMap == null || seriesMap.isEmpty() || seriesMap.values().stream().allMatch(series -> series == null || series.isEmpty())) {
             logger.warn("Données vides pour le graphique en lignes: '{}'. Un graphique de remplacement sera généré.", title);
             return createPlaceholderImage("Pas de données pour : " + title, width, height);
         }
@@ -211,41 +238,27 @@ public class ChartUtil {
         styler.setDatePattern("MM/yyyy");
 
         boolean dataAdded = false;
-        SimpleDateFormat sdfInputParser = new SimpleDateFormat("yyyy-MM");
-        sdfInputParser.setLenient(false);
-
-        for (Map.Entry<String, Map<String, Number>> seriesEntry : seriesDataMap.entrySet()) {
-            String seriesName = seriesEntry.getKey();
-            Map<String, Number> dataPoints = seriesEntry.getValue();
-
-            if (dataPoints == null || dataPoints.isEmpty()) {
-                logger.warn("Aucun point de données pour la série '{}' du graphique en lignes '{}'", seriesName, title);
+        Calendar calendar = Calendar.getInstance();
+        for (Map.Entry<String, MonthlySeries> seriesEntry : seriesMap.entrySet()) {
+            MonthlySeries series = seriesEntry.getValue();
+            if (series == null || series.isEmpty()) {
+                logger.warn("Aucun point de données pour la série '{}' du graphique en lignes '{}'", seriesEntry.getKey(), title);
                 continue;
             }
-            
-            List<Date> xData = new ArrayList<>();
-            List<Number> yData = new ArrayList<>();
 
-            Map<Date, Number> sortedDataPoints = new TreeMap<>();
-            for(Map.Entry<String, Number> point : dataPoints.entrySet()){
-                try {
-                    Date date = sdfInputParser.parse(point.getKey());
-                    sortedDataPoints.put(date, point.getValue());
-                } catch (ParseException e) {
-                    logger.warn("Format de date invalide '{}' pour le graphique en lignes '{}'. Point ignoré.", point.getKey(), title);
-                }
-            }
-            
-            for(Map.Entry<Date, Number> sortedPoint : sortedDataPoints.entrySet()){
-                xData.add(sortedPoint.getKey());
-                yData.add(sortedPoint.getValue());
+            List<Date> xData = new ArrayList<>(series.size());
+            List<Double> yData = new ArrayList<>(series.size());
+            for (int i = 0; i < series.size(); i++) {
+                int month = series.getMonth(i);
+                calendar.clear();
+                calendar.set(Math.floorDiv(month, 12), Math.floorMod(month, 12), 1);
+                xData.add(calendar.getTime());
+                yData.add(series.get(i));
             }
 
-            if (!xData.isEmpty() && !yData.isEmpty()) {
-                XYSeries series = chart.addSeries(seriesName, xData, yData);
-                series.setMarker(SeriesMarkers.CIRCLE);
-                dataAdded = true;
-            }
+            XYSeries xySeries = chart.addSeries(seriesEntry.getKey(), xData, yData);
+            xySeries.setMarker(SeriesMarkers.CIRCLE);
+            dataAdded = true;
         }
 
         if (!dataAdded) {
@@ -261,6 +274,52 @@ public class ChartUtil {
         }
     }
 
+    public static byte[] createHeatMapImage(String title, String xAxisTitle, String yAxisTitle,
+                                            List<String> xCategories, List<String> yCategories, double[][] values,
+                                            int width, int height) throws IOException {
+        List<Number[]> heatData = new ArrayList<>();
+        if (xCategories != null && yCategories != null && values != null) {
+            for (int y = 0; y < yCategories.size() && y < values.length; y++) {
+                for (int x = 0; x < xCategories.size() && x < values[y].length; x++) {
+                    if (!Double.isNaN(values[y][x])) {
+                        heatData.add(new Number[] { x, y, values[y][x] });
+                    }
+                }
+            }
+        }
+        if (heatData.isEmpty()) {
+            logger.warn("Données vides pour la carte de chaleur: '{}'. Un graphique de remplacement sera généré.", title);
+            return createPlaceholderImage("Pas de données pour : " + title, width, height);
+        }
+
+        HeatMapChart chart = new HeatMapChartBuilder().width(width).height(height).title("").xAxisTitle(xAxisTitle).yAxisTitle(yAxisTitle).build();
+        HeatMapStyler styler = chart.getStyler();
+
+        styler.setAntiAlias(true);
+        styler.setLegendVisible(false);
+        styler.setAxisTickLabelsFont(AXIS_TICK_FONT);
+        styler.setAxisTitleFont(AXIS_TITLE_FONT);
+        styler.setAxisTickMarksColor(AXIS_TICK_MARKS_COLOR);
+        styler.setPlotBorderVisible(false);
+        styler.setPlotBackgroundColor(PLOT_BACKGROUND_COLOR);
+        styler.setChartBackgroundColor(CHART_BACKGROUND_COLOR);
+        styler.setRangeColors(new Color[] { new Color(253, 237, 236), new Color(241, 148, 138), CUSTOM_CHART_COLORS[3] });
+        styler.setMin(0);
+        styler.setMax(heatData.stream().mapToDouble(cell -> cell[2].doubleValue()).max().orElse(1));
+        styler.setShowValue(true);
+        styler.setValueFont(AXIS_TICK_FONT);
+        styler.setValueFontColor(Color.BLACK);
+        styler.setHeatMapValueDecimalPattern("0");
+        styler.setDrawBorder(true);
+
+        try {
+            chart.addSeries(title, new ArrayList<>(xCategories), new ArrayList<>(yCategories), heatData);
+            return BitmapEncoder.getBitmapBytes(chart, BitmapEncoder.BitmapFormat.PNG);
+        } catch (IOException e) {
+            logger.error("Erreur IO lors de la génération de la carte de chaleur '{}': {}", title, e.getMessage(), e);
+            return createPlaceholderImage("Erreur graphique IO : " + title, width, height);
+        }
+    }
 
     private static byte[] createPlaceholderImage(String message, int width, int height) throws IOException {
         BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
@@ -0,0 +1,187 @@
+package com.businesscare.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+
+public final class Histogram {
+    private final double[] bounds;
+    private final boolean upperInclusive;
+    private final double floor;
+    private final String[] labels;
+
+    private Histogram(double[] bounds, boolean upperInclusive, double floor, String[] labels) {
+        for (int i = 1; i < bounds.length; i++) {
+            if (!(bounds[i] > bounds[i - 1])) {
+                throw new IllegalArgumentException("Les bornes des tranches doivent être strictement croissantes.");
+            }
+        }
+        if (labels.length != bounds.length + 1) {
+            throw new IllegalArgumentException("Un libellé est attendu par tranche (" + (bounds.length + 1) + "), reçu " + labels.length + ".");
+        }
+        this.bounds = bounds.clone();
+        this.upperInclusive = upperInclusive;
+        this.floor = floor;
+        this.labels = labels.clone();
+    }
+
+    public static Histogram lowerInclusive(double[] bounds, String[] labels) {
+        return new Histogram(bounds, false, Double.NEGATIVE_INFINITY, labels);
+    }
+
+    public static Histogram upperInclusive(double[] bounds, double floor, String[] labels) {
+        return new Histogram(bounds, true, floor, labels);
+    }
+
+    public static String[] euroLabels(double[] bounds) {
+        String[] labels = new String[bounds.length + 1];
+        for (int i = 0; i < bounds.length; i++) {
+            labels[i] = i == 0 ? "< " + bounds[0] + "€" : bounds[i - 1] + "€ - " + bounds[i] + "€";
+        }
+        labels[bounds.length] = bounds.length == 0 ? "" : "> " + bounds[bounds.length - 1] + "€";
+        return labels;
+    }
+
+    public static String[] integerRangeLabels(double[] bounds, double floor) {
+        String[] labels = new String[bounds.length + 1];
+        for (int i = 0; i < bounds.length; i++) {
+            labels[i] = (i == 0 ? (int) floor : (int) bounds[i - 1]) + " - " + (int) bounds[i];
+        }
+        labels[bounds.length] = bounds.length == 0 ? "" : "> " + (int) bounds[bounds.length - 1];
+        return labels;
+    }
+
+    public int getBoundCount() {
+        return bounds.length;
+    }
+
+    public double getBound(int index) {
+        return bounds[index];
+    }
+
+    public boolean isUpperInclusive() {
+        return upperInclusive;
+    }
+
+    public double getFloor() {
+        return floor;
+    }
+
+    public int getBinCount() {
+        return labels.length;
+    }
+
+    public String getLabel(int bin) {
+        return labels[bin];
+    }
+
+    public int binOf(double value) {
+        if (Double.isNaN(value) || value < floor) {
+            return -1;
+        }
+        int low = 0;
+        int high = bounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            boolean beyond = upperInclusive ? value > bounds[mid] : value >= bounds[mid];
+            if (beyond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public Accumulator newAccumulator() {
+        return new Accumulator();
+    }
+
+    public Accumulator count(int[] values) {
+        Accumulator accumulator = new Accumulator();
+        for (int value : values) {
+            accumulator.accept(value);
+        }
+        return accumulator;
+    }
+
+    public Accumulator count(double[] values) {
+        Accumulator accumulator = new Accumulator();
+        for (double value : values) {
+            accumulator.accept(value);
+        }
+        return accumulator;
+    }
+
+    public final class Accumulator implements IntConsumer, DoubleConsumer {
+        private final long[] counts = new long[labels.length];
+        private final double[] sums = new double[labels.length];
+        private long total;
+        private double totalSum;
+
+        private Accumulator() {
+        }
+
+        @Override
+        public void accept(int value) {
+            accept((double) value);
+        }
+
+        @Override
+        public void accept(double value) {
+            total++;
+            totalSum += value;
+            int bin = binOf(value);
+            if (bin >= 0) {
+                counts[bin]++;
+                sums[bin] += value;
+            }
+        }
+
+        public void addBin(int bin, long count, double sum) {
+            total += count;
+            totalSum += sum;
+            if (bin >= 0) {
+                counts[bin] += count;
+                sums[bin] += sum;
+            }
+        }
+
+        public Histogram getHistogram() {
+            return Histogram.this;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public double getTotalSum() {
+            return totalSum;
+        }
+
+        public long getCount(int bin) {
+            return counts[bin];
+        }
+
+        public double getSum(int bin) {
+            return sums[bin];
+        }
+
+        public Map<String, Long> toCountMap() {
+            Map<String, Long> distribution = new LinkedHashMap<>();
+            for (int bin = 0; bin < labels.length; bin++) {
+                distribution.put(labels[bin], counts[bin]);
+            }
+            return distribution;
+        }
+
+        public Map<String, Double> toSumMap() {
+            Map<String, Double> distribution = new LinkedHashMap<>();
+            for (int bin = 0; bin < labels.length; bin++) {
+                distribution.put(labels[bin], sums[bin]);
+            }
+            return distribution;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.businesscare.util;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class MonthlySeries {
+    private static final MonthlySeries EMPTY = new MonthlySeries(0, new double[0]);
+
+    private final int firstMonth;
+    private final double[] values;
+
+    private MonthlySeries(int firstMonth, double[] values) {
+        this.firstMonth = firstMonth;
+        this.values = values;
+    }
+
+    public static MonthlySeries empty() {
+        return EMPTY;
+    }
+
+    public static int monthOf(YearMonth yearMonth) {
+        return yearMonth.getYear() * 12 + yearMonth.getMonthValue() - 1;
+    }
+
+    public static int monthOf(Date date, Calendar calendar) {
+        calendar.setTime(date);
+        return calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+    }
+
+    public static YearMonth toYearMonth(int month) {
+        return YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1);
+    }
+
+    public static String format(int month) {
+        int calendarMonth = Math.floorMod(month, 12) + 1;
+        return Math.floorDiv(month, 12) + (calendarMonth < 10 ? "-0" : "-") + calendarMonth;
+    }
+
+    public static int parse(String label) {
+        int dash = label.indexOf('-');
+        return Integer.parseInt(label.substring(0, dash)) * 12 + Integer.parseInt(label.substring(dash + 1)) - 1;
+    }
+
+    public static MonthlySeries fromMap(Map<String, ? extends Number> values) {
+        Builder builder = new Builder();
+        if (values == null) {
+            return builder.build();
+        }
+        for (Map.Entry<String, ? extends Number> entry : values.entrySet()) {
+            String label = entry.getKey();
+            if (label == null || entry.getValue() == null || label.indexOf('-') <= 0) {
+                continue;
+            }
+            try {
+                builder.add(parse(label), entry.getValue().doubleValue());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+        }
+        return builder.build();
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public int getFirstMonth() {
+        return firstMonth;
+    }
+
+    public int getLastMonth() {
+        return firstMonth + values.length - 1;
+    }
+
+    public int getMonth(int index) {
+        return firstMonth + index;
+    }
+
+    public YearMonth getYearMonth(int index) {
+        return toYearMonth(firstMonth + index);
+    }
+
+    public double get(int index) {
+        return values[index];
+    }
+
+    public double valueAt(int month) {
+        int index = month - firstMonth;
+        return index < 0 || index >= values.length ? 0 : values[index];
+    }
+
+    public double getTotal() {
+        double total = 0;
+        for (double value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    public double[] toArray() {
+        return values.clone();
+    }
+
+    public double[] rollingAverage(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Fenêtre de moyenne mobile invalide : " + window);
+        }
+        double[] averages = new double[values.length];
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i];
+            if (i >= window) {
+                sum -= values[i - window];
+            }
+            averages[i] = sum / Math.min(i + 1, window);
+        }
+        return averages;
+    }
+
+    public double[] monthOverMonthDeltas() {
+        double[] deltas = new double[values.length];
+        if (values.length > 0) {
+            deltas[0] = Double.NaN;
+        }
+        for (int i = 1; i < values.length; i++) {
+            deltas[i] = values[i] - values[i - 1];
+        }
+        return deltas;
+    }
+
+    public MonthlySeries withValues(double[] replacement) {
+        if (replacement.length != values.length) {
+            throw new IllegalArgumentException("Série de longueur " + replacement.length + " au lieu de " + values.length + ".");
+        }
+        return new MonthlySeries(firstMonth, replacement.clone());
+    }
+
+    public Map<String, Double> toMap() {
+        Map<String, Double> map = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            map.put(format(firstMonth + i), values[i]);
+        }
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MonthlySeries)) {
+            return false;
+        }
+        MonthlySeries other = (MonthlySeries) o;
+        return (values.length == 0 || firstMonth == other.firstMonth) && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.length == 0 ? 0 : 31 * firstMonth + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    public static final class Builder {
+        private final Calendar calendar = Calendar.getInstance();
+        private int firstMonth;
+        private double[] values = new double[0];
+
+        public Builder add(Date date, double value) {
+            return date == null ? this : add(monthOf(date, calendar), value);
+        }
+
+        public Builder add(int month, double value) {
+            if (values.length == 0) {
+                firstMonth = month;
+                values = new double[12];
+                values[0] = value;
+                return this;
+            }
+            if (month < firstMonth) {
+                int shift = firstMonth - month;
+                double[] grown = new double[Math.max(values.length + shift, values.length * 2)];
+                System.arraycopy(values, 0, grown, shift, values.length);
+                values = grown;
+                firstMonth = month;
+            } else if (month - firstMonth >= values.length) {
+                values = Arrays.copyOf(values, Math.max(month - firstMonth + 1, values.length * 2));
+            }
+            values[month - firstMonth] += value;
+            return this;
+        }
+
+        public Builder merge(Builder other) {
+            for (int i = 0; i < other.values.length; i++) {
+                if (other.values[i] != 0) {
+                    add(other.firstMonth + i, other.values[i]);
+                }
+            }
+            return this;
+        }
+
+        public MonthlySeries build() {
+            int first = 0;
+            int last = values.length - 1;
+            while (first <= last && values[first] == 0) {
+                first++;
+            }
+            while (last >= first && values[last] == 0) {
+                last--;
+            }
+            if (first > last) {
+                return EMPTY;
+            }
+            return new MonthlySeries(firstMonth + first, Arrays.copyOfRange(values, first, last + 1));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.businesscare.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+public final class ParallelAggregator {
+    public static final int DEFAULT_THRESHOLD = 4096;
+
+    @FunctionalInterface
+    public interface IndexedAccumulator<A, T> {
+        void accept(A partial, T item, int index);
+    }
+
+    private ParallelAggregator() {
+    }
+
+    public static <T, A> A aggregate(List<? extends T> items, Supplier<A> supplier, BiConsumer<A, ? super T> accumulator, BinaryOperator<A> combiner) {
+        return aggregate(items, DEFAULT_THRESHOLD, supplier, accumulator, combiner);
+    }
+
+    public static <T, A> A aggregate(List<? extends T> items, int threshold, Supplier<A> supplier, BiConsumer<A, ? super T> accumulator, BinaryOperator<A> combiner) {
+        return aggregateIndexed(items, threshold, supplier, (partial, item, index) -> accumulator.accept(partial, item), combiner);
+    }
+
+    public static <T, A> A aggregateIndexed(List<? extends T> items, int threshold, Supplier<A> supplier, IndexedAccumulator<A, ? super T> accumulator, BinaryOperator<A> combiner) {
+        List<? extends T> source = items instanceof RandomAccess ? items : new ArrayList<>(items);
+        int leafSize = Math.max(1, threshold);
+        if (source.size() <= leafSize || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            return accumulateRange(source, 0, source.size(), supplier, accumulator);
+        }
+        return ForkJoinPool.commonPool().invoke(new AggregateTask<>(source, 0, source.size(), leafSize, supplier, accumulator, combiner));
+    }
+
+    private static <T, A> A accumulateRange(List<? extends T> items, int start, int end, Supplier<A> supplier, IndexedAccumulator<A, ? super T> accumulator) {
+        A partial = supplier.get();
+        for (int i = start; i < end; i++) {
+            accumulator.accept(partial, items.get(i), i);
+        }
+        return partial;
+    }
+
+    private static final class AggregateTask<T, A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+        private final transient List<? extends T> items;
+        private final int start;
+        private final int end;
+        private final int leafSize;
+        private final transient Supplier<A> supplier;
+        private final transient IndexedAccumulator<A, ? super T> accumulator;
+        private final transient BinaryOperator<A> combiner;
+
+        private AggregateTask(List<? extends T> items, int start, int end, int leafSize, Supplier<A> supplier,
+                              IndexedAccumulator<A, ? super T> accumulator, BinaryOperator<A> combiner) {
+            this.items = items;
+            this.start = start;
+            this.end = end;
+            this.leafSize = leafSize;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (end - start <= leafSize) {
+                return accumulateRange(items, start, end, supplier, accumulator);
+            }
+            int middle = (start + end) >>> 1;
+            AggregateTask<T, A> left = new AggregateTask<>(items, start, middle, leafSize, supplier, accumulator, combiner);
+            AggregateTask<T, A> right = new AggregateTask<>(items, middle, end, leafSize, supplier, accumulator, combiner);
+            left.fork();
+            A rightResult = right.compute();
+            return combiner.apply(left.join(), rightResult);
+        }
+    }
+
+    public static final class KeyCounts<K> {
+        private final Map<K, long[]> counts = new LinkedHashMap<>();
+
+        public void add(K key) {
+            add(key, 1);
+        }
+
+        public void add(K key, long amount) {
+            long[] count = counts.get(key);
+            if (count == null) {
+                counts.put(key, new long[] { amount });
+            } else {
+                count[0] += amount;
+            }
+        }
+
+        public KeyCounts<K> merge(KeyCounts<K> other) {
+            other.counts.forEach((key, count) -> add(key, count[0]));
+            return this;
+        }
+
+        public Map<K, Long> toMap() {
+            Map<K, Long> result = new LinkedHashMap<>();
+            counts.forEach((key, count) -> result.put(key, count[0]));
+            return result;
+        }
+    }
+
+    public static final class DoubleColumn {
+        private double[] values = new double[16];
+        private int size;
+
+        public void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        public DoubleColumn merge(DoubleColumn other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+            return this;
+        }
+
+        public double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    public static final class IntColumn {
+        private int[] values = new int[16];
+        private int size;
+
+        public void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        public IntColumn merge(IntColumn other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+            return this;
+        }
+
+        public int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
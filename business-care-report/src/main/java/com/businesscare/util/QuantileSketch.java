@@ -0,0 +1,240 @@
+package com.businesscare.util;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+
+public final class QuantileSketch implements DoubleConsumer, IntConsumer {
+    public static final int DEFAULT_K = 200;
+    private static final double DECAY = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 2;
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int levelCount = 1;
+    private boolean compactOdd;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double[] sortedValues;
+    private long[] cumulativeWeights;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("La précision de l'esquisse doit être au moins 8, reçu " + k + ".");
+        }
+        this.k = k;
+        this.levels[0] = new double[k];
+    }
+
+    @Override
+    public void accept(int value) {
+        accept((double) value);
+    }
+
+    @Override
+    public void accept(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        append(0, value);
+        sortedValues = null;
+        if (sizes[0] >= capacity(0)) {
+            compress();
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        for (int level = 0; level < other.levelCount; level++) {
+            while (levelCount <= level) {
+                addLevel();
+            }
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sortedValues = null;
+        compress();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public int getRetainedItems() {
+        int retained = 0;
+        for (int level = 0; level < levelCount; level++) {
+            retained += sizes[level];
+        }
+        return retained;
+    }
+
+    public double quantile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Le rang doit être compris entre 0 et 1, reçu " + fraction + ".");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (fraction == 0) {
+            return min;
+        }
+        if (fraction == 1) {
+            return max;
+        }
+        ensureSorted();
+        long totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+        long rank = Math.max(1, (long) Math.ceil(fraction * totalWeight));
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] < rank) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return sortedValues[low];
+    }
+
+    public double[] quantiles(double... fractions) {
+        double[] values = new double[fractions.length];
+        for (int i = 0; i < fractions.length; i++) {
+            values[i] = quantile(fractions[i]);
+        }
+        return values;
+    }
+
+    public double[] equalFrequencyBounds(int bins) {
+        if (bins < 2 || count == 0) {
+            return new double[0];
+        }
+        double[] bounds = new double[bins - 1];
+        int size = 0;
+        for (int i = 1; i < bins; i++) {
+            double bound = quantile((double) i / bins);
+            if (size == 0 || bound > bounds[size - 1]) {
+                bounds[size++] = bound;
+            }
+        }
+        return Arrays.copyOf(bounds, size);
+    }
+
+    private int capacity(int level) {
+        int depth = levelCount - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+    }
+
+    private int totalCapacity() {
+        int total = 0;
+        for (int level = 0; level < levelCount; level++) {
+            total += capacity(level);
+        }
+        return total;
+    }
+
+    private void compress() {
+        while (getRetainedItems() > totalCapacity() || sizes[0] >= capacity(0)) {
+            for (int level = 0; level < levelCount; level++) {
+                if (sizes[level] >= capacity(level)) {
+                    compact(level);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void compact(int level) {
+        if (level + 1 == levelCount) {
+            addLevel();
+        }
+        double[] buffer = levels[level];
+        int size = sizes[level];
+        Arrays.sort(buffer, 0, size);
+        int kept = size % 2;
+        int offset = compactOdd ? 1 : 0;
+        compactOdd = !compactOdd;
+        for (int i = kept + offset; i < size; i += 2) {
+            append(level + 1, buffer[i]);
+        }
+        sizes[level] = kept;
+    }
+
+    private void addLevel() {
+        if (levelCount == levels.length) {
+            levels = Arrays.copyOf(levels, levelCount * 2);
+            sizes = Arrays.copyOf(sizes, levelCount * 2);
+        }
+        levels[levelCount] = new double[MIN_LEVEL_CAPACITY];
+        sizes[levelCount] = 0;
+        levelCount++;
+    }
+
+    private void append(int level, double value) {
+        double[] buffer = levels[level];
+        if (sizes[level] == buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(MIN_LEVEL_CAPACITY, buffer.length * 2));
+            levels[level] = buffer;
+        }
+        buffer[sizes[level]++] = value;
+    }
+
+    private void ensureSorted() {
+        if (sortedValues != null) {
+            return;
+        }
+        int retained = getRetainedItems();
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int position = 0;
+        for (int level = 0; level < levelCount; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                values[position] = levels[level][i];
+                weights[position] = 1L << level;
+                position++;
+            }
+        }
+        Integer[] order = new Integer[retained];
+        for (int i = 0; i < retained; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        double[] sorted = new double[retained];
+        long[] cumulative = new long[retained];
+        long running = 0;
+        for (int i = 0; i < retained; i++) {
+            sorted[i] = values[order[i]];
+            running += weights[order[i]];
+            cumulative[i] = running;
+        }
+        sortedValues = sorted;
+        cumulativeWeights = cumulative;
+    }
+}
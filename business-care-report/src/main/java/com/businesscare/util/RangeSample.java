@@ -0,0 +1,172 @@
+package com.businesscare.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public final class RangeSample {
+    public static final double Z_95 = 1.96;
+
+    private final long[] strataStarts;
+    private final int[] strataProbes;
+    private final long[] ids;
+
+    private RangeSample(long[] strataStarts, int[] strataProbes, long[] ids) {
+        this.strataStarts = strataStarts;
+        this.strataProbes = strataProbes;
+        this.ids = ids;
+    }
+
+    public static RangeSample empty() {
+        return new RangeSample(new long[] { 0 }, new int[0], new long[0]);
+    }
+
+    public static RangeSample draw(long min, long max, int size, int strata, Random random) {
+        if (max < min || size <= 0) {
+            return empty();
+        }
+        long slots = max - min + 1;
+        int strataCount = (int) Math.max(1, Math.min(Math.min(strata, size), slots));
+        long[] starts = new long[strataCount + 1];
+        for (int h = 0; h <= strataCount; h++) {
+            starts[h] = min + slots * h / strataCount;
+        }
+        int[] probes = new int[strataCount];
+        long[] ids = new long[(int) Math.min(slots, size + strataCount)];
+        int count = 0;
+        for (int h = 0; h < strataCount; h++) {
+            long width = starts[h + 1] - starts[h];
+            int wanted = (int) Math.min(width, Math.max(1, Math.round((double) size * width / slots)));
+            if (count + wanted > ids.length) {
+                ids = Arrays.copyOf(ids, count + wanted);
+            }
+            if (wanted == width) {
+                for (long id = starts[h]; id < starts[h + 1]; id++) {
+                    ids[count++] = id;
+                }
+            } else {
+                Set<Long> chosen = new HashSet<>(wanted * 2);
+                for (long j = width - wanted; j < width; j++) {
+                    long candidate = starts[h] + (long) (random.nextDouble() * (j + 1));
+                    if (!chosen.add(candidate)) {
+                        candidate = starts[h] + j;
+                        chosen.add(candidate);
+                    }
+                    ids[count++] = candidate;
+                }
+            }
+            probes[h] = wanted;
+        }
+        long[] sorted = Arrays.copyOf(ids, count);
+        Arrays.sort(sorted);
+        return new RangeSample(starts, probes, sorted);
+    }
+
+    public long[] getIds() {
+        return ids.clone();
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long getSlotCount() {
+        return strataStarts[strataStarts.length - 1] - strataStarts[0];
+    }
+
+    public int getStrataCount() {
+        return strataProbes.length;
+    }
+
+    public double getSamplingRate() {
+        long slots = getSlotCount();
+        return slots == 0 ? 1.0 : (double) ids.length / slots;
+    }
+
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    int stratumOf(long id) {
+        int position = Arrays.binarySearch(strataStarts, id);
+        return position >= 0 ? position : -position - 2;
+    }
+
+    public Totals newTotals() {
+        return new Totals();
+    }
+
+    public final class Totals {
+        private final Map<String, double[]> sums = new LinkedHashMap<>();
+        private final Map<String, double[]> squares = new LinkedHashMap<>();
+
+        public void add(String key, long id, double value) {
+            int stratum = stratumOf(id);
+            if (stratum < 0 || stratum >= strataProbes.length) {
+                throw new IllegalArgumentException("Identifiant " + id + " hors de la plage échantillonnée.");
+            }
+            double[] sum = sums.computeIfAbsent(key, k -> new double[strataProbes.length]);
+            double[] square = squares.computeIfAbsent(key, k -> new double[strataProbes.length]);
+            sum[stratum] += value;
+            square[stratum] += value * value;
+        }
+
+        public Set<String> keys() {
+            return sums.keySet();
+        }
+
+        public double estimate(String key) {
+            double[] sum = sums.get(key);
+            if (sum == null) {
+                return 0;
+            }
+            double estimate = 0;
+            for (int h = 0; h < strataProbes.length; h++) {
+                estimate += width(h) / strataProbes[h] * sum[h];
+            }
+            return estimate;
+        }
+
+        public double halfWidth(String key) {
+            double[] sum = sums.get(key);
+            if (sum == null) {
+                return 0;
+            }
+            double[] square = squares.get(key);
+            double variance = 0;
+            for (int h = 0; h < strataProbes.length; h++) {
+                int n = strataProbes[h];
+                double width = width(h);
+                if (n < 2 || n >= width) {
+                    continue;
+                }
+                double sampleVariance = Math.max(0, (square[h] - sum[h] * sum[h] / n) / (n - 1));
+                variance += width * width * (1 - n / width) * sampleVariance / n;
+            }
+            return Z_95 * Math.sqrt(variance);
+        }
+
+        public Map<String, Double> estimates() {
+            Map<String, Double> estimates = new LinkedHashMap<>();
+            for (String key : sums.keySet()) {
+                estimates.put(key, estimate(key));
+            }
+            return estimates;
+        }
+
+        public Map<String, Double> halfWidths() {
+            Map<String, Double> halfWidths = new LinkedHashMap<>();
+            for (String key : sums.keySet()) {
+                halfWidths.put(key, halfWidth(key));
+            }
+            return halfWidths;
+        }
+
+        private double width(int stratum) {
+            return strataStarts[stratum + 1] - strataStarts[stratum];
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.businesscare.util;
+
+public final class TopK {
+    private final long[] keys;
+    private final double[] scores;
+    private final boolean trackOthers;
+    private int size;
+    private long othersCount;
+    private double othersScore;
+
+    public TopK(int capacity) {
+        this(capacity, false);
+    }
+
+    public TopK(int capacity, boolean trackOthers) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacité de classement invalide : " + capacity);
+        }
+        this.keys = new long[capacity];
+        this.scores = new double[capacity];
+        this.trackOthers = trackOthers;
+    }
+
+    public void offer(long key, double score) {
+        if (size < keys.length) {
+            keys[size] = key;
+            scores[size] = score;
+            siftUp(size++);
+            return;
+        }
+        if (size > 0 && ranksBefore(key, score, keys[0], scores[0])) {
+            addToOthers(1, scores[0]);
+            keys[0] = key;
+            scores[0] = score;
+            siftDown(0);
+        } else {
+            addToOthers(1, score);
+        }
+    }
+
+    public TopK merge(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.keys[i], other.scores[i]);
+        }
+        addToOthers(other.othersCount, other.othersScore);
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public long[] keys() {
+        int[] order = order();
+        long[] ranked = new long[size];
+        for (int rank = 0; rank < size; rank++) {
+            ranked[rank] = keys[order[rank]];
+        }
+        return ranked;
+    }
+
+    public double[] scores() {
+        int[] order = order();
+        double[] ranked = new double[size];
+        for (int rank = 0; rank < size; rank++) {
+            ranked[rank] = scores[order[rank]];
+        }
+        return ranked;
+    }
+
+    public boolean hasOthers() {
+        return othersCount > 0;
+    }
+
+    public long getOthersCount() {
+        return othersCount;
+    }
+
+    public double getOthersScore() {
+        return othersScore;
+    }
+
+    private void addToOthers(long count, double score) {
+        if (trackOthers) {
+            othersCount += count;
+            othersScore += score;
+        }
+    }
+
+    private int[] order() {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            int position = i;
+            while (position > 0 && ranksBefore(keys[i], scores[i], keys[order[position - 1]], scores[order[position - 1]])) {
+                order[position] = order[position - 1];
+                position--;
+            }
+            order[position] = i;
+        }
+        return order;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(keys[parent], scores[parent], keys[index], scores[index])) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && ranksBefore(keys[worst], scores[worst], keys[left], scores[left])) {
+                worst = left;
+            }
+            if (right < size && ranksBefore(keys[worst], scores[worst], keys[right], scores[right])) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    private static boolean ranksBefore(long key, double score, long otherKey, double otherScore) {
+        int byScore = Double.compare(score, otherScore);
+        return byScore > 0 || (byScore == 0 && key < otherKey);
+    }
+}
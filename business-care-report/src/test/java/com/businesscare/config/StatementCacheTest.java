@@ -0,0 +1,63 @@
+package com.businesscare.config;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StatementCacheTest {
+    private static final String SQL = "SELECT X FROM SYSTEM_RANGE(1, 10)";
+
+    private Connection connection;
+    private StatementCache.Stats stats;
+    private StatementCache cache;
+
+    @Before
+    public void openConnection() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:statements");
+        stats = new StatementCache.Stats();
+        cache = new StatementCache(connection, 4, stats);
+    }
+
+    @After
+    public void closeConnection() throws SQLException {
+        cache.closeAll();
+        connection.close();
+    }
+
+    @Test
+    public void releasedStatementsGetDefaultSettingsBack() throws SQLException {
+        int fetchSize;
+        try (PreparedStatement statement = cache.prepare(SQL, connection)) {
+            fetchSize = statement.getFetchSize();
+            statement.setFetchSize(3);
+            statement.setMaxRows(2);
+            statement.setQueryTimeout(30);
+            assertEquals(2, count(statement));
+        }
+        try (PreparedStatement statement = cache.prepare(SQL, connection)) {
+            assertEquals(1, stats.getHits());
+            assertEquals(fetchSize, statement.getFetchSize());
+            assertEquals(0, statement.getMaxRows());
+            assertEquals(0, statement.getQueryTimeout());
+            assertEquals(10, count(statement));
+        }
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
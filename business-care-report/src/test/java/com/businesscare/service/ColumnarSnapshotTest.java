@@ -0,0 +1,96 @@
+package com.businesscare.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.businesscare.model.ClientAccount;
+import com.businesscare.model.Evenement;
+import com.businesscare.model.Prestation;
+import com.businesscare.model.Reservation;
+
+public class ColumnarSnapshotTest {
+    private Path directory;
+    private Path path;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("snapshot");
+        path = directory.resolve("snapshot.bcs");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void catalogSummaryIsComputedFromTheColumns() throws IOException {
+        ReportDataset dataset = dataset("Yoga");
+        ColumnarSnapshotWriter.write(path, dataset, StatisticsSnapshot.builder().build());
+        CatalogSummary expected = new StatisticsService().getCatalogSummary(dataset.getEvents(), dataset.getServices());
+        try (ColumnarSnapshot snapshot = ColumnarSnapshot.open(path)) {
+            CatalogSummary actual = snapshot.toCatalogSummary();
+            assertEquals(expected.getEventCountByType(), actual.getEventCountByType());
+            assertEquals(expected.getTopServicesByEventCount(), actual.getTopServicesByEventCount());
+            assertEquals(expected.getTopServicePairs(), actual.getTopServicePairs());
+            assertEquals(Arrays.asList("Massage", "Coaching", "Diététique"), new ArrayList<>(actual.getTopServicesByEventCount().keySet()));
+
+            List<Prestation> services = snapshot.toDataset().getServices();
+            assertEquals(Arrays.asList("1", "2", "3"), services.get(0).getIdEvenementsAssocies());
+            assertEquals(Arrays.asList("2"), services.get(2).getIdEvenementsAssocies());
+        }
+    }
+
+    @Test
+    public void snapshotCanBeReplacedWhileOpen() throws IOException {
+        ColumnarSnapshotWriter.write(path, dataset("Yoga"), StatisticsSnapshot.builder().build());
+        try (ColumnarSnapshot snapshot = ColumnarSnapshot.open(path)) {
+            assertEquals("Yoga", snapshot.toDataset().getEvents().get(0).getNomEvenement());
+            ColumnarSnapshotWriter.write(path, dataset("Pilates"), StatisticsSnapshot.builder().build());
+        }
+        try (ColumnarSnapshot snapshot = ColumnarSnapshot.open(path)) {
+            assertEquals("Pilates", snapshot.toDataset().getEvents().get(0).getNomEvenement());
+        }
+    }
+
+    private static ReportDataset dataset(String firstEventName) {
+        ClientAccount client = new ClientAccount("1", "Alpha", "1 rue de la Paix", "Paris", "Informatique", 100000);
+        List<Evenement> events = new ArrayList<>();
+        String[] names = { firstEventName, "Nutrition", "Ergonomie" };
+        String[] types = { "Atelier", "Conférence", "Atelier" };
+        for (int i = 0; i < names.length; i++) {
+            Evenement event = new Evenement(String.valueOf(i + 1), names[i], types[i], null, new Date(0), null, "Paris", 20);
+            event.getReservations().add(new Reservation(String.valueOf(i + 1), event.getId(), "1", "7", new Date(0), 1));
+            events.add(event);
+        }
+        List<Prestation> services = new ArrayList<>();
+        services.add(service("1", "Massage", "1", "2", "3"));
+        services.add(service("2", "Coaching", "1", "3"));
+        services.add(service("3", "Diététique", "2"));
+        services.add(service("4", "Sophrologie"));
+        return new ReportDataset(Arrays.asList(client), events, services, false, 0);
+    }
+
+    private static Prestation service(String id, String name, String... eventIds) {
+        Prestation prestation = new Prestation(id, name, "Bien-être", null, 50.0, true);
+        prestation.setIdEvenementsAssocies(new ArrayList<>(Arrays.asList(eventIds)));
+        return prestation;
+    }
+}
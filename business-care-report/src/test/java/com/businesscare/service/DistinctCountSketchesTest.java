@@ -0,0 +1,58 @@
+package com.businesscare.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DistinctCountSketchesTest {
+    private Connection connection;
+
+    @Before
+    public void createSchema() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:sketches;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE contract (id INT PRIMARY KEY, company_id INT, subscriptionTier VARCHAR(20), status VARCHAR(20), updated_at TIMESTAMP)");
+            stmt.execute("INSERT INTO contract VALUES (1, 1, 'basic', 'active', TIMESTAMP '2024-01-01 10:00:00'), "
+                    + "(2, 2, 'basic', 'active', TIMESTAMP '2024-01-02 10:00:00'), "
+                    + "(3, 3, 'premium', 'active', TIMESTAMP '2024-01-03 10:00:00')");
+        }
+    }
+
+    @After
+    public void dropSchema() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void inPlaceUpdatesTriggerARebuild() throws SQLException {
+        DatabaseService databaseService = new DatabaseService(connection);
+        DistinctCountSketches sketches = new DistinctCountSketches(DistinctCountSketches.DEFAULT_RELATIVE_ERROR, null);
+        Map<String, Long> counts = sketches.getClientCountBySubscriptionTier(databaseService);
+        assertEquals(Long.valueOf(2), counts.get("basic"));
+        assertEquals(Long.valueOf(1), counts.get("premium"));
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("UPDATE contract SET subscriptionTier = 'premium', updated_at = TIMESTAMP '2024-02-01 10:00:00' WHERE id = 1");
+        }
+        counts = sketches.getClientCountBySubscriptionTier(databaseService);
+        assertEquals(Long.valueOf(1), counts.get("basic"));
+        assertEquals(Long.valueOf(2), counts.get("premium"));
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO contract VALUES (4, 4, 'starter', 'active', TIMESTAMP '2024-03-01 10:00:00')");
+        }
+        counts = sketches.getClientCountBySubscriptionTier(databaseService);
+        assertEquals(Long.valueOf(1), counts.get("starter"));
+        assertEquals(Long.valueOf(2), counts.get("premium"));
+        assertNull(counts.get("gold"));
+    }
+}
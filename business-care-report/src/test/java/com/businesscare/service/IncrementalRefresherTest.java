@@ -0,0 +1,97 @@
+package com.businesscare.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.businesscare.model.ClientAccount;
+
+public class IncrementalRefresherTest {
+    private Connection connection;
+    private DatabaseService databaseService;
+    private IncrementalRefresher refresher;
+
+    @Before
+    public void createSchema() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:incremental;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+        execute("CREATE TABLE company (id INT PRIMARY KEY, name VARCHAR(100), address VARCHAR(100), city VARCHAR(100), industry VARCHAR(100), size VARCHAR(20), status VARCHAR(20), updated_at TIMESTAMP)",
+                "CREATE TABLE contract (id INT PRIMARY KEY, company_id INT, startDate DATE, endDate DATE, price DOUBLE, subscriptionTier VARCHAR(20), status VARCHAR(20), updated_at TIMESTAMP)",
+                "CREATE TABLE quote (id INT PRIMARY KEY, company_id INT, quote_number VARCHAR(20), created_at TIMESTAMP, estimated_annual_total DOUBLE, status VARCHAR(20))",
+                "CREATE TABLE invoice (id INT PRIMARY KEY, company_id INT, invoice_number VARCHAR(20), invoice_date DATE, total_amount DOUBLE, status VARCHAR(20), updated_at TIMESTAMP)",
+                "CREATE TABLE employee (id INT PRIMARY KEY, company_id INT)",
+                "CREATE TABLE event (id INT PRIMARY KEY, name VARCHAR(100), description VARCHAR(200), start_date TIMESTAMP, end_date TIMESTAMP, location VARCHAR(100), capacity INT, is_active TINYINT, updated_at TIMESTAMP)",
+                "CREATE TABLE booking (id INT PRIMARY KEY, event_id INT, employee_id INT, booking_date TIMESTAMP, updated_at TIMESTAMP)",
+                "CREATE TABLE provider (id INT PRIMARY KEY, full_name VARCHAR(100))",
+                "CREATE TABLE service (id INT PRIMARY KEY, title VARCHAR(100), description VARCHAR(200), price DOUBLE, is_available TINYINT, is_medical TINYINT, providerId INT, updated_at TIMESTAMP)",
+                "INSERT INTO company VALUES (1, 'Alpha', '1 rue A', 'Paris', 'Informatique', 'PME', 'ACTIVE', TIMESTAMP '2024-01-01 10:00:00'), "
+                        + "(2, 'Bravo', '2 rue B', 'Lyon', 'Santé', 'ETI', 'ACTIVE', TIMESTAMP '2023-12-01 10:00:00'), "
+                        + "(3, 'Charlie', '3 rue C', 'Lille', 'Industrie', 'GE', 'ACTIVE', TIMESTAMP '2023-12-01 10:00:00')",
+                "INSERT INTO contract VALUES (1, 1, DATE '2023-01-01', NULL, 100.0, 'basic', 'active', TIMESTAMP '2024-01-01 10:00:00'), "
+                        + "(2, 1, DATE '2023-02-01', NULL, 200.0, 'premium', 'active', TIMESTAMP '2024-01-01 10:00:00')",
+                "INSERT INTO quote VALUES (1, 3, 'D-1', TIMESTAMP '2024-01-01 10:00:00', 1000.0, 'pending')",
+                "INSERT INTO invoice VALUES (1, 2, 'F-1', DATE '2024-01-01', 300.0, 'payed', TIMESTAMP '2024-01-01 10:00:00'), "
+                        + "(2, 2, 'F-2', DATE '2024-02-01', 400.0, 'payed', TIMESTAMP '2024-01-02 10:00:00')");
+        databaseService = new DatabaseService(connection);
+        refresher = new IncrementalRefresher();
+        refresher.refresh(databaseService);
+    }
+
+    @After
+    public void dropSchema() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void reparentedRowsRefreshBothCompanies() throws SQLException {
+        execute("UPDATE contract SET company_id = 2, updated_at = TIMESTAMP '2024-03-01 10:00:00' WHERE id = 2");
+        Map<String, ClientAccount> clients = clients(refresher.refresh(databaseService));
+        assertEquals(1, clients.get("1").getAbonnements().size());
+        assertEquals(1, clients.get("2").getAbonnements().size());
+        assertEquals("2", clients.get("2").getAbonnements().get(0).getId());
+    }
+
+    @Test
+    public void deletesAreCaughtByTheRowCount() throws SQLException {
+        execute("DELETE FROM invoice WHERE id = 2");
+        ReportDataset dataset = refresher.refresh(databaseService);
+        ClientAccount bravo = clients(dataset).get("2");
+        assertEquals(1, bravo.getFactures().size());
+        assertEquals(300.0, bravo.getChiffreAffairesAnnuel(), 1e-9);
+        assertEquals(2, dataset.getReloadedCount());
+    }
+
+    @Test
+    public void tablesWithoutChangeColumnAreReloadedOnTheirOwn() throws SQLException {
+        execute("UPDATE quote SET estimated_annual_total = 1500.0 WHERE id = 1");
+        ReportDataset dataset = refresher.refresh(databaseService);
+        assertTrue(dataset.isIncremental());
+        assertEquals(2, dataset.getReloadedCount());
+        assertEquals(1500.0, clients(dataset).get("3").getDevis().get(0).getMontantTotal(), 1e-9);
+    }
+
+    private static Map<String, ClientAccount> clients(ReportDataset dataset) {
+        Map<String, ClientAccount> byId = new HashMap<>();
+        for (ClientAccount client : dataset.getClients()) {
+            byId.put(client.getId(), client);
+        }
+        return byId;
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+}
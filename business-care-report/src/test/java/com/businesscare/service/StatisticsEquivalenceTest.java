@@ -0,0 +1,357 @@
+package com.businesscare.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class StatisticsEquivalenceTest {
+    private static final double TOLERANCE = 1e-9;
+    private static Connection connection;
+    private static ReportDataset dataset;
+
+    @BeforeClass
+    public static void createFixture() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:equivalence;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH,HOUR,VALUE;DB_CLOSE_DELAY=-1");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE ALIAS weekday FOR 'com.businesscare.service.StatisticsEquivalenceTest.weekday'");
+            stmt.execute("CREATE TABLE company (id INT PRIMARY KEY, name VARCHAR(100), address VARCHAR(100), city VARCHAR(100), industry VARCHAR(100), size VARCHAR(20), status VARCHAR(20))");
+            stmt.execute("CREATE TABLE contract (id INT PRIMARY KEY, company_id INT, startDate DATE, endDate DATE, price DOUBLE, subscriptionTier VARCHAR(20), status VARCHAR(20))");
+            stmt.execute("CREATE TABLE quote (id INT PRIMARY KEY, company_id INT, quote_number VARCHAR(20), created_at TIMESTAMP, estimated_annual_total DOUBLE, status VARCHAR(20))");
+            stmt.execute("CREATE TABLE invoice (id INT PRIMARY KEY, company_id INT, invoice_number VARCHAR(20), invoice_date DATE, total_amount DOUBLE, status VARCHAR(20))");
+            stmt.execute("CREATE TABLE employee (id INT PRIMARY KEY, company_id INT)");
+            stmt.execute("CREATE TABLE event (id INT PRIMARY KEY, name VARCHAR(100), description VARCHAR(200), start_date TIMESTAMP, end_date TIMESTAMP, location VARCHAR(100), capacity INT, is_active TINYINT)");
+            stmt.execute("CREATE TABLE booking (id INT PRIMARY KEY, event_id INT, employee_id INT, booking_date TIMESTAMP)");
+            stmt.execute("CREATE TABLE provider (id INT PRIMARY KEY, full_name VARCHAR(100))");
+            stmt.execute("CREATE TABLE service (id INT PRIMARY KEY, title VARCHAR(100), description VARCHAR(200), price DOUBLE, is_available TINYINT, is_medical TINYINT, providerId INT)");
+        }
+
+        insert("INSERT INTO company VALUES (?, ?, ?, ?, ?, ?, ?)",
+                row(1, "Alpha", "1 rue A", "Paris", "Informatique", "PME", "ACTIVE"),
+                row(2, "Bravo", "2 rue B", "Lyon", "Santé", "ETI", "ACTIVE"),
+                row(3, "Charlie", "3 rue C", "Paris", "Informatique", "PME", "ACTIVE"),
+                row(4, "Delta", "4 rue D", "Lille", "Finance", "GE", "ACTIVE"),
+                row(5, "Echo", "5 rue E", "Nantes", "Santé", "PME", "ACTIVE"),
+                row(6, "Foxtrot", "6 rue F", "Lyon", "Commerce", "TPE", "ACTIVE"),
+                row(7, "Golf", "7 rue G", "Paris", "Transport", "ETI", "ACTIVE"),
+                row(8, "Hotel", "8 rue H", "Nice", "Énergie", null, "ACTIVE"),
+                row(9, "India", "9 rue I", "Paris", "Informatique", "GE", "INACTIVE"),
+                row(10, "Juliet", "10 rue J", "Brest", "Industrie", "PME", "INACTIVE"));
+
+        insert("INSERT INTO contract VALUES (?, ?, ?, ?, ?, ?, ?)",
+                row(1, 1, date(2023, 1, 15), null, 1200.0, "starter", "active"),
+                row(2, 1, date(2023, 6, 1), date(2025, 6, 1), 4800.0, "premium", "active"),
+                row(3, 2, date(2023, 3, 10), date(2024, 3, 10), 2400.0, "basic", "active"),
+                row(4, 3, date(2023, 6, 20), null, 18000.0, "premium", "active"),
+                row(5, 4, date(2024, 1, 5), null, 1200.0, "starter", "active"),
+                row(6, 5, date(2024, 1, 25), date(2030, 1, 1), 60000.0, "custom", "active"),
+                row(7, 6, date(2024, 2, 1), date(2024, 8, 1), 2400.0, "basic", "active"),
+                row(8, 8, date(2024, 2, 14), null, 15000.0, "premium", "active"),
+                row(9, 9, date(2023, 9, 1), null, 90000.0, "premium", "active"),
+                row(10, 10, date(2024, 2, 1), null, 2400.0, "basic", "active"),
+                row(11, 7, date(2023, 4, 1), date(2023, 10, 1), 3000.0, "basic", "expired"),
+                row(12, 2, date(2022, 11, 1), null, 500.0, "starter", "cancelled"));
+
+        insert("INSERT INTO quote VALUES (?, ?, ?, ?, ?, ?)",
+                row(1, 1, "D-001", timestamp(2023, 1, 2, 10, 0), 1500.0, "accepted"),
+                row(2, 4, "D-002", timestamp(2023, 12, 12, 11, 30), 1200.0, "pending"),
+                row(3, 9, "D-003", timestamp(2023, 8, 20, 9, 0), 90000.0, "sent"));
+
+        insert("INSERT INTO invoice VALUES (?, ?, ?, ?, ?, ?)",
+                row(1, 1, "F-001", date(2024, 1, 10), 3000.0, "payed"),
+                row(2, 1, "F-002", date(2024, 2, 10), 2000.0, "payed"),
+                row(3, 2, "F-003", date(2024, 1, 12), 3000.0, "payed"),
+                row(4, 3, "F-004", date(2024, 3, 3), 3000.0, "payed"),
+                row(5, 4, "F-005", date(2024, 3, 15), 2000.0, "payed"),
+                row(6, 5, "F-006", date(2024, 4, 1), 1000.0, "payed"),
+                row(7, 6, "F-007", date(2024, 4, 2), 1000.0, "payed"),
+                row(8, 7, "F-008", date(2024, 4, 3), 700.0, "pending"),
+                row(9, 8, "F-009", date(2024, 2, 20), 400.0, "overdue"),
+                row(10, 2, "F-010", date(2024, 2, 21), 100.0, "cancelled"),
+                row(11, 9, "F-011", date(2024, 1, 5), 9000.0, "payed"),
+                row(12, 10, "F-012", date(2024, 5, 5), 800.0, "payed"));
+
+        List<Object[]> employees = new ArrayList<>();
+        for (int company = 1; company <= 10; company++) {
+            employees.add(row(company * 10 + 1, company));
+            employees.add(row(company * 10 + 2, company));
+        }
+        insert("INSERT INTO employee VALUES (?, ?)", employees.toArray(new Object[0][]));
+
+        insert("INSERT INTO event VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                row(1, "Atelier sommeil", "Atelier", timestamp(2024, 2, 5, 14, 0), timestamp(2024, 2, 5, 16, 0), "Paris", 30, 1),
+                row(2, "Yoga", "Séance", timestamp(2024, 2, 12, 9, 0), timestamp(2024, 2, 12, 10, 0), "Lyon", 60, 1),
+                row(3, "Nutrition", "Conférence", timestamp(2024, 3, 7, 12, 0), timestamp(2024, 3, 7, 13, 0), "Paris", 120, 1),
+                row(4, "Gestion du stress", "Atelier", timestamp(2024, 3, 14, 15, 0), timestamp(2024, 3, 14, 17, 0), "Lille", 250, 1),
+                row(5, "Ergonomie", "Atelier", timestamp(2024, 1, 22, 10, 0), timestamp(2024, 1, 22, 12, 0), "Nantes", 80, 1),
+                row(6, "Webinaire santé", "En ligne", timestamp(2024, 1, 29, 18, 0), timestamp(2024, 1, 29, 19, 0), "En ligne", 0, 1),
+                row(7, "Marche solidaire", "Sortie", timestamp(2024, 4, 6, 8, 0), timestamp(2024, 4, 6, 12, 0), "Nice", 45, 1),
+                row(8, "Séminaire annulé", "Séminaire", timestamp(2024, 2, 28, 9, 0), timestamp(2024, 2, 28, 18, 0), "Paris", 500, 0));
+
+        int[] bookingsPerEvent = { 0, 4, 3, 3, 2, 2, 2, 1, 6 };
+        int[] bookingEmployees = { 11, 11, 12, 21, 31, 32, 41, 51, 52, 61, 71, 81, 91, 92, 101 };
+        List<Object[]> bookings = new ArrayList<>();
+        int bookingId = 1;
+        for (int event = 1; event < bookingsPerEvent.length; event++) {
+            for (int i = 0; i < bookingsPerEvent[event]; i++) {
+                int employee = bookingEmployees[(bookingId * 7) % bookingEmployees.length];
+                LocalDateTime bookedAt = LocalDateTime.of(2024, 1, 8, 7, 30).plusDays(bookingId * 3L).plusHours(bookingId * 5L);
+                bookings.add(row(bookingId++, event, employee, Timestamp.valueOf(bookedAt)));
+            }
+        }
+        insert("INSERT INTO booking VALUES (?, ?, ?, ?)", bookings.toArray(new Object[0][]));
+
+        insert("INSERT INTO provider VALUES (?, ?)",
+                row(1, "Prestataire Un"), row(2, "Prestataire Deux"), row(3, "Prestataire Trois"), row(4, "Prestataire Quatre"),
+                row(5, "Prestataire Cinq"), row(6, "Prestataire Six"), row(7, "Prestataire Sept"));
+
+        insert("INSERT INTO service VALUES (?, ?, ?, ?, ?, ?, ?)",
+                row(1, "Massage", "Massage assis", 45.0, 1, 0, 7),
+                row(2, "Coaching", "Coaching individuel", 150.0, 1, 0, 5),
+                row(3, "Consultation", "Consultation médicale", 50.0, 1, 1, 6),
+                row(4, "Bilan", "Bilan de santé", 250.0, 0, 1, 3),
+                row(5, "Méditation", "Séance collective", 20.0, 1, 0, 4),
+                row(6, "Sophrologie", "Séance individuelle", 75.0, 1, 0, 1),
+                row(7, "Ostéopathie", "Consultation", 100.0, 0, 1, 3),
+                row(8, "Diététique", "Suivi", 90.0, 1, 1, 6),
+                row(9, "Pilates", "Cours", 30.0, 1, 0, 2),
+                row(10, "Psychologie", "Consultation", 300.0, 1, 1, 3),
+                row(11, "Yoga", "Cours", 60.0, 0, 0, 1),
+                row(12, "Atelier", "Sans prestataire", 120.0, 1, 0, null));
+
+        DatabaseService databaseService = new DatabaseService(connection);
+        dataset = new ReportDataset(databaseService.getAllClientAccounts(), databaseService.getAllEvenements(), databaseService.getAllPrestations(), false, 0)
+                .withHistory(databaseService.getInactiveClientAccounts(), databaseService.getContractHistory());
+    }
+
+    @AfterClass
+    public static void closeFixture() throws SQLException {
+        connection.close();
+    }
+
+    public static Integer weekday(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().getDayOfWeek().getValue() - 1;
+    }
+
+    @Test
+    public void sqlAndInMemorySnapshotsMatch() {
+        assertEquivalent(databaseSnapshot(false, false), inMemorySnapshot(false));
+    }
+
+    @Test
+    public void singleRoundTripAndInMemorySnapshotsMatch() {
+        assertEquivalent(databaseSnapshot(true, false), inMemorySnapshot(false));
+    }
+
+    @Test
+    public void sqlAndInMemorySnapshotsMatchWithAutomaticTranches() {
+        assertEquivalent(databaseSnapshot(false, true), inMemorySnapshot(true));
+    }
+
+    @Test
+    public void singleRoundTripAndInMemorySnapshotsMatchWithAutomaticTranches() {
+        assertEquivalent(databaseSnapshot(true, true), inMemorySnapshot(true));
+    }
+
+    @Test
+    public void singleRoundTripMatchesPerMetricQueries() throws SQLException {
+        RawStatistics raw = new DatabaseService(multiStatementConnection()).getStatisticsBatch(StatisticsService.TOP_N, true, true);
+        assertEquals(new ArrayList<>(databaseSnapshot(false, false).getTopClientsByTotalPaid().keySet()), new ArrayList<>(raw.topClientsByTotalPaid.keySet()));
+        assertEquals(databaseSnapshot(false, false), databaseSnapshot(true, false));
+    }
+
+    @Test
+    public void inactiveCompaniesCountInContractAndInvoiceMetricsAndTiesAreBrokenById() {
+        StatisticsSnapshot snapshot = databaseSnapshot(true, false);
+        assertEquals(Arrays.asList("India", "Alpha", "Bravo", "Charlie", "Delta"), new ArrayList<>(snapshot.getTopClientsByTotalPaid().keySet()));
+        assertEquals(Arrays.asList("Atelier sommeil", "Yoga", "Nutrition", "Gestion du stress", "Ergonomie"), new ArrayList<>(snapshot.getTopEventsByBooking().keySet()));
+        assertEquals(Arrays.asList("Prestataire Trois", "Prestataire Un", "Prestataire Six", "Prestataire Deux", "Prestataire Quatre"),
+                new ArrayList<>(snapshot.getTopProvidersByServiceCount().keySet()));
+        assertEquals(Arrays.asList("Informatique", "Santé", "Commerce", "Finance", "Transport", "Autres"), new ArrayList<>(snapshot.getClientCountByIndustry().keySet()));
+        assertEquals(Long.valueOf(4), snapshot.getClientCountBySubscriptionTier().get("premium"));
+        assertEquals(Long.valueOf(3), snapshot.getClientCountBySubscriptionTier().get("basic"));
+        assertEquals(Long.valueOf(1), snapshot.getClientCountBySize().get("GE"));
+        assertEquals(Arrays.asList("Atelier sommeil", "Yoga", "Nutrition", "Ergonomie", "Marche solidaire"), new ArrayList<>(snapshot.getMostFilledEvents().keySet()));
+        assertEquals(Arrays.asList("Gestion du stress", "Marche solidaire", "Nutrition", "Ergonomie", "Yoga"), new ArrayList<>(snapshot.getLeastFilledEvents().keySet()));
+    }
+
+    @Test
+    public void sampledBookingAnalyticsComeFromTheSampledBookings() {
+        StatisticsService service = new StatisticsService(new DatabaseService(connection));
+        service.setSampling(new SamplingPlan(1000, 4));
+        StatisticsSnapshot sampled = service.loadSnapshot();
+        StatisticsSnapshot exact = databaseSnapshot(false, false);
+        assertTrue(sampled.isSampled());
+        assertEquals(exact.getBookingsByWeekdayHour(), sampled.getBookingsByWeekdayHour());
+        assertEquals(exact.getBookingLeadTimeDistribution(), sampled.getBookingLeadTimeDistribution());
+        assertEquals(exact.getTopCompaniesByBooking(), sampled.getTopCompaniesByBooking());
+        assertEquals(exact.getBookingSummary().get("Réservations analysées"), sampled.getBookingSummary().get("Réservations analysées"));
+        assertFalse(sampled.getBookingSummary().containsKey("Collaborateurs participants"));
+    }
+
+    @Test
+    public void sampledAutomaticTranchesComeFromTheSampledRows() {
+        StatisticsService service = new StatisticsService(new DatabaseService(connection));
+        service.setSampling(new SamplingPlan(1000, 4));
+        service.setAutomaticTranches(true);
+        StatisticsSnapshot sampled = service.loadSnapshot();
+        StatisticsSnapshot exact = databaseSnapshot(false, true);
+        assertTrue(sampled.isSampled());
+        assertEquals(exact.getClientRevenuePercentiles(), sampled.getClientRevenuePercentiles());
+        assertEquals(exact.getEventCapacityPercentiles(), sampled.getEventCapacityPercentiles());
+        assertEquals(exact.getServicePricePercentiles(), sampled.getServicePricePercentiles());
+        assertEquals(exact.getClientRevenueDistribution(), sampled.getClientRevenueDistribution());
+        assertEquals(exact.getEventDistributionByCapacity(), sampled.getEventDistributionByCapacity());
+        assertEquals(exact.getServiceDistributionByCost(), sampled.getServiceDistributionByCost());
+    }
+
+    private static StatisticsSnapshot databaseSnapshot(boolean singleRoundTrip, boolean automaticTranches) {
+        StatisticsService service = new StatisticsService(new DatabaseService(singleRoundTrip ? multiStatementConnection() : connection));
+        service.setSingleRoundTrip(singleRoundTrip);
+        service.setAutomaticTranches(automaticTranches);
+        return service.loadSnapshot();
+    }
+
+    private static StatisticsSnapshot inMemorySnapshot(boolean automaticTranches) {
+        InMemoryStatisticsService service = new InMemoryStatisticsService(dataset);
+        service.setAutomaticTranches(automaticTranches);
+        return service.loadSnapshot();
+    }
+
+    private static void assertEquivalent(StatisticsSnapshot sql, StatisticsSnapshot memory) {
+        assertSameCounts("clientCountBySubscriptionTier", sql.getClientCountBySubscriptionTier(), memory.getClientCountBySubscriptionTier(), false);
+        assertSameCounts("clientRevenueDistribution", sql.getClientRevenueDistribution(), memory.getClientRevenueDistribution(), true);
+        assertSameCounts("clientCountBySize", sql.getClientCountBySize(), memory.getClientCountBySize(), false);
+        assertSameCounts("clientCountByIndustry", sql.getClientCountByIndustry(), memory.getClientCountByIndustry(), true);
+        assertSameCounts("topClientsByTotalPaid", sql.getTopClientsByTotalPaid(), memory.getTopClientsByTotalPaid(), true);
+        assertEquals("eventCountByMonth", sql.getEventCountByMonth(), memory.getEventCountByMonth());
+        assertSameCounts("eventDistributionByCapacity", sql.getEventDistributionByCapacity(), memory.getEventDistributionByCapacity(), true);
+        assertSameCounts("eventStatusCounts", sql.getEventStatusCounts(), memory.getEventStatusCounts(), false);
+        assertSameCounts("topEventsByBooking", sql.getTopEventsByBooking(), memory.getTopEventsByBooking(), true);
+        assertSameCounts("serviceCountByType", sql.getServiceCountByType(), memory.getServiceCountByType(), false);
+        assertSameCounts("serviceDistributionByCost", sql.getServiceDistributionByCost(), memory.getServiceDistributionByCost(), true);
+        assertSameCounts("topProvidersByServiceCount", sql.getTopProvidersByServiceCount(), memory.getTopProvidersByServiceCount(), true);
+        assertSameCounts("serviceAvailabilityDistribution", sql.getServiceAvailabilityDistribution(), memory.getServiceAvailabilityDistribution(), false);
+        assertSameCounts("clientRevenuePercentiles", sql.getClientRevenuePercentiles(), memory.getClientRevenuePercentiles(), true);
+        assertSameCounts("eventCapacityPercentiles", sql.getEventCapacityPercentiles(), memory.getEventCapacityPercentiles(), true);
+        assertSameCounts("servicePricePercentiles", sql.getServicePricePercentiles(), memory.getServicePricePercentiles(), true);
+        assertSameCounts("approximateErrorBounds", sql.getApproximateErrorBounds(), memory.getApproximateErrorBounds(), false);
+        assertSameCounts("eventFillRateDistribution", sql.getEventFillRateDistribution(), memory.getEventFillRateDistribution(), true);
+        assertSameCounts("eventUtilizationSummary", sql.getEventUtilizationSummary(), memory.getEventUtilizationSummary(), true);
+        assertSameCounts("mostFilledEvents", sql.getMostFilledEvents(), memory.getMostFilledEvents(), true);
+        assertSameCounts("leastFilledEvents", sql.getLeastFilledEvents(), memory.getLeastFilledEvents(), true);
+        assertSameCounts("contractCohortCounts", sql.getContractCohortCounts(), memory.getContractCohortCounts(), false);
+        assertEquals("paidInvoicesByMonth", sql.getPaidInvoicesByMonth(), memory.getPaidInvoicesByMonth());
+        assertEquals("newContractsByMonth", sql.getNewContractsByMonth(), memory.getNewContractsByMonth());
+        assertSameCounts("confidenceIntervals", sql.getConfidenceIntervals(), memory.getConfidenceIntervals(), false);
+        assertSameCounts("samplingRates", sql.getSamplingRates(), memory.getSamplingRates(), false);
+        assertSameCounts("bookingSummary", sql.getBookingSummary(), memory.getBookingSummary(), true);
+        assertSameCounts("bookingsByWeekdayHour", sql.getBookingsByWeekdayHour(), memory.getBookingsByWeekdayHour(), true);
+        assertSameCounts("bookingLeadTimeDistribution", sql.getBookingLeadTimeDistribution(), memory.getBookingLeadTimeDistribution(), true);
+        assertSameCounts("bookingAttendanceDistribution", sql.getBookingAttendanceDistribution(), memory.getBookingAttendanceDistribution(), true);
+        assertSameCounts("topCompaniesByBooking", sql.getTopCompaniesByBooking(), memory.getTopCompaniesByBooking(), true);
+        assertEquals(sql, memory);
+    }
+
+    private static void assertSameCounts(String metric, Map<String, ? extends Number> sql, Map<String, ? extends Number> memory, boolean ordered) {
+        if (ordered) {
+            assertEquals(metric, new ArrayList<>(sql.keySet()), new ArrayList<>(memory.keySet()));
+        } else {
+            assertEquals(metric, sql.keySet(), memory.keySet());
+        }
+        for (Map.Entry<String, ? extends Number> entry : sql.entrySet()) {
+            assertEquals(metric + "." + entry.getKey(), entry.getValue().doubleValue(), memory.get(entry.getKey()).doubleValue(), TOLERANCE);
+        }
+    }
+
+    private static Connection multiStatementConnection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+            if ("createStatement".equals(method.getName()) && method.getParameterCount() == 0) {
+                return multiStatement();
+            }
+            return invoke(connection, method, args);
+        });
+    }
+
+    private static Statement multiStatement() throws SQLException {
+        Statement delegate = connection.createStatement();
+        List<Statement> statements = new ArrayList<>();
+        List<ResultSet> results = new ArrayList<>();
+        int[] current = new int[1];
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { Statement.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "execute":
+                    for (String sql : ((String) args[0]).split(";\n")) {
+                        Statement statement = connection.createStatement();
+                        statements.add(statement);
+                        results.add(statement.executeQuery(sql));
+                    }
+                    return !results.isEmpty();
+                case "getResultSet":
+                    return current[0] < results.size() ? results.get(current[0]) : null;
+                case "getMoreResults":
+                    return ++current[0] < results.size();
+                case "getUpdateCount":
+                    return -1;
+                case "close":
+                    for (Statement statement : statements) {
+                        statement.close();
+                    }
+                    return invoke(delegate, method, args);
+                default:
+                    return invoke(delegate, method, args);
+            }
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void insert(String sql, Object[]... rows) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    pstmt.setObject(i + 1, row[i]);
+                }
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static Object[] row(Object... values) {
+        return values;
+    }
+
+    private static java.sql.Date date(int year, int month, int day) {
+        return java.sql.Date.valueOf(java.time.LocalDate.of(year, month, day));
+    }
+
+    private static Timestamp timestamp(int year, int month, int day, int hour, int minute) {
+        return Timestamp.valueOf(LocalDateTime.of(year, month, day, hour, minute));
+    }
+}
@@ -0,0 +1,90 @@
+package com.businesscare.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class CompressedBitmapTest {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final long BITMAP_BYTES = 8192;
+
+    @Test
+    public void arrayContainerConvertsToBitmapBeyondTheLimit() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < ARRAY_LIMIT - 1; i++) {
+            bitmap.add(i * 3);
+        }
+        assertEquals(2 + 2L * (ARRAY_LIMIT - 1), bitmap.getSizeInBytes());
+        bitmap.add(0);
+        assertEquals(ARRAY_LIMIT - 1, bitmap.cardinality());
+        bitmap.add(1);
+        bitmap.add(2);
+        assertEquals(ARRAY_LIMIT + 1, bitmap.cardinality());
+        assertEquals(2 + BITMAP_BYTES, bitmap.getSizeInBytes());
+        for (int i = 0; i < ARRAY_LIMIT - 1; i++) {
+            assertTrue(bitmap.contains(i * 3));
+            assertFalse(bitmap.contains(i * 3 + 1) && i > 0);
+        }
+        bitmap.add(65_535);
+        assertEquals(2 + BITMAP_BYTES, bitmap.getSizeInBytes());
+    }
+
+    @Test
+    public void operationsNormalizeBackToArrays() {
+        CompressedBitmap all = CompressedBitmap.range(10_000);
+        assertEquals(2 + BITMAP_BYTES, all.getSizeInBytes());
+        CompressedBitmap most = CompressedBitmap.range(9_990);
+        CompressedBitmap tail = all.andNot(most);
+        assertArrayEquals(new int[] { 9990, 9991, 9992, 9993, 9994, 9995, 9996, 9997, 9998, 9999 }, tail.toArray());
+        assertEquals(2 + 2L * 10, tail.getSizeInBytes());
+        assertEquals(2 + BITMAP_BYTES, tail.or(most).getSizeInBytes());
+    }
+
+    @Test
+    public void setOperationsMatchReferenceSets() {
+        Random random = new Random(17);
+        CompressedBitmap left = new CompressedBitmap();
+        CompressedBitmap right = new CompressedBitmap();
+        TreeSet<Integer> leftSet = new TreeSet<>();
+        TreeSet<Integer> rightSet = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(200_000);
+            left.add(value);
+            leftSet.add(value);
+            int dense = random.nextInt(6_000);
+            right.add(dense);
+            rightSet.add(dense);
+        }
+        for (int i = 0; i < 3_000; i++) {
+            int value = 131_072 + random.nextInt(1_000);
+            right.add(value);
+            rightSet.add(value);
+        }
+        TreeSet<Integer> and = new TreeSet<>(leftSet);
+        and.retainAll(rightSet);
+        TreeSet<Integer> or = new TreeSet<>(leftSet);
+        or.addAll(rightSet);
+        TreeSet<Integer> andNot = new TreeSet<>(leftSet);
+        andNot.removeAll(rightSet);
+        assertArrayEquals(toArray(leftSet), left.toArray());
+        assertArrayEquals(toArray(and), left.and(right).toArray());
+        assertArrayEquals(toArray(or), left.or(right).toArray());
+        assertArrayEquals(toArray(andNot), left.andNot(right).toArray());
+        assertEquals(or.size(), right.or(left).cardinality());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeValuesAreRejected() {
+        new CompressedBitmap().add(-1);
+    }
+
+    private static int[] toArray(TreeSet<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
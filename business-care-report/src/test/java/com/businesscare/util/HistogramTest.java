@@ -0,0 +1,67 @@
+package com.businesscare.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class HistogramTest {
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void lowerInclusiveBoundsOpenTheNextBin() {
+        Histogram histogram = Histogram.lowerInclusive(new double[] { 0, 1, 7 }, new String[] { "a", "b", "c", "d" });
+        assertEquals(0, histogram.binOf(-0.5));
+        assertEquals(1, histogram.binOf(0));
+        assertEquals(1, histogram.binOf(0.99));
+        assertEquals(2, histogram.binOf(1));
+        assertEquals(2, histogram.binOf(6.99));
+        assertEquals(3, histogram.binOf(7));
+        assertEquals(3, histogram.binOf(Double.MAX_VALUE));
+        assertEquals(-1, histogram.binOf(Double.NaN));
+    }
+
+    @Test
+    public void upperInclusiveBoundsCloseTheirBinAndRespectTheFloor() {
+        Histogram histogram = Histogram.upperInclusive(new double[] { 1, 2, 5 }, 1, new String[] { "1", "2", "3 - 5", "> 5" });
+        assertEquals(-1, histogram.binOf(0.99));
+        assertEquals(0, histogram.binOf(1));
+        assertEquals(1, histogram.binOf(1.5));
+        assertEquals(1, histogram.binOf(2));
+        assertEquals(2, histogram.binOf(5));
+        assertEquals(3, histogram.binOf(5.01));
+        assertEquals(1.0, histogram.getFloor(), TOLERANCE);
+    }
+
+    @Test
+    public void valuesBelowTheFloorCountInTotalsOnly() {
+        Histogram histogram = Histogram.upperInclusive(new double[] { 10, 20 }, 0, Histogram.integerRangeLabels(new double[] { 10, 20 }, 0));
+        Histogram.Accumulator accumulator = histogram.count(new double[] { -5, 0, 10, 10.5, 20, 25, Double.NaN });
+        assertEquals(7, accumulator.getTotal());
+        assertEquals(2, accumulator.getCount(0));
+        assertEquals(2, accumulator.getCount(1));
+        assertEquals(1, accumulator.getCount(2));
+        assertEquals(30.5, accumulator.getSum(1), TOLERANCE);
+        assertEquals(Arrays.asList("0 - 10", "10 - 20", "> 20"), Arrays.asList(accumulator.toCountMap().keySet().toArray()));
+        assertEquals(Arrays.asList(2L, 2L, 1L), Arrays.asList(accumulator.toCountMap().values().toArray()));
+    }
+
+    @Test
+    public void addBinMatchesAcceptedValues() {
+        Histogram histogram = Histogram.lowerInclusive(new double[] { 100, 500 }, Histogram.euroLabels(new double[] { 100, 500 }));
+        Histogram.Accumulator accepted = histogram.count(new int[] { 50, 100, 499, 500, 900 });
+        Histogram.Accumulator added = histogram.newAccumulator();
+        added.addBin(0, 1, 50);
+        added.addBin(1, 2, 599);
+        added.addBin(2, 2, 1400);
+        assertEquals(accepted.toCountMap(), added.toCountMap());
+        assertEquals(accepted.toSumMap(), added.toSumMap());
+        assertEquals(accepted.getTotalSum(), added.getTotalSum(), TOLERANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void boundsMustBeStrictlyIncreasing() {
+        Histogram.lowerInclusive(new double[] { 1, 1 }, new String[] { "a", "b", "c" });
+    }
+}
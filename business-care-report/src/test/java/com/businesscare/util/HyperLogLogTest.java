@@ -0,0 +1,84 @@
+package com.businesscare.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+    @Test
+    public void smallRangeUsesLinearCounting() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        assertEquals(0, sketch.estimate());
+        for (long value = 1; value <= 1000; value++) {
+            sketch.addLong(value);
+            if (value == 1 || value == 10) {
+                assertEquals(value, sketch.estimate());
+            } else if (value == 100) {
+                assertEquals(value, sketch.estimate(), 1);
+            }
+        }
+        assertEquals(1000, sketch.estimate(), 10);
+    }
+
+    @Test
+    public void duplicatesAreIgnored() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int round = 0; round < 5; round++) {
+            for (int value = 0; value < 50; value++) {
+                sketch.addString("entreprise-" + value);
+            }
+        }
+        assertEquals(50, sketch.estimate());
+    }
+
+    @Test
+    public void largeRangeStaysWithinRelativeError() {
+        HyperLogLog sketch = HyperLogLog.withRelativeError(0.01);
+        long count = 500_000;
+        for (long value = 0; value < count; value++) {
+            sketch.addLong(value);
+        }
+        assertEquals(count, sketch.estimate(), 3 * sketch.getRelativeError() * count);
+    }
+
+    @Test
+    public void mergeEstimatesTheUnion() {
+        HyperLogLog left = new HyperLogLog(14);
+        HyperLogLog right = new HyperLogLog(14);
+        HyperLogLog union = new HyperLogLog(14);
+        for (long value = 0; value < 30_000; value++) {
+            left.addLong(value);
+            union.addLong(value);
+        }
+        for (long value = 20_000; value < 50_000; value++) {
+            right.addLong(value);
+            union.addLong(value);
+        }
+        left.merge(right);
+        assertEquals(union.estimate(), left.estimate());
+    }
+
+    @Test
+    public void registersRoundTrip() throws IOException {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (long value = 0; value < 5000; value++) {
+            sketch.addLong(value * 31);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+        HyperLogLog read = HyperLogLog.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(10, read.getPrecision());
+        assertEquals(sketch.estimate(), read.estimate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeRejectsDifferentPrecisions() {
+        new HyperLogLog(10).merge(new HyperLogLog(12));
+    }
+}
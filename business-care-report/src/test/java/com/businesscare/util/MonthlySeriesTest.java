@@ -0,0 +1,82 @@
+package com.businesscare.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class MonthlySeriesTest {
+    private static final int JANUARY_2024 = MonthlySeries.monthOf(YearMonth.of(2024, 1));
+
+    @Test
+    public void buildTrimsZeroEdges() {
+        MonthlySeries series = new MonthlySeries.Builder()
+                .add(JANUARY_2024 + 2, 0)
+                .add(JANUARY_2024 + 4, 5)
+                .add(JANUARY_2024, 0)
+                .add(JANUARY_2024 + 6, 0)
+                .add(JANUARY_2024 + 5, 0)
+                .add(JANUARY_2024 + 3, 2)
+                .add(JANUARY_2024 + 30, 0)
+                .build();
+        assertEquals(JANUARY_2024 + 3, series.getFirstMonth());
+        assertEquals(JANUARY_2024 + 4, series.getLastMonth());
+        assertEquals(2, series.size());
+        assertEquals(2.0, series.get(0), 0);
+        assertEquals(5.0, series.get(1), 0);
+        assertEquals(0.0, series.valueAt(JANUARY_2024), 0);
+    }
+
+    @Test
+    public void interiorZerosAreKept() {
+        MonthlySeries series = new MonthlySeries.Builder()
+                .add(JANUARY_2024 + 5, 1)
+                .add(JANUARY_2024 + 1, 3)
+                .add(JANUARY_2024 + 5, 1)
+                .build();
+        assertEquals(5, series.size());
+        assertEquals(3.0, series.valueAt(JANUARY_2024 + 1), 0);
+        assertEquals(0.0, series.valueAt(JANUARY_2024 + 3), 0);
+        assertEquals(2.0, series.valueAt(JANUARY_2024 + 5), 0);
+    }
+
+    @Test
+    public void allZeroSeriesIsEmpty() {
+        MonthlySeries series = new MonthlySeries.Builder().add(JANUARY_2024, 0).add(JANUARY_2024 + 3, 0).build();
+        assertTrue(series.isEmpty());
+        assertEquals(MonthlySeries.empty(), series);
+    }
+
+    @Test
+    public void mergeAddsOverlappingMonths() {
+        MonthlySeries.Builder left = new MonthlySeries.Builder().add(JANUARY_2024, 1).add(JANUARY_2024 + 1, 2);
+        MonthlySeries.Builder right = new MonthlySeries.Builder().add(JANUARY_2024 - 1, 4).add(JANUARY_2024 + 1, 3);
+        MonthlySeries series = left.merge(right).build();
+        assertEquals(JANUARY_2024 - 1, series.getFirstMonth());
+        assertEquals(4.0, series.get(0), 0);
+        assertEquals(1.0, series.get(1), 0);
+        assertEquals(5.0, series.get(2), 0);
+    }
+
+    @Test
+    public void mapRoundTripUsesYearMonthLabels() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        values.put("2023-12", 0.0);
+        values.put("2024-01", 10.0);
+        values.put("2024-03", 7.5);
+        values.put("inconnu", 1.0);
+        values.put("2024-xx", 1.0);
+        values.put("2024-05", 0.0);
+        MonthlySeries series = MonthlySeries.fromMap(values);
+        Map<String, Double> expected = new LinkedHashMap<>();
+        expected.put("2024-01", 10.0);
+        expected.put("2024-02", 0.0);
+        expected.put("2024-03", 7.5);
+        assertEquals(expected, series.toMap());
+        assertEquals(JANUARY_2024, MonthlySeries.parse(MonthlySeries.format(JANUARY_2024)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.businesscare.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class QuantileSketchTest {
+    private static final int COUNT = 200_000;
+    private static final double RANK_ERROR = 0.02;
+
+    @Test
+    public void smallInputsAreExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int value = 100; value >= 1; value--) {
+            sketch.accept(value);
+        }
+        assertEquals(100, sketch.getRetainedItems());
+        assertEquals(50.0, sketch.quantile(0.5), 0);
+        assertEquals(90.0, sketch.quantile(0.9), 0);
+        assertEquals(1.0, sketch.quantile(0), 0);
+        assertEquals(100.0, sketch.quantile(1), 0);
+    }
+
+    @Test
+    public void compactionBoundsRetainedItems() {
+        QuantileSketch sketch = shuffled(0, COUNT, new Random(7));
+        assertEquals(COUNT, sketch.getCount());
+        assertTrue("Éléments conservés : " + sketch.getRetainedItems(), sketch.getRetainedItems() < 4 * QuantileSketch.DEFAULT_K);
+        assertEquals(0.0, sketch.getMin(), 0);
+        assertEquals(COUNT - 1.0, sketch.getMax(), 0);
+    }
+
+    @Test
+    public void rankErrorStaysWithinBounds() {
+        QuantileSketch sketch = shuffled(0, COUNT, new Random(11));
+        assertRankError(sketch);
+    }
+
+    @Test
+    public void mergedSketchesKeepRankError() {
+        Random random = new Random(13);
+        QuantileSketch sketch = shuffled(0, COUNT / 2, random);
+        sketch.merge(shuffled(COUNT / 2, COUNT, random));
+        assertEquals(COUNT, sketch.getCount());
+        assertTrue(sketch.getRetainedItems() < 4 * QuantileSketch.DEFAULT_K);
+        assertRankError(sketch);
+    }
+
+    @Test
+    public void equalFrequencyBoundsAreStrictlyIncreasing() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 1000; i++) {
+            sketch.accept(i % 3);
+        }
+        double[] bounds = sketch.equalFrequencyBounds(5);
+        for (int i = 1; i < bounds.length; i++) {
+            assertTrue(bounds[i] > bounds[i - 1]);
+        }
+    }
+
+    private static void assertRankError(QuantileSketch sketch) {
+        for (double fraction = 0.05; fraction < 1; fraction += 0.05) {
+            double rank = (sketch.quantile(fraction) + 1) / COUNT;
+            assertEquals("Rang " + fraction, fraction, rank, RANK_ERROR);
+        }
+    }
+
+    private static QuantileSketch shuffled(int from, int to, Random random) {
+        int[] values = new int[to - from];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = from + i;
+        }
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+        QuantileSketch sketch = new QuantileSketch();
+        for (int value : values) {
+            sketch.accept(value);
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,62 @@
+package com.businesscare.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RangeSampleTest {
+    @Test
+    public void drawsDistinctSortedIdsWithinTheRange() {
+        RangeSample sample = RangeSample.draw(1, 1000, 100, 4, new Random(3));
+        long[] ids = sample.getIds();
+        assertEquals(100, sample.size());
+        assertEquals(1000, sample.getSlotCount());
+        assertEquals(4, sample.getStrataCount());
+        assertEquals(0.1, sample.getSamplingRate(), 1e-9);
+        int[] perStratum = new int[4];
+        for (int i = 0; i < ids.length; i++) {
+            assertTrue(ids[i] >= 1 && ids[i] <= 1000);
+            assertTrue(i == 0 || ids[i] > ids[i - 1]);
+            assertTrue(sample.contains(ids[i]));
+            perStratum[sample.stratumOf(ids[i])]++;
+        }
+        assertArrayEquals(new int[] { 25, 25, 25, 25 }, perStratum);
+    }
+
+    @Test
+    public void sizeCoveringTheRangeReturnsEveryId() {
+        RangeSample sample = RangeSample.draw(10, 19, 50, 3, new Random(5));
+        assertArrayEquals(new long[] { 10, 11, 12, 13, 14, 15, 16, 17, 18, 19 }, sample.getIds());
+        assertEquals(1.0, sample.getSamplingRate(), 0);
+    }
+
+    @Test
+    public void floydSamplingIsUniform() {
+        int width = 10;
+        int size = 3;
+        int draws = 30_000;
+        int[] hits = new int[width];
+        Random random = new Random(23);
+        for (int draw = 0; draw < draws; draw++) {
+            long[] ids = RangeSample.draw(0, width - 1, size, 1, random).getIds();
+            assertEquals(size, ids.length);
+            for (long id : ids) {
+                hits[(int) id]++;
+            }
+        }
+        double expected = (double) draws * size / width;
+        for (int hit : hits) {
+            assertEquals(expected, hit, expected * 0.05);
+        }
+    }
+
+    @Test
+    public void emptyRangeDrawsNothing() {
+        assertEquals(0, RangeSample.draw(5, 4, 10, 2, new Random(1)).size());
+        assertEquals(0, RangeSample.draw(1, 100, 0, 2, new Random(1)).size());
+    }
+}
@@ -0,0 +1,73 @@
+package com.businesscare.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+public class TopKTest {
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void rankingIsByScoreThenSmallerKey() {
+        TopK top = new TopK(3);
+        top.offer(9, 1);
+        top.offer(4, 5);
+        top.offer(2, 3);
+        top.offer(7, 5);
+        top.offer(1, 2);
+        assertArrayEquals(new long[] { 4, 7, 2 }, top.keys());
+        assertArrayEquals(new double[] { 5, 5, 3 }, top.scores(), TOLERANCE);
+    }
+
+    @Test
+    public void tiesAtTheCutoffKeepSmallerKeysRegardlessOfOrder() {
+        long[][] orders = { { 5, 3, 7, 1 }, { 1, 7, 3, 5 }, { 7, 5, 1, 3 } };
+        for (long[] order : orders) {
+            TopK top = new TopK(2, true);
+            for (long key : order) {
+                top.offer(key, 10);
+            }
+            assertArrayEquals(new long[] { 1, 3 }, top.keys());
+            assertEquals(2, top.getOthersCount());
+            assertEquals(20, top.getOthersScore(), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void mergeCarriesOthersAcrossPartitions() {
+        TopK left = new TopK(2, true);
+        TopK right = new TopK(2, true);
+        double total = 0;
+        for (long key = 1; key <= 10; key++) {
+            double score = key % 4;
+            total += score;
+            (key % 2 == 0 ? left : right).offer(key, score);
+        }
+        TopK merged = left.merge(right);
+        assertArrayEquals(new long[] { 3, 7 }, merged.keys());
+        assertEquals(8, merged.getOthersCount());
+        assertEquals(total - 6, merged.getOthersScore(), TOLERANCE);
+    }
+
+    @Test
+    public void othersAreNotTrackedByDefault() {
+        TopK top = new TopK(1);
+        top.offer(1, 1);
+        top.offer(2, 2);
+        assertArrayEquals(new long[] { 2 }, top.keys());
+        assertFalse(top.hasOthers());
+        assertEquals(0, top.getOthersScore(), TOLERANCE);
+    }
+
+    @Test
+    public void zeroCapacitySendsEverythingToOthers() {
+        TopK top = new TopK(0, true);
+        top.offer(1, 4);
+        top.offer(2, 6);
+        assertEquals(0, top.size());
+        assertEquals(2, top.getOthersCount());
+        assertEquals(10, top.getOthersScore(), TOLERANCE);
+    }
+}